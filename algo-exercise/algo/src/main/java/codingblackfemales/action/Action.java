@@ -6,4 +6,12 @@ public interface Action {
 
     void apply(final Sequencer sequencer);
 
+    /**
+     * Applies the action encoding through the given, reused, encoder. Actions that send commands override this so
+     * that sending allocates nothing.
+     */
+    default void apply(final Sequencer sequencer, final ActionEncoder encoder){
+        apply(sequencer);
+    }
+
 }
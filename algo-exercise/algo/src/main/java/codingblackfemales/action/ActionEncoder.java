@@ -0,0 +1,85 @@
+package codingblackfemales.action;
+
+import codingblackfemales.sequencer.eventlog.EventLog;
+import codingblackfemales.sequencer.eventlog.EventType;
+import messages.order.CancelOrderEncoder;
+import messages.order.CreateOrderEncoder;
+import messages.order.MessageHeaderEncoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes the commands that actions send to the sequencer, all into the one preallocated buffer.
+ *
+ * The sequencer copies a command before dispatching it, so the buffer is free again by the time anything downstream
+ * runs, and an action sent from inside that dispatch can reuse it.
+ */
+public class ActionEncoder {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final CreateOrderEncoder createOrderEncoder = new CreateOrderEncoder();
+    private final CancelOrderEncoder cancelOrderEncoder = new CancelOrderEncoder();
+
+    private final UnsafeBuffer buffer;
+
+    private long instrumentId = 0L;
+
+    private EventLog eventLog;
+
+    public ActionEncoder() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    public ActionEncoder(final int bufferSize) {
+        this.buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(bufferSize));
+    }
+
+    /**
+     * The instrument the orders created and cancelled from here on are for.
+     */
+    public void setInstrumentId(final long instrumentId){
+        this.instrumentId = instrumentId;
+    }
+
+    public long getInstrumentId(){
+        return instrumentId;
+    }
+
+    /**
+     * Logs each order created or cancelled.
+     */
+    public void setEventLog(final EventLog eventLog){
+        this.eventLog = eventLog;
+    }
+
+    public DirectBuffer createOrder(final Side side, final long quantity, final long price){
+        if(eventLog != null){
+            eventLog.log(EventType.ACTION_CREATE, instrumentId, 0, price, quantity, side.value());
+        }
+        createOrderEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        //every field is written, the buffer still holds the previous command
+        createOrderEncoder.instrumentId(instrumentId);
+        createOrderEncoder.price(price);
+        createOrderEncoder.quantity(quantity);
+        createOrderEncoder.side(side);
+        createOrderEncoder.orderId(0L);
+        createOrderEncoder.timestamp(CreateOrderEncoder.timestampNullValue());
+        return buffer;
+    }
+
+    public DirectBuffer cancelOrder(final long orderId){
+        if(eventLog != null){
+            eventLog.log(EventType.ACTION_CANCEL, orderId);
+        }
+        cancelOrderEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        cancelOrderEncoder.orderId(orderId);
+        cancelOrderEncoder.instrumentId(instrumentId);
+        cancelOrderEncoder.timestamp(CancelOrderEncoder.timestampNullValue());
+        return buffer;
+    }
+}
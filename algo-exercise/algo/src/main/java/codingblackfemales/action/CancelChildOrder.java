@@ -2,18 +2,28 @@ package codingblackfemales.action;
 
 import codingblackfemales.sequencer.Sequencer;
 import codingblackfemales.sotw.ChildOrder;
-import messages.order.CancelOrderEncoder;
-import messages.order.MessageHeaderEncoder;
-import org.agrona.concurrent.UnsafeBuffer;
-
-import java.nio.ByteBuffer;
 
+/**
+ * Cancels a child order. Like {@link CreateChildOrder} it can be kept and {@link #set(ChildOrder)} for each cancel.
+ */
 public class CancelChildOrder implements Action{
 
-    private final ChildOrder orderToCancel;
+    private ChildOrder orderToCancel;
+
+    public CancelChildOrder() {
+    }
 
     public CancelChildOrder(ChildOrder orderToCancel) {
+        set(orderToCancel);
+    }
+
+    public CancelChildOrder set(final ChildOrder orderToCancel) {
         this.orderToCancel = orderToCancel;
+        return this;
+    }
+
+    public ChildOrder getOrderToCancel() {
+        return orderToCancel;
     }
 
     @Override
@@ -23,18 +33,11 @@ public class CancelChildOrder implements Action{
 
     @Override
     public void apply(final Sequencer sequencer) {
+        apply(sequencer, new ActionEncoder());
+    }
 
-        final CancelOrderEncoder encoder = new CancelOrderEncoder();
-        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
-        final UnsafeBuffer directBuffer = new UnsafeBuffer(byteBuffer);
-        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
-
-        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
-        headerEncoder.schemaId(CancelOrderEncoder.SCHEMA_ID);
-        headerEncoder.version(CancelOrderEncoder.SCHEMA_VERSION);
-
-        encoder.orderId(orderToCancel.getOrderId());
-
-        sequencer.onCommand(directBuffer);
+    @Override
+    public void apply(final Sequencer sequencer, final ActionEncoder encoder) {
+        sequencer.onCommand(encoder.cancelOrder(orderToCancel.getOrderId()));
     }
 }
@@ -1,29 +1,43 @@
 package codingblackfemales.action;
 
 import codingblackfemales.sequencer.Sequencer;
-import messages.order.CreateOrderEncoder;
-import messages.order.MessageHeaderEncoder;
 import messages.order.Side;
-import org.agrona.concurrent.UnsafeBuffer;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.nio.ByteBuffer;
 
+/**
+ * Creates a child order. Algos can keep one of these and {@link #set(Side, long, long)} it each time they trade,
+ * rather than creating a new action per order.
+ */
 public class CreateChildOrder implements Action {
 
-    private static final Logger logger = LoggerFactory.getLogger(CreateChildOrder.class);
-    private final long quantity;
-    private final long price;
-
-    private final Side side;
+    private long quantity;
+    private long price;
 
+    private Side side;
 
+    public CreateChildOrder() {
+    }
 
     public CreateChildOrder(final Side side, final long quantity, final long price) {
+        set(side, quantity, price);
+    }
+
+    public CreateChildOrder set(final Side side, final long quantity, final long price) {
         this.quantity = quantity;
         this.price = price;
         this.side = side;
+        return this;
+    }
+
+    public Side getSide() {
+        return side;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public long getPrice() {
+        return price;
     }
 
     @Override
@@ -33,17 +47,11 @@ public class CreateChildOrder implements Action {
 
     @Override
     public void apply(Sequencer sequencer) {
-        final CreateOrderEncoder encoder = new CreateOrderEncoder();
-        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
-        final UnsafeBuffer directBuffer = new UnsafeBuffer(byteBuffer);
-        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
-
-        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
-        headerEncoder.schemaId(CreateOrderEncoder.SCHEMA_ID);
-        headerEncoder.version(CreateOrderEncoder.SCHEMA_VERSION);
-        encoder.price(price);
-        encoder.quantity(quantity);
-        encoder.side(side);
-        sequencer.onCommand(directBuffer);
+        apply(sequencer, new ActionEncoder());
+    }
+
+    @Override
+    public void apply(final Sequencer sequencer, final ActionEncoder encoder) {
+        sequencer.onCommand(encoder.createOrder(side, quantity, price));
     }
 }
@@ -15,6 +15,9 @@ public class AddCancelAlgoLogic implements AlgoLogic {
 
     private static final Logger logger = LoggerFactory.getLogger(AddCancelAlgoLogic.class);
 
+    private final CreateChildOrder createOrder = new CreateChildOrder();
+    private final CancelChildOrder cancelOrder = new CancelChildOrder();
+
     @Override
     public Action evaluate(SimpleAlgoState state) {
 
@@ -40,7 +43,7 @@ public class AddCancelAlgoLogic implements AlgoLogic {
             if (option.isPresent()) {
                 var childOrder = option.get();
                 logger.info("[ADDCANCELALGO] Cancelling order:" + childOrder);
-                return new CancelChildOrder(childOrder);
+                return cancelOrder.set(childOrder);
             }
             else{
                 return NoAction.NoAction;
@@ -50,7 +53,7 @@ public class AddCancelAlgoLogic implements AlgoLogic {
             final long price = level.price;
             final long quantity = level.quantity;
             logger.info("[ADDCANCELALGO] Adding order for" + quantity + "@" + price);
-            return new CreateChildOrder(Side.BUY, quantity, price);
+            return createOrder.set(Side.BUY, quantity, price);
         }
     }
 }
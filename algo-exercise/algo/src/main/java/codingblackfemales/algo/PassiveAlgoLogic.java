@@ -15,6 +15,8 @@ public class PassiveAlgoLogic implements AlgoLogic{
 
     private static final Logger logger = LoggerFactory.getLogger(PassiveAlgoLogic.class);
 
+    private final CreateChildOrder createOrder = new CreateChildOrder();
+
     @Override
     public Action evaluate(SimpleAlgoState state) {
 
@@ -33,7 +35,7 @@ public class PassiveAlgoLogic implements AlgoLogic{
         if(state.getChildOrders().size() < 3){
             //then keep creating a new one
             logger.info("[PASSIVEALGO] Have:" + state.getChildOrders().size() + " children, want 3, joining passive side of book with: " + quantity + " @ " + price);
-            return new CreateChildOrder(Side.BUY, quantity, price);
+            return createOrder.set(Side.BUY, quantity, price);
         }else{
             logger.info("[PASSIVEALGO] Have:" + state.getChildOrders().size() + " children, want 3, done.");
             return NoAction;
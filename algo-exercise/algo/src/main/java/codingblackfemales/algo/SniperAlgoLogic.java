@@ -15,6 +15,8 @@ public class SniperAlgoLogic implements AlgoLogic {
 
     private static final Logger logger = LoggerFactory.getLogger(SniperAlgoLogic.class);
 
+    private final CreateChildOrder createOrder = new CreateChildOrder();
+
     @Override
     public Action evaluate(SimpleAlgoState state) {
 
@@ -34,7 +36,7 @@ public class SniperAlgoLogic implements AlgoLogic {
         if (state.getChildOrders().size() < 5) {
             //then keep creating a new one
             logger.info("[SNIPERALGO] Have:" + state.getChildOrders().size() + " children, want 5, sniping far touch of book with: " + quantity + " @ " + price);
-            return new CreateChildOrder(Side.BUY, quantity, price);
+            return createOrder.set(Side.BUY, quantity, price);
         } else {
             logger.info("[SNIPERALGO] Have:" + state.getChildOrders().size() + " children, want 5, done.");
             return NoAction;
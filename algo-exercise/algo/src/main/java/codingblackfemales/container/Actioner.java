@@ -1,7 +1,11 @@
 package codingblackfemales.container;
 
 import codingblackfemales.action.Action;
+import codingblackfemales.action.ActionEncoder;
 import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sequencer.eventlog.EventLog;
+import codingblackfemales.sequencer.latency.LatencyHistogram;
+import codingblackfemales.sequencer.latency.PipelineLatency;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,13 +14,43 @@ public class Actioner {
     private static final Logger logger = LoggerFactory.getLogger(Actioner.class);
 
     private final Sequencer sequencer;
+    private final ActionEncoder encoder = new ActionEncoder();
+
+    private PipelineLatency latency;
+    private LatencyHistogram applyLatency;
 
     public Actioner(Sequencer sequencer) {
         this.sequencer = sequencer;
     }
 
+    /**
+     * An actioner whose orders are created for the given instrument.
+     */
+    public Actioner(Sequencer sequencer, long instrumentId) {
+        this.sequencer = sequencer;
+        this.encoder.setInstrumentId(instrumentId);
+    }
+
+    public void setLatency(final PipelineLatency latency){
+        this.latency = latency;
+        this.applyLatency = latency.histogram(PipelineLatency.APPLY);
+    }
+
+    public void setEventLog(final EventLog eventLog){
+        encoder.setEventLog(eventLog);
+    }
+
     public void processAction(final Action action){
-        logger.info("[ALGO] Actioner, sending action:" + action);
-        action.apply(sequencer);
+        if(logger.isInfoEnabled()){
+            logger.info("[ALGO] Actioner, sending action:" + action);
+        }
+        if(latency == null){
+            action.apply(sequencer, encoder);
+            return;
+        }
+        final long start = latency.nanoTime();
+        latency.onOutbound(start);
+        action.apply(sequencer, encoder);
+        applyLatency.recordValue(latency.nanoTime() - start);
     }
 }
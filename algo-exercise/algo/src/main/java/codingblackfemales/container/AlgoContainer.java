@@ -1,7 +1,11 @@
 package codingblackfemales.container;
 
+import codingblackfemales.action.Action;
 import codingblackfemales.action.NoAction;
 import codingblackfemales.algo.AlgoLogic;
+import codingblackfemales.sequencer.eventlog.EventLog;
+import codingblackfemales.sequencer.latency.LatencyHistogram;
+import codingblackfemales.sequencer.latency.PipelineLatency;
 import codingblackfemales.sequencer.net.Consumer;
 import codingblackfemales.service.MarketDataService;
 import codingblackfemales.service.OrderService;
@@ -18,6 +22,9 @@ public class AlgoContainer implements Consumer {
 
     private AlgoLogic logic;
 
+    private PipelineLatency latency;
+    private LatencyHistogram evaluateLatency;
+
     private final SimpleAlgoState state;
 
     public AlgoContainer(final MarketDataService marketDataService,
@@ -39,10 +46,34 @@ public class AlgoContainer implements Consumer {
         return orderService;
     }
 
+    /**
+     * A conflating front end for this container and its services, to add to the network in their place. It has to be
+     * drained to deliver anything, see {@link ConflatingQueue}.
+     */
+    public ConflatingQueue createConflatingQueue(){
+        return new ConflatingQueue(marketDataService, orderService, this);
+    }
+
     public void setLogic(AlgoLogic logic){
         this.logic = logic;
     }
 
+    /**
+     * Times the logic's evaluate, and the actions it returns.
+     */
+    public void setLatency(final PipelineLatency latency){
+        this.latency = latency;
+        this.evaluateLatency = latency.histogram(PipelineLatency.EVALUATE);
+        actioner.setLatency(latency);
+    }
+
+    /**
+     * Logs the orders the logic creates and cancels.
+     */
+    public void setEventLog(final EventLog eventLog){
+        actioner.setEventLog(eventLog);
+    }
+
     @Override
     public void onMessage(DirectBuffer buffer){
         if(runTrigger.shouldRun()){
@@ -53,8 +84,16 @@ public class AlgoContainer implements Consumer {
         }
     }
 
+    /**
+     * A batch is handed over whole, after the services have applied all of it, so the logic runs once per batch.
+     */
+    @Override
+    public boolean isBatchAware(){
+        return true;
+    }
+
     private void runAlgoLogic(){
-        final var action = logic.evaluate(state);
+        final var action = evaluate();
 
         runTrigger.hasRun();
 
@@ -63,6 +102,16 @@ public class AlgoContainer implements Consumer {
         }
     }
 
+    private Action evaluate(){
+        if(latency == null){
+            return logic.evaluate(state);
+        }
+        final long start = latency.nanoTime();
+        final Action action = logic.evaluate(state);
+        evaluateLatency.recordValue(latency.nanoTime() - start);
+        return action;
+    }
+
     public SimpleAlgoState getState() {
         return state;
     }
@@ -0,0 +1,198 @@
+package codingblackfemales.container;
+
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.util.MessageLength;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.Arrays;
+
+/**
+ * A front end for the algo that queues what the network sends it and hands it on to the consumers behind it (the
+ * market data service, the order service and the container) when drained, so during a burst the algo evaluates the
+ * latest book rather than every stale one in turn.
+ *
+ * A market data update that is still queued is dropped when a later one for the same instrument overwrites every side
+ * it touches: a full BookUpdate overwrites both sides, an AskBookUpdate or BidBookUpdate its own side. A BookDelta
+ * only builds on what came before, so it overwrites nothing, but a later full update still makes it redundant.
+ * Order and fill events are never dropped, and everything delivered keeps its place in sequence order.
+ *
+ * Draining is done on the sequencer's thread, e.g. when its input is idle, as the container sends orders straight
+ * back into the sequencer; whatever that sends back is queued and delivered by the same drain. Not thread safe.
+ */
+public class ConflatingQueue implements Consumer, Agent {
+
+    private static final int NOT_MARKET_DATA = 0;
+    private static final int BID = 1;
+    private static final int ASK = 2;
+    private static final int BOTH = BID | ASK;
+
+    private final Consumer[] consumers;
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookUpdateDecoder book = new BookUpdateDecoder();
+    private final AskBookUpdateDecoder ask = new AskBookUpdateDecoder();
+    private final BidBookUpdateDecoder bid = new BidBookUpdateDecoder();
+    private final BookDeltaDecoder delta = new BookDeltaDecoder();
+    private final MessageLength messageLength = new MessageLength();
+
+    //the queued messages are copied end to end into the one buffer, which is only reset once the queue is empty
+    private final ExpandableArrayBuffer queued = new ExpandableArrayBuffer(64 * 1024);
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+    private int queuedBytes = 0;
+
+    private int[] offsets = new int[64];
+    private int[] lengths = new int[64];
+    private long[] instruments = new long[64];
+    private int[] touches = new int[64];
+    private boolean[] conflated = new boolean[64];
+    private int size = 0;
+    private int next = 0;
+
+    private boolean draining = false;
+
+    private long enqueuedCount = 0;
+    private long deliveredCount = 0;
+    private long conflatedCount = 0;
+
+    public ConflatingQueue(final Consumer... consumers) {
+        this.consumers = consumers;
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        header.wrap(buffer, 0);
+
+        int touched = NOT_MARKET_DATA;
+        int overwritten = NOT_MARKET_DATA;
+        long instrumentId = 0;
+
+        if(header.schemaId() == BookUpdateDecoder.SCHEMA_ID){
+            final int offset = header.encodedLength();
+            if(header.templateId() == BookUpdateDecoder.TEMPLATE_ID){
+                book.wrap(buffer, offset, header.blockLength(), header.version());
+                instrumentId = book.instrumentId();
+                touched = overwritten = BOTH;
+            }else if(header.templateId() == AskBookUpdateDecoder.TEMPLATE_ID){
+                ask.wrap(buffer, offset, header.blockLength(), header.version());
+                instrumentId = ask.instrumentId();
+                touched = overwritten = ASK;
+            }else if(header.templateId() == BidBookUpdateDecoder.TEMPLATE_ID){
+                bid.wrap(buffer, offset, header.blockLength(), header.version());
+                instrumentId = bid.instrumentId();
+                touched = overwritten = BID;
+            }else if(header.templateId() == BookDeltaDecoder.TEMPLATE_ID){
+                delta.wrap(buffer, offset, header.blockLength(), header.version());
+                instrumentId = delta.instrumentId();
+                touched = BOTH;
+            }
+        }
+
+        if(overwritten != NOT_MARKET_DATA){
+            conflate(instrumentId, overwritten);
+        }
+
+        enqueue(buffer, instrumentId, touched);
+    }
+
+    private void conflate(final long instrumentId, final int overwritten){
+        //anything already handed on is left alone
+        for (int i = size - 1; i >= next; i--) {
+            if(!conflated[i] && touches[i] != NOT_MARKET_DATA && instruments[i] == instrumentId
+                    && (touches[i] & ~overwritten) == 0){
+                conflated[i] = true;
+                conflatedCount++;
+            }
+        }
+    }
+
+    private void enqueue(final DirectBuffer buffer, final long instrumentId, final int touched){
+        if(size == offsets.length){
+            final int length = size * 2;
+            offsets = Arrays.copyOf(offsets, length);
+            lengths = Arrays.copyOf(lengths, length);
+            instruments = Arrays.copyOf(instruments, length);
+            touches = Arrays.copyOf(touches, length);
+            conflated = Arrays.copyOf(conflated, length);
+        }
+        final int length = messageLength.of(buffer);
+        queued.putBytes(queuedBytes, buffer, 0, length);
+
+        offsets[size] = queuedBytes;
+        lengths[size] = length;
+        instruments[size] = instrumentId;
+        touches[size] = touched;
+        conflated[size] = false;
+        size++;
+        queuedBytes += length;
+        enqueuedCount++;
+    }
+
+    /**
+     * Hands everything queued on to the consumers, including anything queued while doing so.
+     *
+     * @return the number of messages delivered
+     */
+    public int drain(){
+        if(draining){
+            return 0;
+        }
+        draining = true;
+        int delivered = 0;
+        try {
+            while(next < size){
+                final int index = next++;
+                if(conflated[index]){
+                    continue;
+                }
+                //the buffer only grows by replacing its array, so a message being delivered is never moved from under us
+                message.wrap(queued, offsets[index], lengths[index]);
+                for (int i = 0; i < consumers.length; i++) {
+                    consumers[i].onMessage(message);
+                }
+                delivered++;
+            }
+        } finally {
+            draining = false;
+            if(next == size){
+                next = 0;
+                size = 0;
+                queuedBytes = 0;
+            }
+        }
+        deliveredCount += delivered;
+        return delivered;
+    }
+
+    @Override
+    public int doWork() {
+        return drain();
+    }
+
+    @Override
+    public String roleName() {
+        return "conflating-queue";
+    }
+
+    public int getPendingCount(){
+        return size - next;
+    }
+
+    public long getEnqueuedCount() {
+        return enqueuedCount;
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    /**
+     * @return how many market data updates were dropped for a later one
+     */
+    public long getConflatedCount() {
+        return conflatedCount;
+    }
+}
@@ -0,0 +1,91 @@
+package codingblackfemales.container;
+
+import codingblackfemales.algo.AlgoLogic;
+import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.service.MarketDataService;
+import codingblackfemales.service.OrderService;
+import codingblackfemales.sotw.SimpleAlgoState;
+import org.agrona.DirectBuffer;
+
+/**
+ * One instrument's share of a {@link ShardedAlgoContainer}: its own book, child orders and algo, wired up as a single
+ * instrument {@link AlgoContainer} is. Its orders are created for its instrument, so they are routed back to it.
+ *
+ * A shard is only ever called on the thread of the worker it is pinned to (or the dispatching thread when the
+ * container has no workers), so nothing in it is thread safe.
+ */
+public class InstrumentShard implements Consumer {
+
+    private final long instrumentId;
+    private final int index;
+    private final int worker;
+
+    private final MarketDataService marketDataService;
+    private final OrderService orderService;
+    private final AlgoContainer container;
+
+    private long messageCount = 0;
+
+    InstrumentShard(final long instrumentId, final int index, final int worker, final Sequencer sequencer,
+                    final AlgoLogic logic, final int depth) {
+        this.instrumentId = instrumentId;
+        this.index = index;
+        this.worker = worker;
+
+        final RunTrigger runTrigger = new RunTrigger();
+        this.marketDataService = new MarketDataService(runTrigger, depth);
+        this.orderService = new OrderService(runTrigger);
+        this.container = new AlgoContainer(marketDataService, orderService, runTrigger, new Actioner(sequencer, instrumentId));
+        this.container.setLogic(logic);
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        marketDataService.onMessage(buffer);
+        orderService.onMessage(buffer);
+        container.onMessage(buffer);
+        messageCount++;
+    }
+
+    public long getInstrumentId() {
+        return instrumentId;
+    }
+
+    /**
+     * @return the position of the shard in the order the container created them
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the worker the shard is pinned to, or -1 if it runs on the dispatching thread
+     */
+    public int getWorker() {
+        return worker;
+    }
+
+    public MarketDataService getMarketDataService() {
+        return marketDataService;
+    }
+
+    public OrderService getOrderService() {
+        return orderService;
+    }
+
+    public AlgoContainer getContainer() {
+        return container;
+    }
+
+    public SimpleAlgoState getState() {
+        return container.getState();
+    }
+
+    /**
+     * @return how many messages have been routed to the shard
+     */
+    public long getMessageCount() {
+        return messageCount;
+    }
+}
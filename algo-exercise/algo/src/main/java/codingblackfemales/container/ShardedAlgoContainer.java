@@ -0,0 +1,443 @@
+package codingblackfemales.container;
+
+import codingblackfemales.algo.AlgoLogic;
+import codingblackfemales.collection.extrusive.LongToObjHashMap;
+import codingblackfemales.collection.extrusive.LongToObjMap;
+import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.util.MessageLength;
+import codingblackfemales.service.MarketDataService;
+import messages.marketdata.*;
+import messages.order.*;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.*;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Hosts an algo per instrument, each in its own {@link InstrumentShard} with its own book and child orders, and hands
+ * each message only to the shard that owns it, by the instrument it is for. Order events encoded before version 1 of
+ * the order schema carry no instrument, so those are routed by the order they are for instead, which is remembered from
+ * its CreateOrder until its Fill, CancelOrder or CancelAcked. Nothing here acks a cancel, so the CancelOrder is taken as
+ * the order's last event. A shard is created the first time its instrument is seen, with the
+ * logic the factory gives for it; an instrument the factory returns null for is not traded here.
+ *
+ * With no workers the shards run on the dispatching thread, and send their orders straight into the sequencer.
+ *
+ * With workers each shard is pinned to one of them, either with {@link #pin} before its instrument is first seen or
+ * round robin, and its messages are copied onto that worker's ring and processed on the worker's thread, so the
+ * instruments are spread across cores while each still sees its messages in sequence order. Sequencers are single
+ * threaded, so the shards' commands are queued and only sent into the sequencer by {@link #doWork}, which has to be
+ * called on the sequencer's thread. The dispatching thread waits when a worker's ring is full, so the command ring
+ * must be big enough not to fill while it does.
+ */
+public class ShardedAlgoContainer implements Consumer, Agent, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedAlgoContainer.class);
+
+    public static final int DEFAULT_RING_CAPACITY = 1024 * 1024;
+
+    private static final int COMMAND_TYPE_ID = 1;
+    private static final int BATCH_TYPE_ID = 2;
+
+    private final Sequencer sequencer;
+    private final LongFunction<AlgoLogic> logicFactory;
+    private final int depth;
+
+    private final LongToObjMap<InstrumentShard> shardsByInstrument = new LongToObjHashMap<>();
+    private final LongToObjMap<InstrumentShard> shardsByOrderId = new LongToObjHashMap<>();
+
+    //only looked through when a shard is created, so a scan is enough
+    private long[] pinnedInstruments = new long[0];
+    private int[] pinnedWorkers = new int[0];
+    private int pinned = 0;
+
+    //read by the workers to find the shard a message was copied for, only appended to when an instrument is first seen
+    private final List<InstrumentShard> shards = new CopyOnWriteArrayList<>();
+
+    private final Worker[] workers;
+    private final List<AgentRunner> runners = new ArrayList<>();
+    private final Supplier<IdleStrategy> workerIdleStrategy;
+    private final IdleStrategy backPressureIdleStrategy;
+    private int nextWorker = 0;
+
+    private final CommandQueue commands;
+
+    private final MessageLength messageLength = new MessageLength();
+
+    private final messages.marketdata.MessageHeaderDecoder header = new messages.marketdata.MessageHeaderDecoder();
+    private final BookUpdateDecoder book = new BookUpdateDecoder();
+    private final AskBookUpdateDecoder ask = new AskBookUpdateDecoder();
+    private final BidBookUpdateDecoder bid = new BidBookUpdateDecoder();
+    private final BookDeltaDecoder delta = new BookDeltaDecoder();
+    private final CreateOrderDecoder create = new CreateOrderDecoder();
+    private final PendingOrderDecoder pending = new PendingOrderDecoder();
+    private final CancelOrderDecoder cancel = new CancelOrderDecoder();
+    private final AckedOrderDecoder acked = new AckedOrderDecoder();
+    private final CancelAckedOrderDecoder cancelAcked = new CancelAckedOrderDecoder();
+    private final PartialFillOrderDecoder partialFill = new PartialFillOrderDecoder();
+    private final FillOrderDecoder fill = new FillOrderDecoder();
+
+    private volatile boolean running = false;
+
+    /**
+     * Runs every shard on the dispatching thread.
+     */
+    public ShardedAlgoContainer(final Sequencer sequencer, final LongFunction<AlgoLogic> logicFactory) {
+        this(sequencer, logicFactory, 0);
+    }
+
+    public ShardedAlgoContainer(final Sequencer sequencer, final LongFunction<AlgoLogic> logicFactory, final int workers) {
+        this(sequencer, logicFactory, workers, MarketDataService.DEFAULT_DEPTH, DEFAULT_RING_CAPACITY,
+                BackoffIdleStrategy::new, new BackoffIdleStrategy());
+    }
+
+    /**
+     * @param workers how many worker threads the shards are spread across, 0 to run them on the dispatching thread
+     * @param depth the depth of each shard's book
+     * @param ringCapacity size of each worker's ring and of the command ring in bytes, must be a power of two
+     * @param workerIdleStrategy creates the idle strategy each worker uses when its ring is empty
+     * @param backPressureIdleStrategy what a thread does while waiting for space in a full ring
+     */
+    public ShardedAlgoContainer(final Sequencer sequencer, final LongFunction<AlgoLogic> logicFactory,
+                                final int workers, final int depth, final int ringCapacity,
+                                final Supplier<IdleStrategy> workerIdleStrategy,
+                                final IdleStrategy backPressureIdleStrategy) {
+        if(workers < 0){
+            throw new IllegalArgumentException("Number of workers cannot be negative but was " + workers);
+        }
+        this.sequencer = sequencer;
+        this.logicFactory = logicFactory;
+        this.depth = depth;
+        this.workerIdleStrategy = workerIdleStrategy;
+        this.backPressureIdleStrategy = backPressureIdleStrategy;
+
+        this.workers = new Worker[workers];
+        for (int i = 0; i < workers; i++) {
+            this.workers[i] = new Worker(i, new OneToOneRingBuffer(newRing(ringCapacity)));
+        }
+        this.commands = workers == 0 ? null : new CommandQueue(new ManyToOneRingBuffer(newRing(ringCapacity)));
+    }
+
+    private static UnsafeBuffer newRing(final int ringCapacity){
+        return new UnsafeBuffer(ByteBuffer.allocateDirect(ringCapacity + RingBufferDescriptor.TRAILER_LENGTH));
+    }
+
+    /**
+     * Pins the instrument's shard to a worker, before the instrument is first seen.
+     */
+    public void pin(final long instrumentId, final int worker){
+        if(worker < 0 || worker >= workers.length){
+            throw new IllegalArgumentException("No worker " + worker + ", there are " + workers.length);
+        }
+        if(shardsByInstrument.containsKey(instrumentId)){
+            throw new IllegalStateException("Shard for instrument " + instrumentId + " already created on worker "
+                    + shardsByInstrument.get(instrumentId).getWorker());
+        }
+        for (int i = 0; i < pinned; i++) {
+            if(pinnedInstruments[i] == instrumentId){
+                pinnedWorkers[i] = worker;
+                return;
+            }
+        }
+        if(pinned == pinnedInstruments.length){
+            pinnedInstruments = Arrays.copyOf(pinnedInstruments, Math.max(4, pinned * 2));
+            pinnedWorkers = Arrays.copyOf(pinnedWorkers, pinnedInstruments.length);
+        }
+        pinnedInstruments[pinned] = instrumentId;
+        pinnedWorkers[pinned] = worker;
+        pinned++;
+    }
+
+    public void start(){
+        if(running){
+            return;
+        }
+        running = true;
+        for (Worker worker : workers) {
+            final AgentRunner runner = new AgentRunner(workerIdleStrategy.get(), worker, null, worker);
+            runners.add(runner);
+            AgentRunner.startOnThread(runner);
+        }
+    }
+
+    @Override
+    public void close(){
+        running = false;
+        CloseHelper.closeAll(runners);
+        runners.clear();
+    }
+
+    public InstrumentShard getShard(final long instrumentId){
+        return shardsByInstrument.get(instrumentId);
+    }
+
+    /**
+     * @return the shards in the order they were created
+     */
+    public List<InstrumentShard> getShards(){
+        return Collections.unmodifiableList(shards);
+    }
+
+    public int getWorkerCount(){
+        return workers.length;
+    }
+
+    /**
+     * @return how many orders are remembered for routing their events, i.e. sent and not yet filled or cancelled
+     */
+    int getOpenOrderCount(){
+        return shardsByOrderId.size();
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        final InstrumentShard shard = route(buffer);
+        if(shard == null){
+            return;
+        }
+        if(workers.length == 0){
+            shard.onMessage(buffer);
+        }else{
+            offer(workers[shard.getWorker()], shard, buffer);
+        }
+    }
+
+    private InstrumentShard route(final DirectBuffer buffer){
+        header.wrap(buffer, 0);
+        final int templateId = header.templateId();
+        final int offset = header.encodedLength();
+
+        if(header.schemaId() == BookUpdateDecoder.SCHEMA_ID){
+            if(templateId == BookUpdateDecoder.TEMPLATE_ID){
+                return shardFor(book.wrap(buffer, offset, header.blockLength(), header.version()).instrumentId());
+            }else if(templateId == AskBookUpdateDecoder.TEMPLATE_ID){
+                return shardFor(ask.wrap(buffer, offset, header.blockLength(), header.version()).instrumentId());
+            }else if(templateId == BidBookUpdateDecoder.TEMPLATE_ID){
+                return shardFor(bid.wrap(buffer, offset, header.blockLength(), header.version()).instrumentId());
+            }else if(templateId == BookDeltaDecoder.TEMPLATE_ID){
+                return shardFor(delta.wrap(buffer, offset, header.blockLength(), header.version()).instrumentId());
+            }
+        }else if(header.schemaId() == CreateOrderDecoder.SCHEMA_ID){
+            if(templateId == CreateOrderDecoder.TEMPLATE_ID){
+                create.wrap(buffer, offset, header.blockLength(), header.version());
+                final InstrumentShard shard = shardFor(create.instrumentId());
+                if(shard != null){
+                    shardsByOrderId.put(create.orderId(), shard);
+                }
+                return shard;
+            }else if(templateId == PendingOrderDecoder.TEMPLATE_ID){
+                return shardsByInstrument.get(pending.wrap(buffer, offset, header.blockLength(), header.version()).instrumentId());
+            }else if(templateId == CancelOrderDecoder.TEMPLATE_ID){
+                cancel.wrap(buffer, offset, header.blockLength(), header.version());
+                return shardForLastOrderEvent(cancel.instrumentId(), cancel.orderId());
+            }else if(templateId == AckedOrderDecoder.TEMPLATE_ID){
+                acked.wrap(buffer, offset, header.blockLength(), header.version());
+                return shardForOrder(acked.instrumentId(), acked.orderId());
+            }else if(templateId == CancelAckedOrderDecoder.TEMPLATE_ID){
+                cancelAcked.wrap(buffer, offset, header.blockLength(), header.version());
+                return shardForLastOrderEvent(cancelAcked.instrumentId(), cancelAcked.orderId());
+            }else if(templateId == PartialFillOrderDecoder.TEMPLATE_ID){
+                partialFill.wrap(buffer, offset, header.blockLength(), header.version());
+                return shardForOrder(partialFill.instrumentId(), partialFill.orderId());
+            }else if(templateId == FillOrderDecoder.TEMPLATE_ID){
+                fill.wrap(buffer, offset, header.blockLength(), header.version());
+                return shardForLastOrderEvent(fill.instrumentId(), fill.orderId());
+            }
+        }
+        return null;
+    }
+
+    private InstrumentShard shardForOrder(final long instrumentId, final long orderId){
+        if(instrumentId != CancelOrderDecoder.instrumentIdNullValue()){
+            return shardsByInstrument.get(instrumentId);
+        }
+        return shardsByOrderId.get(orderId);
+    }
+
+    /**
+     * The order gets no more events after this one, so it is forgotten.
+     */
+    private InstrumentShard shardForLastOrderEvent(final long instrumentId, final long orderId){
+        final InstrumentShard shard = shardsByOrderId.remove(orderId);
+        if(instrumentId != CancelOrderDecoder.instrumentIdNullValue()){
+            return shardsByInstrument.get(instrumentId);
+        }
+        return shard;
+    }
+
+    private InstrumentShard shardFor(final long instrumentId){
+        final InstrumentShard shard = shardsByInstrument.get(instrumentId);
+        if(shard != null){
+            return shard;
+        }
+        final AlgoLogic logic = logicFactory.apply(instrumentId);
+        if(logic == null){
+            return null;
+        }
+
+        final int worker = workers.length == 0 ? -1 : workerFor(instrumentId);
+        final Sequencer shardSequencer = commands == null ? sequencer : new ShardSequencer();
+        final InstrumentShard created = new InstrumentShard(instrumentId, shards.size(), worker, shardSequencer, logic, depth);
+        shards.add(created);
+        shardsByInstrument.put(instrumentId, created);
+
+        if(logger.isInfoEnabled()){
+            logger.info("[ALGO] Created shard for instrument " + instrumentId + (worker < 0 ? "" : " on worker " + worker));
+        }
+        return created;
+    }
+
+    private int workerFor(final long instrumentId){
+        for (int i = 0; i < pinned; i++) {
+            if(pinnedInstruments[i] == instrumentId){
+                return pinnedWorkers[i];
+            }
+        }
+        return nextWorker++ % workers.length;
+    }
+
+    private void offer(final Worker worker, final InstrumentShard shard, final DirectBuffer buffer){
+        final int length = messageLength.of(buffer);
+        //the message type carries the shard, as ring message types must be positive
+        final int msgTypeId = shard.getIndex() + 1;
+        if(worker.ring.write(msgTypeId, buffer, 0, length)){
+            return;
+        }
+
+        backPressureIdleStrategy.reset();
+        while(!worker.ring.write(msgTypeId, buffer, 0, length)){
+            if(!running){
+                throw new IllegalStateException("Ring full for worker " + worker.roleName() + " and the container is not running");
+            }
+            backPressureIdleStrategy.idle();
+        }
+    }
+
+    /**
+     * Sends the commands the shards have queued into the sequencer. Only to be called on the sequencer's thread.
+     *
+     * @return the number of commands sent
+     */
+    @Override
+    public int doWork() {
+        return commands == null ? 0 : commands.ring.read(commands);
+    }
+
+    @Override
+    public String roleName() {
+        return "sharded-algo-container";
+    }
+
+    /**
+     * The sequencer a shard sees when it runs on a worker: its commands wait on the ring all the workers share until
+     * the sequencer's thread takes them. Each shard has its own, so only the ring is shared between threads.
+     */
+    private final class ShardSequencer implements Sequencer {
+
+        private final MessageLength messageLength = new MessageLength();
+        private final IdleStrategy idleStrategy = new BackoffIdleStrategy();
+
+        @Override
+        public void onCommand(final DirectBuffer buffer) {
+            write(COMMAND_TYPE_ID, buffer);
+        }
+
+        /**
+         * The batch goes onto the ring whole, so it is still sequenced in one go.
+         */
+        @Override
+        public void onBatch(final DirectBuffer buffer) {
+            write(BATCH_TYPE_ID, buffer);
+        }
+
+        private void write(final int msgTypeId, final DirectBuffer buffer) {
+            final int length = messageLength.of(buffer);
+            if(commands.ring.write(msgTypeId, buffer, 0, length)){
+                return;
+            }
+            idleStrategy.reset();
+            while(!commands.ring.write(msgTypeId, buffer, 0, length)){
+                if(!running){
+                    throw new IllegalStateException("Command ring full and the container is not running");
+                }
+                idleStrategy.idle();
+            }
+        }
+    }
+
+    /**
+     * The commands queued by the shards, sent into the sequencer as they are read on the sequencer's thread.
+     */
+    private final class CommandQueue implements MessageHandler {
+
+        private final RingBuffer ring;
+        private final UnsafeBuffer command = new UnsafeBuffer(0, 0);
+
+        private CommandQueue(final RingBuffer ring) {
+            this.ring = ring;
+        }
+
+        @Override
+        public void onMessage(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length) {
+            command.wrap(buffer, index, length);
+            if(msgTypeId == BATCH_TYPE_ID){
+                sequencer.onBatch(command);
+            }else{
+                sequencer.onCommand(command);
+            }
+        }
+    }
+
+    /**
+     * One worker thread: the ring of messages for the shards pinned to it, and the agent that drains it.
+     */
+    private final class Worker implements Agent, MessageHandler, ErrorHandler {
+
+        private final int id;
+        private final RingBuffer ring;
+        private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+
+        private Worker(final int id, final RingBuffer ring) {
+            this.id = id;
+            this.ring = ring;
+        }
+
+        @Override
+        public int doWork() {
+            return ring.read(this);
+        }
+
+        @Override
+        public void onMessage(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length) {
+            message.wrap(buffer, index, length);
+            shards.get(msgTypeId - 1).onMessage(message);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            logger.error("[ALGO] Worker " + id + " failed to process message", throwable);
+        }
+
+        @Override
+        public String roleName() {
+            return "algo-shard-worker-" + id;
+        }
+    }
+}
@@ -1,78 +1,101 @@
 package codingblackfemales.marketdata.api;
 
 import messages.marketdata.*;
+import org.agrona.MutableDirectBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 
 import java.nio.ByteBuffer;
 
 import static java.lang.String.format;
 
+/**
+ * Encodes the market data API objects as the SBE messages the sequencer takes.
+ */
 public class MarketDataEncoder {
     private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
     private final BookUpdateEncoder bookUpdateEncoder = new BookUpdateEncoder();
     private final AskBookUpdateEncoder askBookUpdateEncoder = new AskBookUpdateEncoder();
     private final BidBookUpdateEncoder bidBookUpdateEncoder = new BidBookUpdateEncoder();
 
+    /**
+     * Encodes the message into a new buffer.
+     */
     public UnsafeBuffer encode(final MarketDataMessage message) {
+        final UnsafeBuffer directBuffer = buffer();
+        encode(message, directBuffer, 0);
+        return directBuffer;
+    }
+
+    /**
+     * Encodes the message into the buffer at the offset.
+     *
+     * @return the length of the encoded message, including its header
+     */
+    public int encode(final MarketDataMessage message, final MutableDirectBuffer buffer, final int offset) {
         switch (message.updateType()) {
             case BookUpdate:
-                return doEncode((BookUpdate) message);
+                return doEncode((BookUpdate) message, buffer, offset);
             case AskUpdate:
-                return doEncode((AskBookUpdate) message);
+                return doEncode((AskBookUpdate) message, buffer, offset);
             case BidUpdate:
-                return doEncode((BidBookUpdate) message);
+                return doEncode((BidBookUpdate) message, buffer, offset);
             default:
                 throw new RuntimeException(format("Unsupported updateType=[%s] message=[%s]", message.updateType(), message));
         }
     }
 
-    private UnsafeBuffer doEncode(final AskBookUpdate update) {
-        final UnsafeBuffer directBuffer = buffer();
-        askBookUpdateEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+    private int doEncode(final AskBookUpdate update, final MutableDirectBuffer buffer, final int offset) {
+        askBookUpdateEncoder.wrapAndApplyHeader(buffer, offset, headerEncoder);
+        //the sequencer stamps the sequence number and timestamp, but the buffer may not be clean
+        headerEncoder.sequencerNumber(0);
         askBookUpdateEncoder.venue(update.venue());
         askBookUpdateEncoder.instrumentId(update.instrumentId());
+        askBookUpdateEncoder.timestamp(AskBookUpdateEncoder.timestampNullValue());
         AskBookUpdateEncoder.AskBookEncoder askBookEncoder = askBookUpdateEncoder.askBookCount(update.askBook().size());
         for (int i = 0; i < update.askBook().size(); i++) {
             BookEntry bookEntry = update.askBook().get(i);
             askBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
         }
-        return directBuffer;
+        return headerEncoder.encodedLength() + askBookUpdateEncoder.encodedLength();
     }
 
-    private UnsafeBuffer doEncode(final BidBookUpdate update) {
-        final UnsafeBuffer directBuffer = buffer();
-        bidBookUpdateEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+    private int doEncode(final BidBookUpdate update, final MutableDirectBuffer buffer, final int offset) {
+        bidBookUpdateEncoder.wrapAndApplyHeader(buffer, offset, headerEncoder);
+        headerEncoder.sequencerNumber(0);
         bidBookUpdateEncoder.venue(update.venue());
         bidBookUpdateEncoder.instrumentId(update.instrumentId());
+        bidBookUpdateEncoder.timestamp(BidBookUpdateEncoder.timestampNullValue());
         BidBookUpdateEncoder.BidBookEncoder bidBookEncoder = bidBookUpdateEncoder.bidBookCount(update.bidBook().size());
         for (int i = 0; i < update.bidBook().size(); i++) {
             BookEntry bookEntry = update.bidBook().get(i);
             bidBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
         }
-        return directBuffer;
+        return headerEncoder.encodedLength() + bidBookUpdateEncoder.encodedLength();
     }
 
-    private UnsafeBuffer doEncode(final BookUpdate update) {
-        final UnsafeBuffer directBuffer = buffer();
-        bookUpdateEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+    private int doEncode(final BookUpdate update, final MutableDirectBuffer buffer, final int offset) {
+        bookUpdateEncoder.wrapAndApplyHeader(buffer, offset, headerEncoder);
+        headerEncoder.sequencerNumber(0);
         bookUpdateEncoder.venue(update.venue());
         bookUpdateEncoder.instrumentId(update.instrumentId());
+        bookUpdateEncoder.timestamp(BookUpdateEncoder.timestampNullValue());
 
-        BookUpdateEncoder.AskBookEncoder askBookEncoder = bookUpdateEncoder.askBookCount(update.askBook().size());
-        for (int i = 0; i < update.askBook().size(); i++) {
-            BookEntry bookEntry = update.askBook().get(i);
-            askBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
-        }
-
+        //groups are written in schema order, bids first, as decoders read them in that order
         BookUpdateEncoder.BidBookEncoder bidBookEncoder = bookUpdateEncoder.bidBookCount(update.bidBook().size());
         for (int i = 0; i < update.bidBook().size(); i++) {
             BookEntry bookEntry = update.bidBook().get(i);
             bidBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
         }
 
+        BookUpdateEncoder.AskBookEncoder askBookEncoder = bookUpdateEncoder.askBookCount(update.askBook().size());
+        for (int i = 0; i < update.askBook().size(); i++) {
+            BookEntry bookEntry = update.askBook().get(i);
+            askBookEncoder.next().price(bookEntry.price()).size(bookEntry.size());
+        }
+
         bookUpdateEncoder.instrumentStatus(update.instrumentStatus());
         bookUpdateEncoder.source(Source.STREAM);
-        return directBuffer;
+        return headerEncoder.encodedLength() + bookUpdateEncoder.encodedLength();
     }
 
     private UnsafeBuffer buffer() {
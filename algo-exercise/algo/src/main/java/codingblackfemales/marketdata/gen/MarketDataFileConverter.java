@@ -0,0 +1,41 @@
+package codingblackfemales.marketdata.gen;
+
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.impl.BinaryFileMarketDataWriter;
+import codingblackfemales.marketdata.impl.SimpleFileMarketDataProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts a JSON line file written by {@link SimpleFileMarketDataGenerator} to the binary format read by
+ * {@link codingblackfemales.marketdata.impl.BinaryFileMarketDataProvider}.
+ *
+ * Usage: MarketDataFileConverter &lt;json file&gt; &lt;binary file&gt;
+ */
+public class MarketDataFileConverter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataFileConverter.class);
+
+    /**
+     * @return the number of messages converted
+     */
+    public static long convert(final String jsonFileName, final String binaryFileName) {
+        try (SimpleFileMarketDataProvider provider = new SimpleFileMarketDataProvider(jsonFileName);
+             BinaryFileMarketDataWriter writer = new BinaryFileMarketDataWriter(binaryFileName)) {
+            MarketDataMessage message;
+            while((message = provider.poll()) != null){
+                writer.write(message);
+            }
+            return writer.getMessageCount();
+        }
+    }
+
+    public static void main(final String[] args) {
+        if(args.length != 2){
+            System.err.println("Usage: MarketDataFileConverter <json file> <binary file>");
+            System.exit(1);
+        }
+        final long count = convert(args[0], args[1]);
+        logger.info("Converted {} messages from {} to {}", count, args[0], args[1]);
+    }
+}
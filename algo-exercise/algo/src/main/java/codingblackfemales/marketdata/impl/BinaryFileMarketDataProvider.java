@@ -0,0 +1,131 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.BookEntry;
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.api.MarketDataProvider;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static codingblackfemales.marketdata.impl.BinaryFileMarketDataWriter.*;
+
+/**
+ * Replays a file written by {@link BinaryFileMarketDataWriter}, memory mapped, so reading it is a walk through the
+ * page cache rather than buffered reads and copies.
+ *
+ * {@link #pollBuffer()} hands out each message as it is in the file, ready for the sequencer, without decoding or
+ * copying it. {@link #poll()} decodes it into the market data API objects, as {@link SimpleFileMarketDataProvider}
+ * returns them. Files are mapped whole, so they are limited to 2GB.
+ */
+public class BinaryFileMarketDataProvider implements MarketDataProvider, AutoCloseable {
+
+    private final String marketDataFileName;
+    private final MappedByteBuffer mappedBuffer;
+    private final UnsafeBuffer file;
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+    private int position = FILE_HEADER_LENGTH;
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookUpdateDecoder bookUpdateDecoder = new BookUpdateDecoder();
+    private final AskBookUpdateDecoder askBookUpdateDecoder = new AskBookUpdateDecoder();
+    private final BidBookUpdateDecoder bidBookUpdateDecoder = new BidBookUpdateDecoder();
+
+    public BinaryFileMarketDataProvider(final String marketDataFileName) {
+        this.marketDataFileName = marketDataFileName;
+        final File marketDataFile = new File(marketDataFileName);
+        if(!marketDataFile.canRead()){
+            throw new IllegalArgumentException(String.format("Unable to read marketDataFileName=[%s] marketDataFile.path=[%s]", marketDataFileName, marketDataFile.getAbsolutePath()));
+        }
+        if(marketDataFile.length() > Integer.MAX_VALUE){
+            throw new IllegalArgumentException(String.format("Market data file is too big to map marketDataFileName=[%s] length=[%s]", marketDataFileName, marketDataFile.length()));
+        }
+        mappedBuffer = IoUtil.mapExistingFile(marketDataFile, FileChannel.MapMode.READ_ONLY, marketDataFileName);
+        file = new UnsafeBuffer(mappedBuffer);
+
+        if(file.capacity() < FILE_HEADER_LENGTH || file.getInt(0, ByteOrder.LITTLE_ENDIAN) != MAGIC){
+            close();
+            throw new IllegalStateException(String.format("Not a binary market data file marketDataFileName=[%s]", marketDataFileName));
+        }
+        final int version = file.getInt(4, ByteOrder.LITTLE_ENDIAN);
+        if(version != VERSION){
+            close();
+            throw new IllegalStateException(String.format("Unsupported binary market data file version=[%s] marketDataFileName=[%s]", version, marketDataFileName));
+        }
+    }
+
+    /**
+     * @return the next message, which is only valid until the next poll, or null at the end of the file
+     */
+    public DirectBuffer pollBuffer() {
+        if(position + LENGTH_PREFIX > file.capacity()){
+            return null;
+        }
+        final int length = file.getInt(position, ByteOrder.LITTLE_ENDIAN);
+        if(length <= 0 || position + LENGTH_PREFIX + length > file.capacity()){
+            throw new IllegalStateException(String.format("Corrupt market data file at position=[%s] length=[%s] marketDataFileName=[%s]", position, length, marketDataFileName));
+        }
+        message.wrap(file, position + LENGTH_PREFIX, length);
+        position += LENGTH_PREFIX + length;
+        return message;
+    }
+
+    @Override
+    public MarketDataMessage poll() {
+        final DirectBuffer buffer = pollBuffer();
+        if(buffer == null){
+            return null;
+        }
+
+        header.wrap(buffer, 0);
+        final int offset = header.encodedLength();
+
+        if(header.templateId() == BookUpdateDecoder.TEMPLATE_ID){
+            bookUpdateDecoder.wrap(buffer, offset, header.blockLength(), header.version());
+            final List<BookEntry> bids = new ArrayList<>();
+            for(BookUpdateDecoder.BidBookDecoder decoder : bookUpdateDecoder.bidBook()){
+                bids.add(new BookEntry().setPrice(decoder.price()).setSize(decoder.size()));
+            }
+            final List<BookEntry> asks = new ArrayList<>();
+            for(BookUpdateDecoder.AskBookDecoder decoder : bookUpdateDecoder.askBook()){
+                asks.add(new BookEntry().setPrice(decoder.price()).setSize(decoder.size()));
+            }
+            return new BookUpdateImpl(bookUpdateDecoder.instrumentId(), bookUpdateDecoder.venue(),
+                    bookUpdateDecoder.instrumentStatus(), bids, asks);
+        }else if(header.templateId() == AskBookUpdateDecoder.TEMPLATE_ID){
+            askBookUpdateDecoder.wrap(buffer, offset, header.blockLength(), header.version());
+            final List<BookEntry> asks = new ArrayList<>();
+            for(AskBookUpdateDecoder.AskBookDecoder decoder : askBookUpdateDecoder.askBook()){
+                asks.add(new BookEntry().setPrice(decoder.price()).setSize(decoder.size()));
+            }
+            return new AskBookUpdateImpl(askBookUpdateDecoder.instrumentId(), askBookUpdateDecoder.venue(), asks);
+        }else if(header.templateId() == BidBookUpdateDecoder.TEMPLATE_ID){
+            bidBookUpdateDecoder.wrap(buffer, offset, header.blockLength(), header.version());
+            final List<BookEntry> bids = new ArrayList<>();
+            for(BidBookUpdateDecoder.BidBookDecoder decoder : bidBookUpdateDecoder.bidBook()){
+                bids.add(new BookEntry().setPrice(decoder.price()).setSize(decoder.size()));
+            }
+            return new BidBookUpdateImpl(bidBookUpdateDecoder.instrumentId(), bidBookUpdateDecoder.venue(), bids);
+        }
+        throw new IllegalStateException(String.format("Unsupported templateId=[%s] in marketDataFileName=[%s]", header.templateId(), marketDataFileName));
+    }
+
+    /**
+     * Goes back to the first message, to replay the file again.
+     */
+    public void rewind() {
+        position = FILE_HEADER_LENGTH;
+    }
+
+    @Override
+    public void close() {
+        IoUtil.unmap(mappedBuffer);
+    }
+}
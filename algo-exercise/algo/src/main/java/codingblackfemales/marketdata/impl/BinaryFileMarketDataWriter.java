@@ -0,0 +1,123 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.MarketDataEncoder;
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes market data as a binary file that {@link BinaryFileMarketDataProvider} replays.
+ *
+ * The file is a header (a magic number and the format version) followed by each message as the SBE the sequencer
+ * takes, prefixed with its length, all little endian. Nothing has to be parsed or decoded to replay a tick, and the
+ * file is around two thirds the size of the JSON lines.
+ */
+public class BinaryFileMarketDataWriter implements AutoCloseable {
+
+    public static final int MAGIC = 0x444D4243; // "CBMD"
+    public static final int VERSION = 1;
+    public static final int FILE_HEADER_LENGTH = 8;
+    public static final int LENGTH_PREFIX = 4;
+
+    /**
+     * The longest message that can be written.
+     */
+    public static final int MAX_MESSAGE_LENGTH = 1024;
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final String marketDataFileName;
+    private final FileChannel channel;
+
+    //messages are staged here and written out when it fills up
+    private final ByteBuffer byteBuffer;
+    private final UnsafeBuffer buffer;
+    private int position = 0;
+
+    private final MarketDataEncoder encoder = new MarketDataEncoder();
+
+    private long messageCount = 0;
+
+    public BinaryFileMarketDataWriter(final String marketDataFileName) {
+        this(marketDataFileName, DEFAULT_BUFFER_SIZE);
+    }
+
+    public BinaryFileMarketDataWriter(final String marketDataFileName, final int bufferSize) {
+        if(bufferSize < LENGTH_PREFIX + MAX_MESSAGE_LENGTH){
+            throw new IllegalArgumentException("Buffer size must be at least " + (LENGTH_PREFIX + MAX_MESSAGE_LENGTH) + " but was " + bufferSize);
+        }
+        this.marketDataFileName = marketDataFileName;
+        this.byteBuffer = ByteBuffer.allocateDirect(bufferSize);
+        this.buffer = new UnsafeBuffer(byteBuffer);
+        try {
+            channel = FileChannel.open(Paths.get(marketDataFileName),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to create market data file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+        buffer.putInt(position, MAGIC, ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(position + 4, VERSION, ByteOrder.LITTLE_ENDIAN);
+        position += FILE_HEADER_LENGTH;
+    }
+
+    public void write(final MarketDataMessage message) {
+        ensureCapacity(MAX_MESSAGE_LENGTH);
+        final int length = encoder.encode(message, buffer, position + LENGTH_PREFIX);
+        buffer.putInt(position, length, ByteOrder.LITTLE_ENDIAN);
+        position += LENGTH_PREFIX + length;
+        messageCount++;
+    }
+
+    /**
+     * Writes a message that is already encoded, e.g. one taken from the network.
+     */
+    public void write(final DirectBuffer message, final int offset, final int length) {
+        if(length > MAX_MESSAGE_LENGTH){
+            throw new IllegalArgumentException("Message length " + length + " is over the maximum of " + MAX_MESSAGE_LENGTH);
+        }
+        ensureCapacity(length);
+        buffer.putInt(position, length, ByteOrder.LITTLE_ENDIAN);
+        buffer.putBytes(position + LENGTH_PREFIX, message, offset, length);
+        position += LENGTH_PREFIX + length;
+        messageCount++;
+    }
+
+    private void ensureCapacity(final int length){
+        if(position + LENGTH_PREFIX + length > buffer.capacity()){
+            flush();
+        }
+    }
+
+    public void flush() {
+        byteBuffer.clear().limit(position);
+        try {
+            while(byteBuffer.hasRemaining()){
+                channel.write(byteBuffer);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to write market data file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+        position = 0;
+    }
+
+    public long getMessageCount() {
+        return messageCount;
+    }
+
+    @Override
+    public void close() {
+        flush();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to close market data file marketDataFileName=[%s]", marketDataFileName), e);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package codingblackfemales.service;
+
+import codingblackfemales.sotw.marketdata.AbstractLevel;
+import messages.marketdata.BookUpdateDecoder;
+
+/**
+ * Book analytics kept up to date by {@link MarketDataService} as it applies each update, so a logic reads them in
+ * O(1) rather than walking the levels on every evaluate:
+ *
+ * - the depth weighted price of each side, and the VWAP of both sides together, over the best n levels
+ * - the micro-price, and the order book imbalance over the best n levels
+ * - a rolling VWAP of the best {@link #getRollingLevels()} levels, and a time weighted mid, over the last window of
+ *   updates
+ *
+ * Each side is held as parallel primitive arrays of prices, quantities and running totals rather than as level
+ * objects, refreshed from the first level an update changed, with plain indexed loops the JIT can unroll. Totals are
+ * exact longs, so the rolling sums do not drift however long they run. A value is {@link #NO_VALUE} while the book
+ * has nothing to compute it from.
+ */
+public class BookAnalytics {
+
+    public static final double NO_VALUE = Double.NaN;
+
+    public static final int DEFAULT_ROLLING_LEVELS = 3;
+    public static final int DEFAULT_WINDOW = 64;
+
+    private static final long NO_TIMESTAMP = BookUpdateDecoder.timestampNullValue();
+
+    private final Side bids;
+    private final Side asks;
+
+    private final int rollingLevels;
+    private final int window;
+
+    //one slot per update in the window: the notional and quantity of the best levels after it, and the mid before it
+    //(as bid plus ask, so it stays exact) with how long that mid was in force
+    private final long[] windowNotional;
+    private final long[] windowQuantity;
+    private final long[] windowMidTime;
+    private final long[] windowDuration;
+    private int windowIndex = 0;
+
+    private long rollingNotional;
+    private long rollingQuantity;
+    private long rollingMidTime;
+    private long rollingDuration;
+
+    private long lastTimestamp = NO_TIMESTAMP;
+    private long lastMidTimesTwo = MarketDataService.NO_PRICE;
+
+    public BookAnalytics(final int depth) {
+        this(depth, DEFAULT_ROLLING_LEVELS, DEFAULT_WINDOW);
+    }
+
+    public BookAnalytics(final int depth, final int rollingLevels, final int window) {
+        if(rollingLevels <= 0 || window <= 0){
+            throw new IllegalArgumentException("Rolling levels and window must be positive but were " + rollingLevels + " and " + window);
+        }
+        this.bids = new Side(depth);
+        this.asks = new Side(depth);
+        this.rollingLevels = rollingLevels;
+        this.window = window;
+        this.windowNotional = new long[window];
+        this.windowQuantity = new long[window];
+        this.windowMidTime = new long[window];
+        this.windowDuration = new long[window];
+    }
+
+    public Side bids(){
+        return bids;
+    }
+
+    public Side asks(){
+        return asks;
+    }
+
+    public int getRollingLevels(){
+        return rollingLevels;
+    }
+
+    public int getWindow(){
+        return window;
+    }
+
+    /**
+     * @return the volume weighted price of the best levels of both sides together
+     */
+    public double vwap(final int levels){
+        final long quantity = bids.cumulativeQuantity(levels) + asks.cumulativeQuantity(levels);
+        return quantity == 0 ? NO_VALUE : (bids.cumulativeNotional(levels) + asks.cumulativeNotional(levels)) / (double) quantity;
+    }
+
+    public double mid(){
+        return bids.length == 0 || asks.length == 0 ? NO_VALUE : (bids.prices[0] + asks.prices[0]) / 2.0;
+    }
+
+    /**
+     * @return the touch prices weighted by the quantity on the other side, so it leans towards the side more likely
+     * to trade through
+     */
+    public double microPrice(){
+        if(bids.length == 0 || asks.length == 0){
+            return NO_VALUE;
+        }
+        final long bidQuantity = bids.quantities[0];
+        final long askQuantity = asks.quantities[0];
+        if(bidQuantity + askQuantity == 0){
+            return mid();
+        }
+        return (bids.prices[0] * askQuantity + asks.prices[0] * bidQuantity) / (double) (bidQuantity + askQuantity);
+    }
+
+    /**
+     * @return from -1, all of the quantity on the best levels is offered, to 1, all of it is bid
+     */
+    public double imbalance(final int levels){
+        final long bidQuantity = bids.cumulativeQuantity(levels);
+        final long askQuantity = asks.cumulativeQuantity(levels);
+        final long quantity = bidQuantity + askQuantity;
+        return quantity == 0 ? NO_VALUE : (bidQuantity - askQuantity) / (double) quantity;
+    }
+
+    /**
+     * @return the VWAP of the best rolling levels of both sides, over every update in the window
+     */
+    public double rollingVwap(){
+        return rollingQuantity == 0 ? NO_VALUE : rollingNotional / (double) rollingQuantity;
+    }
+
+    /**
+     * Each mid is weighted by how long it was in force, from the timestamp of the update that set it to that of the
+     * next. Updates without a timestamp (unsequenced, or encoded before schema version 1) count for one nanosecond each,
+     * so without timestamps this is the mean mid over the window. The mid set by the latest update has no duration
+     * yet, so it counts only when there is nothing else.
+     */
+    public double timeWeightedMid(){
+        return rollingDuration == 0 ? mid() : rollingMidTime / (2.0 * rollingDuration);
+    }
+
+    void refreshBids(final AbstractLevel[] levels, final int length, final int from){
+        bids.refresh(levels, length, from);
+    }
+
+    void refreshAsks(final AbstractLevel[] levels, final int length, final int from){
+        asks.refresh(levels, length, from);
+    }
+
+    /**
+     * Rolls the window on, once the sides an update changed have been refreshed.
+     */
+    void onUpdate(final long timestamp){
+        final long duration;
+        if(lastMidTimesTwo == MarketDataService.NO_PRICE){
+            duration = 0;
+        }else if(timestamp == NO_TIMESTAMP || lastTimestamp == NO_TIMESTAMP){
+            duration = 1;
+        }else{
+            duration = Math.max(0, timestamp - lastTimestamp);
+        }
+
+        final int i = windowIndex;
+        rollingNotional -= windowNotional[i];
+        rollingQuantity -= windowQuantity[i];
+        rollingMidTime -= windowMidTime[i];
+        rollingDuration -= windowDuration[i];
+
+        windowNotional[i] = bids.cumulativeNotional(rollingLevels) + asks.cumulativeNotional(rollingLevels);
+        windowQuantity[i] = bids.cumulativeQuantity(rollingLevels) + asks.cumulativeQuantity(rollingLevels);
+        windowMidTime[i] = duration == 0 ? 0 : lastMidTimesTwo * duration;
+        windowDuration[i] = duration;
+
+        rollingNotional += windowNotional[i];
+        rollingQuantity += windowQuantity[i];
+        rollingMidTime += windowMidTime[i];
+        rollingDuration += windowDuration[i];
+
+        windowIndex = i + 1 == window ? 0 : i + 1;
+
+        lastTimestamp = timestamp;
+        lastMidTimesTwo = bids.length == 0 || asks.length == 0 ? MarketDataService.NO_PRICE : bids.prices[0] + asks.prices[0];
+    }
+
+    /**
+     * One side of the book, best level first.
+     */
+    public static final class Side {
+
+        private final long[] prices;
+        private final long[] quantities;
+        private final long[] cumulativeQuantity;
+        private final long[] cumulativeNotional;
+        private int length = 0;
+
+        private Side(final int depth) {
+            this.prices = new long[depth];
+            this.quantities = new long[depth];
+            this.cumulativeQuantity = new long[depth];
+            this.cumulativeNotional = new long[depth];
+        }
+
+        private void refresh(final AbstractLevel[] levels, final int length, final int from){
+            this.length = length;
+            for (int i = from; i < length; i++) {
+                prices[i] = levels[i].price;
+                quantities[i] = levels[i].quantity;
+            }
+
+            long quantity = from == 0 ? 0 : cumulativeQuantity[from - 1];
+            long notional = from == 0 ? 0 : cumulativeNotional[from - 1];
+            for (int i = from; i < length; i++) {
+                quantity += quantities[i];
+                notional += prices[i] * quantities[i];
+                cumulativeQuantity[i] = quantity;
+                cumulativeNotional[i] = notional;
+            }
+        }
+
+        public int length(){
+            return length;
+        }
+
+        public long price(final int level){
+            return level < length ? prices[level] : MarketDataService.NO_PRICE;
+        }
+
+        public long quantity(final int level){
+            return level < length ? quantities[level] : 0;
+        }
+
+        /**
+         * @return the quantity on the best levels, up to as many levels as the side has
+         */
+        public long cumulativeQuantity(final int levels){
+            final int n = Math.min(levels, length);
+            return n <= 0 ? 0 : cumulativeQuantity[n - 1];
+        }
+
+        /**
+         * @return the sum of price times quantity over the best levels, up to as many levels as the side has
+         */
+        public long cumulativeNotional(final int levels){
+            final int n = Math.min(levels, length);
+            return n <= 0 ? 0 : cumulativeNotional[n - 1];
+        }
+
+        /**
+         * @return the volume weighted price of the best levels
+         */
+        public double depthWeightedPrice(final int levels){
+            final long quantity = cumulativeQuantity(levels);
+            return quantity == 0 ? NO_VALUE : cumulativeNotional(levels) / (double) quantity;
+        }
+    }
+}
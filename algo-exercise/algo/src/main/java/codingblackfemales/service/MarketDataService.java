@@ -2,36 +2,73 @@ package codingblackfemales.service;
 
 import codingblackfemales.container.RunTrigger;
 import codingblackfemales.sequencer.event.MarketDataEventListener;
+import codingblackfemales.sotw.marketdata.AbstractLevel;
 import codingblackfemales.sotw.marketdata.AskLevel;
 import codingblackfemales.sotw.marketdata.BidLevel;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookSide;
 import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.UpdateAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * The algo's view of the book. Levels are preallocated up to the configured depth and overwritten in place on each
+ * update, so ticks produce no garbage; levels past the depth are ignored.
+ *
+ * The level objects handed out are reused on the next update, so read them within the evaluate that fetched them
+ * rather than holding on to them. Running totals down each side, and the analytics built on them, are kept in a
+ * {@link BookAnalytics} as the book is written, so cumulative depth and VWAP reads are O(1).
+ */
 public class MarketDataService extends MarketDataEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(MarketDataService.class);
 
+    public static final int DEFAULT_DEPTH = 15;
+
+    /**
+     * Returned for the touch and spread when a side of the book is empty.
+     */
+    public static final long NO_PRICE = -1L;
+
+    private final int depth;
+
     private int bidLength = 0;
     private int askLength = 0;
 
     private long instrumentId;
-    private final BidLevel[] bidBook = new BidLevel[15];
-    private final AskLevel[] askBook = new AskLevel[15];
+    private final BidLevel[] bidBook;
+    private final AskLevel[] askBook;
+    private final BookAnalytics analytics;
     private final RunTrigger runTrigger;
 
     public MarketDataService(RunTrigger runTrigger) {
+        this(runTrigger, DEFAULT_DEPTH);
+    }
+
+    public MarketDataService(RunTrigger runTrigger, int depth) {
+        if(depth <= 0){
+            throw new IllegalArgumentException("Book depth must be positive but was " + depth);
+        }
         this.runTrigger = runTrigger;
+        this.depth = depth;
+        this.bidBook = new BidLevel[depth];
+        this.askBook = new AskLevel[depth];
+        this.analytics = new BookAnalytics(depth);
+        for (int i = 0; i < depth; i++) {
+            bidBook[i] = new BidLevel();
+            askBook[i] = new AskLevel();
+        }
     }
 
     public BidLevel getBidLevel(int i){
-        return bidBook[i];
+        return i < bidLength ? bidBook[i] : null;
     }
 
     public AskLevel getAskLevel(int i){
-        return askBook[i];
+        return i < askLength ? askBook[i] : null;
     }
 
     public int getBidLength(){
@@ -42,18 +79,64 @@ public class MarketDataService extends MarketDataEventListener {
         return askLength;
     }
 
+    public int getDepth(){
+        return depth;
+    }
+
     public long getInstrumentId(){return instrumentId;}
 
-    private static void empty(BidLevel[] levels){
-        for (int i=0; i<levels.length; i++) {
-            levels[i] = null;
+    public BookAnalytics getBookAnalytics(){
+        return analytics;
+    }
+
+    public long getBestBidPrice(){
+        return bidLength > 0 ? bidBook[0].price : NO_PRICE;
+    }
+
+    public long getBestAskPrice(){
+        return askLength > 0 ? askBook[0].price : NO_PRICE;
+    }
+
+    public long getSpread(){
+        return bidLength > 0 && askLength > 0 ? askBook[0].price - bidBook[0].price : NO_PRICE;
+    }
+
+    /**
+     * @return the quantity on the best levels bids, up to as many levels as the book has
+     */
+    public long getCumulativeBidQuantity(int levels){
+        return analytics.bids().cumulativeQuantity(levels);
+    }
+
+    /**
+     * @return the quantity on the best levels asks, up to as many levels as the book has
+     */
+    public long getCumulativeAskQuantity(int levels){
+        return analytics.asks().cumulativeQuantity(levels);
+    }
+
+    private int setBid(int bookLevel, long price, long quantity){
+        if(bookLevel >= depth){
+            return bookLevel;
+        }
+        bidBook[bookLevel].setPrice(price);
+        bidBook[bookLevel].setQuantity(quantity);
+        if(logger.isDebugEnabled()){
+            logger.debug("[ALGO] BID: price:" + price + " quantity:" + quantity);
         }
+        return bookLevel + 1;
     }
 
-    private static void empty(AskLevel[] levels){
-        for (int i=0; i<levels.length; i++) {
-            levels[i] = null;
+    private int setAsk(int bookLevel, long price, long quantity){
+        if(bookLevel >= depth){
+            return bookLevel;
         }
+        askBook[bookLevel].setPrice(price);
+        askBook[bookLevel].setQuantity(quantity);
+        if(logger.isDebugEnabled()){
+            logger.debug("[ALGO] ASK: price:" + price + " quantity:" + quantity);
+        }
+        return bookLevel + 1;
     }
 
     @Override
@@ -63,38 +146,23 @@ public class MarketDataService extends MarketDataEventListener {
 
         instrumentId = bookUpdate.instrumentId();
 
-        empty(bidBook);
-
         for(BookUpdateDecoder.BidBookDecoder decoder : bookUpdate.bidBook()){
-            final long price = decoder.price();
-            final long quantity = decoder.size();
-            bidBook[bookLevel] = new BidLevel();
-            bidBook[bookLevel].setPrice(price);
-            bidBook[bookLevel].setQuantity(quantity);
-            logger.debug("[ALGO] BID: price:" + price + " quantity:" + quantity);
-
-            bookLevel+= 1;
-            bidLength = bookLevel;
-
+            bookLevel = setBid(bookLevel, decoder.price(), decoder.size());
         }
 
-        empty(askBook);
+        bidLength = bookLevel;
 
         bookLevel = 0;
 
         for(BookUpdateDecoder.AskBookDecoder decoder : bookUpdate.askBook()){
-            final long price = decoder.price();
-            final long quantity = decoder.size();
-
-            askBook[bookLevel] = new AskLevel();
-            askBook[bookLevel].setPrice(price);
-            askBook[bookLevel].setQuantity(quantity);
+            bookLevel = setAsk(bookLevel, decoder.price(), decoder.size());
+        }
 
-            logger.debug("[ALGO] ASK: price:" + price + " quantity:" + quantity);
+        askLength = bookLevel;
 
-            bookLevel+= 1;
-            askLength = bookLevel;
-        }
+        analytics.refreshBids(bidBook, bidLength, 0);
+        analytics.refreshAsks(askBook, askLength, 0);
+        analytics.onUpdate(bookUpdate.timestamp());
 
         runTrigger.triggerRun();
     }
@@ -104,22 +172,16 @@ public class MarketDataService extends MarketDataEventListener {
 
         instrumentId = askBookDec.instrumentId();
 
-        empty(askBook);
-
         int bookLevel = 0;
 
         for(AskBookUpdateDecoder.AskBookDecoder decoder : askBookDec.askBook()){
-            final long price = decoder.price();
-            final long quantity = decoder.size();
-            askBook[bookLevel] = new AskLevel();
-            askBook[bookLevel].setPrice(price);
-            askBook[bookLevel].setQuantity(quantity);
-            logger.debug("[ALGO] ASK: price:" + price + " quantity:" + quantity);
+            bookLevel = setAsk(bookLevel, decoder.price(), decoder.size());
+        }
 
-            bookLevel+= 1;
-            askLength = bookLevel;
+        askLength = bookLevel;
 
-        }
+        analytics.refreshAsks(askBook, askLength, 0);
+        analytics.onUpdate(askBookDec.timestamp());
 
         runTrigger.triggerRun();
     }
@@ -128,22 +190,86 @@ public class MarketDataService extends MarketDataEventListener {
     public void onBidBook(BidBookUpdateDecoder bidBookDec) {
         int bookLevel = 0;
 
-        empty(bidBook);
-
         instrumentId = bidBookDec.instrumentId();
 
         for(BidBookUpdateDecoder.BidBookDecoder decoder : bidBookDec.bidBook()){
-            final long price = decoder.price();
-            final long quantity = decoder.size();
-            bidBook[bookLevel] = new BidLevel();
-            bidBook[bookLevel].setPrice(price);
-            bidBook[bookLevel].setQuantity(quantity);
-            logger.debug("[ALGO] BID: price:" + price + " quantity:" + quantity);
+            bookLevel = setBid(bookLevel, decoder.price(), decoder.size());
+        }
+
+        bidLength = bookLevel;
 
-            bookLevel+= 1;
-            bidLength = bookLevel;
+        analytics.refreshBids(bidBook, bidLength, 0);
+        analytics.onUpdate(bidBookDec.timestamp());
+
+        runTrigger.triggerRun();
+    }
+
+    /**
+     * Applies only the levels that changed, in place, at the position each is sent with. Changes past the depth are
+     * dropped, and when a level is deleted from a book deeper than the depth the level that would move up into view is
+     * not known, so the side is a level short until the next full update.
+     */
+    @Override
+    public void onBookDelta(BookDeltaDecoder bookDelta) {
+
+        instrumentId = bookDelta.instrumentId();
+
+        int firstBidChange = depth;
+        int firstAskChange = depth;
+
+        for(BookDeltaDecoder.LevelsDecoder decoder : bookDelta.levels()){
+            if(decoder.side() == BookSide.BID){
+                final int length = applyLevel(bidBook, bidLength, decoder.action(), decoder.level(), decoder.price(), decoder.size());
+                if(length >= 0){
+                    bidLength = length;
+                    firstBidChange = Math.min(firstBidChange, decoder.level());
+                }
+            }else if(decoder.side() == BookSide.ASK){
+                final int length = applyLevel(askBook, askLength, decoder.action(), decoder.level(), decoder.price(), decoder.size());
+                if(length >= 0){
+                    askLength = length;
+                    firstAskChange = Math.min(firstAskChange, decoder.level());
+                }
+            }
         }
 
+        //only the levels from the first change down have moved or changed
+        analytics.refreshBids(bidBook, bidLength, Math.min(firstBidChange, bidLength));
+        analytics.refreshAsks(askBook, askLength, Math.min(firstAskChange, askLength));
+        analytics.onUpdate(bookDelta.timestamp());
+
         runTrigger.triggerRun();
     }
+
+    /**
+     * @return the length of the side once the level is applied, or -1 if it was not
+     */
+    private int applyLevel(AbstractLevel[] book, int length, UpdateAction action, int position,
+                           long price, long quantity){
+        if(action == UpdateAction.DELETE && position < length){
+            //the level object goes to the end to be reused
+            final AbstractLevel deleted = book[position];
+            System.arraycopy(book, position + 1, book, position, length - position - 1);
+            book[length - 1] = deleted;
+            length--;
+        }else if(action == UpdateAction.CHANGE && position < length){
+            book[position].setPrice(price);
+            book[position].setQuantity(quantity);
+        }else if(action == UpdateAction.NEW && position <= length && position < depth){
+            //the deepest level falls out of view if the side is already at depth
+            final AbstractLevel inserted = book[length < depth ? length : depth - 1];
+            System.arraycopy(book, position, book, position + 1, Math.min(length, depth - 1) - position);
+            book[position] = inserted;
+            inserted.setPrice(price);
+            inserted.setQuantity(quantity);
+            length = Math.min(length + 1, depth);
+        }else{
+            return -1;
+        }
+
+        if(logger.isDebugEnabled()){
+            logger.debug("[ALGO] " + action + " at " + position + ": price:" + price + " quantity:" + quantity);
+        }
+        return length;
+    }
 }
@@ -1,19 +1,40 @@
 package codingblackfemales.service;
 
+import codingblackfemales.collection.extrusive.LongToObjHashMap;
+import codingblackfemales.collection.extrusive.LongToObjMap;
 import codingblackfemales.container.RunTrigger;
 import codingblackfemales.sequencer.event.OrderEventListener;
+import codingblackfemales.sotw.ActiveChildOrders;
 import codingblackfemales.sotw.ChildOrder;
+import codingblackfemales.sotw.ChildOrderTotals;
 import codingblackfemales.sotw.OrderState;
 import messages.order.*;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Keeps the algo's child orders up to date from the order events on the network. Children are kept in the order they
+ * were created, and indexed by order id so each execution report finds its child in constant time however many
+ * children the session has built up.
+ *
+ * The active (not cancelled) children and the per side totals are maintained as events arrive, so algos can read
+ * them on every tick without filtering or summing the children. A child is taken out of the active children in
+ * constant time, wherever it is.
+ */
 public class OrderService extends OrderEventListener {
 
     private final RunTrigger runTrigger;
 
-    private List<ChildOrder> children = new LinkedList<>();
+    private final List<ChildOrder> children = new ArrayList<>();
+    private final LongToObjMap<ChildOrder> childrenById = new LongToObjHashMap<>();
+
+    private final ActiveChildOrders activeChildren = new ActiveChildOrders();
+    private final List<ChildOrder> activeChildrenView = Collections.unmodifiableList(activeChildren);
+
+    private final ChildOrderTotals buyTotals = new ChildOrderTotals();
+    private final ChildOrderTotals sellTotals = new ChildOrderTotals();
 
     public OrderService(RunTrigger runTrigger) {
         this.runTrigger = runTrigger;
@@ -29,21 +50,53 @@ public class OrderService extends OrderEventListener {
     }
 
     private void updateState(ChildOrder child, int state){
+        final boolean wasActive = isActive(child);
         child.setState(state);
+        final boolean active = isActive(child);
+
+        if(wasActive && !active){
+            activeChildren.unlink(child);
+            totalsFor(child).onDeactivated(child);
+        }else if(!wasActive && active){
+            activeChildren.insertInCreationOrder(child);
+            totalsFor(child).onReactivated(child);
+        }
     }
 
     private void addChildFill(ChildOrder child, long filledQuantity, long filledPrice){
+        final long leavesBefore = child.getLeavesQuantity();
         child.addFill(filledQuantity, filledPrice);
+        totalsFor(child).onFill(child, leavesBefore, filledQuantity, filledPrice);
+    }
+
+    private static boolean isActive(ChildOrder child){
+        return child.getState() != OrderState.CANCELLED;
+    }
+
+    private ChildOrderTotals totalsFor(ChildOrder child){
+        return child.getSide() == Side.BUY ? buyTotals : sellTotals;
     }
 
     @Override
     public void onCreateOrder(final CreateOrderDecoder create) {
-        children.add(createChildOrder(create));
+        final ChildOrder child = createChildOrder(create);
+        children.add(child);
+        childrenById.put(child.getOrderId(), child);
+        activeChildren.append(child);
+        totalsFor(child).onCreated(child);
         triggerRun();
     }
 
     private ChildOrder find(long orderId){
-        return children.stream().filter( order -> order.getOrderId() == orderId).findFirst().get();
+        final ChildOrder child = childrenById.get(orderId);
+        if(child == null){
+            throw new IllegalStateException("No child order with id " + orderId);
+        }
+        return child;
+    }
+
+    public ChildOrder getChildOrder(long orderId){
+        return childrenById.get(orderId);
     }
 
     @Override
@@ -74,6 +127,17 @@ public class OrderService extends OrderEventListener {
         return this.children;
     }
 
+    /**
+     * @return a read only, live view of the children that are not cancelled, oldest first
+     */
+    public List<ChildOrder> activeChildren(){
+        return activeChildrenView;
+    }
+
+    public ChildOrderTotals totals(Side side){
+        return side == Side.BUY ? buyTotals : sellTotals;
+    }
+
     @Override
     public void onPartialFill(PartialFillOrderDecoder partialFill) {
         addChildFill(find(partialFill.orderId()), partialFill.quantity(), partialFill.price());
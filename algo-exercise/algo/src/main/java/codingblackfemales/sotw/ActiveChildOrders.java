@@ -0,0 +1,178 @@
+package codingblackfemales.sotw;
+
+import java.util.AbstractSequentialList;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The children that are not cancelled, oldest first, kept up to date by the order service as order events arrive.
+ *
+ * The children are linked to each other, so one is taken out in constant time wherever it is in the list. Read through
+ * the {@link java.util.List} methods it is read only; only the order service adds and removes children.
+ */
+public class ActiveChildOrders extends AbstractSequentialList<ChildOrder> {
+
+    private ChildOrder first;
+    private ChildOrder last;
+    private int size;
+
+    /**
+     * Adds a newly created child, which is the newest.
+     */
+    public void append(final ChildOrder child) {
+        link(last, child);
+    }
+
+    /**
+     * Puts a child that has come back from cancelled back in creation order, which order ids follow.
+     */
+    public void insertInCreationOrder(final ChildOrder child) {
+        ChildOrder previous = last;
+        while(previous != null && previous.getOrderId() > child.getOrderId()){
+            previous = previous.previousActive;
+        }
+        link(previous, child);
+    }
+
+    private void link(final ChildOrder previous, final ChildOrder child) {
+        final ChildOrder next = previous == null ? first : previous.nextActive;
+        child.previousActive = previous;
+        child.nextActive = next;
+        if(previous == null){
+            first = child;
+        }else{
+            previous.nextActive = child;
+        }
+        if(next == null){
+            last = child;
+        }else{
+            next.previousActive = child;
+        }
+        size++;
+    }
+
+    public void unlink(final ChildOrder child) {
+        final ChildOrder previous = child.previousActive;
+        final ChildOrder next = child.nextActive;
+        if(previous == null){
+            first = next;
+        }else{
+            previous.nextActive = next;
+        }
+        if(next == null){
+            last = previous;
+        }else{
+            next.previousActive = previous;
+        }
+        child.previousActive = null;
+        child.nextActive = null;
+        size--;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Walks from whichever end is nearer, without an iterator.
+     */
+    @Override
+    public ChildOrder get(final int index) {
+        return childAt(index);
+    }
+
+    private ChildOrder childAt(final int index) {
+        if(index < 0 || index >= size){
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " active children");
+        }
+        ChildOrder child;
+        if(index < size / 2){
+            child = first;
+            for (int i = 0; i < index; i++) {
+                child = child.nextActive;
+            }
+        }else{
+            child = last;
+            for (int i = size - 1; i > index; i--) {
+                child = child.previousActive;
+            }
+        }
+        return child;
+    }
+
+    @Override
+    public ListIterator<ChildOrder> listIterator(final int index) {
+        if(index < 0 || index > size){
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " active children");
+        }
+        return new Iterator(index);
+    }
+
+    private final class Iterator implements ListIterator<ChildOrder> {
+
+        private ChildOrder next;
+        private int nextIndex;
+
+        private Iterator(final int index) {
+            this.next = index == size ? null : childAt(index);
+            this.nextIndex = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < size;
+        }
+
+        @Override
+        public ChildOrder next() {
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+            final ChildOrder child = next;
+            next = child.nextActive;
+            nextIndex++;
+            return child;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public ChildOrder previous() {
+            if(!hasPrevious()){
+                throw new NoSuchElementException();
+            }
+            next = next == null ? last : next.previousActive;
+            nextIndex--;
+            return next;
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Active children are only changed by order events");
+        }
+
+        @Override
+        public void set(final ChildOrder child) {
+            throw new UnsupportedOperationException("Active children are only changed by order events");
+        }
+
+        @Override
+        public void add(final ChildOrder child) {
+            throw new UnsupportedOperationException("Active children are only changed by order events");
+        }
+    }
+}
@@ -2,10 +2,6 @@ package codingblackfemales.sotw;
 
 import messages.order.Side;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.stream.Collectors;
-
 public class ChildOrder {
     private Side side;
     private long orderId;
@@ -14,7 +10,13 @@ public class ChildOrder {
 
     private int state;
 
-    private List<ChildFill> fills = new LinkedList<>();
+    //running totals of the fills, so a fill costs no allocation and reading them no walk over the fills
+    private long filledQuantity;
+    private long filledNotional;
+
+    //links in the active children while not cancelled, see ActiveChildOrders
+    ChildOrder previousActive;
+    ChildOrder nextActive;
 
     public ChildOrder(Side side, long orderId, long quantity, long price, int state) {
         this.side = side;
@@ -41,7 +43,19 @@ public class ChildOrder {
     }
 
     public long getFilledQuantity() {
-        return fills.stream().map( cf -> cf.getQuantity()).collect(Collectors.summingLong(Long::longValue));
+        return filledQuantity;
+    }
+
+    public long getLeavesQuantity() {
+        return Math.max(0, quantity - filledQuantity);
+    }
+
+    public long getFilledNotional() {
+        return filledNotional;
+    }
+
+    public double getAverageFillPrice() {
+        return filledQuantity == 0 ? 0 : (double) filledNotional / filledQuantity;
     }
 
     public int getState() {
@@ -53,6 +67,7 @@ public class ChildOrder {
     }
 
     public void addFill(long filledQuantity, long filledPrice) {
-        this.fills.add(new ChildFill(filledQuantity, filledPrice));
+        this.filledQuantity += filledQuantity;
+        this.filledNotional += filledQuantity * filledPrice;
     }
 }
@@ -0,0 +1,64 @@
+package codingblackfemales.sotw;
+
+/**
+ * Running totals over the child orders on one side, kept up to date by the order service as order events arrive.
+ *
+ * Total and filled quantity count every child ever created on the side. Leaves only counts children that are still
+ * active, i.e. not cancelled.
+ */
+public class ChildOrderTotals {
+
+    private long totalQuantity;
+    private long filledQuantity;
+    private long filledNotional;
+    private long leavesQuantity;
+
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public long getFilledQuantity() {
+        return filledQuantity;
+    }
+
+    public long getFilledNotional() {
+        return filledNotional;
+    }
+
+    public long getLeavesQuantity() {
+        return leavesQuantity;
+    }
+
+    public double getAverageFillPrice() {
+        return filledQuantity == 0 ? 0 : (double) filledNotional / filledQuantity;
+    }
+
+    public void onCreated(final ChildOrder child) {
+        totalQuantity += child.getQuantity();
+        leavesQuantity += child.getLeavesQuantity();
+    }
+
+    /**
+     * @param leavesBefore the child's leaves quantity before the fill was added to it
+     */
+    public void onFill(final ChildOrder child, final long leavesBefore, final long filledQuantity, final long filledPrice) {
+        this.filledQuantity += filledQuantity;
+        this.filledNotional += filledQuantity * filledPrice;
+        if(child.getState() != OrderState.CANCELLED){
+            leavesQuantity -= leavesBefore - child.getLeavesQuantity();
+        }
+    }
+
+    public void onDeactivated(final ChildOrder child) {
+        leavesQuantity -= child.getLeavesQuantity();
+    }
+
+    public void onReactivated(final ChildOrder child) {
+        leavesQuantity += child.getLeavesQuantity();
+    }
+
+    @Override
+    public String toString() {
+        return "ChildOrderTotals(total=" + totalQuantity + ",filled=" + filledQuantity + ",leaves=" + leavesQuantity + ")";
+    }
+}
@@ -1,7 +1,9 @@
 package codingblackfemales.sotw;
 
+import codingblackfemales.service.BookAnalytics;
 import codingblackfemales.sotw.marketdata.AskLevel;
 import codingblackfemales.sotw.marketdata.BidLevel;
+import messages.order.Side;
 
 import java.util.List;
 
@@ -15,9 +17,43 @@ public interface SimpleAlgoState {
     public BidLevel getBidAt(int index);
     public AskLevel getAskAt(int index);
 
+    /**
+     * @return the best bid price, or MarketDataService.NO_PRICE if there are no bids
+     */
+    public long getBestBidPrice();
+
+    /**
+     * @return the best ask price, or MarketDataService.NO_PRICE if there are no asks
+     */
+    public long getBestAskPrice();
+
+    /**
+     * @return best ask less best bid, or MarketDataService.NO_PRICE if either side is empty
+     */
+    public long getSpread();
+
+    public long getCumulativeBidQuantity(int levels);
+
+    public long getCumulativeAskQuantity(int levels);
+
+    /**
+     * @return VWAP, micro-price, imbalance and the like, kept up to date as the book is, so reading them is O(1)
+     */
+    public BookAnalytics getBookAnalytics();
+
     public List<ChildOrder> getChildOrders();
 
+    /**
+     * @return a read only, live view of the children that are not cancelled, oldest first
+     */
     public List<ChildOrder> getActiveChildOrders();
 
+    public int getActiveChildOrderCount();
+
+    /**
+     * @return total, filled and leaves quantity and average fill price of the children on this side
+     */
+    public ChildOrderTotals getChildOrderTotals(Side side);
+
     public long getInstrumentId();
 }
@@ -1,12 +1,13 @@
 package codingblackfemales.sotw;
 
+import codingblackfemales.service.BookAnalytics;
 import codingblackfemales.service.MarketDataService;
 import codingblackfemales.service.OrderService;
 import codingblackfemales.sotw.marketdata.AskLevel;
 import codingblackfemales.sotw.marketdata.BidLevel;
+import messages.order.Side;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class SimpleAlgoStateImpl implements SimpleAlgoState {
 
@@ -48,6 +49,36 @@ public class SimpleAlgoStateImpl implements SimpleAlgoState {
         return marketDataService.getAskLevel(index);
     }
 
+    @Override
+    public long getBestBidPrice() {
+        return marketDataService.getBestBidPrice();
+    }
+
+    @Override
+    public long getBestAskPrice() {
+        return marketDataService.getBestAskPrice();
+    }
+
+    @Override
+    public long getSpread() {
+        return marketDataService.getSpread();
+    }
+
+    @Override
+    public long getCumulativeBidQuantity(int levels) {
+        return marketDataService.getCumulativeBidQuantity(levels);
+    }
+
+    @Override
+    public long getCumulativeAskQuantity(int levels) {
+        return marketDataService.getCumulativeAskQuantity(levels);
+    }
+
+    @Override
+    public BookAnalytics getBookAnalytics() {
+        return marketDataService.getBookAnalytics();
+    }
+
     @Override
     public List<ChildOrder> getChildOrders() {
         return orderService.children();
@@ -55,6 +86,16 @@ public class SimpleAlgoStateImpl implements SimpleAlgoState {
 
     @Override
     public List<ChildOrder> getActiveChildOrders() {
-        return orderService.children().stream().filter(order -> order.getState() != OrderState.CANCELLED).collect(Collectors.toList());
+        return orderService.activeChildren();
+    }
+
+    @Override
+    public int getActiveChildOrderCount() {
+        return orderService.activeChildren().size();
+    }
+
+    @Override
+    public ChildOrderTotals getChildOrderTotals(Side side) {
+        return orderService.totals(side);
     }
 }
@@ -0,0 +1,82 @@
+package codingblackfemales.container;
+
+import ch.qos.logback.classic.Level;
+import codingblackfemales.action.CancelChildOrder;
+import codingblackfemales.action.CreateChildOrder;
+import codingblackfemales.sotw.ChildOrder;
+import codingblackfemales.sotw.OrderState;
+import messages.order.*;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ActionerTest {
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final CreateOrderDecoder createOrder = new CreateOrderDecoder();
+    private final CancelOrderDecoder cancelOrder = new CancelOrderDecoder();
+
+    private static long allocatedBytes(){
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    @Test
+    public void testEncodesCreateAndCancel() {
+        final List<String> commands = new ArrayList<>();
+        final Actioner actioner = new Actioner(buffer -> {
+            header.wrap(buffer, 0);
+            if(header.templateId() == CreateOrderDecoder.TEMPLATE_ID){
+                createOrder.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                commands.add("create " + createOrder.side() + " " + createOrder.quantity() + "@" + createOrder.price());
+            }else if(header.templateId() == CancelOrderDecoder.TEMPLATE_ID){
+                cancelOrder.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                commands.add("cancel " + cancelOrder.orderId());
+            }
+        });
+
+        final CreateChildOrder create = new CreateChildOrder();
+        actioner.processAction(create.set(Side.BUY, 100, 98));
+        actioner.processAction(new CancelChildOrder(new ChildOrder(Side.BUY, 7, 100, 98, OrderState.ACKED)));
+        actioner.processAction(create.set(Side.SELL, 50, 101));
+
+        assertEquals(List.of("create BUY 100@98", "cancel 7", "create SELL 50@101"), commands);
+    }
+
+    @Test
+    public void testSendingAnOrderDoesNotAllocate() {
+        final ch.qos.logback.classic.Logger actionerLogger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Actioner.class);
+        final Level level = actionerLogger.getLevel();
+        actionerLogger.setLevel(Level.WARN);
+
+        try {
+            final long[] sent = new long[1];
+            final Actioner actioner = new Actioner(buffer -> {
+                header.wrap(buffer, 0);
+                sent[0]++;
+            });
+            final CreateChildOrder create = new CreateChildOrder();
+            final CancelChildOrder cancel = new CancelChildOrder(new ChildOrder(Side.BUY, 7, 100, 98, OrderState.ACKED));
+
+            for (int i = 0; i < 10_000; i++) {
+                actioner.processAction(create.set(Side.BUY, 1, 98));
+            }
+
+            final long before = allocatedBytes();
+            for (int i = 0; i < 100_000; i++) {
+                actioner.processAction(create.set(Side.BUY, 1, 98));
+                actioner.processAction(cancel);
+            }
+            final long allocated = allocatedBytes() - before;
+
+            assertEquals(210_000, sent[0]);
+            assertTrue("allocated " + allocated + " bytes", allocated < 64 * 1024);
+        } finally {
+            actionerLogger.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package codingblackfemales.container;
+
+import codingblackfemales.action.Action;
+import codingblackfemales.action.ActionEncoder;
+import codingblackfemales.action.CreateChildOrder;
+import codingblackfemales.action.NoAction;
+import codingblackfemales.algo.AlgoLogic;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.service.MarketDataService;
+import codingblackfemales.service.OrderService;
+import codingblackfemales.sotw.SimpleAlgoState;
+import messages.marketdata.*;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConflatingQueueTest {
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder bookEncoder = new BookUpdateEncoder();
+    private final AskBookUpdateEncoder askEncoder = new AskBookUpdateEncoder();
+    private final BidBookUpdateEncoder bidEncoder = new BidBookUpdateEncoder();
+
+    private final List<Long> bestBids = new ArrayList<>();
+    private boolean sendOrder = false;
+
+    private DefaultSequencer sequencer;
+    private AlgoContainer container;
+    private ConflatingQueue queue;
+
+    @Before
+    public void setUp() {
+        final TestNetwork network = new TestNetwork();
+        sequencer = new DefaultSequencer(network);
+
+        final RunTrigger runTrigger = new RunTrigger();
+        container = new AlgoContainer(new MarketDataService(runTrigger), new OrderService(runTrigger), runTrigger, new Actioner(sequencer));
+        container.setLogic(new AlgoLogic() {
+            @Override
+            public Action evaluate(SimpleAlgoState state) {
+                bestBids.add(state.getBestBidPrice());
+                if(sendOrder && state.getChildOrders().isEmpty()){
+                    return new CreateChildOrder(Side.BUY, 100, state.getBestBidPrice());
+                }
+                return NoAction.NoAction;
+            }
+        });
+
+        queue = container.createConflatingQueue();
+        network.addConsumer(queue);
+    }
+
+    private UnsafeBuffer book(long bid, long ask){
+        bookEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).instrumentId(7L).venue(Venue.XLON);
+        bookEncoder.bidBookCount(1).next().price(bid).size(100L);
+        bookEncoder.askBookCount(1).next().price(ask).size(100L);
+        bookEncoder.instrumentStatus(InstrumentStatus.CONTINUOUS).source(Source.STREAM);
+        return buffer;
+    }
+
+    private UnsafeBuffer asks(long ask){
+        askEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).instrumentId(7L).venue(Venue.XLON)
+                .askBookCount(1).next().price(ask).size(100L);
+        return buffer;
+    }
+
+    private UnsafeBuffer bids(long bid){
+        bidEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).instrumentId(7L).venue(Venue.XLON)
+                .bidBookCount(1).next().price(bid).size(100L);
+        return buffer;
+    }
+
+    @Test
+    public void testBurstIsEvaluatedOnTheLatestBook() {
+        sendOrder = true;
+
+        sequencer.onCommand(book(98L, 101L));
+        sequencer.onCommand(book(99L, 101L));
+        sequencer.onCommand(book(100L, 101L));
+
+        assertTrue(bestBids.isEmpty());
+        assertEquals(2, queue.getConflatedCount());
+
+        //the order the algo sends from the latest book is queued and delivered by the same drain
+        assertEquals(2, queue.drain());
+        assertEquals(List.of(100L, 100L), bestBids);
+        assertEquals(1, container.getState().getChildOrders().size());
+        assertEquals(100L, container.getState().getChildOrders().get(0).getPrice());
+
+        assertEquals(0, queue.getPendingCount());
+        assertEquals(4, queue.getEnqueuedCount());
+        assertEquals(2, queue.getDeliveredCount());
+    }
+
+    @Test
+    public void testOnlyUpdatesOverwrittenOnEverySideAreConflated() {
+        sequencer.onCommand(book(98L, 101L));
+        sequencer.onCommand(asks(102L));
+        sequencer.onCommand(bids(97L));
+        assertEquals(0, queue.getConflatedCount());
+
+        //replaces the ask update, but not the full update's bids
+        sequencer.onCommand(asks(103L));
+        assertEquals(1, queue.getConflatedCount());
+
+        assertEquals(3, queue.drain());
+        assertEquals(97L, container.getMarketDataService().getBestBidPrice());
+        assertEquals(103L, container.getMarketDataService().getBestAskPrice());
+
+        //a full update replaces everything before it
+        sequencer.onCommand(asks(104L));
+        sequencer.onCommand(bids(96L));
+        sequencer.onCommand(book(95L, 105L));
+        assertEquals(3, queue.getConflatedCount());
+
+        assertEquals(1, queue.drain());
+        assertEquals(95L, container.getMarketDataService().getBestBidPrice());
+        assertEquals(105L, container.getMarketDataService().getBestAskPrice());
+    }
+
+    @Test
+    public void testOrderEventsAreNeverConflated() {
+        final ActionEncoder encoder = new ActionEncoder();
+
+        sequencer.onCommand(book(98L, 101L));
+        sequencer.onCommand(encoder.createOrder(Side.BUY, 100, 98L));
+        sequencer.onCommand(encoder.createOrder(Side.BUY, 50, 97L));
+        sequencer.onCommand(book(99L, 101L));
+
+        assertEquals(1, queue.getConflatedCount());
+        assertEquals(3, queue.drain());
+
+        assertEquals(2, container.getState().getChildOrders().size());
+        assertEquals(99L, container.getMarketDataService().getBestBidPrice());
+    }
+}
@@ -0,0 +1,247 @@
+package codingblackfemales.container;
+
+import codingblackfemales.action.Action;
+import codingblackfemales.action.CreateChildOrder;
+import codingblackfemales.action.NoAction;
+import codingblackfemales.algo.AlgoLogic;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.service.MarketDataService;
+import codingblackfemales.sotw.ChildOrder;
+import codingblackfemales.sotw.OrderState;
+import codingblackfemales.sotw.SimpleAlgoState;
+import messages.marketdata.*;
+import messages.order.CancelAckedOrderEncoder;
+import messages.order.CancelOrderEncoder;
+import messages.order.FillOrderEncoder;
+import messages.order.PartialFillOrderEncoder;
+import messages.order.Side;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ShardedAlgoContainerTest {
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder bookEncoder = new BookUpdateEncoder();
+
+    private final messages.order.MessageHeaderEncoder orderHeaderEncoder = new messages.order.MessageHeaderEncoder();
+    private final FillOrderEncoder fillEncoder = new FillOrderEncoder();
+    private final PartialFillOrderEncoder partialFillEncoder = new PartialFillOrderEncoder();
+    private final CancelAckedOrderEncoder cancelAckedEncoder = new CancelAckedOrderEncoder();
+    private final CancelOrderEncoder cancelEncoder = new CancelOrderEncoder();
+
+    private UnsafeBuffer book(long instrumentId, long bid, long ask){
+        bookEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).instrumentId(instrumentId).venue(Venue.XLON);
+        bookEncoder.bidBookCount(1).next().price(bid).size(100L);
+        bookEncoder.askBookCount(1).next().price(ask).size(100L);
+        bookEncoder.instrumentStatus(InstrumentStatus.CONTINUOUS).source(Source.STREAM);
+        return buffer;
+    }
+
+    private UnsafeBuffer fill(long instrumentId, long orderId, long quantity, long price){
+        fillEncoder.wrapAndApplyHeader(buffer, 0, orderHeaderEncoder).orderId(orderId).quantity(quantity).price(price)
+                .instrumentId(instrumentId);
+        return buffer;
+    }
+
+    private UnsafeBuffer partialFill(long instrumentId, long orderId, long quantity, long price){
+        partialFillEncoder.wrapAndApplyHeader(buffer, 0, orderHeaderEncoder).orderId(orderId).quantity(quantity).price(price)
+                .instrumentId(instrumentId);
+        return buffer;
+    }
+
+    private UnsafeBuffer cancelAcked(long instrumentId, long orderId){
+        cancelAckedEncoder.wrapAndApplyHeader(buffer, 0, orderHeaderEncoder).orderId(orderId).instrumentId(instrumentId);
+        return buffer;
+    }
+
+    private UnsafeBuffer cancel(long instrumentId, long orderId){
+        cancelEncoder.wrapAndApplyHeader(buffer, 0, orderHeaderEncoder).orderId(orderId).instrumentId(instrumentId);
+        return buffer;
+    }
+
+    /**
+     * A cancel as it was encoded before version 1 of the order schema, with no instrument.
+     */
+    private UnsafeBuffer cancelVersionZero(long orderId){
+        cancelEncoder.wrapAndApplyHeader(buffer, 0, orderHeaderEncoder).orderId(orderId);
+        orderHeaderEncoder.version(0).blockLength(CancelOrderEncoder.instrumentIdEncodingOffset());
+        return buffer;
+    }
+
+    /**
+     * A fill as it was encoded before version 1 of the order schema, with no instrument.
+     */
+    private UnsafeBuffer fillVersionZero(long orderId, long quantity, long price){
+        fillEncoder.wrapAndApplyHeader(buffer, 0, orderHeaderEncoder).orderId(orderId).quantity(quantity).price(price);
+        orderHeaderEncoder.version(0).blockLength(FillOrderEncoder.instrumentIdEncodingOffset());
+        return buffer;
+    }
+
+    /**
+     * Buys once at the best bid, and counts the shards that have seen their order come back. On a worker the order
+     * only comes back once the sequencer has taken it, so more ticks may be evaluated before it does.
+     */
+    private static AlgoLogic buyOnce(final AtomicInteger created){
+        return new AlgoLogic() {
+            private boolean sent = false;
+            private boolean counted = false;
+
+            @Override
+            public Action evaluate(SimpleAlgoState state) {
+                if(!sent){
+                    sent = true;
+                    return new CreateChildOrder(Side.BUY, 100, state.getBestBidPrice());
+                }
+                if(!counted && !state.getChildOrders().isEmpty()){
+                    counted = true;
+                    created.incrementAndGet();
+                }
+                return NoAction.NoAction;
+            }
+        };
+    }
+
+    @Test
+    public void testEachInstrumentOnlySeesItsOwnBookAndOrders() {
+        final TestNetwork network = new TestNetwork();
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        final AtomicInteger created = new AtomicInteger();
+
+        //instrument 3 isn't traded here
+        final ShardedAlgoContainer container = new ShardedAlgoContainer(sequencer,
+                instrumentId -> instrumentId == 3L ? null : buyOnce(created));
+        network.addConsumer(container);
+
+        sequencer.onCommand(book(1L, 98L, 101L));
+        sequencer.onCommand(book(2L, 48L, 51L));
+        sequencer.onCommand(book(3L, 10L, 11L));
+
+        assertEquals(2, container.getShards().size());
+        assertNull(container.getShard(3L));
+        assertEquals(2, created.get());
+
+        final InstrumentShard first = container.getShard(1L);
+        final InstrumentShard second = container.getShard(2L);
+        assertEquals(-1, first.getWorker());
+        assertEquals(98L, first.getMarketDataService().getBestBidPrice());
+        assertEquals(48L, second.getMarketDataService().getBestBidPrice());
+
+        final ChildOrder firstOrder = first.getState().getChildOrders().get(0);
+        final ChildOrder secondOrder = second.getState().getChildOrders().get(0);
+        assertEquals(1, first.getState().getChildOrders().size());
+        assertEquals(98L, firstOrder.getPrice());
+        assertEquals(1, second.getState().getChildOrders().size());
+        assertEquals(48L, secondOrder.getPrice());
+        assertEquals(2, container.getOpenOrderCount());
+
+        //a fill only reaches the shard that owns the order
+        final long firstMessages = first.getMessageCount();
+        sequencer.onCommand(partialFill(2L, secondOrder.getOrderId(), 60L, 48L));
+        assertEquals(60L, secondOrder.getFilledQuantity());
+        assertEquals(0L, firstOrder.getFilledQuantity());
+        assertEquals(firstMessages, first.getMessageCount());
+
+        //one with no instrument is routed by its order
+        sequencer.onCommand(fillVersionZero(secondOrder.getOrderId(), 40L, 48L));
+        assertEquals(100L, secondOrder.getFilledQuantity());
+        assertEquals(0L, firstOrder.getFilledQuantity());
+        assertEquals(firstMessages, first.getMessageCount());
+
+        //a filled or cancelled order gets no more events, so it is no longer remembered
+        assertEquals(1, container.getOpenOrderCount());
+        sequencer.onCommand(cancelAcked(1L, firstOrder.getOrderId()));
+        assertEquals(0, container.getOpenOrderCount());
+
+        //as does a tick
+        sequencer.onCommand(book(1L, 99L, 101L));
+        assertEquals(99L, first.getMarketDataService().getBestBidPrice());
+        assertEquals(48L, second.getMarketDataService().getBestBidPrice());
+    }
+
+    @Test
+    public void testCancelledOrdersAreForgotten() {
+        final TestNetwork network = new TestNetwork();
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        final AtomicInteger created = new AtomicInteger();
+
+        final ShardedAlgoContainer container = new ShardedAlgoContainer(sequencer, instrumentId -> buyOnce(created));
+        network.addConsumer(container);
+
+        sequencer.onCommand(book(1L, 98L, 101L));
+        sequencer.onCommand(book(2L, 48L, 51L));
+        assertEquals(2, created.get());
+        assertEquals(2, container.getOpenOrderCount());
+
+        final ChildOrder firstOrder = container.getShard(1L).getState().getChildOrders().get(0);
+        final ChildOrder secondOrder = container.getShard(2L).getState().getChildOrders().get(0);
+
+        //nothing acks a cancel, so the order is forgotten as the cancel goes through
+        sequencer.onCommand(cancel(1L, firstOrder.getOrderId()));
+        assertEquals(OrderState.CANCELLED, firstOrder.getState());
+        assertEquals(1, container.getOpenOrderCount());
+
+        //one with no instrument is still routed by its order first
+        sequencer.onCommand(cancelVersionZero(secondOrder.getOrderId()));
+        assertEquals(OrderState.CANCELLED, secondOrder.getState());
+        assertEquals(0, container.getOpenOrderCount());
+    }
+
+    @Test
+    public void testShardsRunOnTheirWorkers() {
+        final TestNetwork network = new TestNetwork();
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        final AtomicInteger created = new AtomicInteger();
+        final int instruments = 100;
+
+        final ShardedAlgoContainer container = new ShardedAlgoContainer(sequencer, instrumentId -> buyOnce(created),
+                4, MarketDataService.DEFAULT_DEPTH, 64 * 1024, YieldingIdleStrategy::new, new BusySpinIdleStrategy());
+        container.pin(42L, 3);
+        network.addConsumer(container);
+        container.start();
+
+        try {
+            for (int tick = 0; tick < 10; tick++) {
+                for (long instrumentId = 1; instrumentId <= instruments; instrumentId++) {
+                    sequencer.onCommand(book(instrumentId, 1000L + instrumentId * 10 + tick, 2000L));
+                }
+            }
+
+            //this thread is the sequencer's, so it sends the shards' orders in and the orders are routed back
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while(created.get() < instruments && System.currentTimeMillis() < deadline){
+                if(container.doWork() == 0){
+                    Thread.yield();
+                }
+            }
+        } finally {
+            container.close();
+        }
+
+        assertEquals(instruments, created.get());
+        assertEquals(instruments, container.getShards().size());
+        assertEquals(3, container.getShard(42L).getWorker());
+
+        for (long instrumentId = 1; instrumentId <= instruments; instrumentId++) {
+            final InstrumentShard shard = container.getShard(instrumentId);
+            assertEquals(1000L + instrumentId * 10 + 9, shard.getMarketDataService().getBestBidPrice());
+            assertEquals(1, shard.getState().getChildOrders().size());
+            //the order was priced from this instrument's book, on one of its ticks
+            final long price = shard.getState().getChildOrders().get(0).getPrice();
+            assertTrue(price >= 1000L + instrumentId * 10 && price <= 1000L + instrumentId * 10 + 9);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCannotPinToAMissingWorker() {
+        new ShardedAlgoContainer(new DefaultSequencer(new TestNetwork()), instrumentId -> null, 2).pin(1L, 2);
+    }
+}
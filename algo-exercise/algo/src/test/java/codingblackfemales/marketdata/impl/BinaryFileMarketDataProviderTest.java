@@ -0,0 +1,97 @@
+package codingblackfemales.marketdata.impl;
+
+import codingblackfemales.marketdata.api.BookEntry;
+import codingblackfemales.marketdata.api.MarketDataEncoder;
+import codingblackfemales.marketdata.api.MarketDataMessage;
+import codingblackfemales.marketdata.gen.MarketDataFileConverter;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.Venue;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BinaryFileMarketDataProviderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MarketDataEncoder encoder = new MarketDataEncoder();
+
+    @Test
+    public void testConvertedFileReplaysTheSameMessages() throws IOException {
+        final String jsonFile = "src/test/resources/marketdata.json";
+        final String binaryFile = folder.newFile("marketdata.bin").getPath();
+
+        final long converted = MarketDataFileConverter.convert(jsonFile, binaryFile);
+        assertTrue(converted > 0);
+        assertTrue(new File(binaryFile).length() < new File(jsonFile).length());
+
+        long replayed = 0;
+        try (SimpleFileMarketDataProvider json = new SimpleFileMarketDataProvider(jsonFile);
+             BinaryFileMarketDataProvider binary = new BinaryFileMarketDataProvider(binaryFile)) {
+            MarketDataMessage expected;
+            while((expected = json.poll()) != null){
+                //as the sequencer is sent it...
+                final UnsafeBuffer encoded = encoder.encode(expected);
+                final DirectBuffer buffer = binary.pollBuffer();
+                assertNotNull(buffer);
+                final byte[] expectedBytes = new byte[buffer.capacity()];
+                final byte[] actualBytes = new byte[buffer.capacity()];
+                encoded.getBytes(0, expectedBytes);
+                buffer.getBytes(0, actualBytes);
+                assertArrayEquals("message " + replayed, expectedBytes, actualBytes);
+                replayed++;
+            }
+            assertNull(binary.pollBuffer());
+
+            //...and as the api objects
+            binary.rewind();
+            try (SimpleFileMarketDataProvider again = new SimpleFileMarketDataProvider(jsonFile)) {
+                while((expected = again.poll()) != null){
+                    assertEquals(expected.toString(), binary.poll().toString());
+                }
+            }
+            assertNull(binary.poll());
+        }
+        assertEquals(converted, replayed);
+    }
+
+    @Test
+    public void testFullBookUpdatesKeepTheirSides() {
+        final String binaryFile = new File(folder.getRoot(), "book.bin").getPath();
+        try (BinaryFileMarketDataWriter writer = new BinaryFileMarketDataWriter(binaryFile)) {
+            writer.write(new BookUpdateImpl(7L, Venue.XPAR, InstrumentStatus.CONTINUOUS,
+                    List.of(new BookEntry().setPrice(98L).setSize(100L)),
+                    List.of(new BookEntry().setPrice(101L).setSize(50L), new BookEntry().setPrice(102L).setSize(60L))));
+        }
+
+        try (BinaryFileMarketDataProvider provider = new BinaryFileMarketDataProvider(binaryFile)) {
+            final BookUpdateImpl update = (BookUpdateImpl) provider.poll();
+            assertEquals(7L, update.instrumentId());
+            assertEquals(Venue.XPAR, update.venue());
+            assertEquals(1, update.bidBook().size());
+            assertEquals(98L, update.bidBook().get(0).price());
+            assertEquals(2, update.askBook().size());
+            assertEquals(102L, update.askBook().get(1).price());
+            assertNull(provider.poll());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRejectsFilesInAnotherFormat() throws IOException {
+        final File jsonFile = folder.newFile("marketdata.json");
+        try (FileWriter writer = new FileWriter(jsonFile)) {
+            writer.write("2,{\"instrumentId\":1234}\n");
+        }
+        new BinaryFileMarketDataProvider(jsonFile.getPath());
+    }
+}
@@ -0,0 +1,289 @@
+package codingblackfemales.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.sotw.marketdata.BidLevel;
+import messages.marketdata.*;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class MarketDataServiceTest {
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder bookEncoder = new BookUpdateEncoder();
+    private final BidBookUpdateEncoder bidEncoder = new BidBookUpdateEncoder();
+    private final BookDeltaEncoder deltaEncoder = new BookDeltaEncoder();
+
+    private static long allocatedBytes(){
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    //bids from 100 down and asks from 101 up, levels quantity 10, 20, 30...
+    private UnsafeBuffer book(int bidLevels, int askLevels){
+        bookEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        bookEncoder.instrumentId(7L);
+        bookEncoder.venue(Venue.XLON);
+        final BookUpdateEncoder.BidBookEncoder bids = bookEncoder.bidBookCount(bidLevels);
+        for (int i = 0; i < bidLevels; i++) {
+            bids.next().price(100 - i).size(10L * (i + 1));
+        }
+        final BookUpdateEncoder.AskBookEncoder asks = bookEncoder.askBookCount(askLevels);
+        for (int i = 0; i < askLevels; i++) {
+            asks.next().price(101 + i).size(10L * (i + 1));
+        }
+        bookEncoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        bookEncoder.source(Source.STREAM);
+        return buffer;
+    }
+
+    @Test
+    public void testTouchSpreadAndCumulativeDepth() {
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+
+        assertEquals(MarketDataService.NO_PRICE, service.getSpread());
+
+        service.onMessage(book(3, 2));
+
+        assertEquals(7L, service.getInstrumentId());
+        assertEquals(3, service.getBidLength());
+        assertEquals(2, service.getAskLength());
+        assertEquals(100L, service.getBestBidPrice());
+        assertEquals(101L, service.getBestAskPrice());
+        assertEquals(1L, service.getSpread());
+        assertEquals(10L, service.getCumulativeBidQuantity(1));
+        assertEquals(60L, service.getCumulativeBidQuantity(3));
+        assertEquals(60L, service.getCumulativeBidQuantity(10));
+        assertEquals(30L, service.getCumulativeAskQuantity(5));
+        assertEquals(0L, service.getCumulativeAskQuantity(0));
+        assertNull(service.getAskLevel(2));
+    }
+
+    @Test
+    public void testSideUpdateOnlyReplacesItsSide() {
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+        service.onMessage(book(3, 2));
+
+        bidEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).instrumentId(7L).venue(Venue.XLON)
+                .bidBookCount(1).next().price(99L).size(5L);
+        service.onMessage(buffer);
+
+        assertEquals(1, service.getBidLength());
+        assertEquals(99L, service.getBestBidPrice());
+        assertNull(service.getBidLevel(1));
+        assertEquals(2, service.getAskLength());
+        assertEquals(2L, service.getSpread());
+
+        service.onMessage(book(0, 2));
+        assertEquals(0, service.getBidLength());
+        assertNull(service.getBidLevel(0));
+        assertEquals(MarketDataService.NO_PRICE, service.getBestBidPrice());
+    }
+
+    @Test
+    public void testLevelsPastTheDepthAreIgnored() {
+        final MarketDataService service = new MarketDataService(new RunTrigger(), 4);
+
+        service.onMessage(book(20, 6));
+
+        assertEquals(4, service.getBidLength());
+        assertEquals(4, service.getAskLength());
+        final BidLevel deepest = service.getBidLevel(3);
+        assertEquals(97L, deepest.getPrice());
+        assertEquals(100L, service.getCumulativeBidQuantity(4));
+    }
+
+    private UnsafeBuffer delta(BookSide side, UpdateAction action, int level, long price, long size){
+        deltaEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).instrumentId(7L).venue(Venue.XLON).source(Source.ORDERBOOK)
+                .levelsCount(1).next().side(side).action(action).level(level).price(price).size(size);
+        return buffer;
+    }
+
+    @Test
+    public void testDeltasAreAppliedInPlace() {
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+        service.onMessage(book(3, 2));
+
+        //a new best bid, a new best ask and a change further down
+        service.onMessage(delta(BookSide.BID, UpdateAction.NEW, 0, 101L, 5L));
+        service.onMessage(delta(BookSide.ASK, UpdateAction.NEW, 0, 100L, 7L));
+        service.onMessage(delta(BookSide.BID, UpdateAction.CHANGE, 3, 98L, 1L));
+
+        assertEquals(4, service.getBidLength());
+        assertEquals(101L, service.getBestBidPrice());
+        assertEquals(98L, service.getBidLevel(3).getPrice());
+        assertEquals(36L, service.getCumulativeBidQuantity(4));
+        assertEquals(100L, service.getBestAskPrice());
+        assertEquals(37L, service.getCumulativeAskQuantity(3));
+
+        service.onMessage(delta(BookSide.BID, UpdateAction.DELETE, 0, 101L, 0L));
+        service.onMessage(delta(BookSide.ASK, UpdateAction.DELETE, 2, 102L, 0L));
+
+        assertEquals(3, service.getBidLength());
+        assertEquals(100L, service.getBestBidPrice());
+        assertEquals(31L, service.getCumulativeBidQuantity(3));
+        assertEquals(2, service.getAskLength());
+        assertEquals(17L, service.getCumulativeAskQuantity(2));
+        assertEquals(0L, service.getSpread());
+
+        //back in between the levels it came out from
+        service.onMessage(delta(BookSide.BID, UpdateAction.DELETE, 1, 99L, 0L));
+        service.onMessage(delta(BookSide.BID, UpdateAction.NEW, 1, 99L, 2L));
+        assertEquals(99L, service.getBidLevel(1).getPrice());
+        assertEquals(13L, service.getCumulativeBidQuantity(3));
+    }
+
+    @Test
+    public void testDeltasPastTheDepthAreDropped() {
+        final MarketDataService service = new MarketDataService(new RunTrigger(), 2);
+        service.onMessage(book(2, 0));
+
+        //pushes 99 out of view
+        service.onMessage(delta(BookSide.BID, UpdateAction.NEW, 0, 101L, 5L));
+        assertEquals(2, service.getBidLength());
+        assertEquals(100L, service.getBidLevel(1).getPrice());
+
+        service.onMessage(delta(BookSide.BID, UpdateAction.NEW, 2, 90L, 5L));
+        service.onMessage(delta(BookSide.BID, UpdateAction.CHANGE, 2, 99L, 5L));
+        assertEquals(15L, service.getCumulativeBidQuantity(2));
+
+        //the level behind isn't known, so the side is short until the next full update
+        service.onMessage(delta(BookSide.BID, UpdateAction.DELETE, 0, 101L, 0L));
+        assertEquals(1, service.getBidLength());
+        assertEquals(100L, service.getBestBidPrice());
+    }
+
+    @Test
+    public void testBookAnalytics() {
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+        final BookAnalytics analytics = service.getBookAnalytics();
+
+        assertTrue(Double.isNaN(analytics.vwap(3)));
+        assertTrue(Double.isNaN(analytics.microPrice()));
+
+        //bids 100x10 99x20 98x30, asks 101x10 102x20
+        service.onMessage(book(3, 2));
+
+        assertEquals(5920.0 / 60, analytics.bids().depthWeightedPrice(3), 1e-9);
+        assertEquals(3050.0 / 30, analytics.asks().depthWeightedPrice(5), 1e-9);
+        assertEquals(8970.0 / 90, analytics.vwap(3), 1e-9);
+        assertEquals(100.5, analytics.mid(), 1e-9);
+        assertEquals(100.5, analytics.microPrice(), 1e-9);
+        assertEquals(0.0, analytics.imbalance(1), 1e-9);
+        assertEquals(30.0 / 90, analytics.imbalance(3), 1e-9);
+        assertEquals(98L, analytics.bids().price(2));
+        assertEquals(MarketDataService.NO_PRICE, analytics.asks().price(2));
+
+        //more bid than offer on the touch pulls the micro-price up towards the ask
+        bidEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).instrumentId(7L).venue(Venue.XLON)
+                .bidBookCount(1).next().price(100L).size(30L);
+        service.onMessage(buffer);
+        assertEquals((100.0 * 10 + 101.0 * 30) / 40, analytics.microPrice(), 1e-9);
+        assertEquals(3050.0 / 30, analytics.asks().depthWeightedPrice(2), 1e-9);
+    }
+
+    /**
+     * What MyAlgoLogic used to work out on each evaluate, by walking the levels.
+     */
+    private static double walkedVwap(final MarketDataService service, final int levels){
+        long value = 0;
+        long quantity = 0;
+        for (int i = 0; i < levels; i++) {
+            if(service.getBidLevel(i) != null){
+                value += service.getBidLevel(i).price * service.getBidLevel(i).quantity;
+                quantity += service.getBidLevel(i).quantity;
+            }
+            if(service.getAskLevel(i) != null){
+                value += service.getAskLevel(i).price * service.getAskLevel(i).quantity;
+                quantity += service.getAskLevel(i).quantity;
+            }
+        }
+        return value / (double) quantity;
+    }
+
+    @Test
+    public void testAnalyticsFollowDeltas() {
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+        service.onMessage(book(3, 2));
+
+        service.onMessage(delta(BookSide.BID, UpdateAction.NEW, 0, 101L, 5L));
+        assertEquals(walkedVwap(service, 4), service.getBookAnalytics().vwap(4), 1e-9);
+        service.onMessage(delta(BookSide.ASK, UpdateAction.NEW, 0, 100L, 7L));
+        service.onMessage(delta(BookSide.BID, UpdateAction.CHANGE, 3, 98L, 1L));
+        assertEquals(walkedVwap(service, 4), service.getBookAnalytics().vwap(4), 1e-9);
+        service.onMessage(delta(BookSide.BID, UpdateAction.DELETE, 1, 100L, 0L));
+        service.onMessage(delta(BookSide.ASK, UpdateAction.DELETE, 2, 102L, 0L));
+        assertEquals(walkedVwap(service, 4), service.getBookAnalytics().vwap(4), 1e-9);
+        assertEquals(walkedVwap(service, 2), service.getBookAnalytics().vwap(2), 1e-9);
+    }
+
+    @Test
+    public void testRollingVwapAndTimeWeightedMid() {
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+        final BookAnalytics analytics = service.getBookAnalytics();
+
+        //mid 100.5 from 1000 to 1400, 100 from 1400 to 1500, then 100.5 again
+        book(3, 2);
+        bookEncoder.timestamp(1000L);
+        service.onMessage(buffer);
+        assertEquals(100.5, analytics.timeWeightedMid(), 1e-9);
+
+        bidEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).instrumentId(7L).venue(Venue.XLON).timestamp(1400L)
+                .bidBookCount(1).next().price(99L).size(5L);
+        service.onMessage(buffer);
+
+        book(3, 2);
+        bookEncoder.timestamp(1500L);
+        service.onMessage(buffer);
+
+        assertEquals((100.5 * 400 + 100.0 * 100) / 500, analytics.timeWeightedMid(), 1e-9);
+        //the best three levels after each update: 8970/90, then 99x5 with the same asks, 3545/35, then 8970/90
+        assertEquals((8970.0 * 2 + 3545) / (90 * 2 + 35), analytics.rollingVwap(), 1e-9);
+
+        //a window later the side update has rolled out
+        for (int i = 0; i < analytics.getWindow(); i++) {
+            service.onMessage(buffer);
+        }
+        assertEquals(8970.0 / 90, analytics.rollingVwap(), 1e-9);
+        assertEquals(100.5, analytics.timeWeightedMid(), 1e-9);
+    }
+
+    @Test
+    public void testUpdatesDoNotAllocate() {
+        final MarketDataService service = new MarketDataService(new RunTrigger());
+        final UnsafeBuffer tick = book(10, 10);
+
+        //the per level debug logging allocates by design, and this module has no logging config so it is on
+        final Logger logger = (Logger) LoggerFactory.getLogger(MarketDataService.class);
+        final Level level = logger.getLevel();
+        logger.setLevel(Level.INFO);
+
+        final long allocated;
+        long touch = 0;
+        try {
+            for (int i = 0; i < 10_000; i++) {
+                service.onMessage(tick);
+            }
+
+            final long before = allocatedBytes();
+            for (int i = 0; i < 100_000; i++) {
+                service.onMessage(tick);
+                touch += service.getBestBidPrice() + service.getCumulativeAskQuantity(5);
+            }
+            allocated = allocatedBytes() - before;
+        } finally {
+            logger.setLevel(level);
+        }
+
+        assertEquals(100_000L * (100 + 150), touch);
+        assertEquals(walkedVwap(service, 3), service.getBookAnalytics().vwap(3), 1e-9);
+        assertTrue("market data service allocated " + allocated + " bytes over 100000 updates", allocated < 64 * 1024);
+    }
+}
@@ -0,0 +1,214 @@
+package codingblackfemales.service;
+
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.sotw.ChildOrder;
+import codingblackfemales.sotw.ChildOrderTotals;
+import codingblackfemales.sotw.OrderState;
+import messages.order.*;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+
+import static org.junit.Assert.*;
+
+public class OrderServiceTest {
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(256));
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final CreateOrderEncoder createEncoder = new CreateOrderEncoder();
+    private final AckedOrderEncoder ackedEncoder = new AckedOrderEncoder();
+    private final CancelAckedOrderEncoder cancelAckedEncoder = new CancelAckedOrderEncoder();
+    private final PartialFillOrderEncoder partialFillEncoder = new PartialFillOrderEncoder();
+
+    private final OrderService orderService = new OrderService(new RunTrigger());
+
+    private static long allocatedBytes(){
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private final FillOrderEncoder fillEncoder = new FillOrderEncoder();
+
+    private void create(long orderId, long quantity, long price){
+        create(orderId, Side.BUY, quantity, price);
+    }
+
+    private void create(long orderId, Side side, long quantity, long price){
+        createEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder)
+                .orderId(orderId).quantity(quantity).price(price).side(side).instrumentId(1L);
+        orderService.onMessage(buffer);
+    }
+
+    private void fill(long orderId, long quantity, long price){
+        fillEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId).quantity(quantity).price(price);
+        orderService.onMessage(buffer);
+    }
+
+    private void ack(long orderId){
+        ackedEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId);
+        orderService.onMessage(buffer);
+    }
+
+    private void cancelAck(long orderId){
+        cancelAckedEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId);
+        orderService.onMessage(buffer);
+    }
+
+    private void partialFill(long orderId, long quantity, long price){
+        partialFillEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).orderId(orderId).quantity(quantity).price(price);
+        orderService.onMessage(buffer);
+    }
+
+    @Test
+    public void testExecutionReportsUpdateTheirOwnChild() {
+        for (long orderId = 1; orderId <= 1_000; orderId++) {
+            create(orderId, 100, 10 + orderId);
+        }
+
+        ack(500);
+        partialFill(500, 40, 510);
+        cancelAck(999);
+
+        assertEquals(1_000, orderService.children().size());
+        assertEquals(1L, orderService.children().get(0).getOrderId());
+        assertEquals(1_000L, orderService.children().get(999).getOrderId());
+
+        final ChildOrder child = orderService.getChildOrder(500);
+        assertEquals(OrderState.ACKED, child.getState());
+        assertEquals(40L, child.getFilledQuantity());
+        assertEquals(OrderState.CANCELLED, orderService.getChildOrder(999).getState());
+        assertEquals(OrderState.PENDING, orderService.getChildOrder(1).getState());
+        assertNull(orderService.getChildOrder(1_001));
+    }
+
+    @Test
+    public void testActiveChildrenAndTotalsFollowEvents() {
+        create(1, Side.BUY, 100, 10);
+        create(2, Side.BUY, 200, 11);
+        create(3, Side.SELL, 50, 12);
+
+        assertEquals(3, orderService.activeChildren().size());
+
+        partialFill(1, 40, 10);
+        fill(2, 200, 12);
+        cancelAck(1);
+
+        final ChildOrderTotals buys = orderService.totals(Side.BUY);
+        assertEquals(300L, buys.getTotalQuantity());
+        assertEquals(240L, buys.getFilledQuantity());
+        //order 1 is cancelled with 60 left, order 2 is fully filled
+        assertEquals(0L, buys.getLeavesQuantity());
+        assertEquals((40 * 10 + 200 * 12) / 240.0, buys.getAverageFillPrice(), 1e-9);
+
+        final ChildOrderTotals sells = orderService.totals(Side.SELL);
+        assertEquals(50L, sells.getTotalQuantity());
+        assertEquals(50L, sells.getLeavesQuantity());
+        assertEquals(0.0, sells.getAverageFillPrice(), 0);
+
+        assertEquals(2, orderService.activeChildren().size());
+        assertEquals(2L, orderService.activeChildren().get(0).getOrderId());
+        assertEquals(3L, orderService.activeChildren().get(1).getOrderId());
+
+        //a cancelled child that comes back goes back in creation order, with its leaves
+        ack(1);
+        assertEquals(1L, orderService.activeChildren().get(0).getOrderId());
+        assertEquals(60L, buys.getLeavesQuantity());
+        assertEquals(60L, orderService.getChildOrder(1).getLeavesQuantity());
+    }
+
+    private List<Long> activeOrderIds(){
+        final List<Long> orderIds = new ArrayList<>();
+        for (ChildOrder child : orderService.activeChildren()) {
+            orderIds.add(child.getOrderId());
+        }
+        //read by index too, from both ends, and backwards
+        final List<ChildOrder> active = orderService.activeChildren();
+        assertEquals(orderIds.size(), active.size());
+        for (int i = 0; i < active.size(); i++) {
+            assertEquals(orderIds.get(i).longValue(), active.get(i).getOrderId());
+        }
+        final ListIterator<ChildOrder> backwards = active.listIterator(active.size());
+        for (int i = active.size() - 1; i >= 0; i--) {
+            assertEquals(orderIds.get(i).longValue(), backwards.previous().getOrderId());
+        }
+        assertFalse(backwards.hasPrevious());
+        return orderIds;
+    }
+
+    @Test
+    public void testActiveChildrenStayInOrderAsChildrenComeAndGo() {
+        for (long orderId = 1; orderId <= 6; orderId++) {
+            create(orderId, 100, 10);
+        }
+
+        //from the middle
+        cancelAck(3);
+        cancelAck(4);
+        assertEquals(List.of(1L, 2L, 5L, 6L), activeOrderIds());
+
+        //from either end
+        cancelAck(1);
+        cancelAck(6);
+        assertEquals(List.of(2L, 5L), activeOrderIds());
+
+        //back in creation order, in the middle and at either end
+        ack(4);
+        ack(6);
+        ack(1);
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L), activeOrderIds());
+
+        create(7, 100, 10);
+        cancelAck(2);
+        cancelAck(5);
+        assertEquals(List.of(1L, 4L, 6L, 7L), activeOrderIds());
+
+        for (long orderId : List.of(1L, 4L, 6L, 7L)) {
+            cancelAck(orderId);
+        }
+        assertEquals(List.of(), activeOrderIds());
+        assertTrue(orderService.activeChildren().isEmpty());
+
+        ack(3);
+        assertEquals(List.of(3L), activeOrderIds());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testActiveChildrenAreReadOnly() {
+        create(1, 100, 10);
+        orderService.activeChildren().remove(0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnknownOrderIdIsRejected() {
+        ack(42);
+    }
+
+    @Test
+    public void testStateUpdatesDoNotAllocate() {
+        final int children = 10_000;
+        for (long orderId = 1; orderId <= children; orderId++) {
+            create(orderId, 100, 10);
+        }
+
+        //warm up, so class loading and compilation of the path aren't counted
+        for (long orderId = 1; orderId <= children; orderId++) {
+            ack(orderId);
+        }
+
+        final long before = allocatedBytes();
+        for (int i = 0; i < 10; i++) {
+            for (long orderId = 1; orderId <= children; orderId++) {
+                ack(orderId);
+                cancelAck(orderId);
+            }
+        }
+        final long allocated = allocatedBytes() - before;
+
+        assertEquals(OrderState.CANCELLED, orderService.getChildOrder(children).getState());
+        assertTrue("order service allocated " + allocated + " bytes over " + (20 * children) + " updates", allocated < 64 * 1024);
+    }
+}
@@ -0,0 +1,73 @@
+package codingblackfemales.backtest;
+
+import codingblackfemales.algo.AlgoLogic;
+import codingblackfemales.container.Actioner;
+import codingblackfemales.container.AlgoContainer;
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.orderbook.OrderBook;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.consumer.OrderBookInboundOrderConsumer;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.latency.PipelineLatency;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.service.MarketDataService;
+import codingblackfemales.service.OrderService;
+import org.agrona.DirectBuffer;
+
+/**
+ * One self contained back test: a network, sequencer, order book and algo container wired the way the back tests
+ * wire them, running one algo logic. Nothing is shared between pipelines, so any number can run side by side on
+ * different threads; each pipeline itself is single threaded.
+ *
+ * There is no logging consumer, so a run is not dominated by logging every message.
+ */
+public class BackTestPipeline {
+
+    private final DefaultSequencer sequencer;
+    private final OrderBook book;
+    private final AlgoContainer container;
+    private final PipelineLatency latency = new PipelineLatency();
+
+    public BackTestPipeline(final AlgoLogic logic) {
+        final TestNetwork network = new TestNetwork();
+        sequencer = new DefaultSequencer(network);
+
+        final RunTrigger runTrigger = new RunTrigger();
+        final Actioner actioner = new Actioner(sequencer);
+
+        book = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+        final OrderBookInboundOrderConsumer orderConsumer = new OrderBookInboundOrderConsumer(book);
+
+        container = new AlgoContainer(new MarketDataService(runTrigger), new OrderService(runTrigger), runTrigger, actioner);
+        container.setLogic(logic);
+
+        network.addConsumer(book);
+        network.addConsumer(container.getMarketDataService());
+        network.addConsumer(container.getOrderService());
+        network.addConsumer(orderConsumer);
+        network.addConsumer(container);
+
+        sequencer.setLatency(latency);
+        container.setLatency(latency);
+    }
+
+    /**
+     * Sends a command, normally a market data tick, into the sequencer. The buffer is only read.
+     */
+    public void send(final DirectBuffer command) {
+        sequencer.onCommand(command);
+    }
+
+    public OrderBook getBook() {
+        return book;
+    }
+
+    public AlgoContainer getContainer() {
+        return container;
+    }
+
+    public PipelineLatency getLatency() {
+        return latency;
+    }
+}
@@ -0,0 +1,87 @@
+package codingblackfemales.backtest;
+
+import codingblackfemales.algo.AlgoLogic;
+import org.agrona.DirectBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Back tests an algo once per parameter set over the same market data, in parallel, and collects the results into
+ * one report.
+ *
+ * Each parameter set gets its own {@link BackTestPipeline} and its own logic from the factory, so runs share
+ * nothing but the market data, which the sequencers only ever read from. That makes the sweep's results the same as
+ * running each set on its own, one after the other, whatever the pool.
+ */
+public class ParameterSweep<P> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParameterSweep.class);
+
+    private final List<DirectBuffer> marketData;
+    private final Function<P, AlgoLogic> logicFactory;
+    private final ForkJoinPool pool;
+
+    /**
+     * Runs on the common fork join pool.
+     */
+    public ParameterSweep(final List<? extends DirectBuffer> marketData, final Function<P, AlgoLogic> logicFactory) {
+        this(marketData, logicFactory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param marketData the commands sent into every pipeline, in order, normally market data ticks
+     * @param logicFactory creates a new logic for a parameter set
+     */
+    public ParameterSweep(final List<? extends DirectBuffer> marketData, final Function<P, AlgoLogic> logicFactory, final ForkJoinPool pool) {
+        this.marketData = List.copyOf(marketData);
+        this.logicFactory = logicFactory;
+        this.pool = pool;
+    }
+
+    public SweepReport<P> run(final List<P> parameterSets) {
+        final List<ForkJoinTask<SweepResult<P>>> tasks = new ArrayList<>(parameterSets.size());
+        for (P parameters : parameterSets) {
+            tasks.add(pool.submit(() -> runOne(parameters)));
+        }
+
+        final List<SweepResult<P>> results = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                results.add(tasks.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted waiting for the sweep", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Back test failed for parameters " + parameterSets.get(i), e.getCause());
+            }
+        }
+        return new SweepReport<>(results);
+    }
+
+    /**
+     * Back tests one parameter set on the calling thread.
+     */
+    public SweepResult<P> runOne(final P parameters) {
+        final AlgoLogic logic = logicFactory.apply(parameters);
+        final BackTestPipeline pipeline = new BackTestPipeline(logic);
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < marketData.size(); i++) {
+            pipeline.send(marketData.get(i));
+        }
+        final long elapsed = System.nanoTime() - start;
+
+        final SweepResult<P> result = new SweepResult<>(parameters, logic, pipeline, marketData.size(), elapsed);
+        if(logger.isDebugEnabled()){
+            logger.debug("[SWEEP] " + result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package codingblackfemales.backtest;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The results of a {@link ParameterSweep}, in the order the parameter sets were given, printable as one table with
+ * the best P&L first.
+ */
+public class SweepReport<P> {
+
+    private final List<SweepResult<P>> results;
+
+    SweepReport(final List<SweepResult<P>> results) {
+        this.results = List.copyOf(results);
+    }
+
+    public List<SweepResult<P>> getResults() {
+        return results;
+    }
+
+    public List<SweepResult<P>> sortedByPnl() {
+        final List<SweepResult<P>> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingDouble((SweepResult<P> result) -> result.getPnl()).reversed());
+        return sorted;
+    }
+
+    /**
+     * @return the result with the best P&L, or null if nothing was run
+     */
+    public SweepResult<P> best() {
+        return results.isEmpty() ? null : sortedByPnl().get(0);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%12s %6s %8s %8s %8s %10s %8s %8s %10s %10s %10s  %s%n",
+                "pnl", "orders", "filled", "bought", "sold", "mark", "evals", "t2o n", "eval p99", "t2o p99", "run ms", "parameters"));
+        for (SweepResult<P> result : sortedByPnl()) {
+            sb.append(String.format("%12.2f %6d %8d %8d %8d %10.2f %8d %8d %8.3fus %8.3fus %10.3f  %s%n",
+                    result.getPnl(), result.getChildOrders(), result.getFilledQuantity(),
+                    result.getBoughtQuantity(), result.getSoldQuantity(), result.getMarkPrice(),
+                    result.getEvaluateCount(), result.getTickToOrderCount(),
+                    result.getEvaluateP99() / 1000.0, result.getTickToOrderP99() / 1000.0,
+                    result.getElapsedNanos() / 1_000_000.0, result.getParameters()));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package codingblackfemales.backtest;
+
+import codingblackfemales.algo.AlgoLogic;
+import codingblackfemales.sequencer.latency.LatencyHistogram;
+import codingblackfemales.sequencer.latency.PipelineLatency;
+import codingblackfemales.service.MarketDataService;
+import codingblackfemales.sotw.ChildOrderTotals;
+import codingblackfemales.sotw.SimpleAlgoState;
+import messages.order.Side;
+
+/**
+ * What one parameter set did over the market data: its orders and fills, its P&L and how long the algo took.
+ *
+ * P&L is the cash from sells less the cash spent on buys, with whatever position is left marked at the mid of the
+ * last book the algo saw (or the one side there is, if the book is one sided).
+ */
+public class SweepResult<P> {
+
+    private final P parameters;
+    private final AlgoLogic logic;
+
+    private final int childOrders;
+    private final long boughtQuantity;
+    private final long boughtNotional;
+    private final long soldQuantity;
+    private final long soldNotional;
+    private final double markPrice;
+
+    private final long messages;
+    private final long elapsedNanos;
+    private final long evaluateCount;
+    private final long evaluateP50;
+    private final long evaluateP99;
+    private final long tickToOrderCount;
+    private final long tickToOrderP50;
+    private final long tickToOrderP99;
+
+    SweepResult(final P parameters, final AlgoLogic logic, final BackTestPipeline pipeline, final long messages, final long elapsedNanos) {
+        this.parameters = parameters;
+        this.logic = logic;
+        this.messages = messages;
+        this.elapsedNanos = elapsedNanos;
+
+        final SimpleAlgoState state = pipeline.getContainer().getState();
+        final ChildOrderTotals bought = state.getChildOrderTotals(Side.BUY);
+        final ChildOrderTotals sold = state.getChildOrderTotals(Side.SELL);
+        this.childOrders = state.getChildOrders().size();
+        this.boughtQuantity = bought.getFilledQuantity();
+        this.boughtNotional = bought.getFilledNotional();
+        this.soldQuantity = sold.getFilledQuantity();
+        this.soldNotional = sold.getFilledNotional();
+        this.markPrice = markPrice(state.getBestBidPrice(), state.getBestAskPrice());
+
+        final PipelineLatency latency = pipeline.getLatency();
+        final LatencyHistogram evaluate = latency.histogram(PipelineLatency.EVALUATE);
+        this.evaluateCount = evaluate.getTotalCount();
+        this.evaluateP50 = evaluate.getValueAtPercentile(50.0);
+        this.evaluateP99 = evaluate.getValueAtPercentile(99.0);
+        final LatencyHistogram tickToOrder = latency.histogram(PipelineLatency.TICK_TO_ORDER);
+        this.tickToOrderCount = tickToOrder.getTotalCount();
+        this.tickToOrderP50 = tickToOrder.getValueAtPercentile(50.0);
+        this.tickToOrderP99 = tickToOrder.getValueAtPercentile(99.0);
+    }
+
+    private static double markPrice(final long bestBid, final long bestAsk){
+        if(bestBid == MarketDataService.NO_PRICE){
+            return bestAsk == MarketDataService.NO_PRICE ? 0 : bestAsk;
+        }
+        if(bestAsk == MarketDataService.NO_PRICE){
+            return bestBid;
+        }
+        return (bestBid + bestAsk) / 2.0;
+    }
+
+    public P getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the logic that was run, for any figures of its own
+     */
+    public AlgoLogic getLogic() {
+        return logic;
+    }
+
+    public int getChildOrders() {
+        return childOrders;
+    }
+
+    public long getFilledQuantity() {
+        return boughtQuantity + soldQuantity;
+    }
+
+    public long getBoughtQuantity() {
+        return boughtQuantity;
+    }
+
+    public long getSoldQuantity() {
+        return soldQuantity;
+    }
+
+    /**
+     * @return bought less sold
+     */
+    public long getPosition() {
+        return boughtQuantity - soldQuantity;
+    }
+
+    public double getMarkPrice() {
+        return markPrice;
+    }
+
+    public double getPnl() {
+        return soldNotional - boughtNotional + getPosition() * markPrice;
+    }
+
+    public long getMessages() {
+        return messages;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getEvaluateCount() {
+        return evaluateCount;
+    }
+
+    public long getEvaluateP50() {
+        return evaluateP50;
+    }
+
+    public long getEvaluateP99() {
+        return evaluateP99;
+    }
+
+    public long getTickToOrderCount() {
+        return tickToOrderCount;
+    }
+
+    public long getTickToOrderP50() {
+        return tickToOrderP50;
+    }
+
+    public long getTickToOrderP99() {
+        return tickToOrderP99;
+    }
+
+    @Override
+    public String toString() {
+        return "SweepResult(" + parameters + ",orders=" + childOrders + ",filled=" + getFilledQuantity()
+                + ",position=" + getPosition() + ",pnl=" + String.format("%.2f", getPnl()) + ")";
+    }
+}
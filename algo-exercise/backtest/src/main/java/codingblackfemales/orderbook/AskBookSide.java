@@ -10,6 +10,10 @@ public class AskBookSide extends OrderBookSide {
 
     private final MutatingAddOrderVisitor addOrderVisitor = new MutatingAddOrderVisitor();
 
+    public AskBookSide() {
+        super(false);
+    }
+
 //    public void onBookUpdate(BookUpdateDecoder bookUpdate){
 //        removeMarketDataOrders();
 //        addAskMarketDataOrders(bookUpdate);
@@ -25,13 +29,6 @@ public class AskBookSide extends OrderBookSide {
         return addOrderVisitor;
     }
 
-    boolean isBetweenLevels(OrderBookLevel previous, OrderBookLevel next, long price){
-        return previous != null && next != null && previous.getPrice() < price && next.getPrice() > price;
-    }
-
-    boolean isNewDeepestLevel(OrderBookLevel previous, OrderBookLevel next, long price){
-        return previous != null && next == null && previous.getPrice() < price;
-    }
 //
 //    public void addAskMarketDataOrders(AskBookUpdateDecoder askDecoder){
 //        for(AskBookUpdateDecoder.AskBookDecoder decoder : askDecoder.askBook()) {
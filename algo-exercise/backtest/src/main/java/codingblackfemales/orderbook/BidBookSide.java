@@ -10,6 +10,10 @@ public class BidBookSide extends OrderBookSide{
 
     private final MutatingAddOrderVisitor addOrderVisitor = new MutatingAddOrderVisitor();
 
+    public BidBookSide() {
+        super(true);
+    }
+
 //    public void onBidBook(BidBookUpdateDecoder bidBook) {
 //        removeMarketDataOrders();
 //        AddBidMarketDataOrders(bidBook);
@@ -25,13 +29,6 @@ public class BidBookSide extends OrderBookSide{
         return addOrderVisitor;
     }
 
-    boolean isBetweenLevels(OrderBookLevel previous, OrderBookLevel next, long price){
-        return previous != null && next != null && previous.getPrice() > price && next.getPrice() < price;
-    }
-
-    boolean isNewDeepestLevel(OrderBookLevel previous, OrderBookLevel next, long price){
-        return previous != null && next == null && previous.getPrice() > price;
-    }
 //
 //    void AddBidMarketDataOrders(BidBookUpdateDecoder bidDecoder){
 //        for(BidBookUpdateDecoder.BidBookDecoder decoder : bidDecoder.bidBook()) {
@@ -4,37 +4,113 @@ import codingblackfemales.orderbook.channel.MarketDataChannel;
 import codingblackfemales.orderbook.channel.OrderChannel;
 import codingblackfemales.orderbook.order.LimitOrderFlyweight;
 import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
-import codingblackfemales.orderbook.visitor.CancelOrderVisitor;
 import codingblackfemales.orderbook.visitor.MutatingMatchOneMarketDataOrderVisitor;
 import codingblackfemales.orderbook.visitor.MutatingMatchOneOrderVisitor;
 import codingblackfemales.orderbook.visitor.ReadOnlyMarketDataChannelPublishVisitor;
+import codingblackfemales.orderbook.visitor.ReadOnlyMarketDataDeltaPublishVisitor;
+import codingblackfemales.sequencer.batch.BatchingSequencer;
 import codingblackfemales.sequencer.event.MarketDataEventListener;
+import codingblackfemales.sequencer.eventlog.EventLog;
+import codingblackfemales.sequencer.eventlog.EventType;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
 import messages.marketdata.BookUpdateDecoder;
 import messages.marketdata.Source;
+import messages.marketdata.Venue;
 import messages.order.Side;
 import org.agrona.MutableDirectBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+
 public class OrderBook extends MarketDataEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderBook.class);
 
+    /**
+     * What a book created without an instrument publishes its market data as.
+     */
+    public static final long DEFAULT_INSTRUMENT_ID = 123L;
+    public static final Venue DEFAULT_VENUE = Venue.XLON;
+
     private final MarketDataChannel marketDataChannel;
     private final OrderChannel orderChannel;
 
+    private final long instrumentId;
+    private final Venue venue;
+
+    private final ReadOnlyMarketDataChannelPublishVisitor mktDataVisitor;
+    private final ReadOnlyMarketDataDeltaPublishVisitor mktDataDeltaVisitor;
+
     public OrderBook(final MarketDataChannel marketDataChannel, final OrderChannel orderChannel) {
+        this(marketDataChannel, orderChannel, DEFAULT_INSTRUMENT_ID, DEFAULT_VENUE);
+    }
+
+    public OrderBook(final MarketDataChannel marketDataChannel, final OrderChannel orderChannel,
+                     final long instrumentId, final Venue venue) {
         this.marketDataChannel = marketDataChannel;
         this.orderChannel = orderChannel;
+        this.instrumentId = instrumentId;
+        this.venue = venue;
+        this.mktDataVisitor = new ReadOnlyMarketDataChannelPublishVisitor(instrumentId, venue);
+        this.mktDataDeltaVisitor = new ReadOnlyMarketDataDeltaPublishVisitor(instrumentId, venue);
     }
 
-    private ReadOnlyMarketDataChannelPublishVisitor mktDataVisitor = new ReadOnlyMarketDataChannelPublishVisitor();
+    private boolean publishDeltas = false;
+
+    private EventLog eventLog;
+
+    private BatchingSequencer batching;
+
+    //a fill is dispatched synchronously, so whatever reacts to it can send an order back into the book while it is
+    //still matching; each level of nesting gets its own visitor. The pools only grow the first time a depth is reached.
+    private MutatingMatchOneOrderVisitor[] matchVisitors = new MutatingMatchOneOrderVisitor[0];
+    private MutatingMatchOneMarketDataOrderVisitor[] marketDataMatchVisitors = new MutatingMatchOneMarketDataOrderVisitor[0];
+    private int matchDepth = 0;
+
+    //each update takes the last update's market data orders out of the side before it adds its own, so a side reuses
+    //the same flyweights for every update
+    private final MarketDataOrderPool askMarketDataOrders = new MarketDataOrderPool();
+    private final MarketDataOrderPool bidMarketDataOrders = new MarketDataOrderPool();
 
     private AskBookSide askBookSide = new AskBookSide();
     private BidBookSide bidBookSide = new BidBookSide();
 
+    /**
+     * Publishes only the levels that changed since the last update rather than the whole book. The consumers' view is
+     * worked out from what the book publishes and the full updates it is sent, which they are assumed to see straight
+     * after the book does, i.e. the book is ahead of them on the network.
+     */
+    public void setPublishDeltas(final boolean publishDeltas) {
+        this.publishDeltas = publishDeltas;
+    }
+
+    /**
+     * Logs the orders the book adds and cancels, and each market data publish. Fills are logged by the order channel.
+     */
+    public void setEventLog(final EventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+
+    /**
+     * Sends the fills and the book update an order or market data update leads to as one batch, so they are sequenced
+     * together and the algos see them all before they run. The market data and order channels must send through the
+     * same batching sequencer.
+     */
+    public void setBatching(final BatchingSequencer batching) {
+        this.batching = batching;
+    }
+
+    public long getInstrumentId() {
+        return instrumentId;
+    }
+
+    public Venue getVenue() {
+        return venue;
+    }
+
     public AskBookSide getAskBookSide() {
         return askBookSide;
     }
@@ -60,11 +136,25 @@ public class OrderBook extends MarketDataEventListener {
         //don't process updates from ourself.
         if(!bookUpdate.source().equals(Source.ORDERBOOK)){
             logger.info("[ORDERBOOK] Processing Mkt Data Update");
-            getBidBookSide().removeMarketDataOrders();
-            addOrMatchBidMarketDataOrders(bookUpdate);
+            if(publishDeltas){
+                mktDataDeltaVisitor.stage(bookUpdate);
+            }
+            beginBatch();
+            try {
+                getBidBookSide().removeMarketDataOrders();
+                bidMarketDataOrders.reset();
+                addOrMatchBidMarketDataOrders(bookUpdate);
 
-            getAskBookSide().removeMarketDataOrders();
-            addOrMatchAskMarketDataOrders(bookUpdate);
+                getAskBookSide().removeMarketDataOrders();
+                askMarketDataOrders.reset();
+                addOrMatchAskMarketDataOrders(bookUpdate);
+            } finally {
+                endBatch();
+            }
+            if(publishDeltas){
+                //the consumers after us are about to overwrite their book with this update
+                mktDataDeltaVisitor.commit();
+            }
         }
     }
 
@@ -72,8 +162,10 @@ public class OrderBook extends MarketDataEventListener {
         for(BookUpdateDecoder.AskBookDecoder decoder : bookUpdateDecoder.askBook()) {
             final long price = decoder.price();
             final long quantity = decoder.size();
-            var marketOrder = new MarketDataOrderFlyweight(Side.SELL, price, quantity);
-            logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
+            final MarketDataOrderFlyweight marketOrder = askMarketDataOrders.next(Side.SELL, price, quantity);
+            if(logger.isDebugEnabled()){
+                logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
+            }
             if(canMatch(Side.SELL, price)){
                 matchMarketDataOrder(marketOrder);
             }else{
@@ -86,8 +178,10 @@ public class OrderBook extends MarketDataEventListener {
         for(AskBookUpdateDecoder.AskBookDecoder decoder : askBookUpdateDecoder.askBook()) {
             final long price = decoder.price();
             final long quantity = decoder.size();
-            var marketOrder = new MarketDataOrderFlyweight(Side.SELL, price, quantity);
-            logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
+            final MarketDataOrderFlyweight marketOrder = askMarketDataOrders.next(Side.SELL, price, quantity);
+            if(logger.isDebugEnabled()){
+                logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
+            }
             if(canMatch(Side.SELL, price)){
                 matchMarketDataOrder(marketOrder);
             }else{
@@ -100,8 +194,10 @@ public class OrderBook extends MarketDataEventListener {
         for(BidBookUpdateDecoder.BidBookDecoder decoder : askBookUpdateDecoder.bidBook()) {
             final long price = decoder.price();
             final long quantity = decoder.size();
-            var marketOrder = new MarketDataOrderFlyweight(Side.SELL, price, quantity);
-            logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
+            final MarketDataOrderFlyweight marketOrder = bidMarketDataOrders.next(Side.SELL, price, quantity);
+            if(logger.isDebugEnabled()){
+                logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
+            }
             if(canMatch(Side.BUY, price)){
                 matchMarketDataOrder(marketOrder);
             }else{
@@ -114,8 +210,10 @@ public class OrderBook extends MarketDataEventListener {
         for(BookUpdateDecoder.AskBookDecoder decoder : bookUpdateDecoder.askBook()) {
             final long price = decoder.price();
             final long quantity = decoder.size();
-            var marketOrder = new MarketDataOrderFlyweight(Side.SELL, price, quantity);
-            logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
+            final MarketDataOrderFlyweight marketOrder = bidMarketDataOrders.next(Side.SELL, price, quantity);
+            if(logger.isDebugEnabled()){
+                logger.debug("[ORDERBOOK] ASK: Adding order" + marketOrder);
+            }
             if(canMatch(Side.BUY, price)){
                 matchMarketDataOrder(marketOrder);
             }else{
@@ -126,72 +224,193 @@ public class OrderBook extends MarketDataEventListener {
 
     @Override
     public void onAskBook(AskBookUpdateDecoder askBook) {
-        getAskBookSide().removeMarketDataOrders();
-        addOrMatchAskMarketDataOrders(askBook);
+        if(publishDeltas){
+            mktDataDeltaVisitor.stage(askBook);
+        }
+        beginBatch();
+        try {
+            getAskBookSide().removeMarketDataOrders();
+            askMarketDataOrders.reset();
+            addOrMatchAskMarketDataOrders(askBook);
+        } finally {
+            endBatch();
+        }
+        if(publishDeltas){
+            mktDataDeltaVisitor.commit();
+        }
     }
 
     @Override
     public void onBidBook(BidBookUpdateDecoder bidBook) {
-        getBidBookSide().removeMarketDataOrders();
-        addOrMatchBidMarketDataOrders(bidBook);
+        if(publishDeltas){
+            mktDataDeltaVisitor.stage(bidBook);
+        }
+        beginBatch();
+        try {
+            getBidBookSide().removeMarketDataOrders();
+            bidMarketDataOrders.reset();
+            addOrMatchBidMarketDataOrders(bidBook);
+        } finally {
+            endBatch();
+        }
+        if(publishDeltas){
+            mktDataDeltaVisitor.commit();
+        }
+    }
+
+    @Override
+    public void onBookDelta(BookDeltaDecoder bookDelta) {
+        //only the book publishes deltas, so they are our own
     }
 
     public void matchOrder(final LimitOrderFlyweight limit) {
-        final MutatingMatchOneOrderVisitor visitor = new MutatingMatchOneOrderVisitor(limit, orderChannel);
-        if(limit.getSide().equals(Side.BUY)){
-            getAskBookSide().accept(visitor);
-        }else if(limit.getSide().equals(Side.SELL)){
-            getBidBookSide().accept(visitor);
+        if(matchDepth >= matchVisitors.length){
+            final int length = matchVisitors.length;
+            matchVisitors = Arrays.copyOf(matchVisitors, matchDepth + 1);
+            for (int i = length; i < matchVisitors.length; i++) {
+                matchVisitors[i] = new MutatingMatchOneOrderVisitor(orderChannel);
+            }
+        }
+        final MutatingMatchOneOrderVisitor visitor = matchVisitors[matchDepth].reset(limit);
+        matchDepth++;
+        try {
+            if(limit.getSide().equals(Side.BUY)){
+                getAskBookSide().accept(visitor);
+            }else if(limit.getSide().equals(Side.SELL)){
+                getBidBookSide().accept(visitor);
+            }
+        } finally {
+            matchDepth--;
         }
     }
 
     public void matchMarketDataOrder(final MarketDataOrderFlyweight market) {
-        final MutatingMatchOneMarketDataOrderVisitor visitor = new MutatingMatchOneMarketDataOrderVisitor(market, orderChannel);
-        if(market.getSide().equals(Side.BUY)){
-            getAskBookSide().accept(visitor);
-        }else if(market.getSide().equals(Side.SELL)){
-            getBidBookSide().accept(visitor);
+        if(matchDepth >= marketDataMatchVisitors.length){
+            final int length = marketDataMatchVisitors.length;
+            marketDataMatchVisitors = Arrays.copyOf(marketDataMatchVisitors, matchDepth + 1);
+            for (int i = length; i < marketDataMatchVisitors.length; i++) {
+                marketDataMatchVisitors[i] = new MutatingMatchOneMarketDataOrderVisitor(orderChannel);
+            }
+        }
+        final MutatingMatchOneMarketDataOrderVisitor visitor = marketDataMatchVisitors[matchDepth].reset(market);
+        matchDepth++;
+        try {
+            if(market.getSide().equals(Side.BUY)){
+                getAskBookSide().accept(visitor);
+            }else if(market.getSide().equals(Side.SELL)){
+                getBidBookSide().accept(visitor);
+            }
+        } finally {
+            matchDepth--;
         }
     }
 
     public void addLiquidity(final LimitOrderFlyweight limit) {
+        if(eventLog != null){
+            eventLog.log(EventType.BOOK_ORDER_ADDED, limit.getOrderId(), 0, limit.getPrice(), limit.getQuantity(), limit.getSide().value());
+        }
         if(limit.getSide().equals(Side.BUY)){
-            logger.info("[ORDERBOOK] Adding passive limit order to BID book" + limit);
+            if(logger.isInfoEnabled()){
+                logger.info("[ORDERBOOK] Adding passive limit order to BID book" + limit);
+            }
             this.getBidBookSide().addLimitOrder(limit);
         }else{
-            logger.info("A[ORDERBOOK] dding passive limit order to ASK book" + limit);
+            if(logger.isInfoEnabled()){
+                logger.info("A[ORDERBOOK] dding passive limit order to ASK book" + limit);
+            }
             this.getAskBookSide().addLimitOrder(limit);
         }
     }
 
     public void onLimitOrder(final LimitOrderFlyweight limit) {
-        if(canMatch(limit.getSide(), limit.getPrice())){
-            matchOrder(limit);
-        }else{
-            addLiquidity(limit);
+        beginBatch();
+        try {
+            if(canMatch(limit.getSide(), limit.getPrice())){
+                matchOrder(limit);
+            }else{
+                addLiquidity(limit);
+            }
+
+            publishBook();
+        } finally {
+            endBatch();
         }
+    }
 
-        publishBook();
+    private void beginBatch(){
+        if(batching != null){
+            batching.begin();
+        }
+    }
+
+    private void endBatch(){
+        if(batching != null){
+            batching.end();
+        }
     }
 
     public void onCancelOrder(final long orderIdToCancel){
-        logger.info("[ORDERBOOK] Cancelling order (id=:" + orderIdToCancel + ")");
-        var cancelVisitor = new CancelOrderVisitor(orderIdToCancel);
-        getAskBookSide().accept(cancelVisitor);
-        getBidBookSide().accept(cancelVisitor);
+        if(logger.isInfoEnabled()){
+            logger.info("[ORDERBOOK] Cancelling order (id=:" + orderIdToCancel + ")");
+        }
+        var cancelled = getAskBookSide().cancelOrder(orderIdToCancel);
+        if(cancelled == null){
+            cancelled = getBidBookSide().cancelOrder(orderIdToCancel);
+        }
+        if(eventLog != null){
+            eventLog.log(EventType.BOOK_ORDER_CANCELLED, orderIdToCancel, cancelled != null ? 1 : 0);
+        }
+        if(cancelled != null && logger.isInfoEnabled()){
+            logger.info("[ORDERBOOK] Cancelling order: " + cancelled);
+        }
         publishBook();
     }
 
 
     public void publishBook(){
-        final var messageBuffer = getBookUpdateMessage();
+        //a delta is sent even when nothing changed, the consumers run on every update either way
+        final var messageBuffer = publishDeltas ? getBookDeltaMessage() : getBookUpdateMessage();
+        if(eventLog != null){
+            eventLog.log(EventType.BOOK_PUBLISHED, instrumentId, publishDeltas ? BookDeltaDecoder.TEMPLATE_ID : BookUpdateDecoder.TEMPLATE_ID);
+        }
         marketDataChannel.publish(messageBuffer);
     }
 
+    public MutableDirectBuffer getBookDeltaMessage(){
+        mktDataDeltaVisitor.start();
+        getBidBookSide().accept(mktDataDeltaVisitor);
+        getAskBookSide().accept(mktDataDeltaVisitor);
+        return mktDataDeltaVisitor.end();
+    }
+
     public MutableDirectBuffer getBookUpdateMessage(){
         mktDataVisitor.start();
         getBidBookSide().accept(mktDataVisitor);
         getAskBookSide().accept(mktDataVisitor);
         return mktDataVisitor.end();
     }
+
+    private static final class MarketDataOrderPool {
+
+        private MarketDataOrderFlyweight[] orders = new MarketDataOrderFlyweight[0];
+        private int used = 0;
+
+        /**
+         * Called once the side has no market data orders left in it, so they can all be handed out again.
+         */
+        void reset(){
+            used = 0;
+        }
+
+        MarketDataOrderFlyweight next(final Side side, final long price, final long quantity){
+            if(used == orders.length){
+                final int length = orders.length;
+                orders = Arrays.copyOf(orders, Math.max(8, length * 2));
+                for (int i = length; i < orders.length; i++) {
+                    orders[i] = new MarketDataOrderFlyweight(side, price, quantity);
+                }
+            }
+            return orders[used++].set(side, price, quantity);
+        }
+    }
 }
@@ -0,0 +1,203 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.collection.extrusive.LongToObjHashMap;
+import codingblackfemales.collection.extrusive.LongToObjMap;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.sequencer.eventlog.EventLog;
+import codingblackfemales.sequencer.net.Consumer;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The back test's books, one per instrument and venue, so that one back test can simulate a whole universe of
+ * symbols. Market data goes to the book for its instrument and venue, which is created the first time either is seen.
+ * New orders carry no venue, so they go to their instrument's book on the order venue, and cancels go to whichever
+ * book the order was sent to. That book is remembered until the order is cancelled or fully filled.
+ *
+ * Add the registry to the network in place of the book, and route orders with an
+ * {@link codingblackfemales.orderbook.consumer.OrderBookInboundOrderConsumer} built on it. A registry built around a
+ * single book sends everything to that book whatever instrument it is for, as the back test did with one book.
+ */
+public class OrderBookRegistry implements Consumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderBookRegistry.class);
+
+    private final MarketDataChannel marketDataChannel;
+    private final OrderChannel orderChannel;
+    private final Venue orderVenue;
+
+    //set when every instrument shares the one book
+    private final OrderBook singleBook;
+
+    //indexed by venue ordinal, then keyed by instrument
+    private final LongToObjMap<OrderBook>[] booksByVenue;
+    private final LongToObjMap<OrderBook> booksByOrderId = new LongToObjHashMap<>();
+    private final List<OrderBook> books = new ArrayList<>();
+
+    private boolean publishDeltas = false;
+    private EventLog eventLog;
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookUpdateDecoder book = new BookUpdateDecoder();
+    private final AskBookUpdateDecoder ask = new AskBookUpdateDecoder();
+    private final BidBookUpdateDecoder bid = new BidBookUpdateDecoder();
+
+    public OrderBookRegistry(final MarketDataChannel marketDataChannel, final OrderChannel orderChannel) {
+        this(marketDataChannel, orderChannel, OrderBook.DEFAULT_VENUE);
+    }
+
+    /**
+     * @param orderVenue the venue of the books new orders are sent to
+     */
+    @SuppressWarnings("unchecked")
+    public OrderBookRegistry(final MarketDataChannel marketDataChannel, final OrderChannel orderChannel, final Venue orderVenue) {
+        this.marketDataChannel = marketDataChannel;
+        this.orderChannel = orderChannel;
+        this.orderVenue = orderVenue;
+        this.singleBook = null;
+        this.booksByVenue = new LongToObjMap[Venue.values().length];
+        for (int i = 0; i < booksByVenue.length; i++) {
+            booksByVenue[i] = new LongToObjHashMap<>();
+        }
+    }
+
+    /**
+     * A registry that sends everything to the one book.
+     */
+    public OrderBookRegistry(final OrderBook singleBook) {
+        this.marketDataChannel = null;
+        this.orderChannel = null;
+        this.orderVenue = singleBook.getVenue();
+        this.singleBook = singleBook;
+        this.booksByVenue = null;
+        this.books.add(singleBook);
+    }
+
+    /**
+     * Publishes deltas from every book, those already created and those created from here on.
+     */
+    public void setPublishDeltas(final boolean publishDeltas) {
+        this.publishDeltas = publishDeltas;
+        for (int i = 0; i < books.size(); i++) {
+            books.get(i).setPublishDeltas(publishDeltas);
+        }
+    }
+
+    /**
+     * Logs to the event log from every book, those already created and those created from here on.
+     */
+    public void setEventLog(final EventLog eventLog) {
+        this.eventLog = eventLog;
+        for (int i = 0; i < books.size(); i++) {
+            books.get(i).setEventLog(eventLog);
+        }
+    }
+
+    public Venue getOrderVenue() {
+        return orderVenue;
+    }
+
+    /**
+     * @return the book for the instrument on the venue, or null if there isn't one yet
+     */
+    public OrderBook getBook(final long instrumentId, final Venue venue) {
+        if(singleBook != null){
+            return singleBook;
+        }
+        return booksByVenue[venue.ordinal()].get(instrumentId);
+    }
+
+    public OrderBook getOrCreateBook(final long instrumentId, final Venue venue) {
+        final OrderBook existing = getBook(instrumentId, venue);
+        if(existing != null){
+            return existing;
+        }
+        final OrderBook created = new OrderBook(marketDataChannel, orderChannel, instrumentId, venue);
+        created.setPublishDeltas(publishDeltas);
+        created.setEventLog(eventLog);
+        booksByVenue[venue.ordinal()].put(instrumentId, created);
+        books.add(created);
+        if(logger.isInfoEnabled()){
+            logger.info("[ORDERBOOK] Created book for instrument " + instrumentId + " on " + venue);
+        }
+        return created;
+    }
+
+    /**
+     * @return the books in the order they were created
+     */
+    public List<OrderBook> getBooks() {
+        return Collections.unmodifiableList(books);
+    }
+
+    /**
+     * Finds the book a new order goes to, and remembers it for the order's cancel.
+     */
+    public OrderBook onNewOrder(final long orderId, final long instrumentId) {
+        final OrderBook orderBook = getOrCreateBook(instrumentId, orderVenue);
+        if(singleBook == null){
+            booksByOrderId.put(orderId, orderBook);
+        }
+        return orderBook;
+    }
+
+    /**
+     * @return the book the order was sent to, or null if it wasn't sent to any
+     */
+    public OrderBook getBookForOrder(final long orderId) {
+        if(singleBook != null){
+            return singleBook;
+        }
+        return booksByOrderId.get(orderId);
+    }
+
+    /**
+     * Forgets the book the order was sent to, once it is cancelled or fully filled and gets no more events.
+     */
+    public void onOrderDone(final long orderId) {
+        if(singleBook == null){
+            booksByOrderId.remove(orderId);
+        }
+    }
+
+    /**
+     * @return how many orders the registry remembers the book of, i.e. sent and not yet cancelled or fully filled
+     */
+    int getOpenOrderCount() {
+        return booksByOrderId.size();
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        header.wrap(buffer, 0);
+        if(header.schemaId() != BookUpdateDecoder.SCHEMA_ID){
+            return;
+        }
+
+        final OrderBook orderBook;
+        final int offset = header.encodedLength();
+        if(singleBook != null){
+            orderBook = singleBook;
+        }else if(header.templateId() == BookUpdateDecoder.TEMPLATE_ID){
+            book.wrap(buffer, offset, header.blockLength(), header.version());
+            orderBook = getOrCreateBook(book.instrumentId(), book.venue());
+        }else if(header.templateId() == AskBookUpdateDecoder.TEMPLATE_ID){
+            ask.wrap(buffer, offset, header.blockLength(), header.version());
+            orderBook = getOrCreateBook(ask.instrumentId(), ask.venue());
+        }else if(header.templateId() == BidBookUpdateDecoder.TEMPLATE_ID){
+            bid.wrap(buffer, offset, header.blockLength(), header.version());
+            orderBook = getOrCreateBook(bid.instrumentId(), bid.venue());
+        }else{
+            //deltas are only published by the books themselves
+            return;
+        }
+        orderBook.onMessage(buffer);
+    }
+}
@@ -1,5 +1,8 @@
 package codingblackfemales.orderbook;
 
+import codingblackfemales.collection.extrusive.LongToObjHashMap;
+import codingblackfemales.collection.extrusive.LongToObjMap;
+import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
 import codingblackfemales.orderbook.order.LimitOrderFlyweight;
 import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
 import codingblackfemales.orderbook.visitor.FilteringOrderBookVisitor;
@@ -7,11 +10,29 @@ import codingblackfemales.orderbook.visitor.MutatingAddOrderVisitor;
 import codingblackfemales.orderbook.visitor.MutatingRemoveAllMarketDataOrdersVisitor;
 import codingblackfemales.orderbook.visitor.OrderBookVisitor;
 
+/**
+ * One side of the book: a chain of levels in book order (best price first), each holding its orders in time order.
+ *
+ * Alongside the chain the side keeps a {@link PriceLevelIndex}, so visitors that only care about one price
+ * ({@link FilteringOrderBookVisitor}, e.g. adding an order) go straight to that level, or straight to the deepest level
+ * when a new one is needed, instead of walking the book. Limit orders resting on the side are also indexed by order
+ * id, so a cancel goes straight to the order and its level.
+ *
+ * Visitors that take orders or levels out of the book should do so with {@link #removeOrder(OrderBookLevel,
+ * DefaultOrderFlyweight)} and {@link #removeLevel(OrderBookLevel)} so the indexes stay in step with the book.
+ */
 public abstract class OrderBookSide {
     private OrderBookLevel firstLevel;
 
+    private final PriceLevelIndex levelIndex;
+    private final LongToObjMap<LimitOrderFlyweight> ordersById = new LongToObjHashMap<>();
+
     private final MutatingRemoveAllMarketDataOrdersVisitor removeMarketDataOrderVisitor = new MutatingRemoveAllMarketDataOrdersVisitor();
 
+    protected OrderBookSide(final boolean bestPriceIsHighest) {
+        this.levelIndex = new PriceLevelIndex(bestPriceIsHighest);
+    }
+
     public boolean canMatch(OrderBookSide side, long quantity, long price){
         return false;
     }
@@ -22,12 +43,63 @@ public abstract class OrderBookSide {
 
     public void setFirstLevel(OrderBookLevel level) {
         firstLevel = level;
+        levelIndex.rebuild(level);
+        reindexOrders();
+    }
+
+    public OrderBookLevel getLevel(final long price){
+        return levelIndex.get(price);
+    }
+
+    public int getLevelCount(){
+        return levelIndex.size();
+    }
+
+    public void removeLevel(final OrderBookLevel level){
+        levelIndex.remove(level);
+        firstLevel = level.remove();
+    }
+
+    public LimitOrderFlyweight getOrder(final long orderId){
+        return ordersById.get(orderId);
+    }
+
+    public int getOrderCount(){
+        return ordersById.size();
+    }
+
+    public void removeOrder(final OrderBookLevel level, final DefaultOrderFlyweight order){
+        level.setFirstOrder(order.remove());
+        if(order instanceof LimitOrderFlyweight){
+            ordersById.remove(((LimitOrderFlyweight) order).getOrderId());
+        }
+    }
+
+    /**
+     * Takes a resting limit order out of its level, leaving the level in the book even if it is now empty.
+     *
+     * @return the cancelled order, or null if there is no order with that id on this side
+     */
+    public LimitOrderFlyweight cancelOrder(final long orderId){
+        final LimitOrderFlyweight order = ordersById.remove(orderId);
+        if(order == null){
+            return null;
+        }
+        final OrderBookLevel level = levelIndex.get(order.getPrice());
+        level.setFirstOrder(order.remove());
+        level.setQuantity(level.getQuantity() - order.getQuantity());
+        return order;
     }
 
     public void accept(final OrderBookVisitor visitor){
 
         visitor.visitSide(this);
 
+        if (visitor instanceof FilteringOrderBookVisitor) {
+            visitPriceLevel(visitor, ((FilteringOrderBookVisitor) visitor).getPrice());
+            return;
+        }
+
         var levelToVisit = getFirstLevel();
 
         //are we the first level...
@@ -38,41 +110,52 @@ public abstract class OrderBookSide {
                 level.accept(visitor, this);
             }
             return;
-        }else{
-            visitOneLevel(visitor, levelToVisit, levelToVisit.next());
         }
 
-        levelToVisit = levelToVisit.next();
-
         while(levelToVisit != null){
-            visitOneLevel(visitor, levelToVisit, levelToVisit.next());
+            levelToVisit.accept(visitor, this);
             levelToVisit = levelToVisit.next();
         }
     }
 
-    private void visitOneLevel(final OrderBookVisitor visitor, OrderBookLevel levelToVisit, OrderBookLevel nextLevel) {
-        if (visitor instanceof FilteringOrderBookVisitor) {
+    private void visitPriceLevel(final OrderBookVisitor visitor, final long price) {
+        final int index = levelIndex.indexOf(price);
 
-            long priceToFind = ((FilteringOrderBookVisitor) visitor).getPrice();
+        if (index >= 0) {
+            levelIndex.levelAt(index).accept(visitor, this);
+            return;
+        }
 
-            if (priceToFind == levelToVisit.getPrice()) {
-                levelToVisit.accept(visitor, this);
-            } else if (isBetweenLevels(levelToVisit, nextLevel, priceToFind)) {
-                visitor.missingBookLevel(levelToVisit, nextLevel, priceToFind);
-            } else if (isNewDeepestLevel(levelToVisit, nextLevel, priceToFind)) {
-                OrderBookLevel level = visitor.missingBookLevel(levelToVisit, nextLevel, priceToFind);
-                levelToVisit.last().add(level);
+        final int insertionPoint = -index - 1;
+
+        if (firstLevel == null) {
+            final OrderBookLevel level = visitor.onNoFirstLevel();
+            if (level != null) {
+                firstLevel = level;
+                levelIndex.insert(insertionPoint, level);
+                level.accept(visitor, this);
             }
-        }else{
-            levelToVisit.accept(visitor, this);
+            return;
         }
-    }
 
+        //only a new deepest level is linked in, prices ahead of the touch or between two levels are not added to the
+        //book (existing back test results depend on this)
+        if (insertionPoint != levelIndex.size()) {
+            return;
+        }
+
+        final OrderBookLevel previous = levelIndex.levelAt(insertionPoint - 1);
+        final OrderBookLevel level = visitor.missingBookLevel(previous, null, price);
 
+        if (level == null) {
+            return;
+        }
 
-    abstract boolean isBetweenLevels(OrderBookLevel previous, OrderBookLevel next, long price);
+        previous.add(level);
+        levelIndex.insert(insertionPoint, level);
 
-    abstract boolean isNewDeepestLevel(OrderBookLevel previous, OrderBookLevel next, long price);
+        level.accept(visitor, this);
+    }
 
     void removeMarketDataOrders(){
         this.accept(removeMarketDataOrderVisitor);
@@ -86,6 +169,20 @@ public abstract class OrderBookSide {
     void addLimitOrder(LimitOrderFlyweight order){
         this.getAddOrderVisitor().setOrderToAdd(order);
         this.accept(this.getAddOrderVisitor());
+        if(this.getAddOrderVisitor().getAddedToLevel() != null){
+            ordersById.put(order.getOrderId(), order);
+        }
+    }
+
+    private void reindexOrders(){
+        ordersById.clear();
+        for(OrderBookLevel level = firstLevel; level != null; level = level.next()){
+            for(DefaultOrderFlyweight order = level.getFirstOrder(); order != null; order = order.next()){
+                if(order instanceof LimitOrderFlyweight){
+                    ordersById.put(((LimitOrderFlyweight) order).getOrderId(), (LimitOrderFlyweight) order);
+                }
+            }
+        }
     }
 
     abstract MutatingAddOrderVisitor getAddOrderVisitor();
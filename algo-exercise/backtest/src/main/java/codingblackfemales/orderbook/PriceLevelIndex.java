@@ -0,0 +1,82 @@
+package codingblackfemales.orderbook;
+
+import java.util.Arrays;
+
+/**
+ * The levels of one side of the book, held in book order (best price first) in a pair of parallel arrays so a
+ * price can be found with a binary search over primitive longs rather than by walking the levels.
+ *
+ * Bid prices are stored negated, so both sides sort ascending from the best price.
+ */
+class PriceLevelIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean bestPriceIsHighest;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private OrderBookLevel[] levels = new OrderBookLevel[INITIAL_CAPACITY];
+    private int size = 0;
+
+    PriceLevelIndex(final boolean bestPriceIsHighest) {
+        this.bestPriceIsHighest = bestPriceIsHighest;
+    }
+
+    int size(){
+        return size;
+    }
+
+    /**
+     * @return the position of the level at this price, or -(insertion point) - 1 if there isn't one
+     */
+    int indexOf(final long price){
+        return Arrays.binarySearch(keys, 0, size, keyOf(price));
+    }
+
+    OrderBookLevel levelAt(final int index){
+        return index >= 0 && index < size ? levels[index] : null;
+    }
+
+    OrderBookLevel get(final long price){
+        return levelAt(indexOf(price));
+    }
+
+    void insert(final int index, final OrderBookLevel level){
+        if(size == keys.length){
+            keys = Arrays.copyOf(keys, size * 2);
+            levels = Arrays.copyOf(levels, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(levels, index, levels, index + 1, size - index);
+        keys[index] = keyOf(level.getPrice());
+        levels[index] = level;
+        size++;
+    }
+
+    void remove(final OrderBookLevel level){
+        final int index = indexOf(level.getPrice());
+        if(index >= 0 && levels[index] == level){
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(levels, index + 1, levels, index, size - index - 1);
+            size--;
+            levels[size] = null;
+        }
+    }
+
+    /**
+     * Reindexes from a chain of levels that is already in book order.
+     */
+    void rebuild(final OrderBookLevel firstLevel){
+        Arrays.fill(levels, 0, size, null);
+        size = 0;
+        OrderBookLevel level = firstLevel;
+        while(level != null){
+            insert(size, level);
+            level = level.next();
+        }
+    }
+
+    private long keyOf(final long price){
+        return bestPriceIsHighest ? -price : price;
+    }
+}
@@ -2,40 +2,78 @@ package codingblackfemales.orderbook.channel;
 
 import codingblackfemales.orderbook.order.LimitOrderFlyweight;
 import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sequencer.eventlog.EventLog;
+import codingblackfemales.sequencer.eventlog.EventType;
 import messages.order.FillOrderEncoder;
 import messages.order.MessageHeaderEncoder;
+import messages.order.PartialFillOrderEncoder;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 
+/**
+ * Publishes fills back to the sequencer, encoding into one reused buffer. The sequencer copies each command before
+ * dispatching it, so a fill published from inside that dispatch can reuse the buffer.
+ */
 public class OrderChannel {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderChannel.class);
 
     private final Sequencer sequencer;
 
+    private final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final FillOrderEncoder fillEncoder = new FillOrderEncoder();
+    private final PartialFillOrderEncoder partialFillEncoder = new PartialFillOrderEncoder();
+
+    private EventLog eventLog;
+
     public OrderChannel(Sequencer sequencer) {
         this.sequencer = sequencer;
     }
 
-    public void publishFill(final long fillQuantity, final long price, final LimitOrderFlyweight limit){
-
-        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
-        final UnsafeBuffer directBuffer = new UnsafeBuffer(byteBuffer);
-        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    public void setEventLog(final EventLog eventLog) {
+        this.eventLog = eventLog;
+    }
 
-        final FillOrderEncoder fillEncoder = new FillOrderEncoder();
-        //write the encoded output to the direct buffer
-        fillEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+    /**
+     * Publishes a PartialFillOrder if the limit order still has quantity left after this fill, otherwise a FillOrder.
+     *
+     * @param leavesQuantity what the order has left once this fill is taken off
+     */
+    public void publishFill(final long fillQuantity, final long price, final long leavesQuantity, final LimitOrderFlyweight limit){
+        if(fillQuantity <= 0){
+            throw new IllegalArgumentException("Fill quantity must be positive but was " + fillQuantity + " for order " + limit.getOrderId());
+        }
+        if(eventLog != null){
+            eventLog.log(EventType.BOOK_FILL, limit.getOrderId(), leavesQuantity, price, fillQuantity, 0);
+        }
 
+        if(leavesQuantity > 0){
+            partialFillEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+            partialFillEncoder.orderId(limit.getOrderId());
+            partialFillEncoder.quantity(fillQuantity);
+            partialFillEncoder.price(price);
+            partialFillEncoder.instrumentId(limit.getInstrumentId());
+            partialFillEncoder.timestamp(PartialFillOrderEncoder.timestampNullValue());
 
-        fillEncoder.orderId(limit.getOrderId());
-        fillEncoder.quantity(fillQuantity);
-        fillEncoder.price(price);
+            if(logger.isInfoEnabled()){
+                logger.info("[ORDERBOOK] publishing partial fill to stream: " + partialFillEncoder);
+            }
+        }else{
+            fillEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+            fillEncoder.orderId(limit.getOrderId());
+            fillEncoder.quantity(fillQuantity);
+            fillEncoder.price(price);
+            fillEncoder.instrumentId(limit.getInstrumentId());
+            fillEncoder.timestamp(FillOrderEncoder.timestampNullValue());
 
-        logger.info("[ORDERBOOK] publishing fill to stream: " + fillEncoder);
+            if(logger.isInfoEnabled()){
+                logger.info("[ORDERBOOK] publishing fill to stream: " + fillEncoder);
+            }
+        }
 
         this.sequencer.onCommand(directBuffer);
     }
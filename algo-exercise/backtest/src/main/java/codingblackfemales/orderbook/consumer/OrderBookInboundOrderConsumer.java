@@ -1,32 +1,52 @@
 package codingblackfemales.orderbook.consumer;
 
 import codingblackfemales.orderbook.OrderBook;
+import codingblackfemales.orderbook.OrderBookRegistry;
 import codingblackfemales.orderbook.order.LimitOrderFlyweight;
 import codingblackfemales.sequencer.event.OrderEventListener;
 import messages.order.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Sends the orders on the network to the book they are for: new orders by their instrument, cancels to the book the
+ * order went to. The registry is told when an order is cancelled or fully filled, so it can forget the order's book.
+ */
 public class OrderBookInboundOrderConsumer extends OrderEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderBookInboundOrderConsumer.class);
 
-    private final OrderBook book;
+    private final OrderBookRegistry registry;
 
+    /**
+     * Sends every order to the one book.
+     */
     public OrderBookInboundOrderConsumer(OrderBook book) {
-        this.book = book;
+        this(new OrderBookRegistry(book));
+    }
+
+    public OrderBookInboundOrderConsumer(OrderBookRegistry registry) {
+        this.registry = registry;
     }
 
     @Override
     public void onCreateOrder(CreateOrderDecoder create) {
-        final var limit = new LimitOrderFlyweight(create.side(), create.price(), create.quantity(), create.orderId());
+        final var limit = new LimitOrderFlyweight(create.instrumentId(), create.side(), create.price(), create.quantity(), create.orderId());
         //logger.info("Adding limit Order:" + limit + " to book");
-        book.onLimitOrder(limit);
+        registry.onNewOrder(create.orderId(), create.instrumentId()).onLimitOrder(limit);
     }
 
     @Override
     public void onCancelOrder(CancelOrderDecoder cancel) {
+        final OrderBook book = registry.getBookForOrder(cancel.orderId());
+        if(book == null){
+            if(logger.isWarnEnabled()){
+                logger.warn("[ORDERBOOK] No book for order to cancel (id=:" + cancel.orderId() + ")");
+            }
+            return;
+        }
         book.onCancelOrder(cancel.orderId());
+        registry.onOrderDone(cancel.orderId());
     }
 
     @Override
@@ -51,6 +71,6 @@ public class OrderBookInboundOrderConsumer extends OrderEventListener {
 
     @Override
     public void onFill(FillOrderDecoder fill) {
-
+        registry.onOrderDone(fill.orderId());
     }
 }
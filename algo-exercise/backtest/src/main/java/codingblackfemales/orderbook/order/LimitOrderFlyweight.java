@@ -1,21 +1,35 @@
 package codingblackfemales.orderbook.order;
 
+import codingblackfemales.orderbook.OrderBook;
 import messages.order.Side;
 
 public class LimitOrderFlyweight extends DefaultOrderFlyweight {
 
+    private final long instrumentId;
     private Side side;
     private long price;
     private long quantity;
     private long orderId;
 
     public LimitOrderFlyweight(Side side, long price, long quantity, long orderId) {
+        this(OrderBook.DEFAULT_INSTRUMENT_ID, side, price, quantity, orderId);
+    }
+
+    public LimitOrderFlyweight(long instrumentId, Side side, long price, long quantity, long orderId) {
+        this.instrumentId = instrumentId;
         this.side = side;
         this.price = price;
         this.quantity = quantity;
         this.orderId = orderId;
     }
 
+    /**
+     * The instrument the order was created for, which its fills are published for.
+     */
+    public long getInstrumentId() {
+        return instrumentId;
+    }
+
     public Side getSide() {
         return side;
     }
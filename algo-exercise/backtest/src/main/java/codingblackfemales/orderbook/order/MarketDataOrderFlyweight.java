@@ -14,6 +14,17 @@ public class MarketDataOrderFlyweight extends DefaultOrderFlyweight {
         this.quantity = quantity;
     }
 
+    /**
+     * Points a flyweight that is no longer in the book at another order, so the book can reuse it for the next update.
+     */
+    public MarketDataOrderFlyweight set(final Side side, final long price, final long quantity) {
+        resetLinks();
+        this.side = side;
+        this.price = price;
+        this.quantity = quantity;
+        return this;
+    }
+
     @Override
     public Side getSide() {
         return side;
@@ -31,7 +31,7 @@ public class CancelOrderVisitor implements OrderBookVisitor{
             LimitOrderFlyweight limit = (LimitOrderFlyweight) order;
             if(limit.getOrderId() == orderId){
                 logger.info("[ORDERBOOK] Cancelling order: " + limit);
-                level.setFirstOrder(limit.remove());
+                side.removeOrder(level, limit);
                 level.setQuantity(level.getQuantity() - limit.getQuantity());
             }
         }
@@ -12,6 +12,8 @@ public class MutatingAddOrderVisitor implements OrderBookVisitor,FilteringOrderB
     private static final Logger logger = LoggerFactory.getLogger(MutatingAddOrderVisitor.class);
 
     private DefaultOrderFlyweight orderToAdd;
+    private OrderBookLevel visitedLevel;
+    private OrderBookLevel addedToLevel;
 
     public Order getOrderToAdd() {
         return orderToAdd;
@@ -19,6 +21,15 @@ public class MutatingAddOrderVisitor implements OrderBookVisitor,FilteringOrderB
 
     public void setOrderToAdd(DefaultOrderFlyweight orderToAdd) {
         this.orderToAdd = orderToAdd;
+        this.visitedLevel = null;
+        this.addedToLevel = null;
+    }
+
+    /**
+     * @return the level the last order was added to, or null if the book had no place for it
+     */
+    public OrderBookLevel getAddedToLevel() {
+        return addedToLevel;
     }
 
     @Override
@@ -27,18 +38,23 @@ public class MutatingAddOrderVisitor implements OrderBookVisitor,FilteringOrderB
     @Override
     public void visitLevel(OrderBookSide side, OrderBookLevel level) {
         level.setQuantity(level.getQuantity() + orderToAdd.getQuantity());
+        visitedLevel = level;
     }
 
     @Override
     public void visitOrder(DefaultOrderFlyweight order, OrderBookSide side, OrderBookLevel level, boolean isLast) {
         if(order.getPrice() == orderToAdd.getPrice() && isLast){
-            logger.info("[ORDERBOOK] + " +order);
+            if(logger.isInfoEnabled()){
+                logger.info("[ORDERBOOK] + " +order);
+            }
             order.add(orderToAdd);
+            addedToLevel = level;
         }
     }
 
     @Override
     public DefaultOrderFlyweight onNoFirstOrder() {
+        addedToLevel = visitedLevel;
         return orderToAdd;
     }
 
@@ -14,18 +14,31 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
 
     private static final Logger logger = LoggerFactory.getLogger(MutatingMatchOneMarketDataOrderVisitor.class);
 
-    private final MarketDataOrderFlyweight orderToMatch;
+    private MarketDataOrderFlyweight orderToMatch;
     private long filledQuantity;
     private long remainingQuantity;
     private boolean isFullyFilled = false;
 
     private final OrderChannel orderChannel;
 
+    public MutatingMatchOneMarketDataOrderVisitor(final OrderChannel orderChannel) {
+        this.orderChannel = orderChannel;
+    }
+
     public MutatingMatchOneMarketDataOrderVisitor(final MarketDataOrderFlyweight orderToMatch, final OrderChannel orderChannel) {
+        this.orderChannel = orderChannel;
+        reset(orderToMatch);
+    }
+
+    /**
+     * Points the visitor at the next order to match, so one visitor can be reused for every order.
+     */
+    public MutatingMatchOneMarketDataOrderVisitor reset(final MarketDataOrderFlyweight orderToMatch) {
         this.filledQuantity = 0;
         this.orderToMatch = orderToMatch;
         this.remainingQuantity = orderToMatch.getQuantity();
-        this.orderChannel = orderChannel;
+        this.isFullyFilled = false;
+        return this;
     }
 
     @Override
@@ -33,22 +46,30 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
 
     @Override
     public void visitLevel(OrderBookSide side, OrderBookLevel level) {
-        logger.info("[ORDERBOOK] visiting Level" + level);
+        if(logger.isInfoEnabled()){
+            logger.info("[ORDERBOOK] visiting Level" + level);
+        }
     }
 
     @Override
     public void visitOrder(DefaultOrderFlyweight order, OrderBookSide side, OrderBookLevel level, boolean isLast) {
+        //the market data order is used up, the rest of the book is left as it is
+        if(remainingQuantity == 0){
+            return;
+        }
         if(canMatchOrder(order)){
-            logger.info("[ORDERBOOK] Have found order we can match:" + order + "(" + orderToMatch + ")");
+            if(logger.isInfoEnabled()){
+                logger.info("[ORDERBOOK] Have found order we can match:" + order + "(" + orderToMatch + ")");
+            }
             //if we can take all the order...
             if(remainingQuantity >= order.getQuantity()){
                 long fillQuantity = order.getQuantity();
                 remainingQuantity -= fillQuantity;
                 filledQuantity += fillQuantity;
-                level.setFirstOrder(order.remove());
+                side.removeOrder(level, order);
                 if(order instanceof LimitOrderFlyweight){
-                    logger.info("Filled:" + fillQuantity + "@" + orderToMatch.getPrice());
-                    publishFill(fillQuantity, orderToMatch.getPrice(),(LimitOrderFlyweight) order);
+                    //taken off the book, so nothing left
+                    publishFill(fillQuantity, orderToMatch.getPrice(), 0, (LimitOrderFlyweight) order);
                 }
             //if we can only take a nibble...
             }else if(remainingQuantity < order.getQuantity()){
@@ -58,12 +79,13 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
                 filledQuantity += fillQuantity;
                 order.setQuantity(remainingQty);
                 if(order instanceof LimitOrderFlyweight){
-                    logger.info("Filled:" + fillQuantity + "@" + orderToMatch.getPrice());
-                    publishFill(fillQuantity, orderToMatch.getPrice(), (LimitOrderFlyweight) order);
+                    publishFill(fillQuantity, orderToMatch.getPrice(), remainingQty, (LimitOrderFlyweight) order);
                 }
             }
         }else{
-            logger.info("[ORDERBOOK] Can't match order:" + order + "(" + orderToMatch + ")");
+            if(logger.isInfoEnabled()){
+                logger.info("[ORDERBOOK] Can't match order:" + order + "(" + orderToMatch + ")");
+            }
         }
     }
 
@@ -71,9 +93,11 @@ public class MutatingMatchOneMarketDataOrderVisitor implements OrderBookVisitor{
         return priceIsEqualOrMoreAggressive(order, this.orderToMatch);
     }
 
-    private void publishFill(final long quantity, final long price, LimitOrderFlyweight orderFlyweight){
-        logger.info("[ORDERBOOK] Filled " + quantity + "@" + price + " for order:" + orderFlyweight);
-        orderChannel.publishFill(quantity, price, orderFlyweight);
+    private void publishFill(final long quantity, final long price, final long leavesQuantity, LimitOrderFlyweight orderFlyweight){
+        if(logger.isInfoEnabled()){
+            logger.info("[ORDERBOOK] Filled " + quantity + "@" + price + " for order:" + orderFlyweight);
+        }
+        orderChannel.publishFill(quantity, price, leavesQuantity, orderFlyweight);
     }
 
     private boolean priceIsEqualOrMoreAggressive(final DefaultOrderFlyweight bookOrder, final DefaultOrderFlyweight orderToMatch){
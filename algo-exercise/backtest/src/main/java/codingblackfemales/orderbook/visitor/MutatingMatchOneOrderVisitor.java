@@ -13,18 +13,31 @@ public class MutatingMatchOneOrderVisitor implements OrderBookVisitor{
 
     private static final Logger logger = LoggerFactory.getLogger(MutatingMatchOneOrderVisitor.class);
 
-    private final LimitOrderFlyweight orderToMatch;
+    private LimitOrderFlyweight orderToMatch;
     private long filledQuantity;
     private long remainingQuantity;
     private boolean isFullyFilled = false;
 
     private final OrderChannel orderChannel;
 
+    public MutatingMatchOneOrderVisitor(final OrderChannel orderChannel) {
+        this.orderChannel = orderChannel;
+    }
+
     public MutatingMatchOneOrderVisitor(final LimitOrderFlyweight orderToMatch, final OrderChannel orderChannel) {
+        this.orderChannel = orderChannel;
+        reset(orderToMatch);
+    }
+
+    /**
+     * Points the visitor at the next order to match, so one visitor can be reused for every order.
+     */
+    public MutatingMatchOneOrderVisitor reset(final LimitOrderFlyweight orderToMatch) {
         this.filledQuantity = 0;
         this.orderToMatch = orderToMatch;
         this.remainingQuantity = orderToMatch.getQuantity();
-        this.orderChannel = orderChannel;
+        this.isFullyFilled = false;
+        return this;
     }
 
     @Override
@@ -32,22 +45,30 @@ public class MutatingMatchOneOrderVisitor implements OrderBookVisitor{
 
     @Override
     public void visitLevel(OrderBookSide side, OrderBookLevel level) {
-        logger.info("[ORDERBOOK] visiting Level" + level);
+        if(logger.isInfoEnabled()){
+            logger.info("[ORDERBOOK] visiting Level" + level);
+        }
     }
 
     @Override
     public void visitOrder(DefaultOrderFlyweight order, OrderBookSide side, OrderBookLevel level, boolean isLast) {
+        //the aggressor is done, the rest of the book is left as it is
+        if(remainingQuantity == 0){
+            return;
+        }
         if(canMatchOrder(order)){
-            logger.info("[ORDERBOOK] Have found order we can match:" + order + "(" + orderToMatch + ")");
+            if(logger.isInfoEnabled()){
+                logger.info("[ORDERBOOK] Have found order we can match:" + order + "(" + orderToMatch + ")");
+            }
             //if we can take all the order...
             if(remainingQuantity >= order.getQuantity()){
                 long fillQuantity = order.getQuantity();
                 remainingQuantity -= fillQuantity;
                 filledQuantity += fillQuantity;
-                level.setFirstOrder(order.remove());
+                side.removeOrder(level, order);
                 level.setQuantity(level.getQuantity() - fillQuantity);
                 if(level.getQuantity()==0){
-                    side.setFirstLevel(level.remove());
+                    side.removeLevel(level);
                 }
                 publishFill(fillQuantity, order.getPrice(), orderToMatch);
             //if we can only take a nibble...
@@ -59,13 +80,15 @@ public class MutatingMatchOneOrderVisitor implements OrderBookVisitor{
                 order.setQuantity(remainingQty);
                 level.setQuantity(level.getQuantity() - fillQuantity);
                 if(level.getQuantity()==0){
-                    side.setFirstLevel(level.remove());
+                    side.removeLevel(level);
                 }
                 publishFill(fillQuantity, order.getPrice(), orderToMatch);
             }
 
         }else{
-            logger.info("[ORDERBOOK] Can't match order:" + order + "(" + orderToMatch + ")");
+            if(logger.isInfoEnabled()){
+                logger.info("[ORDERBOOK] Can't match order:" + order + "(" + orderToMatch + ")");
+            }
         }
 
     }
@@ -75,8 +98,10 @@ public class MutatingMatchOneOrderVisitor implements OrderBookVisitor{
     }
 
     private void publishFill(final long quantity, final long price, LimitOrderFlyweight orderFlyweight){
-        logger.info("[ORDERBOOK] Filled " + quantity + "@" + price + " for order:" + orderFlyweight);
-        orderChannel.publishFill(quantity, price, orderFlyweight);
+        if(logger.isInfoEnabled()){
+            logger.info("[ORDERBOOK] Filled " + quantity + "@" + price + " for order:" + orderFlyweight + " leaves " + remainingQuantity);
+        }
+        orderChannel.publishFill(quantity, price, remainingQuantity, orderFlyweight);
     }
 
     private boolean priceIsEqualOrMoreAggressive(final DefaultOrderFlyweight bookOrder, final LimitOrderFlyweight orderToMatch){
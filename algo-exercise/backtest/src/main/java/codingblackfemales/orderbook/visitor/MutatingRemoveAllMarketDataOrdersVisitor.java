@@ -17,13 +17,15 @@ public class MutatingRemoveAllMarketDataOrdersVisitor implements OrderBookVisito
     @Override
     public void visitOrder(DefaultOrderFlyweight order, OrderBookSide side, OrderBookLevel level, boolean isLast) {
         if(order instanceof MarketDataOrderFlyweight){
-            DefaultOrderFlyweight newFirst = order.remove();
-            level.setFirstOrder(newFirst);
-            logger.info("[ORDERBOOK] Removing market data order:" + order);
+            side.removeOrder(level, order);
+            if(logger.isInfoEnabled()){
+                logger.info("[ORDERBOOK] Removing market data order:" + order);
+            }
             if(level.getQuantity() - order.getQuantity() == 0){
-                logger.info("[ORDERBOOK] Removing level:" + level.getPrice());
-                OrderBookLevel newFirstLevel = level.remove();
-                side.setFirstLevel(newFirstLevel);
+                if(logger.isInfoEnabled()){
+                    logger.info("[ORDERBOOK] Removing level:" + level.getPrice());
+                }
+                side.removeLevel(level);
             }
         }
     }
@@ -2,6 +2,7 @@ package codingblackfemales.orderbook.visitor;
 
 import codingblackfemales.orderbook.AskBookSide;
 import codingblackfemales.orderbook.BidBookSide;
+import codingblackfemales.orderbook.OrderBook;
 import codingblackfemales.orderbook.OrderBookLevel;
 import codingblackfemales.orderbook.OrderBookSide;
 import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
@@ -20,17 +21,34 @@ public class ReadOnlyMarketDataChannelPublishVisitor implements OrderBookVisitor
     private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
     private final BookUpdateEncoder encoder = new BookUpdateEncoder();
 
-    private ByteBuffer byteBuffer; //= ByteBuffer.allocateDirect(1024);
-    private UnsafeBuffer directBuffer; //= new UnsafeBuffer(byteBuffer);
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
 
-    public void start(){
-        byteBuffer = ByteBuffer.allocateDirect(1024);
-        directBuffer = new UnsafeBuffer(byteBuffer);
+    //reused for every publish; the sequencer copies the update before dispatching it
+    private final UnsafeBuffer directBuffer;
+
+    private final long instrumentId;
+    private final Venue venue;
+
+    public ReadOnlyMarketDataChannelPublishVisitor() {
+        this(OrderBook.DEFAULT_INSTRUMENT_ID, OrderBook.DEFAULT_VENUE);
+    }
+
+    public ReadOnlyMarketDataChannelPublishVisitor(final long instrumentId, final Venue venue) {
+        this(instrumentId, venue, DEFAULT_BUFFER_SIZE);
+    }
 
+    public ReadOnlyMarketDataChannelPublishVisitor(final long instrumentId, final Venue venue, final int bufferSize) {
+        this.instrumentId = instrumentId;
+        this.venue = venue;
+        this.directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(bufferSize));
+    }
+
+    public void start(){
         encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
         //set the fields to desired valus
-        encoder.venue(Venue.XLON);
-        encoder.instrumentId(123L);
+        encoder.venue(venue);
+        encoder.instrumentId(instrumentId);
+        encoder.timestamp(BookUpdateEncoder.timestampNullValue());
         encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
         encoder.source(Source.ORDERBOOK);
     }
@@ -46,30 +64,41 @@ public class ReadOnlyMarketDataChannelPublishVisitor implements OrderBookVisitor
     @Override
     public void visitSide(OrderBookSide side) {
         if(side instanceof BidBookSide){
+            //the groups are read in order, so an empty side still writes its (empty) group
             if(side.getFirstLevel() == null){
+                encoder.bidBookCount(0);
                 return;
             }
 
             final var size = side.getFirstLevel().size();
-            logger.debug("Bid Side Size: " + size);
+            if(logger.isDebugEnabled()){
+                logger.debug("Bid Side Size: " + size);
+            }
             var bidBookEncoder = encoder.bidBookCount(size);
             OrderBookLevel level = side.getFirstLevel();
             for(int i=0; i< size; i++){
-                logger.debug("Adding Mkt Data Msg BID: Price=" + level.getPrice() + " Qty=" + level.getQuantity());
+                if(logger.isDebugEnabled()){
+                    logger.debug("Adding Mkt Data Msg BID: Price=" + level.getPrice() + " Qty=" + level.getQuantity());
+                }
                 bidBookEncoder.next().size(level.getQuantity()).price(level.getPrice()) ;
                 level = level.next();
             }
         }else if(side instanceof AskBookSide){
             if(side.getFirstLevel() == null){
+                encoder.askBookCount(0);
                 return;
             }
             final var size = side.getFirstLevel().size();
-            logger.debug("Ask Side Size: " + size);
+            if(logger.isDebugEnabled()){
+                logger.debug("Ask Side Size: " + size);
+            }
             var askBookEncoder = encoder.askBookCount(size);
             OrderBookLevel level = side.getFirstLevel();
 
             for(int i=0; i< size; i++){
-                logger.debug("Adding Mkt Data Msg ASK: Price=" + level.getPrice() + " Qty=" + level.getQuantity());
+                if(logger.isDebugEnabled()){
+                    logger.debug("Adding Mkt Data Msg ASK: Price=" + level.getPrice() + " Qty=" + level.getQuantity());
+                }
                 askBookEncoder.next().size(level.getQuantity()).price(level.getPrice()) ;
                 level = level.next();
             }
@@ -0,0 +1,314 @@
+package codingblackfemales.orderbook.visitor;
+
+import codingblackfemales.orderbook.AskBookSide;
+import codingblackfemales.orderbook.BidBookSide;
+import codingblackfemales.orderbook.OrderBook;
+import codingblackfemales.orderbook.OrderBookLevel;
+import codingblackfemales.orderbook.OrderBookSide;
+import codingblackfemales.orderbook.order.DefaultOrderFlyweight;
+import messages.marketdata.*;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Publishes only the levels that changed since the book the consumers last saw, as a {@link BookDeltaEncoder}.
+ *
+ * The price and quantity of each level the consumers hold is kept per side. Each publish walks the side alongside
+ * them: a level that wasn't there is a NEW, one whose quantity moved a CHANGE and one that has gone a DELETE, each
+ * at its position on the side, and only those are encoded, so the message grows with what changed rather than with
+ * the depth of the book.
+ *
+ * A full update on the bus overwrites what the consumers hold, so its levels are taken with {@link #stage} when it
+ * arrives and become the book the next delta is worked out against once it has been processed ({@link #commit}).
+ */
+public class ReadOnlyMarketDataDeltaPublishVisitor implements OrderBookVisitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadOnlyMarketDataDeltaPublishVisitor.class);
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookDeltaEncoder encoder = new BookDeltaEncoder();
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    //reused for every publish; the sequencer copies the update before dispatching it
+    private final UnsafeBuffer directBuffer;
+
+    private final long instrumentId;
+    private final Venue venue;
+
+    private final PublishedLevels publishedBids = new PublishedLevels();
+    private final PublishedLevels publishedAsks = new PublishedLevels();
+
+    //the changes found by the walk, held until the count is known and the group can be encoded
+    private BookSide[] changedSides = new BookSide[16];
+    private UpdateAction[] changedActions = new UpdateAction[16];
+    private int[] changedLevels = new int[16];
+    private long[] changedPrices = new long[16];
+    private long[] changedSizes = new long[16];
+    private int changes = 0;
+
+    public ReadOnlyMarketDataDeltaPublishVisitor() {
+        this(OrderBook.DEFAULT_INSTRUMENT_ID, OrderBook.DEFAULT_VENUE);
+    }
+
+    public ReadOnlyMarketDataDeltaPublishVisitor(final long instrumentId, final Venue venue) {
+        this(instrumentId, venue, DEFAULT_BUFFER_SIZE);
+    }
+
+    public ReadOnlyMarketDataDeltaPublishVisitor(final long instrumentId, final Venue venue, final int bufferSize) {
+        this.instrumentId = instrumentId;
+        this.venue = venue;
+        this.directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(bufferSize));
+    }
+
+    public void start(){
+        changes = 0;
+    }
+
+    public MutableDirectBuffer end(){
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.instrumentId(instrumentId);
+        encoder.timestamp(BookDeltaEncoder.timestampNullValue());
+        encoder.venue(venue);
+        encoder.source(Source.ORDERBOOK);
+
+        final BookDeltaEncoder.LevelsEncoder levelsEncoder = encoder.levelsCount(changes);
+        for (int i = 0; i < changes; i++) {
+            levelsEncoder.next().side(changedSides[i]).action(changedActions[i]).level(changedLevels[i])
+                    .price(changedPrices[i]).size(changedSizes[i]);
+        }
+        return directBuffer;
+    }
+
+    /**
+     * @return the number of levels in the last delta
+     */
+    public int getChangeCount(){
+        return changes;
+    }
+
+    /**
+     * Takes the levels of a full update that the consumers will hold once it has been dispatched.
+     */
+    public void stage(final BookUpdateDecoder bookUpdate){
+        publishedBids.stageClear();
+        for(BookUpdateDecoder.BidBookDecoder decoder : bookUpdate.bidBook()){
+            publishedBids.stage(decoder.price(), decoder.size());
+        }
+        publishedAsks.stageClear();
+        for(BookUpdateDecoder.AskBookDecoder decoder : bookUpdate.askBook()){
+            publishedAsks.stage(decoder.price(), decoder.size());
+        }
+        bookUpdate.sbeRewind();
+    }
+
+    public void stage(final BidBookUpdateDecoder bidBook){
+        publishedBids.stageClear();
+        for(BidBookUpdateDecoder.BidBookDecoder decoder : bidBook.bidBook()){
+            publishedBids.stage(decoder.price(), decoder.size());
+        }
+        bidBook.sbeRewind();
+    }
+
+    public void stage(final AskBookUpdateDecoder askBook){
+        publishedAsks.stageClear();
+        for(AskBookUpdateDecoder.AskBookDecoder decoder : askBook.askBook()){
+            publishedAsks.stage(decoder.price(), decoder.size());
+        }
+        askBook.sbeRewind();
+    }
+
+    /**
+     * Makes the staged levels the ones the next delta is worked out against.
+     */
+    public void commit(){
+        publishedBids.commit();
+        publishedAsks.commit();
+    }
+
+    @Override
+    public void visitLevel(OrderBookSide side, OrderBookLevel level) {}
+
+    @Override
+    public void visitSide(OrderBookSide side) {
+        if(side instanceof BidBookSide){
+            diff(side, publishedBids, BookSide.BID);
+        }else if(side instanceof AskBookSide){
+            diff(side, publishedAsks, BookSide.ASK);
+        }
+    }
+
+    /**
+     * Works out the changes that turn the consumers' side into this one, position by position: the levels they hold
+     * ahead of one that is still there have gone, and one they don't hold at all is new. Changes are sent by position
+     * because that is how the consumers hold their levels, so they apply one without searching for its price. The
+     * sides are a few tens of levels, so the published levels are searched linearly.
+     */
+    private void diff(final OrderBookSide side, final PublishedLevels published, final BookSide bookSide){
+        published.nextClear();
+
+        final OrderBookLevel firstLevel = side.getFirstLevel();
+        final int size = firstLevel == null ? 0 : firstLevel.size();
+
+        OrderBookLevel level = firstLevel;
+        int publishedIndex = 0;
+
+        for(int position = 0; position < size; position++){
+            final long price = level.getPrice();
+            final long quantity = level.getQuantity();
+            final int match = published.indexOf(price, publishedIndex);
+
+            if(match < 0){
+                change(bookSide, UpdateAction.NEW, position, price, quantity);
+            }else{
+                for(; publishedIndex < match; publishedIndex++){
+                    change(bookSide, UpdateAction.DELETE, position, published.prices[publishedIndex], 0L);
+                }
+                if(quantity != published.quantities[match]){
+                    change(bookSide, UpdateAction.CHANGE, position, price, quantity);
+                }
+                publishedIndex = match + 1;
+            }
+
+            published.next(price, quantity);
+            level = level.next();
+        }
+
+        //whatever is left behind the last level has gone
+        for(; publishedIndex < published.size; publishedIndex++){
+            change(bookSide, UpdateAction.DELETE, size, published.prices[publishedIndex], 0L);
+        }
+
+        published.publish();
+    }
+
+    private void change(final BookSide side, final UpdateAction action, final int position, final long price, final long size){
+        if(changes == changedPrices.length){
+            final int length = changes * 2;
+            changedSides = Arrays.copyOf(changedSides, length);
+            changedActions = Arrays.copyOf(changedActions, length);
+            changedLevels = Arrays.copyOf(changedLevels, length);
+            changedPrices = Arrays.copyOf(changedPrices, length);
+            changedSizes = Arrays.copyOf(changedSizes, length);
+        }
+        if(logger.isDebugEnabled()){
+            logger.debug("Adding Mkt Data Delta " + side + " " + action + " at " + position + ": Price=" + price + " Qty=" + size);
+        }
+        changedSides[changes] = side;
+        changedActions[changes] = action;
+        changedLevels[changes] = position;
+        changedPrices[changes] = price;
+        changedSizes[changes] = size;
+        changes++;
+    }
+
+    @Override
+    public void visitOrder(DefaultOrderFlyweight order, OrderBookSide side, OrderBookLevel level, boolean isLast) {}
+
+    @Override
+    public OrderBookLevel missingBookLevel(OrderBookLevel previous, OrderBookLevel next, long price) {
+        return null;
+    }
+
+    @Override
+    public OrderBookLevel onNoFirstLevel() {
+        return null;
+    }
+
+    @Override
+    public DefaultOrderFlyweight onNoFirstOrder() {
+        return null;
+    }
+
+    /**
+     * The levels of one side as the consumers hold them, in book order, alongside the levels being built up by the
+     * current walk and those staged from a full update. Each is a pair of growable primitive arrays, swapped rather
+     * than copied when they take over.
+     */
+    static class PublishedLevels {
+
+        private long[] prices = new long[16];
+        private long[] quantities = new long[16];
+        private int size = 0;
+
+        private long[] nextPrices = new long[16];
+        private long[] nextQuantities = new long[16];
+        private int nextSize = 0;
+
+        private long[] stagedPrices = new long[16];
+        private long[] stagedQuantities = new long[16];
+        private int stagedSize = -1;
+
+        /**
+         * @return the position of the first level at this price from the given position on, or -1
+         */
+        int indexOf(final long price, final int from){
+            for (int i = from; i < size; i++) {
+                if(prices[i] == price){
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void nextClear(){
+            nextSize = 0;
+        }
+
+        void next(final long price, final long quantity){
+            if(nextSize == nextPrices.length){
+                nextPrices = Arrays.copyOf(nextPrices, nextSize * 2);
+                nextQuantities = Arrays.copyOf(nextQuantities, nextSize * 2);
+            }
+            nextPrices[nextSize] = price;
+            nextQuantities[nextSize] = quantity;
+            nextSize++;
+        }
+
+        void publish(){
+            final long[] oldPrices = prices;
+            final long[] oldQuantities = quantities;
+            prices = nextPrices;
+            quantities = nextQuantities;
+            size = nextSize;
+            nextPrices = oldPrices;
+            nextQuantities = oldQuantities;
+        }
+
+        void stageClear(){
+            stagedSize = 0;
+        }
+
+        void stage(final long price, final long quantity){
+            if(stagedSize == stagedPrices.length){
+                stagedPrices = Arrays.copyOf(stagedPrices, stagedSize * 2);
+                stagedQuantities = Arrays.copyOf(stagedQuantities, stagedSize * 2);
+            }
+            stagedPrices[stagedSize] = price;
+            stagedQuantities[stagedSize] = quantity;
+            stagedSize++;
+        }
+
+        /**
+         * Swaps in the staged levels if a full update was staged since the last commit.
+         */
+        void commit(){
+            if(stagedSize < 0){
+                return;
+            }
+            final long[] oldPrices = prices;
+            final long[] oldQuantities = quantities;
+            prices = stagedPrices;
+            quantities = stagedQuantities;
+            size = stagedSize;
+            stagedPrices = oldPrices;
+            stagedQuantities = oldQuantities;
+            stagedSize = -1;
+        }
+    }
+}
@@ -91,7 +91,7 @@ public class MatchingOrderBookVisitorTest {
 
         book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 101L, 100L, 1));
 
-        verify(orderChannel, times(1)).publishFill(eq(100l), eq(101L), any());
+        verify(orderChannel, times(1)).publishFill(eq(100l), eq(101L), eq(0L), any());
     }
 
     @Test
@@ -110,8 +110,8 @@ public class MatchingOrderBookVisitorTest {
 
         book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 115L, 150L, 1));
 
-        verify(orderChannel, times(1)).publishFill(eq(101L), eq(101L), any());
-        verify(orderChannel, times(1)).publishFill(eq(49L), eq(115L), any());
+        verify(orderChannel, times(1)).publishFill(eq(101L), eq(101L), eq(49L), any());
+        verify(orderChannel, times(1)).publishFill(eq(49L), eq(115L), eq(0L), any());
     }
 
     @Test
@@ -130,8 +130,8 @@ public class MatchingOrderBookVisitorTest {
 
         book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 96L, 280L, 1));
 
-        verify(orderChannel, times(1)).publishFill(eq(100L), eq(100L), any());
-        verify(orderChannel, times(1)).publishFill(eq(180L), eq(96L), any());
+        verify(orderChannel, times(1)).publishFill(eq(100L), eq(100L), eq(180L), any());
+        verify(orderChannel, times(1)).publishFill(eq(180L), eq(96L), eq(0L), any());
     }
 
 
@@ -172,7 +172,7 @@ public class MatchingOrderBookVisitorTest {
         book.onBookUpdate(bookUpdateDecoder2);
 
         //then: verify that we get a fill published
-        verify(orderChannel, times(1)).publishFill(eq(101L), eq(99L), any());
+        verify(orderChannel, times(1)).publishFill(eq(101L), eq(99L), eq(179L), any());
     }
 
 }
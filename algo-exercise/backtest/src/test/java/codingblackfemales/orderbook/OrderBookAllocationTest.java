@@ -0,0 +1,89 @@
+package codingblackfemales.orderbook;
+
+import ch.qos.logback.classic.Level;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.AskBookUpdateEncoder;
+import messages.marketdata.Venue;
+import messages.order.FillOrderDecoder;
+import messages.order.MessageHeaderDecoder;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs in a JVM of its own (see the backtest pom): the inline mocks of the channels in the other tests instrument the
+ * real classes, which then allocate on every call.
+ */
+public class OrderBookAllocationTest {
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+
+    private static long allocatedBytes(){
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    @Test
+    public void testBookUpdatesMatchingAndPublishingDoNotAllocate() {
+        final ch.qos.logback.classic.Logger rootLogger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        final Level level = rootLogger.getLevel();
+        rootLogger.setLevel(Level.WARN);
+
+        try {
+            final long[] fills = new long[1];
+            final TestNetwork network = new TestNetwork();
+            network.addConsumer(buffer -> {
+                header.wrap(buffer, 0);
+                if(header.schemaId() == FillOrderDecoder.SCHEMA_ID && header.templateId() == FillOrderDecoder.TEMPLATE_ID){
+                    fills[0]++;
+                }
+            });
+            final DefaultSequencer sequencer = new DefaultSequencer(network);
+            final OrderBook book = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+
+            //resting sells keep the levels in the book, so the updates only replace the market data orders on them
+            book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 100L, Long.MAX_VALUE / 2, 1));
+            book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 101L, Long.MAX_VALUE / 2, 2));
+            book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 102L, Long.MAX_VALUE / 2, 3));
+
+            final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+            final AskBookUpdateEncoder encoder = new AskBookUpdateEncoder().wrapAndApplyHeader(buffer, 0, new messages.marketdata.MessageHeaderEncoder());
+            encoder.instrumentId(OrderBook.DEFAULT_INSTRUMENT_ID).venue(Venue.XLON);
+            encoder.askBookCount(3)
+                    .next().price(100L).size(200L)
+                    .next().price(101L).size(300L)
+                    .next().price(102L).size(400L);
+            final messages.marketdata.MessageHeaderDecoder marketDataHeader = new messages.marketdata.MessageHeaderDecoder().wrap(buffer, 0);
+            final AskBookUpdateDecoder askBook = new AskBookUpdateDecoder();
+
+            final LimitOrderFlyweight aggressor = new LimitOrderFlyweight(Side.BUY, 100L, 1L, 4);
+            for (int i = 0; i < 10_000; i++) {
+                book.onAskBook(askBook.wrap(buffer, marketDataHeader.encodedLength(), marketDataHeader.blockLength(), marketDataHeader.version()));
+                book.onLimitOrder(aggressor);
+            }
+
+            final long before = allocatedBytes();
+            for (int i = 0; i < 100_000; i++) {
+                book.onAskBook(askBook.wrap(buffer, marketDataHeader.encodedLength(), marketDataHeader.blockLength(), marketDataHeader.version()));
+                book.onLimitOrder(aggressor);
+            }
+            final long allocated = allocatedBytes() - before;
+
+            assertEquals(110_000, fills[0]);
+            assertEquals(3, book.getAskBookSide().getLevelCount());
+            assertTrue("allocated " + allocated + " bytes", allocated < 64 * 1024);
+        } finally {
+            rootLogger.setLevel(level);
+        }
+    }
+}
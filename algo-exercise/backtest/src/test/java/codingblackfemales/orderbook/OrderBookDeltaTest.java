@@ -0,0 +1,148 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.service.MarketDataService;
+import messages.marketdata.*;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OrderBookDeltaTest {
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookDeltaDecoder delta = new BookDeltaDecoder();
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder bookUpdateEncoder = new BookUpdateEncoder();
+
+    private static class Venue {
+        final DefaultSequencer sequencer;
+        final OrderBook book;
+        final MarketDataService marketDataService = new MarketDataService(new RunTrigger(), 64);
+
+        Venue(final TestNetwork network, final boolean publishDeltas) {
+            sequencer = new DefaultSequencer(network);
+            book = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+            book.setPublishDeltas(publishDeltas);
+            network.addConsumer(book);
+            network.addConsumer(marketDataService);
+        }
+    }
+
+    private UnsafeBuffer tick(final Random random){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        bookUpdateEncoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        bookUpdateEncoder.venue(messages.marketdata.Venue.XLON);
+        bookUpdateEncoder.instrumentId(123L);
+
+        final int bids = random.nextInt(5);
+        final BookUpdateEncoder.BidBookEncoder bidBook = bookUpdateEncoder.bidBookCount(bids);
+        for (int i = 0; i < bids; i++) {
+            bidBook.next().price(100L - i * 2 - random.nextInt(2)).size(100L + random.nextInt(100));
+        }
+        final int asks = random.nextInt(5);
+        final BookUpdateEncoder.AskBookEncoder askBook = bookUpdateEncoder.askBookCount(asks);
+        for (int i = 0; i < asks; i++) {
+            askBook.next().price(102L + i * 2 + random.nextInt(2)).size(100L + random.nextInt(100));
+        }
+        bookUpdateEncoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        bookUpdateEncoder.source(Source.STREAM);
+
+        return directBuffer;
+    }
+
+    private static String book(final MarketDataService service){
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < service.getBidLength(); i++) {
+            builder.append(service.getBidLevel(i)).append(' ');
+        }
+        for (int i = 0; i < service.getAskLength(); i++) {
+            builder.append(service.getAskLevel(i)).append(' ');
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void testDeltasBuildTheSameBookAsFullUpdates() {
+        final Venue full = new Venue(new TestNetwork(), false);
+        final Venue deltas = new Venue(new TestNetwork(), true);
+
+        final Random random = new Random(42);
+        final List<Long> resting = new ArrayList<>();
+        long orderId = 0;
+
+        for (int i = 0; i < 5_000; i++) {
+            final int event = random.nextInt(10);
+            if(event == 0){
+                final UnsafeBuffer tick = tick(random);
+                full.sequencer.onCommand(tick);
+                deltas.sequencer.onCommand(tick);
+            }else if(event < 3 && !resting.isEmpty()){
+                final long cancel = resting.remove(random.nextInt(resting.size()));
+                full.book.onCancelOrder(cancel);
+                deltas.book.onCancelOrder(cancel);
+            }else{
+                final Side side = random.nextBoolean() ? Side.BUY : Side.SELL;
+                final long price = 96L + random.nextInt(10);
+                final long quantity = 1L + random.nextInt(200);
+                orderId++;
+                full.book.onLimitOrder(new LimitOrderFlyweight(side, price, quantity, orderId));
+                deltas.book.onLimitOrder(new LimitOrderFlyweight(side, price, quantity, orderId));
+                resting.add(orderId);
+            }
+
+            assertEquals("after event " + i, book(full.marketDataService), book(deltas.marketDataService));
+        }
+    }
+
+    @Test
+    public void testOnlyTheLevelsThatChangedArePublished() {
+        final TestNetwork network = new TestNetwork();
+        final List<String> changes = new ArrayList<>();
+        network.addConsumer(buffer -> {
+            header.wrap(buffer, 0);
+            if(header.schemaId() == BookDeltaDecoder.SCHEMA_ID && header.templateId() == BookDeltaDecoder.TEMPLATE_ID){
+                delta.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                for(BookDeltaDecoder.LevelsDecoder level : delta.levels()){
+                    changes.add(level.side() + " " + level.action() + " " + level.level() + " " + level.size() + "@" + level.price());
+                }
+            }
+        });
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        final OrderBook book = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+        book.setPublishDeltas(true);
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 98L, 100L, 1));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 97L, 100L, 2));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 101L, 50L, 3));
+        assertEquals(List.of("BID NEW 0 100@98", "BID NEW 1 100@97", "ASK NEW 0 50@101"), changes);
+
+        //a second order at a price only changes that level
+        changes.clear();
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 98L, 20L, 4));
+        assertEquals(List.of("BID CHANGE 0 120@98"), changes);
+
+        //taking out the whole ask level deletes it
+        changes.clear();
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 101L, 50L, 5));
+        assertEquals(List.of("ASK DELETE 0 0@101"), changes);
+
+        //nothing changed, an empty delta
+        changes.clear();
+        book.onCancelOrder(99L);
+        assertEquals(List.of(), changes);
+    }
+}
@@ -0,0 +1,157 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.action.ActionEncoder;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.consumer.OrderBookInboundOrderConsumer;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import messages.order.CreateOrderDecoder;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OrderBookRegistryTest {
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder bookEncoder = new BookUpdateEncoder();
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookUpdateDecoder published = new BookUpdateDecoder();
+    private final List<String> publishedBooks = new ArrayList<>();
+
+    private final CreateOrderDecoder created = new CreateOrderDecoder();
+    private final List<Long> createdOrderIds = new ArrayList<>();
+
+    private final ActionEncoder orders = new ActionEncoder();
+
+    private DefaultSequencer sequencer;
+    private OrderBookRegistry registry;
+
+    @Before
+    public void setUp() {
+        final TestNetwork network = new TestNetwork();
+        sequencer = new DefaultSequencer(network);
+        registry = new OrderBookRegistry(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+
+        network.addConsumer(buffer -> {
+            header.wrap(buffer, 0);
+            if(header.schemaId() == BookUpdateDecoder.SCHEMA_ID && header.templateId() == BookUpdateDecoder.TEMPLATE_ID){
+                published.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                if(published.source() == Source.ORDERBOOK){
+                    publishedBooks.add(published.instrumentId() + "@" + published.venue());
+                }
+            }else if(header.schemaId() == CreateOrderDecoder.SCHEMA_ID && header.templateId() == CreateOrderDecoder.TEMPLATE_ID){
+                created.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                createdOrderIds.add(created.orderId());
+            }
+        });
+        network.addConsumer(registry);
+        network.addConsumer(new OrderBookInboundOrderConsumer(registry));
+    }
+
+    private UnsafeBuffer book(long instrumentId, Venue venue, long bid, long ask){
+        bookEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder).instrumentId(instrumentId).venue(venue);
+        bookEncoder.bidBookCount(1).next().price(bid).size(100L);
+        bookEncoder.askBookCount(1).next().price(ask).size(100L);
+        bookEncoder.instrumentStatus(InstrumentStatus.CONTINUOUS).source(Source.STREAM);
+        return buffer;
+    }
+
+    @Test
+    public void testMarketDataAndOrdersGoToTheirInstrumentsBook() {
+        sequencer.onCommand(book(1L, Venue.XLON, 98L, 101L));
+        sequencer.onCommand(book(2L, Venue.XLON, 48L, 51L));
+        sequencer.onCommand(book(2L, Venue.XPAR, 47L, 52L));
+
+        assertEquals(3, registry.getBooks().size());
+        final OrderBook first = registry.getBook(1L, Venue.XLON);
+        final OrderBook second = registry.getBook(2L, Venue.XLON);
+        assertEquals(98L, first.getBidBookSide().getFirstLevel().getPrice());
+        assertEquals(48L, second.getBidBookSide().getFirstLevel().getPrice());
+        assertEquals(47L, registry.getBook(2L, Venue.XPAR).getBidBookSide().getFirstLevel().getPrice());
+
+        //rests on the second instrument's book only, which publishes as that instrument
+        orders.setInstrumentId(2L);
+        sequencer.onCommand(orders.createOrder(Side.BUY, 100L, 46L));
+        final long orderId = createdOrderIds.get(0);
+        assertNotNull(second.getBidBookSide().getOrder(orderId));
+        assertEquals(1, first.getBidBookSide().getLevelCount());
+        assertEquals(1, registry.getBook(2L, Venue.XPAR).getBidBookSide().getLevelCount());
+        assertSame(second, registry.getBookForOrder(orderId));
+        assertEquals(List.of("2@XLON"), publishedBooks);
+
+        sequencer.onCommand(orders.cancelOrder(orderId));
+        assertNull(second.getBidBookSide().getOrder(orderId));
+        assertEquals(List.of("2@XLON", "2@XLON"), publishedBooks);
+
+        //an order for an instrument with no market data yet gets a book of its own
+        orders.setInstrumentId(3L);
+        sequencer.onCommand(orders.createOrder(Side.SELL, 10L, 200L));
+        assertEquals(200L, registry.getBook(3L, Venue.XLON).getAskBookSide().getFirstLevel().getPrice());
+        assertEquals(4, registry.getBooks().size());
+    }
+
+    @Test
+    public void testForgetsOrdersOnceCancelledOrFilled() {
+        sequencer.onCommand(book(1L, Venue.XLON, 98L, 101L));
+        sequencer.onCommand(book(2L, Venue.XLON, 48L, 51L));
+
+        //one resting order on each book, and one that takes all of the first book's offer
+        orders.setInstrumentId(1L);
+        sequencer.onCommand(orders.createOrder(Side.BUY, 100L, 97L));
+        sequencer.onCommand(orders.createOrder(Side.BUY, 100L, 101L));
+        orders.setInstrumentId(2L);
+        sequencer.onCommand(orders.createOrder(Side.BUY, 100L, 47L));
+        assertEquals(3, createdOrderIds.size());
+
+        //the fully filled order is done as soon as it is sent
+        assertNull(registry.getBookForOrder(createdOrderIds.get(1)));
+        assertEquals(2, registry.getOpenOrderCount());
+
+        sequencer.onCommand(orders.cancelOrder(createdOrderIds.get(0)));
+        assertNull(registry.getBook(1L, Venue.XLON).getBidBookSide().getOrder(createdOrderIds.get(0)));
+        assertEquals(1, registry.getOpenOrderCount());
+
+        sequencer.onCommand(orders.cancelOrder(createdOrderIds.get(2)));
+        assertNull(registry.getBook(2L, Venue.XLON).getBidBookSide().getOrder(createdOrderIds.get(2)));
+        assertEquals(0, registry.getOpenOrderCount());
+    }
+
+    @Test
+    public void testNewBooksPublishDeltasWhenAsked() {
+        registry.setPublishDeltas(true);
+        orders.setInstrumentId(5L);
+        sequencer.onCommand(orders.createOrder(Side.BUY, 100L, 50L));
+        //only full updates are recorded
+        assertTrue(publishedBooks.isEmpty());
+    }
+
+    @Test
+    public void testSingleBookTakesEveryInstrument() {
+        final TestNetwork network = new TestNetwork();
+        final DefaultSequencer single = new DefaultSequencer(network);
+        final OrderBook book = new OrderBook(new MarketDataChannel(single), new OrderChannel(single));
+        final OrderBookRegistry singleRegistry = new OrderBookRegistry(book);
+        network.addConsumer(singleRegistry);
+        network.addConsumer(new OrderBookInboundOrderConsumer(singleRegistry));
+
+        single.onCommand(book(1L, Venue.XLON, 98L, 101L));
+        single.onCommand(book(2L, Venue.XPAR, 48L, 51L));
+        assertEquals(48L, book.getBidBookSide().getFirstLevel().getPrice());
+
+        orders.setInstrumentId(9L);
+        single.onCommand(orders.createOrder(Side.BUY, 100L, 47L));
+        assertEquals(2, book.getBidBookSide().getLevelCount());
+        assertEquals(List.of(book), singleRegistry.getBooks());
+    }
+}
@@ -0,0 +1,127 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
+import codingblackfemales.orderbook.visitor.MutatingMatchOneOrderVisitor;
+import messages.order.Side;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.*;
+
+public class OrderBookSideTest {
+
+    @Test
+    public void testLevelsAreIndexedByPrice(){
+
+        final BidBookSide side = new BidBookSide();
+
+        for (int i = 0; i < 100; i++) {
+            side.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, 1000 - i, 100));
+        }
+
+        assertEquals(100, side.getLevelCount());
+        assertEquals(1000L, side.getFirstLevel().getPrice());
+        assertEquals(950L, side.getLevel(950).getPrice());
+        assertNull(side.getLevel(1001));
+
+        side.addLimitOrder(new LimitOrderFlyweight(Side.BUY, 950, 50, 1));
+
+        assertEquals(100, side.getLevelCount());
+        assertEquals(150L, side.getLevel(950).getQuantity());
+        assertEquals(1L, ((LimitOrderFlyweight) side.getLevel(950).getFirstOrder().next()).getOrderId());
+    }
+
+    @Test
+    public void testOnlyANewDeepestLevelIsLinkedIn(){
+
+        final AskBookSide side = new AskBookSide();
+        side.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 100, 10));
+        side.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 110, 10));
+
+        side.addLimitOrder(new LimitOrderFlyweight(Side.SELL, 120, 10, 1));
+        side.addLimitOrder(new LimitOrderFlyweight(Side.SELL, 105, 10, 2));
+        side.addLimitOrder(new LimitOrderFlyweight(Side.SELL, 90, 10, 3));
+
+        assertEquals(3, side.getLevelCount());
+        assertEquals(100L, side.getFirstLevel().getPrice());
+        assertEquals(110L, side.getFirstLevel().next().getPrice());
+        assertEquals(120L, side.getFirstLevel().next().next().getPrice());
+        assertSame(side.getLevel(120), side.getFirstLevel().next().next());
+        assertNull(side.getLevel(105));
+        assertNull(side.getLevel(90));
+    }
+
+    @Test
+    public void testRemovingLevelsKeepsTheIndexInStep(){
+
+        final AskBookSide side = new AskBookSide();
+        side.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 100, 10));
+        side.addLimitOrder(new LimitOrderFlyweight(Side.SELL, 110, 10, 1));
+        side.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 120, 10));
+
+        side.removeMarketDataOrders();
+
+        assertEquals(1, side.getLevelCount());
+        assertNull(side.getLevel(100));
+        assertNull(side.getLevel(120));
+        assertSame(side.getFirstLevel(), side.getLevel(110));
+
+        side.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 130, 10));
+
+        assertEquals(2, side.getLevelCount());
+        assertSame(side.getFirstLevel().next(), side.getLevel(130));
+    }
+
+    @Test
+    public void testCancelGoesStraightToTheOrder(){
+
+        final BidBookSide side = new BidBookSide();
+        side.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, 100, 1000));
+        side.addLimitOrder(new LimitOrderFlyweight(Side.BUY, 100, 10, 1));
+        side.addLimitOrder(new LimitOrderFlyweight(Side.BUY, 100, 20, 2));
+        side.addLimitOrder(new LimitOrderFlyweight(Side.BUY, 90, 30, 3));
+
+        assertEquals(3, side.getOrderCount());
+
+        final LimitOrderFlyweight cancelled = side.cancelOrder(1);
+
+        assertEquals(1L, cancelled.getOrderId());
+        assertEquals(1020L, side.getLevel(100).getQuantity());
+        assertEquals(2L, ((LimitOrderFlyweight) side.getLevel(100).getFirstOrder().next()).getOrderId());
+        assertNull(side.getOrder(1));
+        assertNull(side.cancelOrder(1));
+
+        //the level stays, empty, once its last order is cancelled
+        assertEquals(3L, side.cancelOrder(3).getOrderId());
+        assertEquals(0L, side.getLevel(90).getQuantity());
+        assertNull(side.getLevel(90).getFirstOrder());
+        assertEquals(1, side.getOrderCount());
+    }
+
+    @Test
+    public void testOrdersTheBookHasNoPlaceForAreNotIndexed(){
+
+        final AskBookSide side = new AskBookSide();
+        side.addMarketDataOrder(new MarketDataOrderFlyweight(Side.SELL, 100, 10));
+        side.addLimitOrder(new LimitOrderFlyweight(Side.SELL, 90, 10, 1));
+
+        assertNull(side.getOrder(1));
+        assertNull(side.cancelOrder(1));
+        assertEquals(10L, side.getFirstLevel().getQuantity());
+    }
+
+    @Test
+    public void testFilledOrdersLeaveTheIndex(){
+
+        final AskBookSide side = new AskBookSide();
+        side.addLimitOrder(new LimitOrderFlyweight(Side.SELL, 100, 10, 1));
+
+        final OrderChannel orderChannel = Mockito.mock(OrderChannel.class);
+        side.accept(new MutatingMatchOneOrderVisitor(new LimitOrderFlyweight(Side.BUY, 100, 10, 2), orderChannel));
+
+        assertNull(side.getOrder(1));
+        assertEquals(0, side.getOrderCount());
+    }
+}
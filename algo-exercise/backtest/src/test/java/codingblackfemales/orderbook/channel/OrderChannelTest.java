@@ -0,0 +1,184 @@
+package codingblackfemales.orderbook.channel;
+
+import codingblackfemales.orderbook.OrderBook;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.batch.BatchingSequencer;
+import codingblackfemales.sequencer.batch.MessageBatchReader;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.AskBookUpdateEncoder;
+import messages.marketdata.Venue;
+import messages.order.*;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OrderChannelTest {
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final FillOrderDecoder fill = new FillOrderDecoder();
+    private final PartialFillOrderDecoder partialFill = new PartialFillOrderDecoder();
+
+    private TestNetwork recordFills(final List<String> fills){
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(buffer -> {
+            header.wrap(buffer, 0);
+            if(header.schemaId() != FillOrderDecoder.SCHEMA_ID){
+                return;
+            }
+            if(header.templateId() == FillOrderDecoder.TEMPLATE_ID){
+                fill.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                fills.add("fill " + fill.orderId() + " " + fill.quantity() + "@" + fill.price());
+            }else if(header.templateId() == PartialFillOrderDecoder.TEMPLATE_ID){
+                partialFill.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                fills.add("partial " + partialFill.orderId() + " " + partialFill.quantity() + "@" + partialFill.price());
+            }
+        });
+        return network;
+    }
+
+    @Test
+    public void testPartialFillUntilNothingIsLeft() {
+        final List<String> fills = new ArrayList<>();
+        final DefaultSequencer sequencer = new DefaultSequencer(recordFills(fills));
+        final OrderBook book = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+
+        //two resting sells at different prices, a buy that takes the first and part of the second...
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 100L, 50L, 1));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 101L, 100L, 2));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 101L, 120L, 3));
+
+        //the aggressor is partly filled by the first level and completed by the second
+        assertEquals(List.of("partial 3 50@100", "fill 3 70@101"), fills);
+
+        //then a buy bigger than what is left of the second sell
+        fills.clear();
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 101L, 50L, 4));
+
+        assertEquals(List.of("partial 4 30@101"), fills);
+    }
+
+    @Test
+    public void testAggressorThatCrossesMoreThanItNeedsGetsOneFill() {
+        final List<String> fills = new ArrayList<>();
+        final DefaultSequencer sequencer = new DefaultSequencer(recordFills(fills));
+        final OrderBook book = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 100L, 50L, 1));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 100L, 50L, 2));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 101L, 50L, 3));
+
+        //every resting sell crosses, but the buy is done part way into the second
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 101L, 60L, 4));
+
+        assertEquals(List.of("partial 4 50@100", "fill 4 10@100"), fills);
+
+        //and what it left behind is still there for the next buy
+        fills.clear();
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 101L, 90L, 5));
+
+        assertEquals(List.of("partial 5 40@100", "fill 5 50@101"), fills);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroQuantityFillIsRejected() {
+        new OrderChannel(new DefaultSequencer(new TestNetwork())).publishFill(0L, 100L, 0L, new LimitOrderFlyweight(Side.BUY, 100L, 50L, 1));
+    }
+
+    @Test
+    public void testFillsCarryTheInstrumentOfTheirOrder() {
+        final List<Long> instruments = new ArrayList<>();
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(buffer -> {
+            header.wrap(buffer, 0);
+            if(header.schemaId() == FillOrderDecoder.SCHEMA_ID && header.templateId() == FillOrderDecoder.TEMPLATE_ID){
+                instruments.add(fill.wrap(buffer, header.encodedLength(), header.blockLength(), header.version()).instrumentId());
+            }
+        });
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        final OrderBook book = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer), 7L, Venue.XPAR);
+
+        book.onLimitOrder(new LimitOrderFlyweight(7L, Side.SELL, 100L, 50L, 1));
+        book.onLimitOrder(new LimitOrderFlyweight(7L, Side.BUY, 100L, 50L, 2));
+
+        //the aggressor is filled in full
+        assertEquals(List.of(7L), instruments);
+    }
+
+    @Test
+    public void testFillsAndTheBookUpdateAreSentAsOneBatch() {
+        final List<String> fills = new ArrayList<>();
+        final List<Integer> batches = new ArrayList<>();
+        final TestNetwork network = recordFills(fills);
+        final MessageBatchReader reader = new MessageBatchReader();
+        network.addConsumer(new Consumer() {
+            @Override
+            public void onMessage(DirectBuffer buffer) {
+                batches.add(reader.isBatch(buffer) ? reader.count(buffer) : 1);
+            }
+
+            @Override
+            public boolean isBatchAware() {
+                return true;
+            }
+        });
+
+        final BatchingSequencer sequencer = new BatchingSequencer(new DefaultSequencer(network));
+        final OrderBook book = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+        book.setBatching(sequencer);
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 100L, 50L, 1));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.SELL, 101L, 100L, 2));
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 101L, 120L, 3));
+
+        //the same fills as unbatched, but each order's fills and book update are dispatched together
+        assertEquals(List.of("partial 3 50@100", "fill 3 70@101"), fills);
+        assertEquals(List.of(1, 1, 3), batches);
+    }
+
+    @Test
+    public void testFillsFromAnAskOnlyUpdateAreSentAsOneBatch() {
+        final List<String> fills = new ArrayList<>();
+        final List<Integer> batches = new ArrayList<>();
+        final TestNetwork network = recordFills(fills);
+        final MessageBatchReader reader = new MessageBatchReader();
+        network.addConsumer(new Consumer() {
+            @Override
+            public void onMessage(DirectBuffer buffer) {
+                batches.add(reader.isBatch(buffer) ? reader.count(buffer) : 1);
+            }
+
+            @Override
+            public boolean isBatchAware() {
+                return true;
+            }
+        });
+
+        final BatchingSequencer sequencer = new BatchingSequencer(new DefaultSequencer(network));
+        final OrderBook book = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+        book.setBatching(sequencer);
+
+        book.onLimitOrder(new LimitOrderFlyweight(Side.BUY, 100L, 50L, 1));
+
+        //two offers through the resting buy
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final messages.marketdata.MessageHeaderEncoder marketDataHeader = new messages.marketdata.MessageHeaderEncoder();
+        final AskBookUpdateEncoder encoder = new AskBookUpdateEncoder().wrapAndApplyHeader(buffer, 0, marketDataHeader);
+        encoder.instrumentId(OrderBook.DEFAULT_INSTRUMENT_ID).venue(Venue.XLON);
+        encoder.askBookCount(2)
+                .next().price(99L).size(30L)
+                .next().price(100L).size(10L);
+        book.onAskBook(new AskBookUpdateDecoder().wrap(buffer, marketDataHeader.encodedLength(), encoder.sbeBlockLength(), encoder.sbeSchemaVersion()));
+
+        assertEquals(List.of("partial 1 30@99", "partial 1 10@100"), fills);
+        assertEquals(List.of(1, 2), batches);
+    }
+}
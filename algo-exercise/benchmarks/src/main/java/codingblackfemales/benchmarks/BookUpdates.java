@@ -0,0 +1,76 @@
+package codingblackfemales.benchmarks;
+
+import messages.marketdata.*;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encoded market data for the benchmarks: bids from the touch down and asks from the touch up, one tick apart.
+ */
+public final class BookUpdates {
+
+    public static final long BID_TOUCH = 10_000;
+    public static final long ASK_TOUCH = BID_TOUCH + 1;
+    public static final long INSTRUMENT_ID = 123L;
+
+    private static final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+
+    private BookUpdates() {}
+
+    public static int bufferLength(final int levels){
+        return 128 + levels * 2 * 16;
+    }
+
+    public static UnsafeBuffer bookUpdate(final int levels){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(bufferLength(levels)));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(INSTRUMENT_ID);
+
+        final BookUpdateEncoder.BidBookEncoder bids = encoder.bidBookCount(levels);
+        for (int i = 0; i < levels; i++) {
+            bids.next().price(BID_TOUCH - i).size(100L + i);
+        }
+        final BookUpdateEncoder.AskBookEncoder asks = encoder.askBookCount(levels);
+        for (int i = 0; i < levels; i++) {
+            asks.next().price(ASK_TOUCH + i).size(100L + i);
+        }
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+        return buffer;
+    }
+
+    public static UnsafeBuffer bidBookUpdate(final int levels){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(bufferLength(levels)));
+        final BidBookUpdateEncoder encoder = new BidBookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(INSTRUMENT_ID);
+
+        final BidBookUpdateEncoder.BidBookEncoder bids = encoder.bidBookCount(levels);
+        for (int i = 0; i < levels; i++) {
+            bids.next().price(BID_TOUCH - i).size(100L + i);
+        }
+        return buffer;
+    }
+
+    public static UnsafeBuffer askBookUpdate(final int levels){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(bufferLength(levels)));
+        final AskBookUpdateEncoder encoder = new AskBookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(INSTRUMENT_ID);
+
+        final AskBookUpdateEncoder.AskBookEncoder asks = encoder.askBookCount(levels);
+        for (int i = 0; i < levels; i++) {
+            asks.next().price(ASK_TOUCH + i).size(100L + i);
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,75 @@
+package codingblackfemales.collection.extrusive;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups and put/remove churn on {@link LongToObjHashMap} against a boxed {@link HashMap}, keyed on order ids as
+ * the order book and order service use them. Run with -prof gc to see the allocation the boxed map does per op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LongToObjMapBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final Object value = new Object();
+
+    private LongToObjHashMap<Object> primitiveMap;
+    private HashMap<Long, Object> boxedMap;
+
+    private long[] keys;
+    private int next = 0;
+    private long nextKey;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        primitiveMap = new LongToObjHashMap<>(size);
+        boxedMap = new HashMap<>(size * 2);
+        keys = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            //order ids go up from 1, as the sequencer hands them out
+            keys[i] = i + 1;
+            primitiveMap.put(keys[i], value);
+            boxedMap.put(keys[i], value);
+        }
+        nextKey = size + 1;
+    }
+
+    @Benchmark
+    public Object getHitPrimitive(){
+        return primitiveMap.get(nextLookup());
+    }
+
+    @Benchmark
+    public Object getHitBoxed(){
+        return boxedMap.get(nextLookup());
+    }
+
+    //the oldest id goes out and a new one comes in, so the size stays put
+    @Benchmark
+    public Object putRemoveChurnPrimitive(){
+        primitiveMap.put(nextKey, value);
+        return primitiveMap.remove(nextKey++ - size);
+    }
+
+    @Benchmark
+    public Object putRemoveChurnBoxed(){
+        boxedMap.put(nextKey, value);
+        return boxedMap.remove(nextKey++ - size);
+    }
+
+    private long nextLookup(){
+        final long key = keys[next];
+        next = next + 1 == keys.length ? 0 : next + 1;
+        return key;
+    }
+}
@@ -0,0 +1,76 @@
+package codingblackfemales.container;
+
+import codingblackfemales.benchmarks.BookUpdates;
+import codingblackfemales.gettingstarted.MyAlgoLogic;
+import codingblackfemales.orderbook.OrderBook;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.consumer.OrderBookInboundOrderConsumer;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.latency.PipelineLatency;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.service.MarketDataService;
+import codingblackfemales.service.OrderService;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick through the same graph the back tests wire up: sequencer, order book, market data and order services,
+ * and an algo container running {@link MyAlgoLogic}, including whatever the algo and book send back in response.
+ *
+ * MyAlgoLogic stops creating orders after its first few, so after warm up this measures the steady state of a
+ * running algo: every tick is decoded, the book rebuilt and the algo evaluated. With latency on, every stage is timed
+ * into {@link PipelineLatency} histograms, which shows what it costs to leave them on.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AlgoContainerBenchmark {
+
+    @Param({"false", "true"})
+    public boolean latency;
+
+    private DefaultSequencer sequencer;
+    private AlgoContainer container;
+
+    private UnsafeBuffer tick;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        final TestNetwork network = new TestNetwork();
+        sequencer = new DefaultSequencer(network);
+
+        final RunTrigger runTrigger = new RunTrigger();
+        final Actioner actioner = new Actioner(sequencer);
+
+        final OrderBook book = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+        container = new AlgoContainer(new MarketDataService(runTrigger), new OrderService(runTrigger), runTrigger, actioner);
+        container.setLogic(new MyAlgoLogic());
+
+        network.addConsumer(book);
+        network.addConsumer(container.getMarketDataService());
+        network.addConsumer(container.getOrderService());
+        network.addConsumer(new OrderBookInboundOrderConsumer(book));
+        network.addConsumer(container);
+
+        if(latency){
+            final PipelineLatency pipelineLatency = new PipelineLatency();
+            sequencer.setLatency(pipelineLatency);
+            network.setLatency(pipelineLatency);
+            container.setLatency(pipelineLatency);
+        }
+
+        tick = BookUpdates.bookUpdate(3);
+    }
+
+    @Benchmark
+    public int onMessageRoundTrip(){
+        sequencer.onCommand(tick);
+        return container.getState().getActiveChildOrderCount();
+    }
+}
@@ -0,0 +1,46 @@
+package codingblackfemales.marketdata.api;
+
+import codingblackfemales.marketdata.impl.BookUpdateImpl;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.Venue;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding a full book update from the market data API objects, as the file and random providers do per tick.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MarketDataEncoderBenchmark {
+
+    @Param({"1", "5", "15"})
+    public int levels;
+
+    private final MarketDataEncoder encoder = new MarketDataEncoder();
+
+    private BookUpdate bookUpdate;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        final List<BookEntry> bids = new ArrayList<>();
+        final List<BookEntry> asks = new ArrayList<>();
+        for (int i = 0; i < levels; i++) {
+            bids.add(new BookEntry().setPrice(100 - i).setSize(100 + i));
+            asks.add(new BookEntry().setPrice(101 + i).setSize(100 + i));
+        }
+        bookUpdate = new BookUpdateImpl(123L, Venue.XLON, InstrumentStatus.CONTINUOUS, bids, asks);
+    }
+
+    @Benchmark
+    public UnsafeBuffer encode(){
+        return encoder.encode(bookUpdate);
+    }
+}
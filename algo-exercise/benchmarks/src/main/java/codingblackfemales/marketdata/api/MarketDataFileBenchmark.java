@@ -0,0 +1,128 @@
+package codingblackfemales.marketdata.api;
+
+import codingblackfemales.marketdata.gen.MarketDataFileConverter;
+import codingblackfemales.marketdata.gen.SimpleFileMarketDataGenerator;
+import codingblackfemales.marketdata.impl.AskBookUpdateImpl;
+import codingblackfemales.marketdata.impl.BidBookUpdateImpl;
+import codingblackfemales.marketdata.impl.BinaryFileMarketDataProvider;
+import codingblackfemales.marketdata.impl.BookUpdateImpl;
+import codingblackfemales.marketdata.impl.SimpleFileMarketDataProvider;
+import messages.marketdata.InstrumentStatus;
+import messages.marketdata.Venue;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaying a whole market data file into the SBE the sequencer takes: the JSON lines parsed and encoded per tick,
+ * against the binary file's messages straight from the mapped file, and decoded back into the api objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MarketDataFileBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger("benchmarks");
+
+    @Param({"10000"})
+    public int messages;
+
+    private File directory;
+    private String jsonFile;
+    private BinaryFileMarketDataProvider binary;
+
+    private final MarketDataEncoder encoder = new MarketDataEncoder();
+    private final UnsafeBuffer encoded = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("marketdata").toFile();
+        jsonFile = new File(directory, "marketdata.json").getPath();
+        final String binaryFile = new File(directory, "marketdata.bin").getPath();
+
+        final Random random = new Random(42);
+        final SimpleFileMarketDataGenerator generator = new SimpleFileMarketDataGenerator(jsonFile, () -> next(random));
+        generator.generate(messages);
+        generator.close();
+
+        MarketDataFileConverter.convert(jsonFile, binaryFile);
+        logger.info("[BENCHMARK] Market data files json bytes={} binary bytes={}", new File(jsonFile).length(), new File(binaryFile).length());
+
+        binary = new BinaryFileMarketDataProvider(binaryFile);
+    }
+
+    private static MarketDataMessage next(final Random random){
+        final List<BookEntry> bids = new ArrayList<>();
+        final List<BookEntry> asks = new ArrayList<>();
+        final int levels = 1 + random.nextInt(10);
+        for (int i = 0; i < levels; i++) {
+            bids.add(new BookEntry().setPrice(1000 - i * 2 - random.nextInt(2)).setSize(1 + random.nextInt(100)));
+            asks.add(new BookEntry().setPrice(1002 + i * 2 + random.nextInt(2)).setSize(1 + random.nextInt(100)));
+        }
+        switch (random.nextInt(3)){
+            case 0:
+                return new BookUpdateImpl(1234L, Venue.XLON, InstrumentStatus.CONTINUOUS, bids, asks);
+            case 1:
+                return new AskBookUpdateImpl(1234L, Venue.XLON, asks);
+            default:
+                return new BidBookUpdateImpl(1234L, Venue.XLON, bids);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        binary.close();
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public long replayJson(){
+        long bytes = 0;
+        try (SimpleFileMarketDataProvider json = new SimpleFileMarketDataProvider(jsonFile)) {
+            MarketDataMessage message;
+            while((message = json.poll()) != null){
+                bytes += encoder.encode(message, encoded, 0);
+            }
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public long replayBinary(){
+        binary.rewind();
+        long bytes = 0;
+        DirectBuffer message;
+        while((message = binary.pollBuffer()) != null){
+            bytes += message.capacity();
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public long replayBinaryMessages(){
+        binary.rewind();
+        long bytes = 0;
+        MarketDataMessage message;
+        while((message = binary.poll()) != null){
+            bytes += encoder.encode(message, encoded, 0);
+        }
+        return bytes;
+    }
+}
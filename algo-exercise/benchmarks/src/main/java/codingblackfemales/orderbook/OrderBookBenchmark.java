@@ -0,0 +1,86 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.benchmarks.BookUpdates;
+import codingblackfemales.orderbook.channel.MarketDataChannel;
+import codingblackfemales.orderbook.channel.OrderChannel;
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole OrderBook, including publishing the book back to the sequencer after each order event, as the book
+ * gets deeper, either in full or as the levels that changed. Depth is capped by the 1KB buffer the full book is
+ * published in.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBookBenchmark {
+
+    private static final long ORDER_ID = 1;
+
+    @Param({"1", "10", "30"})
+    public int depth;
+
+    @Param({"false", "true"})
+    public boolean publishDeltas;
+
+    private OrderBook book;
+    private OrderBook aggressorBook;
+
+    private UnsafeBuffer bookUpdate;
+    private LimitOrderFlyweight atDeepestAsk;
+    private LimitOrderFlyweight aggressor;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        //nothing listens, so what the book publishes stops at the sequencer
+        final DefaultSequencer sequencer = new DefaultSequencer(new TestNetwork());
+        book = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+        book.setPublishDeltas(publishDeltas);
+
+        book.onMessage(BookUpdates.bidBookUpdate(depth));
+        book.onMessage(BookUpdates.askBookUpdate(depth));
+
+        bookUpdate = BookUpdates.bookUpdate(depth);
+        atDeepestAsk = new LimitOrderFlyweight(Side.SELL, BookUpdates.ASK_TOUCH + depth - 1, 100, ORDER_ID);
+
+        //a resting sell at the touch too big to ever run out, with bids under it so the book published is as deep
+        aggressorBook = new OrderBook(new MarketDataChannel(sequencer), new OrderChannel(sequencer));
+        aggressorBook.setPublishDeltas(publishDeltas);
+        aggressorBook.onMessage(BookUpdates.bidBookUpdate(depth));
+        aggressorBook.onLimitOrder(new LimitOrderFlyweight(Side.SELL, BookUpdates.ASK_TOUCH, Long.MAX_VALUE / 2, ORDER_ID));
+        aggressor = new LimitOrderFlyweight(Side.BUY, BookUpdates.ASK_TOUCH, 1, ORDER_ID + 1);
+    }
+
+    //a passive order joins the deepest level and is cancelled, so the book is the same shape on every invocation
+    @Benchmark
+    public OrderBookLevel onLimitOrderAndCancel(){
+        book.onLimitOrder(atDeepestAsk);
+        book.onCancelOrder(ORDER_ID);
+        return book.getAskBookSide().getFirstLevel();
+    }
+
+    //a one lot buy is filled against the resting sell: one match, one fill and one book published. With the gc
+    //profiler on, gc.alloc.rate.norm shows this path allocates nothing
+    @Benchmark
+    public OrderBookLevel onAggressiveLimitOrder(){
+        aggressor.setQuantity(1);
+        aggressorBook.onLimitOrder(aggressor);
+        return aggressorBook.getAskBookSide().getFirstLevel();
+    }
+
+    @Benchmark
+    public OrderBookLevel onBookUpdate(){
+        book.onMessage(bookUpdate);
+        return book.getAskBookSide().getFirstLevel();
+    }
+}
@@ -0,0 +1,90 @@
+package codingblackfemales.orderbook;
+
+import codingblackfemales.orderbook.order.LimitOrderFlyweight;
+import codingblackfemales.orderbook.order.MarketDataOrderFlyweight;
+import codingblackfemales.orderbook.visitor.CancelOrderVisitor;
+import messages.order.Side;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert and cancel latency on one side of the book as the book gets deeper. Each op adds a passive order and then
+ * takes it out again, so the book is the same shape on every invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBookSideBenchmark {
+
+    private static final long TOUCH = 10_000;
+    private static final long ORDER_ID = 1;
+
+    @Param({"10", "100", "1000"})
+    public int depth;
+
+    private BidBookSide side;
+
+    private LimitOrderFlyweight atTouch;
+    private LimitOrderFlyweight atDeepest;
+
+    private final CancelOrderVisitor cancel = new CancelOrderVisitor(ORDER_ID);
+
+    @Setup(Level.Iteration)
+    public void setUp(){
+        side = new BidBookSide();
+        for (int i = 0; i < depth; i++) {
+            side.addMarketDataOrder(new MarketDataOrderFlyweight(Side.BUY, TOUCH - i, 100));
+        }
+        atTouch = new LimitOrderFlyweight(Side.BUY, TOUCH, 100, ORDER_ID);
+        atDeepest = new LimitOrderFlyweight(Side.BUY, TOUCH - depth + 1, 100, ORDER_ID);
+    }
+
+    @Benchmark
+    public OrderBookLevel insertAtTouch(){
+        side.addLimitOrder(atTouch);
+        return removeOrder(atTouch);
+    }
+
+    @Benchmark
+    public OrderBookLevel insertAtDeepestLevel(){
+        side.addLimitOrder(atDeepest);
+        return removeOrder(atDeepest);
+    }
+
+    @Benchmark
+    public OrderBookLevel insertNewDeepestLevel(){
+        //the only order on its level, which leaves it unfit for reuse once removed
+        final LimitOrderFlyweight newDeepest = new LimitOrderFlyweight(Side.BUY, TOUCH - depth, 100, ORDER_ID);
+        side.addLimitOrder(newDeepest);
+        final OrderBookLevel level = removeOrder(newDeepest);
+        side.removeLevel(level);
+        return level;
+    }
+
+    @Benchmark
+    public OrderBookLevel insertAndCancelAtDeepestLevel(){
+        side.addLimitOrder(atDeepest);
+        side.cancelOrder(ORDER_ID);
+        return side.getLevel(atDeepest.getPrice());
+    }
+
+    //the walk of every level and order that cancels used to take, for comparison
+    @Benchmark
+    public OrderBookLevel insertAndCancelByVisitorAtDeepestLevel(){
+        side.addLimitOrder(atDeepest);
+        side.accept(cancel);
+        return side.getLevel(atDeepest.getPrice());
+    }
+
+    //takes the order straight back out, so only the insert is measured
+    private OrderBookLevel removeOrder(final LimitOrderFlyweight order){
+        final OrderBookLevel level = side.getLevel(order.getPrice());
+        side.removeOrder(level, order);
+        level.setQuantity(level.getQuantity() - order.getQuantity());
+        return level;
+    }
+}
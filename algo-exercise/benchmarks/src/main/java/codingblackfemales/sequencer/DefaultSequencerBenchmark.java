@@ -0,0 +1,54 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.benchmarks.BookUpdates;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.order.CreateOrderEncoder;
+import messages.order.MessageHeaderEncoder;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequencing and dispatch of one command to one consumer, for a market data tick and for a CreateOrder, which also
+ * has its order id stamped.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DefaultSequencerBenchmark {
+
+    private DefaultSequencer sequencer;
+
+    private UnsafeBuffer tick;
+    private UnsafeBuffer createOrder;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole){
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(blackhole::consume);
+        sequencer = new DefaultSequencer(network);
+
+        tick = BookUpdates.bookUpdate(5);
+
+        createOrder = new UnsafeBuffer(ByteBuffer.allocateDirect(128));
+        new CreateOrderEncoder().wrapAndApplyHeader(createOrder, 0, new MessageHeaderEncoder())
+                .instrumentId(BookUpdates.INSTRUMENT_ID).price(100L).quantity(50L).side(Side.BUY);
+    }
+
+    @Benchmark
+    public void onCommandTick(){
+        sequencer.onCommand(tick);
+    }
+
+    @Benchmark
+    public void onCommandCreateOrder(){
+        sequencer.onCommand(createOrder);
+    }
+}
@@ -0,0 +1,64 @@
+package codingblackfemales.sequencer.audit;
+
+import codingblackfemales.benchmarks.BookUpdates;
+import codingblackfemales.sequencer.util.MessageUtil;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Auditing a 5 level book update into the memory mapped audit segments, against formatting it as the logging
+ * consumer does when INFO is on.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AuditConsumerBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger("benchmarks");
+
+    private File directory;
+    private AuditConsumer audit;
+    private UnsafeBuffer tick;
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookUpdateDecoder bookUpdate = new BookUpdateDecoder();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit").toFile();
+        audit = new AuditConsumer(directory);
+        tick = BookUpdates.bookUpdate(5);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        audit.close();
+        logger.info("[BENCHMARK] Audited messages={} segments={}", audit.getMessages(), audit.getSegmentIndex() + 1);
+        IoUtil.delete(directory, true);
+    }
+
+    @Benchmark
+    public void audit(){
+        audit.onMessage(tick);
+    }
+
+    @Benchmark
+    public String format(){
+        header.wrap(tick, 0);
+        bookUpdate.wrap(tick, header.encodedLength(), header.blockLength(), header.version());
+        return "[" + header.sequencerNumber() + "] \n" + MessageUtil.bookUpdateToString(bookUpdate);
+    }
+}
@@ -0,0 +1,82 @@
+package codingblackfemales.sequencer.batch;
+
+import codingblackfemales.action.NoAction;
+import codingblackfemales.benchmarks.BookUpdates;
+import codingblackfemales.container.Actioner;
+import codingblackfemales.container.AlgoContainer;
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.service.MarketDataService;
+import codingblackfemales.service.OrderService;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sequencing a burst of ticks one command at a time, against building them into a batch and sequencing that in one
+ * pass. The network has an algo container and its services, which read a batch in place and evaluate the logic once
+ * for it, and a consumer that is not batch aware, which the network hands the messages one at a time.
+ *
+ * Batching copies each message twice, into the batch and then as it is sequenced, so it only pays for itself where
+ * there is work per dispatch to save: here the algo's evaluate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchSequencerBenchmark {
+
+    @Param({"4", "16", "64"})
+    public int messages;
+
+    private DefaultSequencer sequencer;
+    private AlgoContainer container;
+    private final MessageBatch batch = new MessageBatch();
+
+    private UnsafeBuffer[] burst;
+
+    @Setup(Level.Trial)
+    public void setUp(final Blackhole blackhole){
+        final TestNetwork network = new TestNetwork();
+        sequencer = new DefaultSequencer(network);
+
+        final RunTrigger runTrigger = new RunTrigger();
+        container = new AlgoContainer(new MarketDataService(runTrigger), new OrderService(runTrigger), runTrigger, new Actioner(sequencer));
+        //reads the top of the book, as most logics do, but never sends an order
+        container.setLogic(state -> {
+            blackhole.consume(state.getCumulativeBidQuantity(3) + state.getCumulativeAskQuantity(3) + state.getSpread());
+            return NoAction.NoAction;
+        });
+
+        network.addConsumer(container.getMarketDataService());
+        network.addConsumer(container.getOrderService());
+        network.addConsumer(container);
+        network.addConsumer(blackhole::consume);
+
+        burst = new UnsafeBuffer[messages];
+        for (int i = 0; i < messages; i++) {
+            burst[i] = BookUpdates.bookUpdate(5);
+        }
+    }
+
+    @Benchmark
+    public void onCommand(){
+        for (int i = 0; i < burst.length; i++) {
+            sequencer.onCommand(burst[i]);
+        }
+    }
+
+    @Benchmark
+    public void onBatch(){
+        batch.reset();
+        for (int i = 0; i < burst.length; i++) {
+            batch.add(burst[i]);
+        }
+        sequencer.onBatch(batch.buffer());
+    }
+}
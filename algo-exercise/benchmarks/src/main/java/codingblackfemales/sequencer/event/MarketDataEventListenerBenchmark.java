@@ -0,0 +1,76 @@
+package codingblackfemales.sequencer.event;
+
+import codingblackfemales.benchmarks.BookUpdates;
+import codingblackfemales.container.RunTrigger;
+import codingblackfemales.service.MarketDataService;
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a full book update through {@link MarketDataEventListener#onMessage}: once into a listener that only
+ * reads every level, which is the cost of the decode itself, and once into the algo's {@link MarketDataService}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MarketDataEventListenerBenchmark {
+
+    @Param({"1", "5", "15"})
+    public int levels;
+
+    private UnsafeBuffer tick;
+
+    private final ReadingListener readingListener = new ReadingListener();
+    private MarketDataService marketDataService;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        tick = BookUpdates.bookUpdate(levels);
+        marketDataService = new MarketDataService(new RunTrigger());
+    }
+
+    @Benchmark
+    public long decode(){
+        readingListener.onMessage(tick);
+        return readingListener.total;
+    }
+
+    @Benchmark
+    public long marketDataService(){
+        marketDataService.onMessage(tick);
+        return marketDataService.getBestBidPrice();
+    }
+
+    private static class ReadingListener extends MarketDataEventListener {
+
+        private long total;
+
+        @Override
+        public void onBookUpdate(BookUpdateDecoder bookUpdate) {
+            for (BookUpdateDecoder.BidBookDecoder bid : bookUpdate.bidBook()) {
+                total += bid.price() + bid.size();
+            }
+            for (BookUpdateDecoder.AskBookDecoder ask : bookUpdate.askBook()) {
+                total += ask.price() + ask.size();
+            }
+        }
+
+        @Override
+        public void onAskBook(AskBookUpdateDecoder askBook) {}
+
+        @Override
+        public void onBidBook(BidBookUpdateDecoder bidBook) {}
+
+        @Override
+        public void onBookDelta(BookDeltaDecoder bookDelta) {}
+    }
+}
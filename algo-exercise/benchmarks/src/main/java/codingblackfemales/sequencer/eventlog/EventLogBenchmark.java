@@ -0,0 +1,75 @@
+package codingblackfemales.sequencer.eventlog;
+
+import codingblackfemales.benchmarks.BookUpdates;
+import codingblackfemales.sequencer.consumer.EventLoggingConsumer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What logging an event costs the pipeline's thread: a record in the event log, the event logging consumer taking a
+ * tick, and for comparison building the text line the book used to log for a fill. The log is drained on another
+ * thread throughout, as it would be by a renderer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventLogBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger("benchmarks");
+
+    private EventLog eventLog;
+    private EventLoggingConsumer consumer;
+    private UnsafeBuffer tick;
+    private Thread drainer;
+    private volatile boolean running;
+
+    private long orderId = 0;
+
+    @Setup(Level.Trial)
+    public void setUp(){
+        eventLog = new EventLog();
+        consumer = new EventLoggingConsumer(eventLog);
+        tick = BookUpdates.bookUpdate(5);
+
+        running = true;
+        final EventLog.EventHandler discard = (typeCode, timestamp, sequence, id, ref, price, quantity, detail) -> {};
+        drainer = new Thread(() -> {
+            while(running){
+                if(eventLog.read(discard, 1024) == 0){
+                    Thread.onSpinWait();
+                }
+            }
+        }, "eventlog-drainer");
+        drainer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        drainer.join();
+        logger.info("[BENCHMARK] Event log events={} dropped={}", eventLog.getEventCount(), eventLog.getDroppedCount());
+    }
+
+    @Benchmark
+    public void logEvent(){
+        eventLog.log(EventType.BOOK_FILL, ++orderId, 50L, 100L, 25L, 0);
+    }
+
+    @Benchmark
+    public void consumeTick(){
+        consumer.onMessage(tick);
+    }
+
+    @Benchmark
+    public void formatFill(final Blackhole blackhole){
+        blackhole.consume("[ORDERBOOK] Filled " + 25L + "@" + 100L + " for order:" + ++orderId);
+    }
+}
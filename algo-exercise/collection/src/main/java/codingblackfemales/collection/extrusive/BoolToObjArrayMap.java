@@ -0,0 +1,71 @@
+package codingblackfemales.collection.extrusive;
+
+/**
+ * A boolean keyed map is just two slots, so there is nothing to hash. Null values can't be stored, a null slot is
+ * an absent key. Not thread safe.
+ */
+public class BoolToObjArrayMap<TYPEOF> implements BoolToObjMap<TYPEOF> {
+
+    private TYPEOF trueValue;
+    private TYPEOF falseValue;
+
+    @Override
+    public TYPEOF get(final boolean b) {
+        return b ? trueValue : falseValue;
+    }
+
+    @Override
+    public TYPEOF getOrDefault(final boolean b, final TYPEOF obj) {
+        final TYPEOF value = get(b);
+        return value != null ? value : obj;
+    }
+
+    @Override
+    public void put(final boolean b, final TYPEOF obj) {
+        if(obj == null){
+            throw new IllegalArgumentException("Null values are not supported, key=" + b);
+        }
+        if(b){
+            trueValue = obj;
+        }else{
+            falseValue = obj;
+        }
+    }
+
+    @Override
+    public TYPEOF remove(final boolean b) {
+        final TYPEOF value = get(b);
+        if(b){
+            trueValue = null;
+        }else{
+            falseValue = null;
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(final boolean b) {
+        return get(b) != null;
+    }
+
+    @Override
+    public int size() {
+        return (trueValue != null ? 1 : 0) + (falseValue != null ? 1 : 0);
+    }
+
+    @Override
+    public void clear() {
+        trueValue = null;
+        falseValue = null;
+    }
+
+    @Override
+    public void forEach(final BoolObjConsumer<TYPEOF> consumer) {
+        if(falseValue != null){
+            consumer.accept(false, falseValue);
+        }
+        if(trueValue != null){
+            consumer.accept(true, trueValue);
+        }
+    }
+}
@@ -1,4 +1,12 @@
 package codingblackfemales.collection.extrusive;
 
-public interface BoolToObjMap {
+public interface BoolToObjMap<TYPEOF> {
+    TYPEOF get(boolean b);
+    void put(boolean b, TYPEOF obj);
+    TYPEOF getOrDefault(boolean b, TYPEOF obj);
+    TYPEOF remove(boolean b);
+    boolean containsKey(boolean b);
+    int size();
+    void clear();
+    void forEach(BoolObjConsumer<TYPEOF> consumer);
 }
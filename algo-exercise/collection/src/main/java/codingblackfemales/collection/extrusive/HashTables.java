@@ -0,0 +1,48 @@
+package codingblackfemales.collection.extrusive;
+
+/**
+ * Sizing and hashing shared by the open addressing maps. Tables are always a power of two in size and are never
+ * allowed to fill completely, so a probe always ends at an empty slot.
+ */
+final class HashTables {
+
+    static final int DEFAULT_INITIAL_CAPACITY = 16;
+    static final float DEFAULT_LOAD_FACTOR = 0.5f;
+
+    private HashTables() {}
+
+    static float checkLoadFactor(final float loadFactor){
+        if(!(loadFactor > 0 && loadFactor < 1)){
+            throw new IllegalArgumentException("Load factor must be between 0 and 1 but was " + loadFactor);
+        }
+        return loadFactor;
+    }
+
+    /**
+     * @return the smallest power of two table that holds this many entries without going over the load factor
+     */
+    static int capacityFor(final int expected, final float loadFactor){
+        final int minimum = Math.max(2, (int) Math.ceil(expected / loadFactor));
+        return Integer.highestOneBit(minimum - 1) << 1;
+    }
+
+    static int resizeThreshold(final int capacity, final float loadFactor){
+        return Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    //fibonacci hashing takes the top bits of the product, so keys that go up in steps (e.g. ids) still spread out
+    static int shiftFor(final int capacity){
+        return Long.numberOfLeadingZeros(capacity - 1);
+    }
+
+    static int index(final long key, final int shift, final int mask){
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift) & mask;
+    }
+
+    /**
+     * @return true if the entry at index, which hashed to home, may move back into the gap left by a removal
+     */
+    static boolean canMoveInto(final int gap, final int index, final int home, final int mask){
+        return ((index - home) & mask) >= ((index - gap) & mask);
+    }
+}
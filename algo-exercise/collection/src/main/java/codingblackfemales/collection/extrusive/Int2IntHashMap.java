@@ -0,0 +1,199 @@
+package codingblackfemales.collection.extrusive;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing map from int keys to int values, with linear probing and removal that shifts the rest of the
+ * probe chain back rather than leaving tombstones.
+ *
+ * The missing value marks an empty slot, so it is what lookups of absent keys return and it can't be stored as a
+ * value. Not thread safe.
+ */
+public class Int2IntHashMap implements Int2IntMap {
+
+    private final float loadFactor;
+    private final int missingValue;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;
+    private int resizeThreshold;
+    private int size = 0;
+
+    public Int2IntHashMap(final int missingValue) {
+        this(HashTables.DEFAULT_INITIAL_CAPACITY, HashTables.DEFAULT_LOAD_FACTOR, missingValue);
+    }
+
+    /**
+     * @param initialCapacity how many entries to size the table for before it has to grow
+     * @param loadFactor how full the table may get before it doubles, lower trades memory for shorter probes
+     * @param missingValue returned for absent keys, can't be stored
+     */
+    public Int2IntHashMap(final int initialCapacity, final float loadFactor, final int missingValue) {
+        this.loadFactor = HashTables.checkLoadFactor(loadFactor);
+        this.missingValue = missingValue;
+        allocate(HashTables.capacityFor(initialCapacity, loadFactor));
+    }
+
+    @Override
+    public int missingValue() {
+        return missingValue;
+    }
+
+    @Override
+    public int get(final int key) {
+        return getOrDefault(key, missingValue);
+    }
+
+    @Override
+    public int getOrDefault(final int key, final int defaultValue) {
+        int index = indexOf(key);
+        int value;
+        while((value = values[index]) != missingValue){
+            if(keys[index] == key){
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(final int key) {
+        return get(key) != missingValue;
+    }
+
+    @Override
+    public void put(final int key, final int value) {
+        if(value == missingValue){
+            throw new IllegalArgumentException("Can't store the missing value " + missingValue + ", key=" + key);
+        }
+
+        int index = indexOf(key);
+        while(values[index] != missingValue){
+            if(keys[index] == key){
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+
+        if(++size > resizeThreshold){
+            resize(keys.length << 1);
+        }
+    }
+
+    /**
+     * Adds to the value for this key, treating an absent key as zero. A result of zero is kept in the map, unless
+     * zero is the missing value in which case the key is removed.
+     */
+    @Override
+    public int addAndGet(final int key, final int delta) {
+        int index = indexOf(key);
+        while(values[index] != missingValue){
+            if(keys[index] == key){
+                final int value = values[index] + delta;
+                if(value == missingValue){
+                    remove(key);
+                }else{
+                    values[index] = value;
+                }
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        if(delta != missingValue){
+            put(key, delta);
+        }
+        return delta;
+    }
+
+    @Override
+    public int remove(final int key) {
+        int index = indexOf(key);
+        int value;
+        while((value = values[index]) != missingValue){
+            if(keys[index] == key){
+                values[index] = missingValue;
+                size--;
+                compactChain(index);
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        if(size > 0){
+            Arrays.fill(values, missingValue);
+            size = 0;
+        }
+    }
+
+    @Override
+    public void forEach(final IntIntConsumer consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if(values[i] != missingValue){
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public int capacity(){
+        return keys.length;
+    }
+
+    private void compactChain(int deleteIndex) {
+        int index = deleteIndex;
+        while(true){
+            index = (index + 1) & mask;
+            if(values[index] == missingValue){
+                return;
+            }
+            if(HashTables.canMoveInto(deleteIndex, index, indexOf(keys[index]), mask)){
+                keys[deleteIndex] = keys[index];
+                values[deleteIndex] = values[index];
+                values[index] = missingValue;
+                deleteIndex = index;
+            }
+        }
+    }
+
+    private void resize(final int newCapacity) {
+        final int[] oldKeys = keys;
+        final int[] oldValues = values;
+
+        allocate(newCapacity);
+        size = 0;
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if(oldValues[i] != missingValue){
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, missingValue);
+        mask = capacity - 1;
+        shift = HashTables.shiftFor(capacity);
+        resizeThreshold = HashTables.resizeThreshold(capacity, loadFactor);
+    }
+
+    private int indexOf(final int key) {
+        return HashTables.index(key, shift, mask);
+    }
+}
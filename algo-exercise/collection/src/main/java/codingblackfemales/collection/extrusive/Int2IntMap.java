@@ -1,4 +1,17 @@
 package codingblackfemales.collection.extrusive;
 
+/**
+ * An int to int map with no boxing. Lookups of keys that aren't in the map return the map's missing value.
+ */
 public interface Int2IntMap {
+    int get(int key);
+    void put(int key, int value);
+    int getOrDefault(int key, int defaultValue);
+    int remove(int key);
+    int addAndGet(int key, int delta);
+    boolean containsKey(int key);
+    int missingValue();
+    int size();
+    void clear();
+    void forEach(IntIntConsumer consumer);
 }
@@ -0,0 +1,175 @@
+package codingblackfemales.collection.extrusive;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing map from primitive int keys to objects, so there is no boxing of keys and no entry object per
+ * mapping. Collisions are resolved by linear probing and removal shifts the rest of the probe chain back, so there
+ * are no tombstones and lookups never get slower as keys come and go.
+ *
+ * Null values can't be stored, a null in the values array marks an empty slot. Not thread safe.
+ */
+public class IntToObjHashMap<TYPEOF> implements IntToObjMap<TYPEOF> {
+
+    private final float loadFactor;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int shift;
+    private int resizeThreshold;
+    private int size = 0;
+
+    public IntToObjHashMap() {
+        this(HashTables.DEFAULT_INITIAL_CAPACITY, HashTables.DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntToObjHashMap(final int initialCapacity) {
+        this(initialCapacity, HashTables.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * @param initialCapacity how many entries to size the table for before it has to grow
+     * @param loadFactor how full the table may get before it doubles, lower trades memory for shorter probes
+     */
+    public IntToObjHashMap(final int initialCapacity, final float loadFactor) {
+        this.loadFactor = HashTables.checkLoadFactor(loadFactor);
+        allocate(HashTables.capacityFor(initialCapacity, loadFactor));
+    }
+
+    @Override
+    public TYPEOF get(final int i) {
+        return getOrDefault(i, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TYPEOF getOrDefault(final int i, final TYPEOF obj) {
+        int index = indexOf(i);
+        Object value;
+        while((value = values[index]) != null){
+            if(keys[index] == i){
+                return (TYPEOF) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return obj;
+    }
+
+    @Override
+    public boolean containsKey(final int i) {
+        return get(i) != null;
+    }
+
+    @Override
+    public void put(final int i, final TYPEOF obj) {
+        if(obj == null){
+            throw new IllegalArgumentException("Null values are not supported, key=" + i);
+        }
+
+        int index = indexOf(i);
+        while(values[index] != null){
+            if(keys[index] == i){
+                values[index] = obj;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = i;
+        values[index] = obj;
+
+        if(++size > resizeThreshold){
+            resize(keys.length << 1);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TYPEOF remove(final int i) {
+        int index = indexOf(i);
+        Object value;
+        while((value = values[index]) != null){
+            if(keys[index] == i){
+                values[index] = null;
+                size--;
+                compactChain(index);
+                return (TYPEOF) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        if(size > 0){
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(final IntObjConsumer<TYPEOF> consumer) {
+        for (int i = 0; i < values.length; i++) {
+            final Object value = values[i];
+            if(value != null){
+                consumer.accept(keys[i], (TYPEOF) value);
+            }
+        }
+    }
+
+    public int capacity(){
+        return keys.length;
+    }
+
+    //fills the gap left by a removal with any later entry in the chain that would not be found past the gap
+    private void compactChain(int deleteIndex) {
+        int index = deleteIndex;
+        while(true){
+            index = (index + 1) & mask;
+            if(values[index] == null){
+                return;
+            }
+            if(HashTables.canMoveInto(deleteIndex, index, indexOf(keys[index]), mask)){
+                keys[deleteIndex] = keys[index];
+                values[deleteIndex] = values[index];
+                values[index] = null;
+                deleteIndex = index;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(final int newCapacity) {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+
+        allocate(newCapacity);
+        size = 0;
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if(oldValues[i] != null){
+                put(oldKeys[i], (TYPEOF) oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = HashTables.shiftFor(capacity);
+        resizeThreshold = HashTables.resizeThreshold(capacity, loadFactor);
+    }
+
+    private int indexOf(final int key) {
+        return HashTables.index(key, shift, mask);
+    }
+}
@@ -1,7 +1,37 @@
 package codingblackfemales.collection.extrusive;
 
-public class Map {
-    public void intToObjMap(){}
-    public void boolToObjMap(){}
-    public void longToObjMap(){}
+/**
+ * Factories for the primitive specialised maps, so callers can depend on the interfaces only.
+ */
+public final class Map {
+
+    private Map() {}
+
+    public static <TYPEOF> IntToObjMap<TYPEOF> intToObjMap(){
+        return new IntToObjHashMap<>();
+    }
+
+    public static <TYPEOF> IntToObjMap<TYPEOF> intToObjMap(final int initialCapacity){
+        return new IntToObjHashMap<>(initialCapacity);
+    }
+
+    public static <TYPEOF> BoolToObjMap<TYPEOF> boolToObjMap(){
+        return new BoolToObjArrayMap<>();
+    }
+
+    public static <TYPEOF> LongToObjMap<TYPEOF> longToObjMap(){
+        return new LongToObjHashMap<>();
+    }
+
+    public static <TYPEOF> LongToObjMap<TYPEOF> longToObjMap(final int initialCapacity){
+        return new LongToObjHashMap<>(initialCapacity);
+    }
+
+    public static Int2IntMap int2IntMap(final int missingValue){
+        return new Int2IntHashMap(missingValue);
+    }
+
+    public static <KEY, TYPEOF> ObjToObjMap<KEY, TYPEOF> objToObjMap(){
+        return new ObjToObjHashMap<>();
+    }
 }
@@ -0,0 +1,177 @@
+package codingblackfemales.collection.extrusive;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing map keyed on equals/hashCode with keys and values held in flat arrays, so unlike
+ * {@link java.util.HashMap} there is no entry object per mapping. Collisions are resolved by linear probing and
+ * removal shifts the rest of the probe chain back, as in {@link LongToObjHashMap}.
+ *
+ * Null keys and null values can't be stored. Not thread safe.
+ */
+public class ObjToObjHashMap<KEY, TYPEOF> implements ObjToObjMap<KEY, TYPEOF> {
+
+    private final float loadFactor;
+
+    private Object[] keys;
+    private Object[] values;
+    private int mask;
+    private int shift;
+    private int resizeThreshold;
+    private int size = 0;
+
+    public ObjToObjHashMap() {
+        this(HashTables.DEFAULT_INITIAL_CAPACITY, HashTables.DEFAULT_LOAD_FACTOR);
+    }
+
+    public ObjToObjHashMap(final int initialCapacity) {
+        this(initialCapacity, HashTables.DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * @param initialCapacity how many entries to size the table for before it has to grow
+     * @param loadFactor how full the table may get before it doubles, lower trades memory for shorter probes
+     */
+    public ObjToObjHashMap(final int initialCapacity, final float loadFactor) {
+        this.loadFactor = HashTables.checkLoadFactor(loadFactor);
+        allocate(HashTables.capacityFor(initialCapacity, loadFactor));
+    }
+
+    @Override
+    public TYPEOF get(final KEY key) {
+        return getOrDefault(key, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TYPEOF getOrDefault(final KEY key, final TYPEOF obj) {
+        int index = indexOf(key);
+        Object value;
+        while((value = values[index]) != null){
+            if(key.equals(keys[index])){
+                return (TYPEOF) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return obj;
+    }
+
+    @Override
+    public boolean containsKey(final KEY key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public void put(final KEY key, final TYPEOF obj) {
+        if(key == null || obj == null){
+            throw new IllegalArgumentException("Null keys and values are not supported, key=" + key);
+        }
+
+        int index = indexOf(key);
+        while(values[index] != null){
+            if(key.equals(keys[index])){
+                values[index] = obj;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = obj;
+
+        if(++size > resizeThreshold){
+            resize(keys.length << 1);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TYPEOF remove(final KEY key) {
+        int index = indexOf(key);
+        Object value;
+        while((value = values[index]) != null){
+            if(key.equals(keys[index])){
+                keys[index] = null;
+                values[index] = null;
+                size--;
+                compactChain(index);
+                return (TYPEOF) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        if(size > 0){
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(final ObjObjConsumer<KEY, TYPEOF> consumer) {
+        for (int i = 0; i < values.length; i++) {
+            final Object value = values[i];
+            if(value != null){
+                consumer.accept((KEY) keys[i], (TYPEOF) value);
+            }
+        }
+    }
+
+    public int capacity(){
+        return keys.length;
+    }
+
+    private void compactChain(int deleteIndex) {
+        int index = deleteIndex;
+        while(true){
+            index = (index + 1) & mask;
+            if(values[index] == null){
+                return;
+            }
+            if(HashTables.canMoveInto(deleteIndex, index, indexOf(keys[index]), mask)){
+                keys[deleteIndex] = keys[index];
+                values[deleteIndex] = values[index];
+                keys[index] = null;
+                values[index] = null;
+                deleteIndex = index;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(final int newCapacity) {
+        final Object[] oldKeys = keys;
+        final Object[] oldValues = values;
+
+        allocate(newCapacity);
+        size = 0;
+
+        for (int i = 0; i < oldValues.length; i++) {
+            if(oldValues[i] != null){
+                put((KEY) oldKeys[i], (TYPEOF) oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(final int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = HashTables.shiftFor(capacity);
+        resizeThreshold = HashTables.resizeThreshold(capacity, loadFactor);
+    }
+
+    private int indexOf(final Object key) {
+        return HashTables.index(key.hashCode(), shift, mask);
+    }
+}
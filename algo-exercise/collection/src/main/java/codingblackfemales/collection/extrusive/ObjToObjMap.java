@@ -1,4 +1,12 @@
 package codingblackfemales.collection.extrusive;
 
-public interface ObjToObjMap {
+public interface ObjToObjMap<KEY, TYPEOF> {
+    TYPEOF get(KEY key);
+    void put(KEY key, TYPEOF obj);
+    TYPEOF getOrDefault(KEY key, TYPEOF obj);
+    TYPEOF remove(KEY key);
+    boolean containsKey(KEY key);
+    int size();
+    void clear();
+    void forEach(ObjObjConsumer<KEY, TYPEOF> consumer);
 }
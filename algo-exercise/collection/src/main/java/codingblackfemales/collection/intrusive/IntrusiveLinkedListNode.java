@@ -62,6 +62,9 @@ public abstract class IntrusiveLinkedListNode<TYPEOF extends IntrusiveLinkedList
         if (previous != null) {
             previous.next = next;
         }
+        if (next != null) {
+            next.previous = previous;
+        }
     }
 
     private void setFirst(TYPEOF first) {
@@ -94,6 +97,18 @@ public abstract class IntrusiveLinkedListNode<TYPEOF extends IntrusiveLinkedList
 //        }
 //    }
 
+    /**
+     * Puts a node that has been removed from its list back as it was constructed, alone in a list of its own, so it can
+     * be reused. A removed node keeps its links until then, so a walk that was on it can carry on to the next.
+     */
+    protected void resetLinks() {
+        this.first = (TYPEOF) this;
+        this.last = (TYPEOF) this;
+        this.previous = null;
+        this.next = null;
+        this.size = 1;
+    }
+
     public TYPEOF remove() {
 
         TYPEOF previousLast = this.last();
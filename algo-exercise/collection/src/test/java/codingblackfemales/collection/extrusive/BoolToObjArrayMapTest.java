@@ -0,0 +1,33 @@
+package codingblackfemales.collection.extrusive;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BoolToObjArrayMapTest {
+
+    @Test
+    public void testPutGetRemove(){
+        final BoolToObjMap<String> map = Map.boolToObjMap();
+
+        assertEquals(0, map.size());
+        map.put(true, "buy");
+        assertEquals("buy", map.get(true));
+        assertNull(map.get(false));
+        assertEquals("sell", map.getOrDefault(false, "sell"));
+
+        map.put(false, "sell");
+        assertEquals(2, map.size());
+
+        final StringBuilder visited = new StringBuilder();
+        map.forEach((key, value) -> visited.append(key).append('=').append(value).append(';'));
+        assertEquals("false=sell;true=buy;", visited.toString());
+
+        assertEquals("buy", map.remove(true));
+        assertFalse(map.containsKey(true));
+        assertEquals(1, map.size());
+
+        map.clear();
+        assertEquals(0, map.size());
+    }
+}
@@ -0,0 +1,68 @@
+package codingblackfemales.collection.extrusive;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class Int2IntHashMapTest {
+
+    @Test
+    public void testMissingValueIsReturnedForAbsentKeys(){
+        final Int2IntHashMap map = new Int2IntHashMap(-1);
+
+        assertEquals(-1, map.get(5));
+        assertFalse(map.containsKey(5));
+
+        map.put(5, 0);
+        assertEquals(0, map.get(5));
+        assertTrue(map.containsKey(5));
+        assertEquals(42, map.getOrDefault(6, 42));
+
+        assertEquals(0, map.remove(5));
+        assertEquals(-1, map.remove(5));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testAddAndGet(){
+        final Int2IntHashMap map = new Int2IntHashMap(0);
+
+        assertEquals(3, map.addAndGet(1, 3));
+        assertEquals(5, map.addAndGet(1, 2));
+        assertEquals(1, map.size());
+
+        //back to the missing value removes the key
+        assertEquals(0, map.addAndGet(1, -5));
+        assertFalse(map.containsKey(1));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    public void testRandomOpsMatchHashMap(){
+        final Int2IntHashMap map = new Int2IntHashMap(8, 0.6f, Integer.MIN_VALUE);
+        final HashMap<Integer, Integer> expected = new HashMap<>();
+        final Random random = new Random(11);
+
+        for (int i = 0; i < 200_000; i++) {
+            final int key = random.nextInt(512) * 64;
+            if(random.nextBoolean()){
+                map.put(key, i);
+                expected.put(key, i);
+            }else{
+                final Integer removed = expected.remove(key);
+                assertEquals(removed == null ? Integer.MIN_VALUE : removed, map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        map.forEach((key, value) -> assertEquals(expected.get(key).intValue(), value));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsMissingValue(){
+        new Int2IntHashMap(-1).put(1, -1);
+    }
+}
@@ -0,0 +1,53 @@
+package codingblackfemales.collection.extrusive;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IntToObjHashMapTest {
+
+    @Test
+    public void testPutGetRemove(){
+        final IntToObjMap<String> map = Map.intToObjMap();
+
+        map.put(1, "one");
+        map.put(Integer.MIN_VALUE, "min");
+
+        assertEquals(2, map.size());
+        assertEquals("one", map.get(1));
+        assertEquals("min", map.get(Integer.MIN_VALUE));
+        assertEquals("none", map.getOrDefault(2, "none"));
+
+        assertEquals("one", map.remove(1));
+        assertNull(map.get(1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testRandomOpsMatchHashMap(){
+        final IntToObjHashMap<Integer> map = new IntToObjHashMap<>(4, 0.7f);
+        final HashMap<Integer, Integer> expected = new HashMap<>();
+        final Random random = new Random(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            final int key = random.nextInt(1024);
+            if(random.nextInt(3) > 0){
+                map.put(key, i);
+                expected.put(key, i);
+            }else{
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        final int[] visited = {0};
+        map.forEach((key, value) -> {
+            assertEquals(expected.get(key), value);
+            visited[0]++;
+        });
+        assertEquals(expected.size(), visited[0]);
+    }
+}
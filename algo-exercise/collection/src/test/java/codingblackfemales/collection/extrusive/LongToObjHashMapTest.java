@@ -0,0 +1,87 @@
+package codingblackfemales.collection.extrusive;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongToObjHashMapTest {
+
+    @Test
+    public void testPutGetRemove(){
+        final LongToObjHashMap<String> map = new LongToObjHashMap<>();
+
+        map.put(1L, "one");
+        map.put(-7L, "minus seven");
+        map.put(Long.MAX_VALUE, "max");
+
+        assertEquals(3, map.size());
+        assertEquals("one", map.get(1L));
+        assertEquals("minus seven", map.get(-7L));
+        assertEquals("max", map.get(Long.MAX_VALUE));
+        assertNull(map.get(2L));
+        assertEquals("none", map.getOrDefault(2L, "none"));
+
+        map.put(1L, "uno");
+        assertEquals(3, map.size());
+        assertEquals("uno", map.get(1L));
+
+        assertEquals("uno", map.remove(1L));
+        assertNull(map.remove(1L));
+        assertFalse(map.containsKey(1L));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testGrowsAndKeepsEveryEntry(){
+        final LongToObjHashMap<Long> map = new LongToObjHashMap<>(2, 0.75f);
+
+        for (long i = 0; i < 10_000; i++) {
+            map.put(i * 1024, i);
+        }
+
+        assertEquals(10_000, map.size());
+        assertTrue(map.capacity() >= 10_000 / 0.75);
+        for (long i = 0; i < 10_000; i++) {
+            assertEquals(Long.valueOf(i), map.get(i * 1024));
+        }
+
+        final long[] sum = {0};
+        map.forEach((key, value) -> sum[0] += value);
+        assertEquals(10_000L * 9_999 / 2, sum[0]);
+    }
+
+    @Test
+    public void testRandomOpsMatchHashMap(){
+        final LongToObjHashMap<Long> map = new LongToObjHashMap<>(8);
+        final HashMap<Long, Long> expected = new HashMap<>();
+        final Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            //a small key range so removes often hit, and chains have to be compacted
+            final long key = random.nextInt(512);
+            if(random.nextBoolean()){
+                map.put(key, (long) i);
+                expected.put(key, (long) i);
+            }else{
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (long key = 0; key < 512; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(expected.keySet().iterator().next()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNullValues(){
+        new LongToObjHashMap<String>().put(1L, null);
+    }
+}
@@ -0,0 +1,41 @@
+package codingblackfemales.collection.extrusive;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ObjToObjHashMapTest {
+
+    @Test
+    public void testRandomOpsMatchHashMap(){
+        final ObjToObjHashMap<String, Integer> map = new ObjToObjHashMap<>(2);
+        final HashMap<String, Integer> expected = new HashMap<>();
+        final Random random = new Random(3);
+
+        for (int i = 0; i < 100_000; i++) {
+            //new String each time so lookups go through equals, not identity
+            final String key = new String("key-" + random.nextInt(300));
+            if(random.nextBoolean()){
+                map.put(key, i);
+                expected.put(key, i);
+            }else{
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals(value, map.get(key)));
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get("key-1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNullKeys(){
+        new ObjToObjHashMap<String, String>().put(null, "value");
+    }
+}
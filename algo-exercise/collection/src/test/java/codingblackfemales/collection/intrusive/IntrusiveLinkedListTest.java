@@ -139,6 +139,30 @@ public class IntrusiveLinkedListTest {
         assertEquals(1, node4First.size());
     }
 
+    @Test
+    public void testRemoveAdjacentThenAppend(){
+        final ExampleNode node = new ExampleNode(0);
+
+        IntStream.range(1, 3).forEach( i -> {
+            node.add(new ExampleNode(i));
+        });
+
+        //remove the middle then the tail, the tail's previous has to follow the first removal
+        final ExampleNode middle = node.next;
+        final ExampleNode tail = middle.next;
+        middle.remove();
+        final ExampleNode head = tail.remove();
+
+        assertEquals(1, head.size());
+        assertEquals(head, head.last());
+
+        head.add(new ExampleNode(3));
+
+        assertEquals(2, head.size());
+        assertEquals(3, head.next().getI());
+        assertAllLastEquals(head, head.next(), 3);
+    }
+
     private static void assertAllLastEquals(ExampleNode starting, ExampleNode expectedLast, int expectedLastId){
         ExampleNode next = starting;
 
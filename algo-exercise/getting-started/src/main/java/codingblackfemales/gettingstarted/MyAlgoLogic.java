@@ -3,14 +3,13 @@ package codingblackfemales.gettingstarted;
 import codingblackfemales.action.*;
 import codingblackfemales.action.Action;
 import codingblackfemales.algo.AlgoLogic;
+import codingblackfemales.service.BookAnalytics;
 import codingblackfemales.sotw.ChildOrder;
 import codingblackfemales.sotw.SimpleAlgoState;
-import codingblackfemales.sotw.marketdata.AskLevel;
 import codingblackfemales.sotw.marketdata.BidLevel;
 import messages.order.Side;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.util.Optional;
 
 /**
  *
@@ -25,6 +24,7 @@ import java.util.Optional;
  * VWAP Calculation:
  *  VWAP = (Sum of (Price * Quantity) for all orders) / (Sum of Quantity for all orders)
  * - Using the top 3 bid and ask levels to approximate the VWAP due to the absence of historical trade data.
+ * - Read from the state's BookAnalytics, which keeps it up to date as the book changes rather than on each evaluate.
  * - This approach gives an estimate of market value based on the order book, providing an estimate of its liquidity.
  * - Helps to make decisions by striking a balance between capturing market trends and managing available data
  * - If no active orders are present, a default VWAP is used.
@@ -59,6 +59,20 @@ public class MyAlgoLogic implements AlgoLogic {
 
     private static final Logger logger = LoggerFactory.getLogger(MyAlgoLogic.class);
 
+    // Reused for every order we send, rather than a new action each time
+    private final CreateChildOrder createOrder = new CreateChildOrder();
+    private final CancelChildOrder cancelOrder = new CancelChildOrder();
+
+    private final MyAlgoParameters parameters;
+
+    public MyAlgoLogic() {
+        this(MyAlgoParameters.DEFAULT);
+    }
+
+    public MyAlgoLogic(final MyAlgoParameters parameters) {
+        this.parameters = parameters;
+    }
+
     // Evaluate is called to determine the appropriate action based on market conditions
     @Override
     public Action evaluate(SimpleAlgoState state) {
@@ -71,47 +85,32 @@ public class MyAlgoLogic implements AlgoLogic {
         final long quantity = level.quantity; // Quantity available at the top bid price
 
         // CONSTANTS FOR DESIRED AND TOTAL ORDER LIMITS
-        final int DESIRED_ACTIVE_ORDERS = 3;
-        final int TOTAL_ORDER_LIMIT = 5;
+        final int DESIRED_ACTIVE_ORDERS = parameters.getDesiredActiveOrders();
+        final int TOTAL_ORDER_LIMIT = parameters.getTotalOrderLimit();
 
         // Get active and total orders from the current state*
-        final var activeOrders = state.getActiveChildOrders(); // Currently active (unfilled or un-cancelled) orders
+        final var activeOrders = state.getActiveChildOrders(); // Currently active (unfilled or un-cancelled) orders, a live view
+        final int activeOrderCount = state.getActiveChildOrderCount();
         final var totalOrders = state.getChildOrders().size(); // Total number of orders, active or inactive
 
-        double totalMarketValue = 0.0; // store the total number of all active orders
-        long totalQuantity = 0; // Stores the total number of shares (quantity) from all active orders
-
         // Defines the number of bid and ask levels to be used for VWAP calculation
         int orderBookLevels = 3; // using all 3 bid and asks levels on both order book sides
 
-        // Looping through the bid and ask levels to calculate totalMarketValue and totalQuantity
-        for (int i = 0; i < orderBookLevels; i++) {
-            // Retrieve bid level at index i
-            BidLevel bidLevel = state.getBidAt(i);
-            if (bidLevel != null) { // Ensure the bid level exists
-                totalMarketValue += bidLevel.price * bidLevel.quantity; // Add (price * quantity) to totalMarketValue
-                totalQuantity += bidLevel.quantity; // Add quantity to totalQuantity
-            }
-
-            // Retrieve ask level at index i
-            AskLevel askLevel = state.getAskAt(i);
-            if (askLevel != null) { // Ensure the bid level exists
-                totalMarketValue += askLevel.price * askLevel.quantity; // Add (price * quantity) to totalMarketValue
-                totalQuantity += askLevel.quantity; // Add quantity to totalQuantity
-            }
-        }
+        // The analytics keep the value and quantity of the top levels as the book changes, so nothing is looped over here
+        final BookAnalytics analytics = state.getBookAnalytics();
 
         // Calculating VWAP (Volume Weighted Average Price)
-        double vWAP;
-        if (totalQuantity <= 0) { // If there are no active orders
+        double vWAP = analytics.vwap(orderBookLevels);
+        if (Double.isNaN(vWAP)) { // If there are no active orders
             vWAP = 90; // Set a default VWAP value
             logger.info(CYAN + "[DYNAMIC-PASSIVE-ALGO] No active orders, using hardcoded initial VWAP: {}" + RESET, vWAP);
 
-            // if there are active order, calculate VWAP
+            // if there are active order, log what the VWAP is made of
         } else {
-            vWAP = totalMarketValue / (double) totalQuantity; // Calculate VWAP
-            logger.info(CYAN + "[DYNAMIC-PASSIVE-ALGO] Current total market value = {}" + RESET, totalMarketValue);
-            logger.info(CYAN + "[DYNAMIC-PASSIVE-ALGO] Current total quantity = {}" + RESET, totalQuantity);
+            logger.info(CYAN + "[DYNAMIC-PASSIVE-ALGO] Current total market value = {}" + RESET,
+                    analytics.bids().cumulativeNotional(orderBookLevels) + analytics.asks().cumulativeNotional(orderBookLevels));
+            logger.info(CYAN + "[DYNAMIC-PASSIVE-ALGO] Current total quantity = {}" + RESET,
+                    analytics.bids().cumulativeQuantity(orderBookLevels) + analytics.asks().cumulativeQuantity(orderBookLevels));
         }
 
         // Log the calculated VWAP
@@ -130,17 +129,17 @@ public class MyAlgoLogic implements AlgoLogic {
 
         // Decision-making based on price and VWAP
         // If the price is below VWAP and there are fewer than desired active orders, BUY
-        if (price < vWAP && state.getActiveChildOrders().size() < DESIRED_ACTIVE_ORDERS) {
+        if (price < vWAP && activeOrderCount < DESIRED_ACTIVE_ORDERS) {
             action = TradeAction.BUY;
 
             // If the price is above VWAP, and there are active orders, and shares are more than 0, SELL
-        } else if (price > vWAP && state.getActiveChildOrders().size() <= DESIRED_ACTIVE_ORDERS && sharesOwned > 0) {
+        } else if (price > vWAP && activeOrderCount <= DESIRED_ACTIVE_ORDERS && sharesOwned > 0) {
             action = TradeAction.SELL;
 
             // If the cancel condition is met (VWAP too low or too high), CANCEL the oldest active order
-        } else if ((vWAP <= 60 || vWAP >= 90) && !state.getActiveChildOrders().isEmpty()) {
+        } else if ((vWAP <= parameters.getCancelVwapLow() || vWAP >= parameters.getCancelVwapHigh()) && activeOrderCount > 0) {
             logger.info(YELLOW + "[DYNAMIC-PASSIVE-ALGO] Cancel condition triggered: VWAP is: {} ." + RESET, vWAP);
-            logger.info(YELLOW + "[DYNAMIC-PASSIVE-ALGO] Number of active orders: {}" + RESET, activeOrders.size());
+            logger.info(YELLOW + "[DYNAMIC-PASSIVE-ALGO] Number of active orders: {}" + RESET, activeOrderCount);
             action = TradeAction.CANCEL;
 
             // If none of the above conditions are met, HOLD
@@ -161,7 +160,7 @@ public class MyAlgoLogic implements AlgoLogic {
 
                 logger.info(RED + "[DYNAMIC-PASSIVE-ALGO] Current Shares: {} | Total Spent: {}" + RESET, sharesOwned, totalSpent);
                 logger.info(RED + "[DYNAMIC-PASSIVE-ALGO] Estimated Profit (including the current market value of remaining shares): {}" + RESET, estimatedProfit);
-                return new CreateChildOrder(Side.BUY, quantity, price); // Create a new BUY order
+                return createOrder.set(Side.BUY, quantity, price); // Create a new BUY order
 
             case SELL:
                 // Log the SELL decision
@@ -179,26 +178,28 @@ public class MyAlgoLogic implements AlgoLogic {
                     // Log the updated portfolio state
                     logger.info(GREEN + "[DYNAMIC-PASSIVE-ALGO] Current Shares: {} | Total Spent: {} | Total Earned: {} | Profit: {}" + RESET, sharesOwned, totalSpent, totalEarned, realisedProfit);
                     logger.info(GREEN + "[DYNAMIC-PASSIVE-ALGO] Estimated Profit (including the current market value of remaining shares): {}" + RESET, estimatedProfit);
-                    return new CreateChildOrder(Side.SELL, quantity, price); // Create a new SELL order
+                    return createOrder.set(Side.SELL, quantity, price); // Create a new SELL order
                 } else {
                     // If no shares are owned, attempt to sell what is owned (which is zero)
-                    return new CreateChildOrder(Side.SELL, sharesOwned, price); // ??
+                    return createOrder.set(Side.SELL, sharesOwned, price); // ??
                 }
 
             case CANCEL:
-                // Filter active orders to ensure they have a positive quantity
-                Optional<ChildOrder> oldestValidOrderOpt = activeOrders.stream()
-                        .filter(order -> order.getQuantity() > 0)
-                        .findFirst();
+                // Find the oldest active order with a positive quantity
+                ChildOrder oldestOrder = null;
+                for (int i = 0; i < activeOrders.size() && oldestOrder == null; i++) {
+                    if (activeOrders.get(i).getQuantity() > 0) {
+                        oldestOrder = activeOrders.get(i);
+                    }
+                }
                 // Check if the oldest order exists
-                if (oldestValidOrderOpt.isPresent()) {
-                    ChildOrder oldestOrder = oldestValidOrderOpt.get();
+                if (oldestOrder != null) {
                     logger.info(YELLOW + "[DYNAMIC-PASSIVE-ALGO] Current VWAP: {} (out of the acceptable range)" + RESET, vWAP);
                     // Log the quantity and price of the oldest order
                     logger.info(YELLOW + "[DYNAMIC-PASSIVE-ALGO] Cancelling oldest order: Price: {}, Quantity: {}" + RESET, oldestOrder.getPrice(), oldestOrder.getQuantity());
 
                     // Cancel the oldest order
-                    return new CancelChildOrder(oldestOrder);
+                    return cancelOrder.set(oldestOrder);
                 } else {
                     logger.info(YELLOW + "No valid order found to cancel." + RESET);
                     return NoAction.NoAction;
@@ -211,6 +212,22 @@ public class MyAlgoLogic implements AlgoLogic {
         }
     }
 
+    public MyAlgoParameters getParameters() {
+        return parameters;
+    }
+
+    public long getSharesOwned() {
+        return sharesOwned;
+    }
+
+    public double getRealisedProfit() {
+        return realisedProfit;
+    }
+
+    public double getEstimatedProfit() {
+        return estimatedProfit;
+    }
+
     // Logs the final state of the portfolio when the order limit is reached.
     private void logFinalState() {
         logger.info(PURPLE + "[FINAL STATE REPORT \uD83C\uDFE6] Shares Owned: {} | Total Spent: {} | Total Earned: {} | Estimated Profit: {}" + RESET, sharesOwned, totalSpent, totalEarned, estimatedProfit);
@@ -0,0 +1,52 @@
+package codingblackfemales.gettingstarted;
+
+/**
+ * The thresholds {@link MyAlgoLogic} trades with, so they can be tuned, e.g. by a parameter sweep.
+ */
+public class MyAlgoParameters {
+
+    public static final MyAlgoParameters DEFAULT = new MyAlgoParameters(3, 5, 60, 90);
+
+    private final int desiredActiveOrders;
+    private final int totalOrderLimit;
+    private final double cancelVwapLow;
+    private final double cancelVwapHigh;
+
+    /**
+     * @param desiredActiveOrders buy only while there are fewer active orders than this
+     * @param totalOrderLimit stop creating orders once this many have been created
+     * @param cancelVwapLow cancel the oldest active order when the VWAP is at or below this...
+     * @param cancelVwapHigh ...or at or above this
+     */
+    public MyAlgoParameters(final int desiredActiveOrders, final int totalOrderLimit, final double cancelVwapLow, final double cancelVwapHigh) {
+        if(cancelVwapLow >= cancelVwapHigh){
+            throw new IllegalArgumentException("Cancel band low " + cancelVwapLow + " must be below high " + cancelVwapHigh);
+        }
+        this.desiredActiveOrders = desiredActiveOrders;
+        this.totalOrderLimit = totalOrderLimit;
+        this.cancelVwapLow = cancelVwapLow;
+        this.cancelVwapHigh = cancelVwapHigh;
+    }
+
+    public int getDesiredActiveOrders() {
+        return desiredActiveOrders;
+    }
+
+    public int getTotalOrderLimit() {
+        return totalOrderLimit;
+    }
+
+    public double getCancelVwapLow() {
+        return cancelVwapLow;
+    }
+
+    public double getCancelVwapHigh() {
+        return cancelVwapHigh;
+    }
+
+    @Override
+    public String toString() {
+        return "MyAlgoParameters(desiredActive=" + desiredActiveOrders + ",orderLimit=" + totalOrderLimit
+                + ",cancelBand=" + cancelVwapLow + "-" + cancelVwapHigh + ")";
+    }
+}
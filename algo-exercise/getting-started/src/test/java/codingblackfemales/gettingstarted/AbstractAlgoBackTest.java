@@ -30,6 +30,15 @@ public abstract class AbstractAlgoBackTest extends SequencerTestCase {
         final TestNetwork network = new TestNetwork();
         final Sequencer sequencer = new DefaultSequencer(network);
 
+        container = createBackTest(network, sequencer);
+
+        return sequencer;
+    }
+
+    /**
+     * Wires an order book and an algo container running {@link #createAlgoLogic()} onto the network and sequencer.
+     */
+    protected AlgoContainer createBackTest(final TestNetwork network, final Sequencer sequencer) {
         final RunTrigger runTrigger = new RunTrigger();
         final Actioner actioner = new Actioner(sequencer);
 
@@ -39,7 +48,7 @@ public abstract class AbstractAlgoBackTest extends SequencerTestCase {
 
         final OrderBookInboundOrderConsumer orderConsumer = new OrderBookInboundOrderConsumer(book);
 
-        container = new AlgoContainer(new MarketDataService(runTrigger), new OrderService(runTrigger), runTrigger, actioner);
+        final AlgoContainer container = new AlgoContainer(new MarketDataService(runTrigger), new OrderService(runTrigger), runTrigger, actioner);
         //set my algo logic
         container.setLogic(createAlgoLogic());
 
@@ -50,7 +59,7 @@ public abstract class AbstractAlgoBackTest extends SequencerTestCase {
         network.addConsumer(orderConsumer);
         network.addConsumer(container);
 
-        return sequencer;
+        return container;
     }
 
     public abstract AlgoLogic createAlgoLogic();
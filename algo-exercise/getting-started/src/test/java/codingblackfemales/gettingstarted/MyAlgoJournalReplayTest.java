@@ -0,0 +1,80 @@
+package codingblackfemales.gettingstarted;
+
+import codingblackfemales.algo.AlgoLogic;
+import codingblackfemales.container.AlgoContainer;
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.RealSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.sequencer.replay.JournalReplayer;
+import codingblackfemales.sequencer.replay.Pacing;
+import codingblackfemales.sequencer.replay.ReplayResult;
+import codingblackfemales.sotw.ChildOrder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Records the back test into a journal, then replays the journal's market data into a fresh back test and checks
+ * the algo ends up in the same place.
+ */
+public class MyAlgoJournalReplayTest extends AbstractAlgoBackTest {
+
+    private File journalFile;
+
+    @Override
+    public AlgoLogic createAlgoLogic() {
+        return new MyAlgoLogic();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("backtest", ".journal");
+        assertTrue(journalFile.delete());
+    }
+
+    @After
+    public void tearDown() {
+        journalFile.delete();
+    }
+
+    private static long filledQuantity(AlgoContainer container){
+        return container.getState().getChildOrders().stream().mapToLong(ChildOrder::getFilledQuantity).sum();
+    }
+
+    @Test
+    public void testReplayedMarketDataReproducesTheBackTest() {
+        final TestNetwork recordingNetwork = new TestNetwork();
+        final AlgoContainer recorded;
+
+        try(RealSequencer sequencer = new RealSequencer(recordingNetwork, journalFile, 1024 * 1024)){
+            recorded = createBackTest(recordingNetwork, sequencer);
+
+            sequencer.onCommand(createTickBuy1());
+            sequencer.onCommand(createTickSell1());
+            sequencer.onCommand(createTickBuy2());
+            sequencer.onCommand(createTickSell2());
+            sequencer.onCommand(createTickCancel1());
+            sequencer.onCommand(createTickBuy3());
+            sequencer.onCommand(createTickBuy4());
+        }
+
+        final TestNetwork replayNetwork = new TestNetwork();
+        final DefaultSequencer replaySequencer = new DefaultSequencer(replayNetwork);
+        final AlgoContainer replayed = createBackTest(replayNetwork, replaySequencer);
+
+        try(JournalReplayer replayer = new JournalReplayer(journalFile)){
+            final ReplayResult result = replayer.replay(Pacing.asFastAsPossible(), JournalReplayer.MessageFilter.marketData(), replaySequencer::onCommand);
+            assertEquals(7, result.getMessages());
+        }
+
+        assertEquals(3500, filledQuantity(recorded));
+        assertEquals(filledQuantity(recorded), filledQuantity(replayed));
+        assertEquals(recorded.getState().getChildOrders().size(), replayed.getState().getChildOrders().size());
+    }
+}
@@ -0,0 +1,88 @@
+package codingblackfemales.gettingstarted;
+
+import codingblackfemales.algo.AlgoLogic;
+import codingblackfemales.backtest.ParameterSweep;
+import codingblackfemales.backtest.SweepReport;
+import codingblackfemales.backtest.SweepResult;
+import org.agrona.DirectBuffer;
+import org.junit.After;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Sweeps MyAlgoLogic's thresholds over the back test's ticks in parallel, and checks each run matches running it
+ * on its own.
+ */
+public class MyAlgoParameterSweepTest extends AbstractAlgoBackTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MyAlgoParameterSweepTest.class);
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @Override
+    public AlgoLogic createAlgoLogic() {
+        return new MyAlgoLogic();
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private List<DirectBuffer> ticks(){
+        return List.of(createTickBuy1(), createTickSell1(), createTickBuy2(), createTickSell2(),
+                createTickCancel1(), createTickBuy3(), createTickBuy4());
+    }
+
+    private static List<MyAlgoParameters> grid(){
+        final List<MyAlgoParameters> grid = new ArrayList<>();
+        for (int desiredActive = 1; desiredActive <= 4; desiredActive++) {
+            for (int orderLimit : new int[]{3, 5, 8}) {
+                grid.add(new MyAlgoParameters(desiredActive, orderLimit, 60, 90));
+                grid.add(new MyAlgoParameters(desiredActive, orderLimit, 55, 95));
+            }
+        }
+        grid.add(MyAlgoParameters.DEFAULT);
+        return grid;
+    }
+
+    @Test
+    public void testSweepMatchesRunningEachParameterSetAlone() {
+        final ParameterSweep<MyAlgoParameters> sweep = new ParameterSweep<>(ticks(), MyAlgoLogic::new, pool);
+        final List<MyAlgoParameters> grid = grid();
+
+        final SweepReport<MyAlgoParameters> report = sweep.run(grid);
+        logger.info("[SWEEP] MyAlgoLogic parameter sweep:\n" + report);
+
+        assertEquals(grid.size(), report.getResults().size());
+        for (int i = 0; i < grid.size(); i++) {
+            final SweepResult<MyAlgoParameters> result = report.getResults().get(i);
+            assertSame(grid.get(i), result.getParameters());
+            assertEquals(7, result.getMessages());
+
+            final SweepResult<MyAlgoParameters> alone = sweep.runOne(grid.get(i));
+            assertEquals(alone.getChildOrders(), result.getChildOrders());
+            assertEquals(alone.getBoughtQuantity(), result.getBoughtQuantity());
+            assertEquals(alone.getSoldQuantity(), result.getSoldQuantity());
+            assertEquals(alone.getPnl(), result.getPnl(), 0.0);
+            assertEquals(((MyAlgoLogic) alone.getLogic()).getRealisedProfit(), ((MyAlgoLogic) result.getLogic()).getRealisedProfit(), 0.0);
+        }
+
+        //the defaults do what the back test does
+        final SweepResult<MyAlgoParameters> defaults = report.getResults().get(grid.size() - 1);
+        assertEquals(3500, defaults.getFilledQuantity());
+        assertEquals(5, defaults.getChildOrders());
+
+        assertNotNull(report.best());
+        assertEquals(report.sortedByPnl().get(0).getPnl(), report.best().getPnl(), 0.0);
+    }
+}
@@ -1,22 +1,52 @@
 package codingblackfemales.sequencer;
 
+import codingblackfemales.sequencer.batch.MessageBatch;
+import codingblackfemales.sequencer.batch.MessageBatchReader;
+import codingblackfemales.sequencer.latency.LatencyHistogram;
+import codingblackfemales.sequencer.latency.PipelineLatency;
+import codingblackfemales.sequencer.net.Consumer;
 import codingblackfemales.sequencer.net.Network;
+import codingblackfemales.sequencer.util.MessageLength;
+import codingblackfemales.sequencer.util.MessageTimestamp;
 import messages.marketdata.MessageHeaderDecoder;
 import messages.marketdata.MessageHeaderEncoder;
 import messages.order.CreateOrderDecoder;
 import messages.order.CreateOrderEncoder;
 import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.OffsetEpochNanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class DefaultSequencer implements Sequencer {
 
     private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
     private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
 
-    private ByteBuffer byteBuffer;//= ByteBuffer.allocateDirect(1024);
-    private UnsafeBuffer mutableBuffer;// = new UnsafeBuffer(byteBuffer);
+    public static final int DEFAULT_DISPATCH_BUFFERS = 16;
+    public static final int DEFAULT_DISPATCH_BUFFER_SIZE = 1024;
+
+    //dispatch is synchronous and re-entrant (a consumer may send a new command while it is handling a message), so
+    //each level of nesting stamps into its own buffer. The pool only grows the first time a new depth is reached.
+    private UnsafeBuffer[] dispatchBuffers;
+    private final int dispatchBufferSize;
+    private int dispatchDepth = 0;
+
+    private final MessageLength messageLength = new MessageLength();
+    private final MessageTimestamp messageTimestamp = new MessageTimestamp();
+
+    EpochNanoClock clock = new OffsetEpochNanoClock();
+
+    //as with the dispatch buffers, a consumer may send a new batch while a batch is being dispatched
+    private MessageBatch[] batches = new MessageBatch[]{new MessageBatch()};
+    private int batchDepth = 0;
+    private MessageBatch sequencedBatch;
+    private long batchTimestamp;
+    private final MessageBatchReader batchReader = new MessageBatchReader();
+    private final Consumer batchSequencer = this::sequenceIntoBatch;
 
     private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
     private final CreateOrderEncoder createOrderEncoder = new CreateOrderEncoder();
@@ -30,12 +60,129 @@ public class DefaultSequencer implements Sequencer {
 
     private final Network network;
 
+    private PipelineLatency latency;
+    private LatencyHistogram sequencerLatency;
+    private int commandDepth = 0;
+    private long commandStartNanos;
+
     public DefaultSequencer(Network network) {
+        this(network, DEFAULT_DISPATCH_BUFFERS, DEFAULT_DISPATCH_BUFFER_SIZE);
+    }
+
+    public DefaultSequencer(Network network, int dispatchBuffers, int dispatchBufferSize) {
         this.network = network;
+        this.dispatchBufferSize = dispatchBufferSize;
+        this.dispatchBuffers = new UnsafeBuffer[Math.max(1, dispatchBuffers)];
+        for (int i = 0; i < this.dispatchBuffers.length; i++) {
+            this.dispatchBuffers[i] = newDispatchBuffer();
+        }
+    }
+
+    public void setLatency(final PipelineLatency latency){
+        this.latency = latency;
+        this.sequencerLatency = latency.histogram(PipelineLatency.SEQUENCER);
+    }
+
+    /**
+     * The clock every sequenced message is timestamped from, in epoch nanos.
+     */
+    public void setClock(final EpochNanoClock clock){
+        this.clock = clock;
     }
 
     @Override
     public void onCommand(DirectBuffer bb) {
+        startCommand();
+
+        commandDepth++;
+        try {
+            sequenceCommand(bb);
+        } finally {
+            commandDepth--;
+        }
+    }
+
+    /**
+     * Sequences every message in the batch in one pass: each gets the next sequence number, CreateOrders get an order
+     * id, and all of them are stamped with the same time. The batch is then dispatched whole, once, so nothing sees
+     * part of it before the rest is sequenced. Consumers that are not batch aware are handed the messages one at a
+     * time by the network.
+     */
+    @Override
+    public void onBatch(DirectBuffer batch) {
+        startCommand();
+
+        commandDepth++;
+        try {
+            sequenceBatch(batch);
+        } finally {
+            commandDepth--;
+        }
+    }
+
+    private void startCommand(){
+        if(latency != null){
+            commandStartNanos = latency.nanoTime();
+            if(commandDepth == 0){
+                latency.onInbound(commandStartNanos);
+            }
+        }
+    }
+
+    private void sequenceBatch(DirectBuffer batch){
+        if(batchDepth == batches.length){
+            final MessageBatch[] grown = Arrays.copyOf(batches, batches.length * 2);
+            for (int i = batches.length; i < grown.length; i++) {
+                grown[i] = new MessageBatch();
+            }
+            batches = grown;
+        }
+
+        final MessageBatch sequenced = batches[batchDepth].reset();
+        sequencedBatch = sequenced;
+        batchTimestamp = clock.nanoTime();
+        batchReader.forEach(batch, batchSequencer);
+
+        if(sequenced.isEmpty()){
+            return;
+        }
+        sequenced.sequencerNumber(sequencerNumber);
+
+        batchDepth++;
+        try {
+            dispatchBatch(sequenced.buffer(), sequenced.length(), batchTimestamp);
+        } finally {
+            batchDepth--;
+        }
+    }
+
+    private void sequenceIntoBatch(DirectBuffer bb){
+        headerDecoder.wrap(bb, 0);
+
+        final int schemaId = headerDecoder.schemaId();
+        final int templateId = headerDecoder.templateId();
+
+        //the reader hands each message over as a view of exactly its length, so only a re-encoded one is measured
+        final int offset = isModelMessage(schemaId, templateId)
+                ? sequencedBatch.add(processModelCommand(bb, schemaId, headerDecoder))
+                : sequencedBatch.add(bb, 0, bb.capacity());
+        final MutableDirectBuffer buffer = sequencedBatch.buffer();
+
+        sequencerNumber += 1;
+
+        headerEncoder.wrap(buffer, offset).sequencerNumber(sequencerNumber);
+        messageTimestamp.stamp(buffer, offset, batchTimestamp);
+    }
+
+    /**
+     * @param batch the sequenced batch, from offset 0
+     * @param timestamp the time every message in it was stamped with
+     */
+    protected void dispatchBatch(MutableDirectBuffer batch, int length, long timestamp){
+        dispatchToNetwork(batch);
+    }
+
+    private void sequenceCommand(DirectBuffer bb) {
 
         headerDecoder.wrap(bb, 0);
 
@@ -62,6 +209,7 @@ public class DefaultSequencer implements Sequencer {
 
 
         createOrderEncoder.wrapAndApplyHeader(businessMutableBuffer, 0, businessHeaderEncoder);
+        createOrderEncoder.instrumentId(createOrderDecoder.instrumentId());
         createOrderEncoder.price(createOrderDecoder.price());
         createOrderEncoder.quantity(createOrderDecoder.quantity());
         createOrderEncoder.side(createOrderDecoder.side());
@@ -69,7 +217,7 @@ public class DefaultSequencer implements Sequencer {
         return businessMutableBuffer;
     }
 
-    private long orderId = 1;
+    long orderId = 1;
 
     public long newOrderId(){
         return orderId +=1;
@@ -77,10 +225,9 @@ public class DefaultSequencer implements Sequencer {
 
     public void sequenceAndDispatchMessage(final DirectBuffer bb){
 
-        byteBuffer = ByteBuffer.allocateDirect(1024);
-        mutableBuffer = new UnsafeBuffer(byteBuffer);
+        final UnsafeBuffer mutableBuffer = acquireDispatchBuffer();
 
-        mutableBuffer.wrap(bb);
+        mutableBuffer.putBytes(0, bb, 0, messageLength.of(bb));
 
         headerEncoder.wrap(mutableBuffer, 0);
 
@@ -88,10 +235,36 @@ public class DefaultSequencer implements Sequencer {
 
         headerEncoder.sequencerNumber(sequencerNumber);
 
-        dispatchToNetwork(mutableBuffer);
+        messageTimestamp.stamp(mutableBuffer, clock.nanoTime());
+
+        dispatchDepth++;
+        try {
+            dispatchToNetwork(mutableBuffer);
+        } finally {
+            dispatchDepth--;
+        }
+    }
+
+    private UnsafeBuffer acquireDispatchBuffer(){
+        if(dispatchDepth == dispatchBuffers.length){
+            final UnsafeBuffer[] grown = Arrays.copyOf(dispatchBuffers, dispatchBuffers.length * 2);
+            for (int i = dispatchBuffers.length; i < grown.length; i++) {
+                grown[i] = newDispatchBuffer();
+            }
+            dispatchBuffers = grown;
+        }
+        return dispatchBuffers[dispatchDepth];
+    }
+
+    private UnsafeBuffer newDispatchBuffer(){
+        return new UnsafeBuffer(ByteBuffer.allocateDirect(dispatchBufferSize));
     }
 
     public void dispatchToNetwork(DirectBuffer sequencedBuffer){
+        //stamped before dispatching, as a nested command overwrites the start time
+        if(latency != null){
+            sequencerLatency.recordValue(latency.nanoTime() - commandStartNanos);
+        }
         network.dispatch(sequencedBuffer);
     }
 
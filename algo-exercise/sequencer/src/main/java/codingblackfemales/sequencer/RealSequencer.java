@@ -1,35 +1,231 @@
 package codingblackfemales.sequencer;
 
-import codingblackfemales.sequencer.util.ByteBufferUtil;
+import codingblackfemales.sequencer.batch.MessageBatchReader;
+import codingblackfemales.sequencer.net.Network;
+import codingblackfemales.sequencer.util.MessageLength;
+import codingblackfemales.sequencer.util.MessageTimestamp;
+import messages.batch.BatchDecoder;
+import messages.marketdata.MessageHeaderDecoder;
 import messages.marketdata.MessageHeaderEncoder;
+import messages.order.CreateOrderDecoder;
+import org.agrona.BitUtil;
 import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.SystemEpochNanoClock;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.nio.ByteBuffer;
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.util.Arrays;
 
-public class RealSequencer {
+/**
+ * A persistent sequencer. Every sequenced message is appended to a memory mapped journal and then dispatched to the
+ * network straight out of the journal, so there is no copy beyond the one into the journal itself.
+ *
+ * Journal layout: a run of frames, each a {@link #FRAME_HEADER_LENGTH} byte frame header followed by the message,
+ * header included, padded so the next frame starts on a {@link #FRAME_ALIGNMENT} boundary. The frame header holds
+ * the message length and the epoch nanos at which it was sequenced, the time the message itself is stamped with, so
+ * the journal can be replayed at its original pace. A zero length marks the end of the journal. The length is written
+ * last, so a frame torn by a crash is never seen on recovery.
+ *
+ * A batch is journalled as one frame holding the whole batch, so it is recovered all or nothing; the batch's own
+ * header carries the sequence number of the last message in it.
+ *
+ * When opened over an existing journal the sequencer carries on from the last sequence number and order id found in
+ * it. CreateOrder commands get an order id exactly as they do in {@link DefaultSequencer}.
+ */
+public class RealSequencer extends DefaultSequencer implements AutoCloseable {
 
-    final ByteBuffer sequenced = ByteBuffer.allocateDirect(1024);
-    final UnsafeBuffer directBuffer = new UnsafeBuffer();
-    final MessageHeaderEncoder encoder = new MessageHeaderEncoder();
+    private static final Logger logger = LoggerFactory.getLogger(RealSequencer.class);
 
-    final long sequenceNumber = 0L;
+    public static final int LENGTH_OFFSET = 0;
+    public static final int TIMESTAMP_OFFSET = BitUtil.SIZE_OF_LONG;
+    public static final int FRAME_HEADER_LENGTH = TIMESTAMP_OFFSET + BitUtil.SIZE_OF_LONG;
+    public static final int FRAME_ALIGNMENT = 8;
+
+    private final File journalFile;
+    private final MappedByteBuffer mappedJournal;
+    private final UnsafeBuffer journal;
+
+    private final MessageHeaderEncoder encoder = new MessageHeaderEncoder();
+    private final MessageLength messageLength = new MessageLength();
+    private final MessageTimestamp messageTimestamp = new MessageTimestamp();
+
+    //views over the journal handed to consumers, one per level of re-entrant dispatch
+    private UnsafeBuffer[] directBuffers = new UnsafeBuffer[]{new UnsafeBuffer(0, 0)};
+    private int dispatchDepth = 0;
+
+    private int position = 0;
+
+    public RealSequencer(final Network network, final File journalFile, final int journalLength) {
+        this(network, journalFile, journalLength, new SystemEpochNanoClock());
+    }
+
+    public RealSequencer(final Network network, final File journalFile, final int journalLength, final EpochNanoClock clock) {
+        super(network, 1, DEFAULT_DISPATCH_BUFFER_SIZE);
+        this.journalFile = journalFile;
+        setClock(clock);
+
+        if(journalFile.exists()){
+            this.mappedJournal = IoUtil.mapExistingFile(journalFile, "journal");
+        }else{
+            this.mappedJournal = IoUtil.mapNewFile(journalFile, journalLength);
+        }
+
+        this.journal = new UnsafeBuffer(mappedJournal);
+
+        recover();
+    }
+
+    public static int frameLength(final int messageLength){
+        return BitUtil.align(FRAME_HEADER_LENGTH + messageLength, FRAME_ALIGNMENT);
+    }
+
+    public long getSequenceNumber(){
+        return sequencerNumber;
+    }
+
+    public int getJournalPosition(){
+        return position;
+    }
+
+    public File getJournalFile(){
+        return journalFile;
+    }
+
+    @Override
+    public void sequenceAndDispatchMessage(final DirectBuffer buffer){
+        processMessage(buffer);
+    }
 
     public void processMessage(DirectBuffer buffer){
 
-        ByteBufferUtil.cloneInto(buffer.byteBuffer(), sequenced);
+        final int length = messageLength.of(buffer);
+        final int messageOffset = reserve(length);
 
-        directBuffer.wrap(sequenced);
+        journal.putBytes(messageOffset, buffer, 0, length);
 
-        encoder.wrap(directBuffer, 0);
+        encoder.wrap(journal, messageOffset);
 
-        encoder.sequencerNumber(sequenceNumber);
+        sequencerNumber += 1;
 
-        dispatch(directBuffer);
+        encoder.sequencerNumber(sequencerNumber);
+
+        final long timestamp = clock.nanoTime();
+        messageTimestamp.stamp(journal, messageOffset, timestamp);
+
+        commit(length, timestamp);
+        dispatchFromJournal(messageOffset, length);
+    }
+
+    /**
+     * The batch is already sequenced, so it is copied into the journal as it is.
+     */
+    @Override
+    protected void dispatchBatch(final MutableDirectBuffer batch, final int length, final long timestamp){
+        final int messageOffset = reserve(length);
+
+        journal.putBytes(messageOffset, batch, 0, length);
+
+        commit(length, timestamp);
+        dispatchFromJournal(messageOffset, length);
+    }
+
+    /**
+     * @return the offset in the journal to write the message to
+     */
+    private int reserve(final int length){
+        if(position + frameLength(length) + FRAME_HEADER_LENGTH > journal.capacity()){
+            throw new IllegalStateException("Journal " + journalFile + " is full at position " + position);
+        }
+        return position + FRAME_HEADER_LENGTH;
+    }
+
+    private void commit(final int length, final long timestamp){
+        journal.putLong(position + TIMESTAMP_OFFSET, timestamp);
+
+        //publish the frame by writing its length last
+        journal.putIntOrdered(position + LENGTH_OFFSET, length);
+        position += frameLength(length);
+    }
+
+    private void dispatchFromJournal(final int messageOffset, final int length){
+        final UnsafeBuffer directBuffer = acquireDirectBuffer();
+        directBuffer.wrap(journal, messageOffset, length);
+
+        dispatchDepth++;
+        try {
+            dispatch(directBuffer);
+        } finally {
+            dispatchDepth--;
+        }
     }
 
     public void dispatch(UnsafeBuffer buffer){
-        //TODO: Implement
+        dispatchToNetwork(buffer);
     }
 
+    /**
+     * Flushes the journal to disk; without this the data is safe from a process crash but not from the OS going down.
+     */
+    public void force(){
+        mappedJournal.force();
+    }
+
+    @Override
+    public void close(){
+        force();
+        IoUtil.unmap(mappedJournal);
+    }
+
+    private UnsafeBuffer acquireDirectBuffer(){
+        if(dispatchDepth == directBuffers.length){
+            final UnsafeBuffer[] grown = Arrays.copyOf(directBuffers, directBuffers.length * 2);
+            for (int i = directBuffers.length; i < grown.length; i++) {
+                grown[i] = new UnsafeBuffer(0, 0);
+            }
+            directBuffers = grown;
+        }
+        return directBuffers[dispatchDepth];
+    }
+
+    private void recover(){
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final CreateOrderDecoder createOrder = new CreateOrderDecoder();
+        final MessageHeaderDecoder inner = new MessageHeaderDecoder();
+        final MessageBatchReader batchReader = new MessageBatchReader();
+        final UnsafeBuffer frame = new UnsafeBuffer(0, 0);
+
+        int length;
+        while(position + FRAME_HEADER_LENGTH <= journal.capacity() && (length = journal.getIntVolatile(position + LENGTH_OFFSET)) > 0){
+            final int messageOffset = position + FRAME_HEADER_LENGTH;
+
+            header.wrap(journal, messageOffset);
+            sequencerNumber = header.sequencerNumber();
+
+            if(isModelMessage(header.schemaId(), header.templateId())){
+                createOrder.wrap(journal, messageOffset + header.encodedLength(), header.blockLength(), header.version());
+                orderId = Math.max(orderId, createOrder.orderId());
+            }else if(header.schemaId() == BatchDecoder.SCHEMA_ID){
+                frame.wrap(journal, messageOffset, length);
+                batchReader.forEach(frame, message -> {
+                    inner.wrap(message, 0);
+                    if(isModelMessage(inner.schemaId(), inner.templateId())){
+                        createOrder.wrap(message, inner.encodedLength(), inner.blockLength(), inner.version());
+                        orderId = Math.max(orderId, createOrder.orderId());
+                    }
+                });
+            }
+
+            position += frameLength(length);
+        }
+
+        if(position > 0){
+            logger.info("[SEQUENCER] Recovered journal " + journalFile + " up to sequence number " + sequencerNumber + " (" + position + " bytes)");
+        }
+    }
 }
@@ -1,7 +1,16 @@
 package codingblackfemales.sequencer;
 
+import codingblackfemales.sequencer.batch.MessageBatchReader;
 import org.agrona.DirectBuffer;
 
 public interface Sequencer {
     public void onCommand(final DirectBuffer byteBuffer);
+
+    /**
+     * Sequences every message in a {@link codingblackfemales.sequencer.batch.MessageBatch}, in order. By default
+     * that is one command at a time; {@link DefaultSequencer} sequences the batch in one pass and dispatches it whole.
+     */
+    default void onBatch(final DirectBuffer batch){
+        new MessageBatchReader().forEach(batch, this::onCommand);
+    }
 }
@@ -0,0 +1,133 @@
+package codingblackfemales.sequencer.audit;
+
+import codingblackfemales.sequencer.RealSequencer;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.util.MessageLength;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.EpochNanoClock;
+import org.agrona.concurrent.SystemEpochNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+
+import static codingblackfemales.sequencer.RealSequencer.FRAME_HEADER_LENGTH;
+import static codingblackfemales.sequencer.RealSequencer.LENGTH_OFFSET;
+import static codingblackfemales.sequencer.RealSequencer.TIMESTAMP_OFFSET;
+
+/**
+ * An audit trail of every message on the network, as its raw SBE bytes, for the cost of one copy per message rather
+ * than the formatting {@link codingblackfemales.sequencer.consumer.LoggingConsumer} does. Read it back with
+ * {@link AuditReader}, or print it with {@link AuditPrinter}.
+ *
+ * Messages are appended to memory mapped segment files in a directory, rolling to a new segment when one fills up.
+ * Segments are named by their index, and are laid out as the {@link RealSequencer} journal is, so any one of them can
+ * also be replayed with {@link codingblackfemales.sequencer.replay.JournalReplayer}. Opening a directory that already
+ * has segments carries on in a new segment after them.
+ *
+ * As with the journal, the data is safe from a process crash once written, but only safe from the OS going down
+ * after a {@link #force()}.
+ */
+public class AuditConsumer implements Consumer, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditConsumer.class);
+
+    public static final String SEGMENT_SUFFIX = ".audit";
+    public static final int DEFAULT_SEGMENT_LENGTH = 64 * 1024 * 1024;
+
+    private final File directory;
+    private final int segmentLength;
+    private final EpochNanoClock clock;
+    private final MessageLength messageLength = new MessageLength();
+
+    private int segmentIndex;
+    private MappedByteBuffer mappedSegment;
+    private final UnsafeBuffer segment = new UnsafeBuffer(0, 0);
+    private int position = 0;
+
+    private long messages = 0;
+
+    public AuditConsumer(final File directory) {
+        this(directory, DEFAULT_SEGMENT_LENGTH, new SystemEpochNanoClock());
+    }
+
+    public AuditConsumer(final File directory, final int segmentLength, final EpochNanoClock clock) {
+        if(segmentLength < FRAME_HEADER_LENGTH * 2){
+            throw new IllegalArgumentException("Segment length " + segmentLength + " is too small");
+        }
+        this.directory = directory;
+        this.segmentLength = segmentLength;
+        this.clock = clock;
+
+        IoUtil.ensureDirectoryExists(directory, "audit");
+        final File[] existing = AuditReader.segments(directory);
+        this.segmentIndex = existing.length == 0 ? 0 : AuditReader.segmentIndex(existing[existing.length - 1]) + 1;
+        mapSegment();
+    }
+
+    public static String segmentName(final int index){
+        return String.format("%010d", index) + SEGMENT_SUFFIX;
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        final int length = messageLength.of(buffer);
+        final int frameLength = RealSequencer.frameLength(length);
+
+        //room is left for the zero length that marks the end of the segment
+        if(position + frameLength + FRAME_HEADER_LENGTH > segment.capacity()){
+            if(position == 0){
+                throw new IllegalStateException("Message of length " + length + " does not fit in a segment of " + segmentLength);
+            }
+            roll();
+        }
+
+        segment.putBytes(position + FRAME_HEADER_LENGTH, buffer, 0, length);
+        segment.putLong(position + TIMESTAMP_OFFSET, clock.nanoTime());
+        //publish the frame by writing its length last, so a reader never sees one half written
+        segment.putIntOrdered(position + LENGTH_OFFSET, length);
+        position += frameLength;
+        messages++;
+    }
+
+    private void roll(){
+        IoUtil.unmap(mappedSegment);
+        segmentIndex++;
+        mapSegment();
+    }
+
+    private void mapSegment(){
+        final File file = new File(directory, segmentName(segmentIndex));
+        mappedSegment = IoUtil.mapNewFile(file, segmentLength);
+        segment.wrap(mappedSegment);
+        position = 0;
+        if(logger.isInfoEnabled()){
+            logger.info("[AUDIT] Writing to " + file);
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    public long getMessages() {
+        return messages;
+    }
+
+    public void force(){
+        mappedSegment.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+        IoUtil.unmap(mappedSegment);
+    }
+}
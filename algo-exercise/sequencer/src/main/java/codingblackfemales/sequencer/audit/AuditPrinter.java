@@ -0,0 +1,110 @@
+package codingblackfemales.sequencer.audit;
+
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.order.AckedOrderDecoder;
+import messages.order.CancelAckedOrderDecoder;
+import messages.order.CancelOrderDecoder;
+import messages.order.CreateOrderDecoder;
+import messages.order.FillOrderDecoder;
+import messages.order.PartialFillOrderDecoder;
+import messages.order.PendingOrderDecoder;
+import org.agrona.DirectBuffer;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.time.Instant;
+
+import static codingblackfemales.sequencer.util.MessageUtil.bookDeltaToString;
+import static codingblackfemales.sequencer.util.MessageUtil.bookUpdateToString;
+
+/**
+ * Prints an audit directory written by {@link AuditConsumer} as text, formatted as the LoggingConsumer would have.
+ *
+ * Usage: AuditPrinter &lt;audit directory&gt; [from sequence number] [to sequence number]
+ */
+public class AuditPrinter {
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+
+    private final BookUpdateDecoder bookUpdate = new BookUpdateDecoder();
+    private final AskBookUpdateDecoder askBookUpdate = new AskBookUpdateDecoder();
+    private final BidBookUpdateDecoder bidBookUpdate = new BidBookUpdateDecoder();
+    private final BookDeltaDecoder bookDelta = new BookDeltaDecoder();
+
+    private final CreateOrderDecoder createOrder = new CreateOrderDecoder();
+    private final CancelOrderDecoder cancelOrder = new CancelOrderDecoder();
+    private final PendingOrderDecoder pendingOrder = new PendingOrderDecoder();
+    private final AckedOrderDecoder ackedOrder = new AckedOrderDecoder();
+    private final CancelAckedOrderDecoder cancelAckedOrder = new CancelAckedOrderDecoder();
+    private final PartialFillOrderDecoder partialFill = new PartialFillOrderDecoder();
+    private final FillOrderDecoder fill = new FillOrderDecoder();
+
+    /**
+     * @return the number of messages printed
+     */
+    public long print(final File directory, final long fromSequence, final long toSequence, final PrintStream out){
+        return new AuditReader(directory).read(fromSequence, toSequence, (timestamp, message) -> out.println(format(timestamp, message)));
+    }
+
+    public String format(final long timestamp, final DirectBuffer message){
+        header.wrap(message, 0);
+        final StringBuilder sb = new StringBuilder();
+        sb.append('[').append(header.sequencerNumber()).append("] ")
+                .append(Instant.ofEpochSecond(0, timestamp)).append(' ');
+
+        final int offset = header.encodedLength();
+        final int blockLength = header.blockLength();
+        final int version = header.version();
+        final int templateId = header.templateId();
+
+        if(header.schemaId() == BookUpdateDecoder.SCHEMA_ID){
+            if(templateId == BookUpdateDecoder.TEMPLATE_ID){
+                bookUpdate.wrap(message, offset, blockLength, version);
+                sb.append("BookUpdate instrumentId=").append(bookUpdate.instrumentId()).append(" venue=").append(bookUpdate.venue())
+                        .append(" source=").append(bookUpdate.source()).append('\n');
+                return sb.append(bookUpdateToString(bookUpdate)).toString();
+            }else if(templateId == BookDeltaDecoder.TEMPLATE_ID){
+                bookDelta.wrap(message, offset, blockLength, version);
+                sb.append("BookDelta instrumentId=").append(bookDelta.instrumentId()).append(" venue=").append(bookDelta.venue()).append('\n');
+                return sb.append(bookDeltaToString(bookDelta)).toString();
+            }else if(templateId == AskBookUpdateDecoder.TEMPLATE_ID){
+                return sb.append(askBookUpdate.wrap(message, offset, blockLength, version)).toString();
+            }else if(templateId == BidBookUpdateDecoder.TEMPLATE_ID){
+                return sb.append(bidBookUpdate.wrap(message, offset, blockLength, version)).toString();
+            }
+        }else if(header.schemaId() == CreateOrderDecoder.SCHEMA_ID){
+            if(templateId == CreateOrderDecoder.TEMPLATE_ID){
+                return sb.append(createOrder.wrap(message, offset, blockLength, version)).toString();
+            }else if(templateId == CancelOrderDecoder.TEMPLATE_ID){
+                return sb.append(cancelOrder.wrap(message, offset, blockLength, version)).toString();
+            }else if(templateId == PendingOrderDecoder.TEMPLATE_ID){
+                return sb.append(pendingOrder.wrap(message, offset, blockLength, version)).toString();
+            }else if(templateId == AckedOrderDecoder.TEMPLATE_ID){
+                return sb.append(ackedOrder.wrap(message, offset, blockLength, version)).toString();
+            }else if(templateId == CancelAckedOrderDecoder.TEMPLATE_ID){
+                return sb.append(cancelAckedOrder.wrap(message, offset, blockLength, version)).toString();
+            }else if(templateId == PartialFillOrderDecoder.TEMPLATE_ID){
+                return sb.append(partialFill.wrap(message, offset, blockLength, version)).toString();
+            }else if(templateId == FillOrderDecoder.TEMPLATE_ID){
+                return sb.append(fill.wrap(message, offset, blockLength, version)).toString();
+            }
+        }
+        return sb.append("Unknown message schemaId=").append(header.schemaId()).append(" templateId=").append(templateId)
+                .append(" length=").append(message.capacity()).toString();
+    }
+
+    public static void main(final String[] args) {
+        if(args.length < 1 || args.length > 3){
+            System.err.println("Usage: AuditPrinter <audit directory> [from sequence number] [to sequence number]");
+            System.exit(1);
+        }
+        final long from = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        final long to = args.length > 2 ? Long.parseLong(args[2]) : Long.MAX_VALUE;
+        final long printed = new AuditPrinter().print(new File(args[0]), from, to, System.out);
+        System.err.println("Printed " + printed + " messages");
+    }
+}
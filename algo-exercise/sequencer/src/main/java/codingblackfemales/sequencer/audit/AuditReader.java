@@ -0,0 +1,96 @@
+package codingblackfemales.sequencer.audit;
+
+import codingblackfemales.sequencer.RealSequencer;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static codingblackfemales.sequencer.RealSequencer.FRAME_HEADER_LENGTH;
+import static codingblackfemales.sequencer.RealSequencer.LENGTH_OFFSET;
+import static codingblackfemales.sequencer.RealSequencer.TIMESTAMP_OFFSET;
+
+/**
+ * Reads back the segments an {@link AuditConsumer} wrote, oldest first, one memory mapped segment at a time.
+ *
+ * Every message is checked against the sequence range by its header, so the range is matched even when the
+ * directory holds more than one run of the sequencer.
+ */
+public class AuditReader {
+
+    public interface AuditHandler {
+        /**
+         * @param timestamp epoch nanos at which the message was audited
+         * @param message only valid for the duration of the call
+         */
+        void onMessage(long timestamp, DirectBuffer message);
+    }
+
+    private final File directory;
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+
+    public AuditReader(final File directory) {
+        if(!directory.isDirectory()){
+            throw new IllegalArgumentException("No audit directory at " + directory.getAbsolutePath());
+        }
+        this.directory = directory;
+    }
+
+    /**
+     * @return the audit segments in the directory, in the order they were written
+     */
+    public static File[] segments(final File directory){
+        final File[] segments = directory.listFiles((dir, name) -> name.endsWith(AuditConsumer.SEGMENT_SUFFIX));
+        if(segments == null){
+            return new File[0];
+        }
+        Arrays.sort(segments, Comparator.comparingInt(AuditReader::segmentIndex));
+        return segments;
+    }
+
+    static int segmentIndex(final File segment){
+        final String name = segment.getName();
+        return Integer.parseInt(name.substring(0, name.length() - AuditConsumer.SEGMENT_SUFFIX.length()));
+    }
+
+    public long readAll(final AuditHandler handler){
+        return read(0, Long.MAX_VALUE, handler);
+    }
+
+    /**
+     * @return the number of messages handed to the handler, those with a sequence number from fromSequence to
+     * toSequence inclusive
+     */
+    public long read(final long fromSequence, final long toSequence, final AuditHandler handler){
+        long messages = 0;
+        for (File file : segments(directory)) {
+            final MappedByteBuffer mapped = IoUtil.mapExistingFile(file, FileChannel.MapMode.READ_ONLY, "audit");
+            try {
+                final UnsafeBuffer segment = new UnsafeBuffer(mapped);
+                int position = 0;
+                int length;
+                while(position + FRAME_HEADER_LENGTH <= segment.capacity() && (length = segment.getIntVolatile(position + LENGTH_OFFSET)) > 0){
+                    message.wrap(segment, position + FRAME_HEADER_LENGTH, length);
+                    header.wrap(message, 0);
+                    final long sequence = header.sequencerNumber();
+                    if(sequence >= fromSequence && sequence <= toSequence){
+                        handler.onMessage(segment.getLong(position + TIMESTAMP_OFFSET), message);
+                        messages++;
+                    }
+                    position += RealSequencer.frameLength(length);
+                }
+            } finally {
+                IoUtil.unmap(mapped);
+            }
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,89 @@
+package codingblackfemales.sequencer.batch;
+
+import codingblackfemales.sequencer.Sequencer;
+import codingblackfemales.sequencer.net.Consumer;
+import org.agrona.DirectBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Sits in front of a sequencer, for a producer that sends several commands in response to one event (a fill and the
+ * book update after it, a sweep of cancels). Commands sent between {@link #begin()} and {@link #end()} are held in a
+ * batch and sent on with {@link Sequencer#onBatch} at the end, so they are sequenced together and dispatched once.
+ * Outside of a begin and end commands go straight through.
+ *
+ * Begin and end nest, only the outermost end sends the batch. Dispatch is synchronous, so a consumer may begin a new
+ * batch while the last one is still being sent; each level of nesting builds into its own batch.
+ */
+public class BatchingSequencer implements Sequencer {
+
+    private final Sequencer sequencer;
+
+    private MessageBatch[] batches = new MessageBatch[]{new MessageBatch()};
+    private int sendDepth = 0;
+
+    private MessageBatch batch;
+    private int depth = 0;
+
+    private final MessageBatchReader batchReader = new MessageBatchReader();
+    private final Consumer batcher = this::onCommand;
+
+    public BatchingSequencer(final Sequencer sequencer) {
+        this.sequencer = sequencer;
+    }
+
+    public void begin(){
+        if(depth++ > 0){
+            return;
+        }
+        if(sendDepth == batches.length){
+            final MessageBatch[] grown = Arrays.copyOf(batches, batches.length * 2);
+            for (int i = batches.length; i < grown.length; i++) {
+                grown[i] = new MessageBatch();
+            }
+            batches = grown;
+        }
+        batch = batches[sendDepth].reset();
+    }
+
+    public void end(){
+        if(depth == 0){
+            throw new IllegalStateException("end() called without a matching begin()");
+        }
+        if(--depth > 0 || batch.isEmpty()){
+            return;
+        }
+
+        sendDepth++;
+        try {
+            sequencer.onBatch(batch.buffer());
+        } finally {
+            sendDepth--;
+        }
+    }
+
+    public boolean isBatching(){
+        return depth > 0;
+    }
+
+    @Override
+    public void onCommand(final DirectBuffer buffer) {
+        if(depth > 0){
+            batch.add(buffer);
+        }else{
+            sequencer.onCommand(buffer);
+        }
+    }
+
+    /**
+     * Joins the batch being built, if there is one.
+     */
+    @Override
+    public void onBatch(final DirectBuffer buffer) {
+        if(depth > 0){
+            batchReader.forEach(buffer, batcher);
+        }else{
+            sequencer.onBatch(buffer);
+        }
+    }
+}
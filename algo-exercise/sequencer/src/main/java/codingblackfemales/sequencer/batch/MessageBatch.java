@@ -0,0 +1,105 @@
+package codingblackfemales.sequencer.batch;
+
+import codingblackfemales.sequencer.util.MessageLength;
+import messages.batch.BatchDecoder;
+import messages.batch.BatchEncoder;
+import messages.batch.GroupSizeEncodingEncoder;
+import messages.batch.MessageHeaderDecoder;
+import messages.batch.MessageHeaderEncoder;
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableDirectByteBuffer;
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * Builds a batch: one SBE Batch message carrying any number of whole messages, each with its own header, for a
+ * sequencer to take with {@link codingblackfemales.sequencer.Sequencer#onBatch} and sequence together.
+ *
+ * Each message is copied in as it is added, so the buffer it was encoded into is free again straight away. The batch
+ * grows its buffer as needed, so after the first few batches building one does not allocate.
+ */
+public class MessageBatch {
+
+    public static final int DEFAULT_INITIAL_CAPACITY = 4096;
+    public static final int MAX_MESSAGES = BatchEncoder.MessagesEncoder.countMaxValue();
+
+    private static final int DIMENSIONS_OFFSET = MessageHeaderEncoder.ENCODED_LENGTH + BatchEncoder.BLOCK_LENGTH;
+
+    private final ExpandableDirectByteBuffer buffer;
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
+    private final BatchEncoder batchEncoder = new BatchEncoder();
+    private final GroupSizeEncodingEncoder dimensions = new GroupSizeEncodingEncoder();
+    private final MessageLength messageLength = new MessageLength();
+
+    private BatchEncoder.MessagesEncoder messages;
+    private int count;
+
+    public MessageBatch() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public MessageBatch(final int initialCapacity) {
+        this.buffer = new ExpandableDirectByteBuffer(initialCapacity);
+        reset();
+    }
+
+    /**
+     * Empties the batch, to build the next one in the same buffer.
+     */
+    public MessageBatch reset(){
+        batchEncoder.wrapAndApplyHeader(buffer, 0, headerEncoder);
+        headerEncoder.sequencerNumber(0);
+        //the count is only known once the batch is built, it is written by buffer()
+        messages = batchEncoder.messagesCount(MAX_MESSAGES);
+        count = 0;
+        return this;
+    }
+
+    /**
+     * @return the offset in {@link #buffer()} the message was copied to
+     */
+    public int add(final DirectBuffer message){
+        return add(message, 0, messageLength.of(message));
+    }
+
+    public int add(final DirectBuffer message, final int offset, final int length){
+        headerDecoder.wrap(message, offset);
+        if(headerDecoder.schemaId() == BatchDecoder.SCHEMA_ID){
+            throw new IllegalArgumentException("Batches cannot be nested");
+        }
+        if(count == MAX_MESSAGES){
+            throw new IllegalStateException("Batch is full at " + MAX_MESSAGES + " messages");
+        }
+        final int messageOffset = batchEncoder.limit() + BatchEncoder.MessagesEncoder.messageHeaderLength();
+        messages.next().putMessage(message, offset, length);
+        count++;
+        return messageOffset;
+    }
+
+    public int count(){
+        return count;
+    }
+
+    public boolean isEmpty(){
+        return count == 0;
+    }
+
+    /**
+     * The sequence number in the batch's own header; a sequencer sets it to that of the last message in the batch.
+     */
+    public void sequencerNumber(final long sequencerNumber){
+        headerEncoder.sequencerNumber(sequencerNumber);
+    }
+
+    /**
+     * @return the batch as built so far, from offset 0; more messages can still be added after
+     */
+    public MutableDirectBuffer buffer(){
+        dimensions.wrap(buffer, DIMENSIONS_OFFSET).numInGroup(count);
+        return buffer;
+    }
+
+    public int length(){
+        return batchEncoder.limit();
+    }
+}
@@ -0,0 +1,70 @@
+package codingblackfemales.sequencer.batch;
+
+import codingblackfemales.sequencer.net.Consumer;
+import messages.batch.BatchDecoder;
+import messages.batch.GroupSizeEncodingDecoder;
+import messages.batch.MessageHeaderDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Hands each message in a batch to a consumer in place, as a view over the batch, so nothing is copied.
+ *
+ * Dispatch is synchronous and re-entrant, so a consumer may be handed another batch while it is handling a message
+ * from this one; each level of nesting reads with its own decoder. The pool only grows the first time a new depth
+ * is reached.
+ */
+public class MessageBatchReader {
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final GroupSizeEncodingDecoder dimensions = new GroupSizeEncodingDecoder();
+
+    private Cursor[] cursors = new Cursor[]{new Cursor()};
+    private int depth = 0;
+
+    public boolean isBatch(final DirectBuffer buffer){
+        header.wrap(buffer, 0);
+        return header.schemaId() == BatchDecoder.SCHEMA_ID && header.templateId() == BatchDecoder.TEMPLATE_ID;
+    }
+
+    public int count(final DirectBuffer batch){
+        header.wrap(batch, 0);
+        return dimensions.wrap(batch, header.encodedLength() + header.blockLength()).numInGroup();
+    }
+
+    /**
+     * @return the number of messages in the batch
+     */
+    public int forEach(final DirectBuffer batch, final Consumer consumer){
+        if(depth == cursors.length){
+            cursors = Arrays.copyOf(cursors, cursors.length * 2);
+            for (int i = depth; i < cursors.length; i++) {
+                cursors[i] = new Cursor();
+            }
+        }
+        final Cursor cursor = cursors[depth];
+
+        header.wrap(batch, 0);
+        cursor.batch.wrap(batch, header.encodedLength(), header.blockLength(), header.version());
+        final BatchDecoder.MessagesDecoder messages = cursor.batch.messages();
+        final int count = messages.count();
+
+        depth++;
+        try {
+            while(messages.hasNext()){
+                messages.next().wrapMessage(cursor.message);
+                consumer.onMessage(cursor.message);
+            }
+        } finally {
+            depth--;
+        }
+        return count;
+    }
+
+    private static final class Cursor {
+        private final BatchDecoder batch = new BatchDecoder();
+        private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+    }
+}
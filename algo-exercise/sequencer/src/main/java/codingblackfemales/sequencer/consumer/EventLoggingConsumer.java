@@ -0,0 +1,87 @@
+package codingblackfemales.sequencer.consumer;
+
+import codingblackfemales.sequencer.eventlog.EventLog;
+import codingblackfemales.sequencer.eventlog.EventType;
+import codingblackfemales.sequencer.net.Consumer;
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.order.CancelOrderDecoder;
+import messages.order.CreateOrderDecoder;
+import messages.order.FillOrderDecoder;
+import messages.order.PartialFillOrderDecoder;
+import org.agrona.DirectBuffer;
+
+/**
+ * The {@link LoggingConsumer}'s job without its cost: logs every message the sequencer dispatches as a
+ * {@link EventType#MESSAGE} record in an {@link EventLog}, with its sequencer number and the ids, price and quantity
+ * it carries, instead of formatting it on the pipeline's thread.
+ */
+public class EventLoggingConsumer implements Consumer {
+
+    private final EventLog eventLog;
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookUpdateDecoder bookUpdateDecoder = new BookUpdateDecoder();
+    private final AskBookUpdateDecoder askBookUpdateDecoder = new AskBookUpdateDecoder();
+    private final BidBookUpdateDecoder bidBookUpdateDecoder = new BidBookUpdateDecoder();
+    private final BookDeltaDecoder bookDeltaDecoder = new BookDeltaDecoder();
+    private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
+    private final CancelOrderDecoder cancelOrderDecoder = new CancelOrderDecoder();
+    private final FillOrderDecoder fillDecoder = new FillOrderDecoder();
+    private final PartialFillOrderDecoder partialFillDecoder = new PartialFillOrderDecoder();
+
+    public EventLoggingConsumer(final EventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+
+    @Override
+    public void onMessage(final DirectBuffer buffer) {
+        header.wrap(buffer, 0);
+
+        final int schemaId = header.schemaId();
+        final int templateId = header.templateId();
+        final int offset = header.encodedLength();
+        final int blockLength = header.blockLength();
+        final int version = header.version();
+
+        long id = 0;
+        long price = 0;
+        long quantity = 0;
+
+        if(schemaId == BookUpdateDecoder.SCHEMA_ID){
+            if(templateId == BookUpdateDecoder.TEMPLATE_ID){
+                id = bookUpdateDecoder.wrap(buffer, offset, blockLength, version).instrumentId();
+            }else if(templateId == AskBookUpdateDecoder.TEMPLATE_ID){
+                id = askBookUpdateDecoder.wrap(buffer, offset, blockLength, version).instrumentId();
+            }else if(templateId == BidBookUpdateDecoder.TEMPLATE_ID){
+                id = bidBookUpdateDecoder.wrap(buffer, offset, blockLength, version).instrumentId();
+            }else if(templateId == BookDeltaDecoder.TEMPLATE_ID){
+                id = bookDeltaDecoder.wrap(buffer, offset, blockLength, version).instrumentId();
+            }
+        }else if(schemaId == CreateOrderDecoder.SCHEMA_ID){
+            if(templateId == CreateOrderDecoder.TEMPLATE_ID){
+                createOrderDecoder.wrap(buffer, offset, blockLength, version);
+                id = createOrderDecoder.orderId();
+                price = createOrderDecoder.price();
+                quantity = createOrderDecoder.quantity();
+            }else if(templateId == CancelOrderDecoder.TEMPLATE_ID){
+                id = cancelOrderDecoder.wrap(buffer, offset, blockLength, version).orderId();
+            }else if(templateId == FillOrderDecoder.TEMPLATE_ID){
+                fillDecoder.wrap(buffer, offset, blockLength, version);
+                id = fillDecoder.orderId();
+                price = fillDecoder.price();
+                quantity = fillDecoder.quantity();
+            }else if(templateId == PartialFillOrderDecoder.TEMPLATE_ID){
+                partialFillDecoder.wrap(buffer, offset, blockLength, version);
+                id = partialFillDecoder.orderId();
+                price = partialFillDecoder.price();
+                quantity = partialFillDecoder.quantity();
+            }
+        }
+
+        eventLog.log(EventType.MESSAGE, id, header.sequencerNumber(), price, quantity, schemaId * 1000 + templateId);
+    }
+}
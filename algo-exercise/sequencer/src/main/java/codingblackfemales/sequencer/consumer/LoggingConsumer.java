@@ -1,16 +1,19 @@
 package codingblackfemales.sequencer.consumer;
 
 import codingblackfemales.sequencer.net.Consumer;
+import messages.marketdata.BookDeltaDecoder;
 import messages.marketdata.BookUpdateDecoder;
 import messages.marketdata.MessageHeaderDecoder;
 import messages.order.CancelOrderDecoder;
 import messages.order.CreateOrderDecoder;
 import messages.order.CreateOrderEncoder;
 import messages.order.FillOrderDecoder;
+import messages.order.PartialFillOrderDecoder;
 import org.agrona.DirectBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static codingblackfemales.sequencer.util.MessageUtil.bookDeltaToString;
 import static codingblackfemales.sequencer.util.MessageUtil.bookUpdateToString;
 
 public class LoggingConsumer implements Consumer {
@@ -19,13 +22,19 @@ public class LoggingConsumer implements Consumer {
 
     private final MessageHeaderDecoder decoder = new MessageHeaderDecoder();
     private final BookUpdateDecoder bookUpdateDecoder = new BookUpdateDecoder();
+    private final BookDeltaDecoder bookDeltaDecoder = new BookDeltaDecoder();
     private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
     private final FillOrderDecoder fillDecoder = new FillOrderDecoder();
 
     private final CancelOrderDecoder cancelDecoder = new CancelOrderDecoder();
+    private final PartialFillOrderDecoder partialFillDecoder = new PartialFillOrderDecoder();
 
     @Override
     public void onMessage(final DirectBuffer buffer) {
+        //every branch formats the whole message, so don't decode anything it won't log
+        if(!logger.isInfoEnabled()){
+            return;
+        }
 
         decoder.wrap(buffer, 0);
 
@@ -35,6 +44,12 @@ public class LoggingConsumer implements Consumer {
             int bufferOffset = decoder.encodedLength();
             bookUpdateDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
             logger.info("[" + decoder.sequencerNumber() + "] \n" + bookUpdateToString(bookUpdateDecoder));
+        } else if (decoder.schemaId() == BookDeltaDecoder.SCHEMA_ID && decoder.templateId() == BookDeltaDecoder.TEMPLATE_ID) {
+            final int actingBlockLength = decoder.blockLength();
+            final int actingVersion = decoder.version();
+            int bufferOffset = decoder.encodedLength();
+            bookDeltaDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
+            logger.info("[" + decoder.sequencerNumber() + "] \n" + bookDeltaToString(bookDeltaDecoder));
         } else if (decoder.schemaId() == CreateOrderEncoder.SCHEMA_ID && decoder.templateId() == CreateOrderDecoder.TEMPLATE_ID) {
             final int actingBlockLength = decoder.blockLength();
             final int actingVersion = decoder.version();
@@ -48,6 +63,12 @@ public class LoggingConsumer implements Consumer {
             int bufferOffset = decoder.encodedLength();
             fillDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
             logger.info("[" + decoder.sequencerNumber() + "] " + fillDecoder);
+        } else if (decoder.schemaId() == PartialFillOrderDecoder.SCHEMA_ID && decoder.templateId() == PartialFillOrderDecoder.TEMPLATE_ID) {
+            final int actingBlockLength = decoder.blockLength();
+            final int actingVersion = decoder.version();
+            int bufferOffset = decoder.encodedLength();
+            partialFillDecoder.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
+            logger.info("[" + decoder.sequencerNumber() + "] " + partialFillDecoder);
         }else if (decoder.schemaId() == CancelOrderDecoder.SCHEMA_ID && decoder.templateId() == CancelOrderDecoder.TEMPLATE_ID) {
             final int actingBlockLength = decoder.blockLength();
             final int actingVersion = decoder.version();
@@ -1,18 +1,28 @@
 package codingblackfemales.sequencer.event;
 
+import codingblackfemales.sequencer.batch.MessageBatchReader;
 import codingblackfemales.sequencer.net.Consumer;
+import messages.batch.BatchDecoder;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
 import messages.marketdata.BookUpdateDecoder;
 import messages.marketdata.MessageHeaderDecoder;
 import org.agrona.DirectBuffer;
 
+/**
+ * Decodes each message with the block length and version in its header, so messages encoded with an earlier version
+ * of the schema are still handed on, with the fields they predate reading as their null value. A batch is read in
+ * place, each message in it handed on in turn.
+ */
 public abstract class MarketDataEventListener implements Consumer {
 
     private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final MessageBatchReader batchReader = new MessageBatchReader();
     private final BookUpdateDecoder book = new BookUpdateDecoder();
     private final AskBookUpdateDecoder ask = new AskBookUpdateDecoder();
     private final BidBookUpdateDecoder bid = new BidBookUpdateDecoder();
+    private final BookDeltaDecoder delta = new BookDeltaDecoder();
 
     @Override
     public void onMessage(final DirectBuffer buffer) {
@@ -22,6 +32,16 @@ public abstract class MarketDataEventListener implements Consumer {
         final int actingVersion = header.version();
         final int bufferOffset = header.encodedLength();
 
+        if(header.schemaId() == BatchDecoder.SCHEMA_ID){
+            batchReader.forEach(buffer, this);
+            return;
+        }
+
+        //order messages share template ids with market data (PartialFillOrder and BidBookUpdate are both 9)
+        if(header.schemaId() != BookUpdateDecoder.SCHEMA_ID){
+            return;
+        }
+
         if(header.templateId() == BookUpdateDecoder.TEMPLATE_ID){
             book.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
             onBookUpdate(book);
@@ -31,11 +51,19 @@ public abstract class MarketDataEventListener implements Consumer {
         }else if(header.templateId() == BidBookUpdateDecoder.TEMPLATE_ID){
             bid.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
             onBidBook(bid);
+        }else if(header.templateId() == BookDeltaDecoder.TEMPLATE_ID){
+            delta.wrap(buffer, bufferOffset, actingBlockLength, actingVersion);
+            onBookDelta(delta);
         }
     }
 
     public abstract void onBookUpdate(BookUpdateDecoder bookUpdate);
     public abstract void onAskBook(AskBookUpdateDecoder askBook);
     public abstract void onBidBook(BidBookUpdateDecoder bidBook);
+    public abstract void onBookDelta(BookDeltaDecoder bookDelta);
 
+    @Override
+    public boolean isBatchAware(){
+        return true;
+    }
 }
@@ -1,13 +1,21 @@
 package codingblackfemales.sequencer.event;
 
+import codingblackfemales.sequencer.batch.MessageBatchReader;
 import codingblackfemales.sequencer.net.Consumer;
+import messages.batch.BatchDecoder;
 import messages.marketdata.MessageHeaderDecoder;
 import messages.order.*;
 import org.agrona.DirectBuffer;
 
+/**
+ * Decodes each message with the block length and version in its header, so messages encoded with an earlier version
+ * of the schema are still handed on, with the fields they predate reading as their null value. A batch is read in
+ * place, each message in it handed on in turn.
+ */
 public abstract class OrderEventListener implements Consumer {
 
     private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final MessageBatchReader batchReader = new MessageBatchReader();
 
     private final CreateOrderDecoder createOrderDecoder = new CreateOrderDecoder();
     private final CancelOrderDecoder cancelOrderDecoder = new CancelOrderDecoder();
@@ -26,6 +34,11 @@ public abstract class OrderEventListener implements Consumer {
         final int actingVersion = header.version();
         final int bufferOffset = header.encodedLength();
 
+        if(header.schemaId() == BatchDecoder.SCHEMA_ID){
+            batchReader.forEach(buffer, this);
+            return;
+        }
+
         if(header.schemaId() == CreateOrderEncoder.SCHEMA_ID) {
 
             if (header.templateId() == CreateOrderDecoder.TEMPLATE_ID) {
@@ -66,4 +79,9 @@ public abstract class OrderEventListener implements Consumer {
     public abstract void onPartialFill(final PartialFillOrderDecoder partialFill);
 
     public abstract void onFill(final FillOrderDecoder fill);
+
+    @Override
+    public boolean isBatchAware(){
+        return true;
+    }
 }
@@ -0,0 +1,133 @@
+package codingblackfemales.sequencer.eventlog;
+
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.SystemNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A binary event log for the hot path. Each event is a fixed layout record written straight into an off-heap ring,
+ * so logging one is a claim, a few stores and a commit: nothing is formatted and nothing is allocated. Turning the
+ * records into text is left to whoever reads the ring, normally an {@link EventLogRenderer} on its own thread.
+ *
+ * Any number of threads can log. When the ring is full the event is dropped and counted rather than making the
+ * pipeline wait; every event still takes a sequence number, so a gap in the rendered sequence shows where.
+ *
+ * Components are handed the log with a setEventLog(..) call and log nothing without one.
+ */
+public class EventLog {
+
+    public static final int DEFAULT_CAPACITY = 1024 * 1024;
+
+    public static final int TIMESTAMP_OFFSET = 0;
+    public static final int SEQUENCE_OFFSET = 8;
+    public static final int ID_OFFSET = 16;
+    public static final int REF_OFFSET = 24;
+    public static final int PRICE_OFFSET = 32;
+    public static final int QUANTITY_OFFSET = 40;
+    public static final int DETAIL_OFFSET = 48;
+
+    /**
+     * The detail is an int, the rest pads the record out to a multiple of 8 bytes.
+     */
+    public static final int RECORD_LENGTH = 56;
+
+    private final ManyToOneRingBuffer ring;
+    private final AtomicBuffer buffer;
+    private final NanoClock clock;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public EventLog() {
+        this(DEFAULT_CAPACITY, new SystemNanoClock());
+    }
+
+    /**
+     * @param capacity size of the ring in bytes, must be a power of two
+     */
+    public EventLog(final int capacity, final NanoClock clock) {
+        this.ring = new ManyToOneRingBuffer(new UnsafeBuffer(ByteBuffer.allocateDirect(capacity + RingBufferDescriptor.TRAILER_LENGTH)));
+        this.buffer = ring.buffer();
+        this.clock = clock;
+    }
+
+    public void log(final EventType type, final long id){
+        log(type, id, 0, 0, 0, 0);
+    }
+
+    public void log(final EventType type, final long id, final int detail){
+        log(type, id, 0, 0, 0, detail);
+    }
+
+    public void log(final EventType type, final long id, final long ref, final long price, final long quantity, final int detail){
+        final long eventSequence = sequence.getAndIncrement();
+        final int index = ring.tryClaim(type.code(), RECORD_LENGTH);
+        if(index <= 0){
+            dropped.incrementAndGet();
+            return;
+        }
+        buffer.putLong(index + TIMESTAMP_OFFSET, clock.nanoTime());
+        buffer.putLong(index + SEQUENCE_OFFSET, eventSequence);
+        buffer.putLong(index + ID_OFFSET, id);
+        buffer.putLong(index + REF_OFFSET, ref);
+        buffer.putLong(index + PRICE_OFFSET, price);
+        buffer.putLong(index + QUANTITY_OFFSET, quantity);
+        buffer.putInt(index + DETAIL_OFFSET, detail);
+        ring.commit(index);
+    }
+
+    /**
+     * Reads up to limit events from the ring, from one thread only.
+     *
+     * @return the number of events read
+     */
+    public int read(final EventHandler handler, final int limit){
+        return ring.read(handler, limit);
+    }
+
+    /**
+     * @return the number of events logged, including those dropped
+     */
+    public long getEventCount(){
+        return sequence.get();
+    }
+
+    public long getDroppedCount(){
+        return dropped.get();
+    }
+
+    /**
+     * @return bytes written to the ring and not yet read
+     */
+    public int getPendingBytes(){
+        return ring.size();
+    }
+
+    /**
+     * Takes events off the ring with the record decoded into its fields.
+     */
+    public interface EventHandler extends MessageHandler {
+
+        void onEvent(int typeCode, long timestamp, long sequence, long id, long ref, long price, long quantity, int detail);
+
+        @Override
+        default void onMessage(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length) {
+            onEvent(msgTypeId,
+                    buffer.getLong(index + TIMESTAMP_OFFSET),
+                    buffer.getLong(index + SEQUENCE_OFFSET),
+                    buffer.getLong(index + ID_OFFSET),
+                    buffer.getLong(index + REF_OFFSET),
+                    buffer.getLong(index + PRICE_OFFSET),
+                    buffer.getLong(index + QUANTITY_OFFSET),
+                    buffer.getInt(index + DETAIL_OFFSET));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package codingblackfemales.sequencer.eventlog;
+
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drains an {@link EventLog} and writes each event as a line of text to the "eventlog" logger, off the pipeline's
+ * threads. Run it as an agent, or {@link #start()} it on a thread of its own.
+ */
+public class EventLogRenderer implements Agent, EventLog.EventHandler, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger("eventlog");
+
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final EventLog eventLog;
+    private final IdleStrategy idleStrategy;
+    private final StringBuilder line = new StringBuilder(128);
+
+    private AgentRunner runner;
+    private long rendered = 0;
+
+    public EventLogRenderer(final EventLog eventLog) {
+        this(eventLog, new BackoffIdleStrategy());
+    }
+
+    public EventLogRenderer(final EventLog eventLog, final IdleStrategy idleStrategy) {
+        this.eventLog = eventLog;
+        this.idleStrategy = idleStrategy;
+    }
+
+    public synchronized void start(){
+        if(runner == null){
+            runner = new AgentRunner(idleStrategy, t -> logger.error("[EVENTLOG] Failed to render events", t), null, this);
+            AgentRunner.startOnThread(runner);
+        }
+    }
+
+    /**
+     * Stops the thread, if it was started, and renders whatever is left in the log.
+     */
+    @Override
+    public synchronized void close(){
+        CloseHelper.close(runner);
+        runner = null;
+        while(doWork() > 0){
+            //drain
+        }
+    }
+
+    @Override
+    public int doWork(){
+        return eventLog.read(this, DEFAULT_BATCH_SIZE);
+    }
+
+    @Override
+    public void onEvent(final int typeCode, final long timestamp, final long sequence, final long id, final long ref,
+                        final long price, final long quantity, final int detail) {
+        rendered++;
+        if(logger.isInfoEnabled()){
+            line.setLength(0);
+            render(line, typeCode, timestamp, sequence, id, ref, price, quantity, detail);
+            logger.info(line.toString());
+        }
+    }
+
+    public long getRendered(){
+        return rendered;
+    }
+
+    /**
+     * Writes one event as text, leaving out the fields it does not use.
+     */
+    public static StringBuilder render(final StringBuilder sb, final int typeCode, final long timestamp, final long sequence,
+                                       final long id, final long ref, final long price, final long quantity, final int detail){
+        final EventType type = EventType.of(typeCode);
+        sb.append('[').append(sequence).append("] ").append(timestamp).append(' ');
+        if(type == null){
+            sb.append("UNKNOWN(").append(typeCode).append(')');
+        }else{
+            sb.append(type.name());
+        }
+        sb.append(" id=").append(id);
+        if(ref != 0){
+            sb.append(" ref=").append(ref);
+        }
+        if(quantity != 0 || price != 0){
+            sb.append(' ').append(quantity).append('@').append(price);
+        }
+        if(detail != 0){
+            sb.append(" detail=").append(detail);
+        }
+        return sb;
+    }
+
+    @Override
+    public String roleName() {
+        return "eventlog-renderer";
+    }
+}
@@ -0,0 +1,78 @@
+package codingblackfemales.sequencer.eventlog;
+
+/**
+ * What an {@link EventLog} record is. Each record has the same fields; which of them an event fills in is listed
+ * against it, anything else is zero.
+ */
+public enum EventType {
+
+    /**
+     * A message dispatched by the sequencer. id is the instrument id for market data, the order id for order
+     * messages; ref is the sequencer number; detail is the schema id and template id (schema id * 1000 + template id);
+     * price and quantity are the order's or the fill's.
+     */
+    MESSAGE(1),
+
+    /**
+     * The back test book added a passive limit order. id is the order id, detail the side's value ('B' or 'S').
+     */
+    BOOK_ORDER_ADDED(2),
+
+    /**
+     * The back test book was asked to cancel an order. id is the order id, detail is 1 if it was found, 0 if not.
+     */
+    BOOK_ORDER_CANCELLED(3),
+
+    /**
+     * The back test book filled an order. id is the order id, ref its leaves quantity after the fill.
+     */
+    BOOK_FILL(4),
+
+    /**
+     * The back test book published its market data. id is the instrument id, detail the template id published.
+     */
+    BOOK_PUBLISHED(5),
+
+    /**
+     * An algo sent a new child order. id is the instrument id, detail the side's value ('B' or 'S').
+     */
+    ACTION_CREATE(6),
+
+    /**
+     * An algo cancelled a child order. id is the order id.
+     */
+    ACTION_CANCEL(7);
+
+    private static final EventType[] BY_CODE;
+
+    static {
+        int max = 0;
+        for (EventType type : values()) {
+            max = Math.max(max, type.code);
+        }
+        BY_CODE = new EventType[max + 1];
+        for (EventType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+
+    EventType(final int code) {
+        this.code = code;
+    }
+
+    /**
+     * @return the code written to the log, which stays the same if types are added or reordered
+     */
+    public int code() {
+        return code;
+    }
+
+    /**
+     * @return the type with the code, or null if there is none, e.g. a log written by a newer version
+     */
+    public static EventType of(final int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
@@ -0,0 +1,152 @@
+package codingblackfemales.sequencer.latency;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size log-linear histogram of nanosecond latencies, in the style of HdrHistogram. Values below
+ * 2^precisionBits are counted exactly; above that each power of two is split into 2^(precisionBits - 1) equal
+ * buckets, so every recorded value is kept to within 1 part in 2^(precisionBits - 1) of its true value.
+ *
+ * The counts array is sized up front from the highest trackable value, so {@link #recordValue(long)} never allocates.
+ * Values above the highest trackable value are counted against it. Recording is single threaded; a read from another
+ * thread (e.g. a dump at shutdown) may see a histogram that is part way through a record.
+ */
+public class LatencyHistogram {
+
+    public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = 60_000_000_000L;
+    public static final int DEFAULT_PRECISION_BITS = 8;
+
+    private final long highestTrackableValue;
+    private final int precisionBits;
+    private final long[] counts;
+
+    private long totalCount = 0;
+    private long sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    public LatencyHistogram() {
+        this(DEFAULT_HIGHEST_TRACKABLE_VALUE, DEFAULT_PRECISION_BITS);
+    }
+
+    public LatencyHistogram(final long highestTrackableValue, final int precisionBits) {
+        if(precisionBits < 1 || precisionBits > 16){
+            throw new IllegalArgumentException("Precision bits must be between 1 and 16 but was " + precisionBits);
+        }
+        if(highestTrackableValue < 1){
+            throw new IllegalArgumentException("Highest trackable value must be positive but was " + highestTrackableValue);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.precisionBits = precisionBits;
+        this.counts = new long[indexOf(highestTrackableValue) + 1];
+    }
+
+    public void recordValue(final long value){
+        final long clamped = Math.min(Math.max(value, 0), highestTrackableValue);
+        counts[indexOf(clamped)]++;
+        totalCount++;
+        sum += clamped;
+        if(clamped < min){
+            min = clamped;
+        }
+        if(clamped > max){
+            max = clamped;
+        }
+    }
+
+    public long getTotalCount(){
+        return totalCount;
+    }
+
+    public long getMinValue(){
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long getMaxValue(){
+        return max;
+    }
+
+    public double getMean(){
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    public long getHighestTrackableValue(){
+        return highestTrackableValue;
+    }
+
+    /**
+     * @return the highest value that at least the given percentage of recorded values are at or below, to within the
+     * precision of the histogram and never above the largest value recorded
+     */
+    public long getValueAtPercentile(final double percentile){
+        if(totalCount == 0){
+            return 0;
+        }
+        final double clamped = Math.min(Math.max(percentile, 0.0), 100.0);
+        final long target = Math.max(1, (long) Math.ceil(clamped / 100.0 * totalCount));
+
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if(seen >= target){
+                return Math.min(highestEquivalentValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    public void reset(){
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * Writes the count, mean, min, max and the usual percentiles in microseconds.
+     */
+    public StringBuilder appendPercentiles(final StringBuilder sb){
+        sb.append("count=").append(totalCount);
+        appendMicros(sb, " mean=", (long) getMean());
+        appendMicros(sb, " min=", getMinValue());
+        appendMicros(sb, " p50=", getValueAtPercentile(50.0));
+        appendMicros(sb, " p90=", getValueAtPercentile(90.0));
+        appendMicros(sb, " p99=", getValueAtPercentile(99.0));
+        appendMicros(sb, " p99.9=", getValueAtPercentile(99.9));
+        appendMicros(sb, " p99.99=", getValueAtPercentile(99.99));
+        appendMicros(sb, " max=", getMaxValue());
+        return sb;
+    }
+
+    private static void appendMicros(final StringBuilder sb, final String label, final long nanos){
+        sb.append(label).append(String.format("%.3f", nanos / 1000.0)).append("us");
+    }
+
+    @Override
+    public String toString() {
+        return appendPercentiles(new StringBuilder()).toString();
+    }
+
+    int indexOf(final long value){
+        final int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - precisionBits);
+        return (shift << (precisionBits - 1)) + (int) (value >>> shift);
+    }
+
+    long lowestEquivalentValue(final int index){
+        if(index < (1 << precisionBits)){
+            return index;
+        }
+        final int shift = (index >>> (precisionBits - 1)) - 1;
+        final long subBucket = index - ((long) shift << (precisionBits - 1));
+        return subBucket << shift;
+    }
+
+    long highestEquivalentValue(final int index){
+        if(index < (1 << precisionBits)){
+            return index;
+        }
+        final int shift = (index >>> (precisionBits - 1)) - 1;
+        return lowestEquivalentValue(index) + (1L << shift) - 1;
+    }
+}
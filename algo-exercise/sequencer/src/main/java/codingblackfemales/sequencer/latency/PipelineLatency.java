@@ -0,0 +1,112 @@
+package codingblackfemales.sequencer.latency;
+
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.SystemNanoClock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Latency histograms for each stage of the pipeline, from a command entering the sequencer to an action leaving the
+ * algo. Components are handed this with a setLatency(..) call and look up their histograms there, so the hot path only
+ * reads the clock and bumps a preallocated bucket.
+ *
+ * Tick to order is measured from the outermost command the sequencer is handling (normally a market data tick) to an
+ * action being handed back to the sequencer by the algo. Stage times are inclusive, so a consumer
+ * that sends a command counts the time taken to dispatch it.
+ */
+public class PipelineLatency {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineLatency.class);
+
+    public static final String SEQUENCER = "sequencer";
+    public static final String EVALUATE = "evaluate";
+    public static final String APPLY = "apply";
+    public static final String TICK_TO_ORDER = "tick-to-order";
+
+    private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+    private final NanoClock clock;
+    private final long highestTrackableValue;
+    private final int precisionBits;
+
+    private final LatencyHistogram tickToOrder;
+
+    private long inboundNanos = 0;
+
+    public PipelineLatency() {
+        this(new SystemNanoClock());
+    }
+
+    public PipelineLatency(final NanoClock clock) {
+        this(clock, LatencyHistogram.DEFAULT_HIGHEST_TRACKABLE_VALUE, LatencyHistogram.DEFAULT_PRECISION_BITS);
+    }
+
+    public PipelineLatency(final NanoClock clock, final long highestTrackableValue, final int precisionBits) {
+        this.clock = clock;
+        this.highestTrackableValue = highestTrackableValue;
+        this.precisionBits = precisionBits;
+        histogram(SEQUENCER);
+        this.tickToOrder = histogram(TICK_TO_ORDER);
+    }
+
+    public long nanoTime(){
+        return clock.nanoTime();
+    }
+
+    /**
+     * @return the histogram for the stage, created the first time it is asked for
+     */
+    public synchronized LatencyHistogram histogram(final String stage){
+        return histograms.computeIfAbsent(stage, s -> new LatencyHistogram(highestTrackableValue, precisionBits));
+    }
+
+    public static String consumerStage(final int index, final Object consumer){
+        return "consumer[" + index + "] " + consumer.getClass().getSimpleName();
+    }
+
+    /**
+     * Called by the sequencer as it starts on a command that was not sent from inside a dispatch.
+     */
+    public void onInbound(final long nanos){
+        inboundNanos = nanos;
+    }
+
+    /**
+     * Called as an order leaves the algo, records the time since the command that caused it came in.
+     */
+    public void onOutbound(final long nanos){
+        if(inboundNanos != 0){
+            tickToOrder.recordValue(nanos - inboundNanos);
+        }
+    }
+
+    public synchronized void reset(){
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    public synchronized String percentiles(){
+        final StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            sb.append(entry.getKey()).append(": ");
+            entry.getValue().appendPercentiles(sb).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public void logPercentiles(){
+        logger.info("[LATENCY] Pipeline latency percentiles:\n" + percentiles());
+    }
+
+    /**
+     * Logs the percentiles when the JVM exits.
+     */
+    public Thread logOnShutdown(){
+        final Thread hook = new Thread(this::logPercentiles, "latency-shutdown");
+        Runtime.getRuntime().addShutdownHook(hook);
+        return hook;
+    }
+}
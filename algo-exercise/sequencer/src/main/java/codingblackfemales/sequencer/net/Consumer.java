@@ -4,4 +4,12 @@ import org.agrona.DirectBuffer;
 
 public interface Consumer {
     public void onMessage(final DirectBuffer buffer);
+
+    /**
+     * Whether the consumer takes a {@link codingblackfemales.sequencer.batch.MessageBatch} whole; a network hands
+     * every other consumer the messages in a batch one at a time.
+     */
+    default boolean isBatchAware(){
+        return false;
+    }
 }
@@ -0,0 +1,223 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.batch.MessageBatchReader;
+import codingblackfemales.sequencer.util.MessageLength;
+import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
+import org.agrona.ErrorHandler;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.*;
+import org.agrona.concurrent.ringbuffer.OneToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBufferDescriptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A Network that decouples slow consumers from the sequencer thread.
+ *
+ * Consumers added with {@link #addAsyncConsumer(Consumer)} each get their own single producer/single consumer ring
+ * buffer and run on their own agent thread, so the slowest consumer no longer gates the pipeline. Because every
+ * async consumer reads its own ring, each one still sees messages in sequence number order.
+ *
+ * Consumers added with {@link #addConsumer(Consumer)} are called synchronously on the dispatching thread, as with
+ * {@link TestNetwork}. Anything that sends commands back into the sequencer (the order book, the algo container)
+ * must stay synchronous, as sequencers are single threaded.
+ *
+ * When an async consumer's ring is full the dispatching thread waits on the back pressure idle strategy until
+ * there is space, so no message is dropped; each wait is counted against that consumer's {@link Subscription}.
+ *
+ * A batch goes onto each ring whole, as one entry. Consumers that are not {@link Consumer#isBatchAware() batch aware}
+ * are handed the messages in it one at a time, on whichever thread they run.
+ */
+public class RingBufferNetwork implements Network, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RingBufferNetwork.class);
+
+    public static final int DEFAULT_RING_CAPACITY = 1024 * 1024;
+
+    private static final int MESSAGE_TYPE_ID = 1;
+
+    private final List<Consumer> consumers = new ArrayList<>();
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private final List<AgentRunner> runners = new ArrayList<>();
+
+    private final MessageLength messageLength = new MessageLength();
+    private final MessageBatchReader batchReader = new MessageBatchReader();
+
+    private final int ringCapacity;
+    private final Supplier<IdleStrategy> consumerIdleStrategy;
+    private final IdleStrategy backPressureIdleStrategy;
+
+    private volatile boolean running = false;
+
+    public RingBufferNetwork() {
+        this(DEFAULT_RING_CAPACITY, BackoffIdleStrategy::new, new BackoffIdleStrategy());
+    }
+
+    /**
+     * @param ringCapacity size of each consumer's ring in bytes, must be a power of two
+     * @param consumerIdleStrategy creates the idle strategy each consumer's agent thread uses when its ring is empty
+     * @param backPressureIdleStrategy what the dispatching thread does while waiting for space in a full ring
+     */
+    public RingBufferNetwork(final int ringCapacity,
+                             final Supplier<IdleStrategy> consumerIdleStrategy,
+                             final IdleStrategy backPressureIdleStrategy) {
+        this.ringCapacity = ringCapacity;
+        this.consumerIdleStrategy = consumerIdleStrategy;
+        this.backPressureIdleStrategy = backPressureIdleStrategy;
+    }
+
+    public void addConsumer(final Consumer consumer){
+        consumers.add(consumer);
+    }
+
+    public Subscription addAsyncConsumer(final Consumer consumer){
+        if(running){
+            throw new IllegalStateException("Cannot add an async consumer once the network has been started");
+        }
+        final ByteBuffer ring = ByteBuffer.allocateDirect(ringCapacity + RingBufferDescriptor.TRAILER_LENGTH);
+        final Subscription subscription = new Subscription(consumer, new OneToOneRingBuffer(new UnsafeBuffer(ring)));
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    public List<Subscription> getSubscriptions(){
+        return Collections.unmodifiableList(subscriptions);
+    }
+
+    public void start(){
+        if(running){
+            return;
+        }
+        running = true;
+        for (Subscription subscription : subscriptions) {
+            final AgentRunner runner = new AgentRunner(consumerIdleStrategy.get(), subscription, null, subscription);
+            runners.add(runner);
+            AgentRunner.startOnThread(runner);
+        }
+    }
+
+    @Override
+    public void close(){
+        running = false;
+        CloseHelper.closeAll(runners);
+        runners.clear();
+    }
+
+    @Override
+    public void dispatch(final DirectBuffer buffer){
+        if(!subscriptions.isEmpty()){
+            final int length = messageLength.of(buffer);
+            for (int i = 0; i < subscriptions.size(); i++) {
+                offer(subscriptions.get(i), buffer, length);
+            }
+        }
+
+        final boolean batch = batchReader.isBatch(buffer);
+        for (int i = 0; i < consumers.size(); i++) {
+            final Consumer consumer = consumers.get(i);
+            if(batch && !consumer.isBatchAware()){
+                batchReader.forEach(buffer, consumer);
+            }else{
+                consumer.onMessage(buffer);
+            }
+        }
+    }
+
+    private void offer(final Subscription subscription, final DirectBuffer buffer, final int length){
+        if(subscription.ring.write(MESSAGE_TYPE_ID, buffer, 0, length)){
+            return;
+        }
+
+        subscription.backPressured.incrementAndGet();
+        backPressureIdleStrategy.reset();
+
+        while(!subscription.ring.write(MESSAGE_TYPE_ID, buffer, 0, length)){
+            if(!running){
+                throw new IllegalStateException("Ring full for consumer " + subscription.roleName() + " and the network is not running");
+            }
+            backPressureIdleStrategy.idle();
+        }
+    }
+
+    /**
+     * One async consumer: its ring, the agent that drains it, and its delivery/back pressure counts.
+     */
+    public static class Subscription implements Agent, MessageHandler, ErrorHandler {
+
+        private final Consumer consumer;
+        private final RingBuffer ring;
+        private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+        private final MessageBatchReader batchReader = new MessageBatchReader();
+
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong backPressured = new AtomicLong();
+
+        private Subscription(final Consumer consumer, final RingBuffer ring) {
+            this.consumer = consumer;
+            this.ring = ring;
+        }
+
+        public Consumer getConsumer() {
+            return consumer;
+        }
+
+        public long getDelivered() {
+            return delivered.get();
+        }
+
+        public long getBackPressured() {
+            return backPressured.get();
+        }
+
+        public int getPendingBytes() {
+            return ring.size();
+        }
+
+        @Override
+        public int doWork() {
+            return ring.read(this);
+        }
+
+        @Override
+        public void onMessage(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length) {
+            message.wrap(buffer, index, length);
+            if(batchReader.isBatch(message)){
+                deliverBatch();
+            }else{
+                consumer.onMessage(message);
+                delivered.lazySet(delivered.get() + 1);
+            }
+        }
+
+        private void deliverBatch(){
+            final int count;
+            if(consumer.isBatchAware()){
+                count = batchReader.count(message);
+                consumer.onMessage(message);
+            }else{
+                count = batchReader.forEach(message, consumer);
+            }
+            //counted in messages, so the count does not depend on how they were batched
+            delivered.lazySet(delivered.get() + count);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            logger.error("[NETWORK] Consumer " + roleName() + " failed to process message", throwable);
+        }
+
+        @Override
+        public String roleName() {
+            return "network-" + consumer.getClass().getSimpleName();
+        }
+    }
+}
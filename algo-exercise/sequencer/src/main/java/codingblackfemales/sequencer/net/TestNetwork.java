@@ -1,23 +1,67 @@
 package codingblackfemales.sequencer.net;
 
+import codingblackfemales.sequencer.batch.MessageBatchReader;
+import codingblackfemales.sequencer.latency.LatencyHistogram;
+import codingblackfemales.sequencer.latency.PipelineLatency;
 import org.agrona.DirectBuffer;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 public class TestNetwork implements Network{
 
-    private final List<Consumer> consumers = new LinkedList<>();
+    private final List<Consumer> consumers = new ArrayList<>();
+    private final List<LatencyHistogram> consumerLatencies = new ArrayList<>();
+
+    private final MessageBatchReader batchReader = new MessageBatchReader();
+
+    private PipelineLatency latency;
 
     @Override
     public void dispatch(DirectBuffer buffer){
-        for (Consumer consumer: consumers) {
+        final boolean batch = batchReader.isBatch(buffer);
+        if(latency != null){
+            dispatchTimed(buffer, batch);
+            return;
+        }
+        //indexed rather than for-each, so dispatching does not create an iterator per message
+        for (int i = 0; i < consumers.size(); i++) {
+            deliver(consumers.get(i), buffer, batch);
+        }
+    }
+
+    private void dispatchTimed(DirectBuffer buffer, boolean batch){
+        for (int i = 0; i < consumers.size(); i++) {
+            final long start = latency.nanoTime();
+            deliver(consumers.get(i), buffer, batch);
+            consumerLatencies.get(i).recordValue(latency.nanoTime() - start);
+        }
+    }
+
+    private void deliver(Consumer consumer, DirectBuffer buffer, boolean batch){
+        if(batch && !consumer.isBatchAware()){
+            batchReader.forEach(buffer, consumer);
+        }else{
             consumer.onMessage(buffer);
         }
     }
 
     public void addConsumer(Consumer consumer){
         consumers.add(consumer);
+        if(latency != null){
+            consumerLatencies.add(latency.histogram(PipelineLatency.consumerStage(consumers.size() - 1, consumer)));
+        }
+    }
+
+    /**
+     * Times each consumer, including consumers already added.
+     */
+    public void setLatency(final PipelineLatency latency){
+        this.latency = latency;
+        consumerLatencies.clear();
+        for (int i = 0; i < consumers.size(); i++) {
+            consumerLatencies.add(latency.histogram(PipelineLatency.consumerStage(i, consumers.get(i))));
+        }
     }
 
 }
@@ -0,0 +1,190 @@
+package codingblackfemales.sequencer.replay;
+
+import codingblackfemales.sequencer.RealSequencer;
+import codingblackfemales.sequencer.batch.MessageBatchReader;
+import codingblackfemales.sequencer.net.Consumer;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.marketdata.Source;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.SystemNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static codingblackfemales.sequencer.RealSequencer.FRAME_HEADER_LENGTH;
+import static codingblackfemales.sequencer.RealSequencer.LENGTH_OFFSET;
+import static codingblackfemales.sequencer.RealSequencer.TIMESTAMP_OFFSET;
+
+/**
+ * Replays a journal written by {@link RealSequencer}, handing each message to a consumer straight out of the
+ * memory mapped file.
+ *
+ * To rebuild passive state (MarketDataService, OrderService) replay everything into the network they listen on,
+ * with {@code network::dispatch} as the consumer. To re-run a backtest, where the order book and algo container
+ * send commands of their own, replay only the {@link MessageFilter#marketData()} into a fresh sequencer with
+ * {@code sequencer::onCommand}, so the orders and fills are regenerated rather than replayed twice.
+ *
+ * Batches are unpacked, so the filter and the consumer see each message in a batch on its own, at the batch's time.
+ */
+public class JournalReplayer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalReplayer.class);
+
+    //parks are capped so a paced message is not dispatched more than tens of micros late
+    private static final long MAX_PARK_NANOS = 50_000;
+
+    public interface MessageFilter {
+
+        MessageFilter ALL = (header, buffer) -> true;
+
+        /**
+         * @param header already wrapped over the start of the message
+         */
+        boolean accept(MessageHeaderDecoder header, DirectBuffer buffer);
+
+        /**
+         * Market data from the stream only; book updates the back test order book published in response to orders
+         * are left out, as a fresh order book publishes its own.
+         */
+        static MessageFilter marketData(){
+            final BookUpdateDecoder bookUpdate = new BookUpdateDecoder();
+            return (header, buffer) -> {
+                if(header.schemaId() != BookUpdateDecoder.SCHEMA_ID){
+                    return false;
+                }
+                if(header.templateId() != BookUpdateDecoder.TEMPLATE_ID){
+                    return true;
+                }
+                bookUpdate.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                return bookUpdate.source() != Source.ORDERBOOK;
+            };
+        }
+    }
+
+    private final File journalFile;
+    private final MappedByteBuffer mappedJournal;
+    private final UnsafeBuffer journal;
+    private final NanoClock nanoClock;
+    private final IdleStrategy idleStrategy;
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final UnsafeBuffer message = new UnsafeBuffer(0, 0);
+    private final MessageBatchReader batchReader = new MessageBatchReader();
+
+    public JournalReplayer(final File journalFile) {
+        this(journalFile, new SystemNanoClock());
+    }
+
+    public JournalReplayer(final File journalFile, final NanoClock nanoClock) {
+        this(journalFile, nanoClock, new BackoffIdleStrategy(100, 10, 1_000, MAX_PARK_NANOS));
+    }
+
+    /**
+     * @param nanoClock what paced messages are scheduled against
+     * @param idleStrategy what the replaying thread does while a paced message is not yet due
+     */
+    public JournalReplayer(final File journalFile, final NanoClock nanoClock, final IdleStrategy idleStrategy) {
+        this.journalFile = journalFile;
+        this.nanoClock = nanoClock;
+        this.idleStrategy = idleStrategy;
+        this.mappedJournal = IoUtil.mapExistingFile(journalFile, FileChannel.MapMode.READ_ONLY, "journal");
+        this.journal = new UnsafeBuffer(mappedJournal);
+    }
+
+    public ReplayResult replay(final Pacing pacing, final Consumer consumer){
+        return replay(pacing, MessageFilter.ALL, consumer);
+    }
+
+    public ReplayResult replay(final Pacing pacing, final MessageFilter filter, final Consumer consumer){
+
+        final Replay replay = new Replay(pacing, filter, consumer, nanoClock.nanoTime());
+
+        int position = 0;
+        int length;
+
+        while(position + FRAME_HEADER_LENGTH <= journal.capacity() && (length = journal.getIntVolatile(position + LENGTH_OFFSET)) > 0){
+
+            message.wrap(journal, position + FRAME_HEADER_LENGTH, length);
+            replay.frameTimestamp = journal.getLong(position + TIMESTAMP_OFFSET);
+
+            if(batchReader.isBatch(message)){
+                batchReader.forEach(message, replay);
+            }else{
+                replay.onMessage(message);
+            }
+
+            position += RealSequencer.frameLength(length);
+        }
+
+        final ReplayResult result = new ReplayResult(replay.messages, replay.bytes, nanoClock.nanoTime() - replay.start);
+
+        logger.info("[REPLAY] Replayed " + journalFile + " " + pacing + ": " + result);
+
+        return result;
+    }
+
+    /**
+     * One replay's progress; filters, paces and hands on one message at a time, whether it had a frame of its own or
+     * came in a batch.
+     */
+    private final class Replay implements Consumer {
+
+        private final Pacing pacing;
+        private final MessageFilter filter;
+        private final Consumer consumer;
+        private final long start;
+
+        private long frameTimestamp;
+        private long firstTimestamp;
+        private long messages;
+        private long bytes;
+
+        private Replay(final Pacing pacing, final MessageFilter filter, final Consumer consumer, final long start) {
+            this.pacing = pacing;
+            this.filter = filter;
+            this.consumer = consumer;
+            this.start = start;
+        }
+
+        @Override
+        public void onMessage(final DirectBuffer buffer) {
+            header.wrap(buffer, 0);
+            if(!filter.accept(header, buffer)){
+                return;
+            }
+
+            if(pacing.isPaced()){
+                if(messages == 0){
+                    firstTimestamp = frameTimestamp;
+                }
+                awaitNanoTime(start + pacing.replayDelayNanos(frameTimestamp - firstTimestamp));
+            }
+
+            consumer.onMessage(buffer);
+
+            messages++;
+            bytes += buffer.capacity();
+        }
+    }
+
+    private void awaitNanoTime(final long deadline){
+        idleStrategy.reset();
+        while(deadline - nanoClock.nanoTime() > 0){
+            idleStrategy.idle();
+        }
+    }
+
+    @Override
+    public void close(){
+        IoUtil.unmap(mappedJournal);
+    }
+}
@@ -0,0 +1,54 @@
+package codingblackfemales.sequencer.replay;
+
+/**
+ * How fast a journal is replayed, relative to the time between messages when they were first sequenced.
+ */
+public final class Pacing {
+
+    private static final Pacing AS_FAST_AS_POSSIBLE = new Pacing(0);
+    private static final Pacing REAL_TIME = new Pacing(1);
+
+    private final double speed;
+
+    private Pacing(final double speed) {
+        this.speed = speed;
+    }
+
+    public static Pacing asFastAsPossible(){
+        return AS_FAST_AS_POSSIBLE;
+    }
+
+    public static Pacing realTime(){
+        return REAL_TIME;
+    }
+
+    /**
+     * @param multiple how many times faster than real time, e.g. 10 replays an hour of recording in 6 minutes
+     */
+    public static Pacing timesSpeed(final double multiple){
+        if(!(multiple > 0)){
+            throw new IllegalArgumentException("Replay speed must be positive but was " + multiple);
+        }
+        return new Pacing(multiple);
+    }
+
+    public boolean isPaced(){
+        return speed > 0;
+    }
+
+    public double getSpeed(){
+        return speed;
+    }
+
+    /**
+     * @return how long after the start of the replay a message recorded this long after the first one is due
+     */
+    public long replayDelayNanos(final long recordedDelayNanos){
+        return speed == 1 ? recordedDelayNanos : (long) (recordedDelayNanos / speed);
+    }
+
+    @Override
+    public String toString() {
+        return isPaced() ? speed + "x" : "as fast as possible";
+    }
+}
@@ -0,0 +1,38 @@
+package codingblackfemales.sequencer.replay;
+
+import java.util.concurrent.TimeUnit;
+
+public class ReplayResult {
+
+    private final long messages;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    public ReplayResult(final long messages, final long bytes, final long elapsedNanos) {
+        this.messages = messages;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getMessages() {
+        return messages;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getMessagesPerSecond(){
+        return elapsedNanos == 0 ? 0 : messages * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d messages (%d bytes) in %.3fms, %.0f msgs/sec",
+                messages, bytes, elapsedNanos / 1_000_000.0, getMessagesPerSecond());
+    }
+}
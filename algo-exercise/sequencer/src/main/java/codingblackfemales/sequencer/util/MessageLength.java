@@ -0,0 +1,61 @@
+package codingblackfemales.sequencer.util;
+
+import messages.batch.BatchDecoder;
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import org.agrona.DirectBuffer;
+
+/**
+ * Works out how many bytes an encoded message (header included) occupies, so it can be copied or framed
+ * without copying the whole of the buffer it was encoded into.
+ *
+ * Messages with repeating groups are walked with their decoder, fixed length messages are sized from the header.
+ * Holds its own decoders, so it is not thread safe, but it does not allocate.
+ */
+public class MessageLength {
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final BookUpdateDecoder book = new BookUpdateDecoder();
+    private final AskBookUpdateDecoder ask = new AskBookUpdateDecoder();
+    private final BidBookUpdateDecoder bid = new BidBookUpdateDecoder();
+    private final BookDeltaDecoder delta = new BookDeltaDecoder();
+    private final BatchDecoder batch = new BatchDecoder();
+
+    public int of(final DirectBuffer buffer){
+        return of(buffer, 0);
+    }
+
+    public int of(final DirectBuffer buffer, final int offset){
+        header.wrap(buffer, offset);
+
+        final int headerLength = header.encodedLength();
+        final int blockLength = header.blockLength();
+        final int version = header.version();
+        final int bodyOffset = offset + headerLength;
+
+        if(header.schemaId() == BookUpdateDecoder.SCHEMA_ID){
+            if(header.templateId() == BookUpdateDecoder.TEMPLATE_ID){
+                book.wrap(buffer, bodyOffset, blockLength, version);
+                return headerLength + book.sbeDecodedLength();
+            }else if(header.templateId() == AskBookUpdateDecoder.TEMPLATE_ID){
+                ask.wrap(buffer, bodyOffset, blockLength, version);
+                return headerLength + ask.sbeDecodedLength();
+            }else if(header.templateId() == BidBookUpdateDecoder.TEMPLATE_ID){
+                bid.wrap(buffer, bodyOffset, blockLength, version);
+                return headerLength + bid.sbeDecodedLength();
+            }else if(header.templateId() == BookDeltaDecoder.TEMPLATE_ID){
+                delta.wrap(buffer, bodyOffset, blockLength, version);
+                return headerLength + delta.sbeDecodedLength();
+            }
+        }else if(header.schemaId() == BatchDecoder.SCHEMA_ID){
+            batch.wrap(buffer, bodyOffset, blockLength, version);
+            return headerLength + batch.sbeDecodedLength();
+        }
+
+        //order messages are fixed length, so the block is the whole body
+        return headerLength + blockLength;
+    }
+}
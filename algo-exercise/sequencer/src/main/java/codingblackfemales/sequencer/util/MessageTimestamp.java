@@ -0,0 +1,103 @@
+package codingblackfemales.sequencer.util;
+
+import messages.marketdata.AskBookUpdateDecoder;
+import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
+import messages.marketdata.BookUpdateDecoder;
+import messages.marketdata.MessageHeaderDecoder;
+import messages.order.AckedOrderDecoder;
+import messages.order.CancelAckedOrderDecoder;
+import messages.order.CancelOrderDecoder;
+import messages.order.CreateOrderDecoder;
+import messages.order.FillOrderDecoder;
+import messages.order.PartialFillOrderDecoder;
+import messages.order.PendingOrderDecoder;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+
+import java.nio.ByteOrder;
+
+/**
+ * Reads and writes the timestamp every message carries from version 1 of the schemas, without knowing which message
+ * it is. The field sits at a different offset in each message, so it is found from the header's schema and template.
+ *
+ * Messages encoded before version 1 have no timestamp: they are left as they are, and read as {@link #NO_TIMESTAMP},
+ * as their decoders would read them. Holds its own decoder, so it is not thread safe, but it does not allocate.
+ */
+public class MessageTimestamp {
+
+    /**
+     * The null value of the timestamp field, what a message without one reads as.
+     */
+    public static final long NO_TIMESTAMP = BookUpdateDecoder.timestampNullValue();
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+
+    /**
+     * @return true if the message has a timestamp to stamp
+     */
+    public boolean stamp(final MutableDirectBuffer buffer, final int offset, final long timestamp){
+        final int index = indexOf(buffer, offset);
+        if(index < 0){
+            return false;
+        }
+        buffer.putLong(index, timestamp, ByteOrder.LITTLE_ENDIAN);
+        return true;
+    }
+
+    public boolean stamp(final MutableDirectBuffer buffer, final long timestamp){
+        return stamp(buffer, 0, timestamp);
+    }
+
+    public long of(final DirectBuffer buffer, final int offset){
+        final int index = indexOf(buffer, offset);
+        return index < 0 ? NO_TIMESTAMP : buffer.getLong(index, ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public long of(final DirectBuffer buffer){
+        return of(buffer, 0);
+    }
+
+    private int indexOf(final DirectBuffer buffer, final int offset){
+        header.wrap(buffer, offset);
+        final int fieldOffset = fieldOffset(header.schemaId(), header.templateId());
+        if(fieldOffset < 0 || header.version() < BookUpdateDecoder.timestampSinceVersion()){
+            return -1;
+        }
+        return offset + header.encodedLength() + fieldOffset;
+    }
+
+    /**
+     * @return the offset of the timestamp in the message's block, or -1 for a message that has none
+     */
+    public static int fieldOffset(final int schemaId, final int templateId){
+        if(schemaId == BookUpdateDecoder.SCHEMA_ID){
+            if(templateId == BookUpdateDecoder.TEMPLATE_ID){
+                return BookUpdateDecoder.timestampEncodingOffset();
+            }else if(templateId == AskBookUpdateDecoder.TEMPLATE_ID){
+                return AskBookUpdateDecoder.timestampEncodingOffset();
+            }else if(templateId == BidBookUpdateDecoder.TEMPLATE_ID){
+                return BidBookUpdateDecoder.timestampEncodingOffset();
+            }else if(templateId == BookDeltaDecoder.TEMPLATE_ID){
+                return BookDeltaDecoder.timestampEncodingOffset();
+            }
+        }else if(schemaId == CreateOrderDecoder.SCHEMA_ID){
+            if(templateId == CreateOrderDecoder.TEMPLATE_ID){
+                return CreateOrderDecoder.timestampEncodingOffset();
+            }else if(templateId == PendingOrderDecoder.TEMPLATE_ID){
+                return PendingOrderDecoder.timestampEncodingOffset();
+            }else if(templateId == CancelOrderDecoder.TEMPLATE_ID){
+                return CancelOrderDecoder.timestampEncodingOffset();
+            }else if(templateId == AckedOrderDecoder.TEMPLATE_ID){
+                return AckedOrderDecoder.timestampEncodingOffset();
+            }else if(templateId == CancelAckedOrderDecoder.TEMPLATE_ID){
+                return CancelAckedOrderDecoder.timestampEncodingOffset();
+            }else if(templateId == PartialFillOrderDecoder.TEMPLATE_ID){
+                return PartialFillOrderDecoder.timestampEncodingOffset();
+            }else if(templateId == FillOrderDecoder.TEMPLATE_ID){
+                return FillOrderDecoder.timestampEncodingOffset();
+            }
+        }
+        return -1;
+    }
+}
@@ -1,5 +1,6 @@
 package codingblackfemales.sequencer.util;
 
+import messages.marketdata.BookDeltaDecoder;
 import messages.marketdata.BookUpdateDecoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,52 +19,35 @@ public class MessageUtil {
 
     public static String bookUpdateToString(BookUpdateDecoder decoder){
 
+        //groups have to be read in schema order, bids then asks, though the asks are printed on top
+        final StringBuilder bids = new StringBuilder();
+        for(BookUpdateDecoder.BidBookDecoder bid : decoder.bidBook()){
+            bids.append(padLeft(bid.size() + " @ " + bid.price(), 12)).append("\n");
+        }
+
         final StringBuilder builder = new StringBuilder();
         builder.append(padLeft("|----ASK-----", 12) + "|"  + "\n");
 
-        final BookUpdateDecoder.AskBookDecoder askBookDecoder = decoder.askBook();
-
-        int maxLevels = askBookDecoder.count();
-
-        for(int i=0; i<maxLevels; i++) {
-
-            if (askBookDecoder.hasNext()) {
-                BookUpdateDecoder.AskBookDecoder a = askBookDecoder.next();
-                long size = a.size();
-                long price = a.price();
-                builder.append(padLeft(size + " @ " + price, 12));
-            } else {
-                builder.append(padLeft(" - ", 12) + "");
-            }
-
-            builder.append("\n");
+        for(BookUpdateDecoder.AskBookDecoder ask : decoder.askBook()){
+            builder.append(padLeft(ask.size() + " @ " + ask.price(), 12)).append("\n");
         }
 
-        final BookUpdateDecoder.BidBookDecoder bidBookDecoder = decoder.bidBook();
-
-        maxLevels = bidBookDecoder.count();// Math.max(askBookDecoder.count(), bidBookDecoder.count());
-
         builder.append(padLeft("|----BID-----", 12) + "|" + "\n");
+        builder.append(bids);
 
-        for(int i=0; i<maxLevels; i++){
+        return builder.toString();
+    }
 
-            if(bidBookDecoder.hasNext()){
-                BookUpdateDecoder.BidBookDecoder a = bidBookDecoder.next();
-                long size = a.size();
-                long price = a.price();
-                builder.append(padLeft(size + " @ " + price, 12));
-            }else{
-                builder.append(padLeft(" - ", 12) + "");
-            }
+    public static String bookDeltaToString(BookDeltaDecoder decoder){
 
-            builder.append("\n");
+        final StringBuilder builder = new StringBuilder();
+        builder.append(padLeft("|---DELTA----", 12) + "|"  + "\n");
 
+        for(BookDeltaDecoder.LevelsDecoder level : decoder.levels()){
+            builder.append(level.side()).append(" ").append(level.action()).append(" ")
+                    .append(level.size()).append(" @ ").append(level.price()).append("\n");
         }
 
-
-
         return builder.toString();
     }
-
-
 }
@@ -0,0 +1,167 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DefaultSequencerTest {
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+    private UnsafeBuffer createTick(){
+        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1024);
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(byteBuffer);
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+
+        encoder.bidBookCount(2)
+                .next().price(98L).size(100L)
+                .next().price(95L).size(200L);
+
+        encoder.askBookCount(2)
+                .next().price(100L).size(101L)
+                .next().price(110L).size(200L);
+
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+
+        return directBuffer;
+    }
+
+    private static long allocatedBytes(){
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    @Test
+    public void testSequencesIntoPooledBufferWithoutTouchingCallerBuffer() {
+        final TestNetwork network = new TestNetwork();
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final BookUpdateDecoder decoder = new BookUpdateDecoder();
+        final List<Long> sequenceNumbers = new ArrayList<>();
+
+        network.addConsumer(buffer -> {
+            header.wrap(buffer, 0);
+            decoder.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+            sequenceNumbers.add(header.sequencerNumber());
+            assertEquals(123L, decoder.instrumentId());
+            final BookUpdateDecoder.BidBookDecoder bids = decoder.bidBook();
+            assertEquals(2, bids.count());
+            assertEquals(98L, bids.next().price());
+            assertEquals(95L, bids.next().price());
+            assertEquals(110L, decoder.askBook().next().next().price());
+        });
+
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        final UnsafeBuffer tick = createTick();
+
+        sequencer.onCommand(tick);
+        sequencer.onCommand(tick);
+
+        assertEquals(List.of(1L, 2L), sequenceNumbers);
+
+        header.wrap(tick, 0);
+        assertEquals(0L, header.sequencerNumber());
+    }
+
+    @Test
+    public void testStampsTheTimeMessagesAreSequencedAt() {
+        final TestNetwork network = new TestNetwork();
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final BookUpdateDecoder decoder = new BookUpdateDecoder();
+        final List<Long> timestamps = new ArrayList<>();
+
+        network.addConsumer(buffer -> {
+            header.wrap(buffer, 0);
+            timestamps.add(decoder.wrap(buffer, header.encodedLength(), header.blockLength(), header.version()).timestamp());
+        });
+
+        final long[] now = {1_000L};
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        sequencer.setClock(() -> now[0]);
+        final UnsafeBuffer tick = createTick();
+
+        sequencer.onCommand(tick);
+        now[0] = 2_000L;
+        sequencer.onCommand(tick);
+
+        assertEquals(List.of(1_000L, 2_000L), timestamps);
+
+        header.wrap(tick, 0);
+        assertEquals(0L, decoder.wrap(tick, header.encodedLength(), header.blockLength(), header.version()).timestamp());
+    }
+
+    @Test
+    public void testNestedDispatchGetsItsOwnBuffer() {
+        final TestNetwork network = new TestNetwork();
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final UnsafeBuffer tick = createTick();
+        final List<DirectBuffer> seen = new ArrayList<>();
+
+        //start with one buffer so the pool has to grow to reach a depth of 3
+        final DefaultSequencer sequencer = new DefaultSequencer(network, 1, 1024);
+
+        network.addConsumer(buffer -> {
+            seen.add(buffer);
+            final long expectedSequence = seen.size();
+            if(seen.size() < 3){
+                sequencer.onCommand(tick);
+            }
+            //the nested dispatch must not have overwritten the message we are still handling
+            header.wrap(buffer, 0);
+            assertEquals(expectedSequence, header.sequencerNumber());
+        });
+
+        sequencer.onCommand(tick);
+
+        assertEquals(3, seen.size());
+        assertNotSame(seen.get(0), seen.get(1));
+        assertNotSame(seen.get(1), seen.get(2));
+    }
+
+    @Test
+    public void testSteadyStateDoesNotAllocate() {
+        final TestNetwork network = new TestNetwork();
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final long[] lastSequence = new long[1];
+
+        network.addConsumer(buffer -> {
+            header.wrap(buffer, 0);
+            lastSequence[0] = header.sequencerNumber();
+        });
+
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        final UnsafeBuffer tick = createTick();
+
+        //warm up
+        for (int i = 0; i < 10_000; i++) {
+            sequencer.onCommand(tick);
+        }
+
+        final int messages = 1_000_000;
+        allocatedBytes();
+        final long before = allocatedBytes();
+
+        for (int i = 0; i < messages; i++) {
+            sequencer.onCommand(tick);
+        }
+
+        final long allocated = allocatedBytes() - before;
+
+        assertEquals(10_000L + messages, lastSequence[0]);
+        //even one 16 byte object per message would be 16MB, so allow a little for JIT/OSR housekeeping only
+        assertTrue("sequencer allocated " + allocated + " bytes over " + messages + " messages", allocated < 64 * 1024);
+    }
+}
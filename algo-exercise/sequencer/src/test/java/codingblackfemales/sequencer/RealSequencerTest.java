@@ -0,0 +1,164 @@
+package codingblackfemales.sequencer;
+
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import messages.order.CreateOrderDecoder;
+import messages.order.CreateOrderEncoder;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RealSequencerTest {
+
+    private static final int JOURNAL_LENGTH = 64 * 1024;
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+    private File journalFile;
+
+    @Before
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("sequencer", ".journal");
+        //the sequencer creates the file itself when starting a new journal
+        assertTrue(journalFile.delete());
+    }
+
+    @After
+    public void tearDown() {
+        journalFile.delete();
+    }
+
+    private UnsafeBuffer createTick(){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.bidBookCount(1).next().price(98L).size(100L);
+        encoder.askBookCount(1).next().price(100L).size(101L);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+
+        return directBuffer;
+    }
+
+    private UnsafeBuffer createOrder(){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final CreateOrderEncoder createOrder = new CreateOrderEncoder();
+
+        createOrder.wrapAndApplyHeader(directBuffer, 0, new messages.order.MessageHeaderEncoder());
+        createOrder.price(100L);
+        createOrder.quantity(50L);
+        createOrder.side(Side.BUY);
+
+        return directBuffer;
+    }
+
+    private static void recordSequenceAndOrderIds(TestNetwork network, List<Long> sequenceNumbers, List<Long> orderIds){
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final CreateOrderDecoder createOrder = new CreateOrderDecoder();
+
+        network.addConsumer(buffer -> {
+            header.wrap(buffer, 0);
+            sequenceNumbers.add(header.sequencerNumber());
+            if(header.schemaId() == CreateOrderDecoder.SCHEMA_ID && header.templateId() == CreateOrderDecoder.TEMPLATE_ID){
+                createOrder.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                orderIds.add(createOrder.orderId());
+            }
+        });
+    }
+
+    @Test
+    public void testJournalsAndDispatchesInSequenceOrder() {
+        final TestNetwork network = new TestNetwork();
+        final List<Long> sequenceNumbers = new ArrayList<>();
+        final List<Long> orderIds = new ArrayList<>();
+        recordSequenceAndOrderIds(network, sequenceNumbers, orderIds);
+
+        try(RealSequencer sequencer = new RealSequencer(network, journalFile, JOURNAL_LENGTH)){
+            sequencer.onCommand(createTick());
+            sequencer.onCommand(createOrder());
+            sequencer.onCommand(createTick());
+
+            assertEquals(List.of(1L, 2L, 3L), sequenceNumbers);
+            assertEquals(List.of(2L), orderIds);
+            assertEquals(3L, sequencer.getSequenceNumber());
+            assertTrue(sequencer.getJournalPosition() > 0);
+            assertEquals(0, sequencer.getJournalPosition() % RealSequencer.FRAME_ALIGNMENT);
+        }
+    }
+
+    @Test
+    public void testRecoversSequenceAndOrderIdFromExistingJournal() {
+        final TestNetwork network = new TestNetwork();
+        final List<Long> sequenceNumbers = new ArrayList<>();
+        final List<Long> orderIds = new ArrayList<>();
+        recordSequenceAndOrderIds(network, sequenceNumbers, orderIds);
+
+        final int position;
+        try(RealSequencer sequencer = new RealSequencer(network, journalFile, JOURNAL_LENGTH)){
+            sequencer.onCommand(createOrder());
+            sequencer.onCommand(createTick());
+            sequencer.onCommand(createOrder());
+            position = sequencer.getJournalPosition();
+        }
+
+        assertEquals(List.of(2L, 3L), orderIds);
+
+        try(RealSequencer sequencer = new RealSequencer(network, journalFile, JOURNAL_LENGTH)){
+            assertEquals(3L, sequencer.getSequenceNumber());
+            assertEquals(position, sequencer.getJournalPosition());
+
+            sequencer.onCommand(createOrder());
+        }
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), sequenceNumbers);
+        assertEquals(List.of(2L, 3L, 4L), orderIds);
+    }
+
+    @Test
+    public void testNestedDispatchSeesItsOwnMessage() {
+        final TestNetwork network = new TestNetwork();
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final UnsafeBuffer tick = createTick();
+        final List<Long> seen = new ArrayList<>();
+
+        try(RealSequencer sequencer = new RealSequencer(network, journalFile, JOURNAL_LENGTH)){
+            network.addConsumer(buffer -> {
+                header.wrap(buffer, 0);
+                final long sequence = header.sequencerNumber();
+                seen.add(sequence);
+                if(seen.size() < 3){
+                    sequencer.onCommand(tick);
+                }
+                header.wrap(buffer, 0);
+                assertEquals(sequence, header.sequencerNumber());
+            });
+
+            sequencer.onCommand(tick);
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), seen);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFullJournalIsRejected() {
+        try(RealSequencer sequencer = new RealSequencer(new TestNetwork(), journalFile, 256)){
+            final UnsafeBuffer tick = createTick();
+            for (int i = 0; i < 100; i++) {
+                sequencer.onCommand(tick);
+            }
+        }
+    }
+}
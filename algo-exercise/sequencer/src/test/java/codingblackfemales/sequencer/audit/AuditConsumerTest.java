@@ -0,0 +1,130 @@
+package codingblackfemales.sequencer.audit;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.sequencer.replay.JournalReplayer;
+import codingblackfemales.sequencer.replay.Pacing;
+import messages.marketdata.*;
+import messages.order.CreateOrderEncoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AuditConsumerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<byte[]> dispatched = new ArrayList<>();
+
+    private static byte[] bytes(final DirectBuffer buffer, final int length){
+        final byte[] bytes = new byte[length];
+        buffer.getBytes(0, bytes);
+        return bytes;
+    }
+
+    private static UnsafeBuffer tick(final long price){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON).instrumentId(123L);
+        encoder.bidBookCount(2).next().price(price).size(100L).next().price(price - 1).size(200L);
+        encoder.askBookCount(1).next().price(price + 2).size(300L);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS).source(Source.STREAM);
+        return buffer;
+    }
+
+    private static UnsafeBuffer createOrder(final long price){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        new CreateOrderEncoder().wrapAndApplyHeader(buffer, 0, new messages.order.MessageHeaderEncoder())
+                .instrumentId(123L).price(price).quantity(50L).side(Side.BUY);
+        return buffer;
+    }
+
+    private AuditConsumer audit(final File directory, final int messages){
+        final TestNetwork network = new TestNetwork();
+        final AuditConsumer audit = new AuditConsumer(directory, 4096, () -> 1_700_000_000_000_000_000L);
+        final codingblackfemales.sequencer.util.MessageLength length = new codingblackfemales.sequencer.util.MessageLength();
+        network.addConsumer(audit);
+        network.addConsumer(buffer -> dispatched.add(bytes(buffer, length.of(buffer))));
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        for (int i = 0; i < messages; i++) {
+            sequencer.onCommand(i % 5 == 4 ? createOrder(100 + i) : tick(100 + i));
+        }
+        return audit;
+    }
+
+    @Test
+    public void testEveryMessageIsAuditedAsItWasDispatched() {
+        final File directory = folder.getRoot();
+        try(AuditConsumer audit = audit(directory, 200)){
+            assertEquals(200, audit.getMessages());
+            assertTrue("rolled " + audit.getSegmentIndex(), audit.getSegmentIndex() > 1);
+        }
+
+        final List<byte[]> audited = new ArrayList<>();
+        assertEquals(200, new AuditReader(directory).readAll((timestamp, message) -> audited.add(bytes(message, message.capacity()))));
+        for (int i = 0; i < dispatched.size(); i++) {
+            assertArrayEquals("message " + i, dispatched.get(i), audited.get(i));
+        }
+
+        final List<Long> sequences = new ArrayList<>();
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        assertEquals(11, new AuditReader(directory).read(50, 60, (timestamp, message) -> sequences.add(header.wrap(message, 0).sequencerNumber())));
+        assertEquals(50L, (long) sequences.get(0));
+        assertEquals(60L, (long) sequences.get(10));
+    }
+
+    @Test
+    public void testSegmentsReplayAsJournals() {
+        final File directory = folder.getRoot();
+        audit(directory, 200).close();
+
+        long replayed = 0;
+        for (File segment : AuditReader.segments(directory)) {
+            try(JournalReplayer replayer = new JournalReplayer(segment)){
+                replayed += replayer.replay(Pacing.asFastAsPossible(), buffer -> {}).getMessages();
+            }
+        }
+        assertEquals(200, replayed);
+    }
+
+    @Test
+    public void testReopeningCarriesOnInANewSegment() {
+        final File directory = folder.getRoot();
+        final int firstRun;
+        try(AuditConsumer audit = audit(directory, 10)){
+            firstRun = audit.getSegmentIndex();
+        }
+        try(AuditConsumer audit = audit(directory, 10)){
+            assertEquals(firstRun + 1, audit.getSegmentIndex());
+        }
+        //both runs are sequenced from 1
+        assertEquals(2, new AuditReader(directory).read(3, 3, (timestamp, message) -> {}));
+    }
+
+    @Test
+    public void testPrinterFormatsARange() {
+        final File directory = folder.getRoot();
+        audit(directory, 5).close();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(2, new AuditPrinter().print(directory, 4, 5, new PrintStream(out, true)));
+        final String printed = out.toString();
+        assertTrue(printed, printed.startsWith("[4] 2023-11-14T22:13:20Z BookUpdate instrumentId=123 venue=XLON"));
+        assertTrue(printed, printed.contains("|----ASK-----|\n   300 @ 105\n|----BID-----|\n   100 @ 103\n   200 @ 102\n"));
+        assertTrue(printed, printed.contains("[5] 2023-11-14T22:13:20Z [CreateOrder]"));
+        assertTrue(printed, printed.contains("price=104"));
+    }
+}
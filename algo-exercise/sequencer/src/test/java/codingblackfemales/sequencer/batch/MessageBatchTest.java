@@ -0,0 +1,222 @@
+package codingblackfemales.sequencer.batch;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.RealSequencer;
+import codingblackfemales.sequencer.event.MarketDataEventListener;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.sequencer.replay.JournalReplayer;
+import codingblackfemales.sequencer.replay.Pacing;
+import codingblackfemales.sequencer.replay.ReplayResult;
+import codingblackfemales.sequencer.util.MessageLength;
+import codingblackfemales.sequencer.util.MessageTimestamp;
+import messages.marketdata.*;
+import messages.order.CancelOrderEncoder;
+import messages.order.CreateOrderDecoder;
+import messages.order.CreateOrderEncoder;
+import messages.order.Side;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MessageBatchTest {
+
+    private static final long NOW = 1_700_000_000_000_000_000L;
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final CreateOrderDecoder createOrder = new CreateOrderDecoder();
+    private final MessageTimestamp messageTimestamp = new MessageTimestamp();
+
+    private static UnsafeBuffer tick(final long bestBid){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder().wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder());
+        encoder.instrumentId(123L).venue(Venue.XLON).instrumentStatus(InstrumentStatus.CONTINUOUS).source(Source.STREAM);
+        encoder.bidBookCount(1).next().price(bestBid).size(100L);
+        encoder.askBookCount(1).next().price(bestBid + 2).size(101L);
+        return buffer;
+    }
+
+    private static UnsafeBuffer createOrder(){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        new CreateOrderEncoder().wrapAndApplyHeader(buffer, 0, new messages.order.MessageHeaderEncoder())
+                .instrumentId(123L).price(100L).quantity(50L).side(Side.BUY);
+        return buffer;
+    }
+
+    private static UnsafeBuffer cancel(final long orderId){
+        final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        new CancelOrderEncoder().wrapAndApplyHeader(buffer, 0, new messages.order.MessageHeaderEncoder())
+                .orderId(orderId).instrumentId(123L);
+        return buffer;
+    }
+
+    /**
+     * Records a line per message: its sequence number, order id for a CreateOrder, and timestamp.
+     */
+    private void record(final DirectBuffer message, final List<String> into){
+        header.wrap(message, 0);
+        String line = header.sequencerNumber() + " " + header.schemaId() + "/" + header.templateId();
+        if(header.schemaId() == CreateOrderDecoder.SCHEMA_ID && header.templateId() == CreateOrderDecoder.TEMPLATE_ID){
+            line += " order " + createOrder.wrap(message, header.encodedLength(), header.blockLength(), header.version()).orderId();
+        }
+        into.add(line + " @" + messageTimestamp.of(message));
+    }
+
+    private static MessageBatch batchOf(final DirectBuffer... messages){
+        final MessageBatch batch = new MessageBatch(64);
+        for (DirectBuffer message : messages) {
+            batch.add(message);
+        }
+        return batch;
+    }
+
+    @Test
+    public void testBatchIsSequencedInOnePassAndDispatchedOnce() {
+        final TestNetwork network = new TestNetwork();
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        sequencer.setClock(() -> NOW);
+
+        final List<String> unpacked = new ArrayList<>();
+        final List<Long> bids = new ArrayList<>();
+        final int[] dispatches = new int[1];
+
+        network.addConsumer(message -> record(message, unpacked));
+        network.addConsumer(new MarketDataEventListener() {
+            @Override
+            public void onBookUpdate(BookUpdateDecoder bookUpdate) {
+                bids.add(bookUpdate.bidBook().next().price());
+            }
+
+            @Override
+            public void onAskBook(AskBookUpdateDecoder askBook) {
+            }
+
+            @Override
+            public void onBidBook(BidBookUpdateDecoder bidBook) {
+            }
+
+            @Override
+            public void onBookDelta(BookDeltaDecoder bookDelta) {
+            }
+        });
+        network.addConsumer(new codingblackfemales.sequencer.net.Consumer() {
+            @Override
+            public void onMessage(DirectBuffer buffer) {
+                if(new MessageBatchReader().isBatch(buffer)){
+                    dispatches[0]++;
+                    header.wrap(buffer, 0);
+                    assertEquals(5L, header.sequencerNumber());
+                }
+            }
+
+            @Override
+            public boolean isBatchAware() {
+                return true;
+            }
+        });
+
+        sequencer.onCommand(tick(90L));
+
+        final MessageBatch batch = batchOf(tick(98L), createOrder(), createOrder(), cancel(2L));
+        assertEquals(4, batch.count());
+        sequencer.onBatch(batch.buffer());
+
+        final int tick = BookUpdateDecoder.TEMPLATE_ID;
+        final int create = CreateOrderDecoder.TEMPLATE_ID;
+        assertEquals(List.of(
+                "2 1/" + tick + " @" + NOW,
+                "3 2/" + create + " order 2 @" + NOW,
+                "4 2/" + create + " order 3 @" + NOW,
+                "5 2/" + CancelOrderEncoder.TEMPLATE_ID + " @" + NOW), unpacked.subList(1, unpacked.size()));
+        assertEquals(List.of(90L, 98L), bids);
+        assertEquals(1, dispatches[0]);
+    }
+
+    @Test
+    public void testBatchingSequencerHoldsCommandsUntilTheOutermostEnd() {
+        final List<String> sent = new ArrayList<>();
+        final List<Integer> batchSizes = new ArrayList<>();
+        final MessageBatchReader reader = new MessageBatchReader();
+
+        final BatchingSequencer batching = new BatchingSequencer(new codingblackfemales.sequencer.Sequencer() {
+            @Override
+            public void onCommand(DirectBuffer buffer) {
+                sent.add("command");
+            }
+
+            @Override
+            public void onBatch(DirectBuffer batch) {
+                batchSizes.add(reader.forEach(batch, message -> sent.add("batched")));
+            }
+        });
+
+        batching.onCommand(tick(98L));
+        batching.begin();
+        batching.onCommand(tick(98L));
+        batching.begin();
+        batching.onCommand(cancel(1L));
+        batching.end();
+        assertTrue(batching.isBatching());
+        batching.onBatch(batchOf(cancel(2L), cancel(3L)).buffer());
+        batching.end();
+        //an empty batch is not sent
+        batching.begin();
+        batching.end();
+
+        assertEquals(List.of("command", "batched", "batched", "batched", "batched"), sent);
+        assertEquals(List.of(4), batchSizes);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEndWithoutBegin() {
+        new BatchingSequencer(buffer -> {}).end();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchesCannotBeNested() {
+        final MessageBatch batch = batchOf(tick(98L));
+        assertEquals(batch.length(), new MessageLength().of(batch.buffer()));
+        new MessageBatch().add(batch.buffer());
+    }
+
+    @Test
+    public void testBatchIsJournalledWholeRecoveredAndReplayedUnpacked() throws IOException {
+        final File journalFile = File.createTempFile("batch", ".journal");
+        assertTrue(journalFile.delete());
+        try {
+            final List<String> live = new ArrayList<>();
+            final TestNetwork network = new TestNetwork();
+            network.addConsumer(message -> record(message, live));
+            try(RealSequencer sequencer = new RealSequencer(network, journalFile, 64 * 1024, () -> NOW)){
+                sequencer.onCommand(tick(90L));
+                sequencer.onBatch(batchOf(createOrder(), tick(98L), createOrder()).buffer());
+                assertEquals(4L, sequencer.getSequenceNumber());
+            }
+
+            final List<String> recovered = new ArrayList<>();
+            final TestNetwork recoveredNetwork = new TestNetwork();
+            recoveredNetwork.addConsumer(message -> record(message, recovered));
+            try(RealSequencer sequencer = new RealSequencer(recoveredNetwork, journalFile, 64 * 1024, () -> NOW)){
+                assertEquals(4L, sequencer.getSequenceNumber());
+                sequencer.onCommand(createOrder());
+            }
+            assertEquals(List.of("5 2/" + CreateOrderDecoder.TEMPLATE_ID + " order 4 @" + NOW), recovered);
+
+            final List<String> replayed = new ArrayList<>();
+            try(JournalReplayer replayer = new JournalReplayer(journalFile)){
+                final ReplayResult result = replayer.replay(Pacing.asFastAsPossible(), message -> record(message, replayed));
+                assertEquals(5, result.getMessages());
+            }
+            assertEquals(live, replayed.subList(0, live.size()));
+        } finally {
+            journalFile.delete();
+        }
+    }
+}
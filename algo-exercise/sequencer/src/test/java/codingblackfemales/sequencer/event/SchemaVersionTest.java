@@ -0,0 +1,189 @@
+package codingblackfemales.sequencer.event;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import codingblackfemales.sequencer.util.MessageLength;
+import codingblackfemales.sequencer.util.MessageTimestamp;
+import messages.marketdata.*;
+import messages.order.*;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Messages encoded before version 1 of the schemas are still sequenced and decoded, with the fields they predate read
+ * as null.
+ */
+public class SchemaVersionTest {
+
+    private static final long NOW = 1_700_000_000_000_000_000L;
+
+    private final List<String> decoded = new ArrayList<>();
+    private final TestNetwork network = new TestNetwork();
+    private final DefaultSequencer sequencer = new DefaultSequencer(network);
+
+    private final int headerLength = new messages.marketdata.MessageHeaderEncoder().encodedLength();
+
+    @Before
+    public void setUp() {
+        sequencer.setClock(() -> NOW);
+        network.addConsumer(new MarketDataEventListener() {
+            @Override
+            public void onBookUpdate(BookUpdateDecoder bookUpdate) {
+                final BookUpdateDecoder.BidBookDecoder bids = bookUpdate.bidBook();
+                final long bestBid = bids.next().price();
+                //the groups are read in order, so every bid is walked before the asks
+                while(bids.hasNext()){
+                    bids.next();
+                }
+                decoded.add("book " + bookUpdate.instrumentId() + " " + bookUpdate.venue() + " " + bids.count() + " bids at "
+                        + bestBid + " ask at " + bookUpdate.askBook().next().price() + " " + bookUpdate.source()
+                        + " " + bookUpdate.timestamp());
+            }
+
+            @Override
+            public void onAskBook(AskBookUpdateDecoder askBook) {
+            }
+
+            @Override
+            public void onBidBook(BidBookUpdateDecoder bidBook) {
+            }
+
+            @Override
+            public void onBookDelta(BookDeltaDecoder bookDelta) {
+            }
+        });
+        network.addConsumer(new OrderEventListener() {
+            @Override
+            public void onCreateOrder(CreateOrderDecoder create) {
+            }
+
+            @Override
+            public void onCancelOrder(CancelOrderDecoder cancel) {
+                decoded.add("cancel " + cancel.orderId() + " " + cancel.instrumentId() + " " + cancel.timestamp());
+            }
+
+            @Override
+            public void onAckedOrder(AckedOrderDecoder acked) {
+            }
+
+            @Override
+            public void onCancelAckedOrder(CancelAckedOrderDecoder cancelAcked) {
+            }
+
+            @Override
+            public void onPendingOrder(PendingOrderDecoder pending) {
+            }
+
+            @Override
+            public void onPartialFill(PartialFillOrderDecoder partialFill) {
+            }
+
+            @Override
+            public void onFill(FillOrderDecoder fill) {
+                decoded.add("fill " + fill.orderId() + " " + fill.quantity() + "@" + fill.price() + " " + fill.instrumentId()
+                        + " " + fill.timestamp());
+            }
+        });
+    }
+
+    private static UnsafeBuffer buffer(){
+        return new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+    }
+
+    private static UnsafeBuffer tick(){
+        final UnsafeBuffer buffer = buffer();
+        final BookUpdateEncoder encoder = new BookUpdateEncoder().wrapAndApplyHeader(buffer, 0, new messages.marketdata.MessageHeaderEncoder());
+        encoder.instrumentId(123L).venue(Venue.XLON).instrumentStatus(InstrumentStatus.CONTINUOUS).source(Source.STREAM);
+        encoder.bidBookCount(2).next().price(98L).size(100L).next().price(95L).size(200L);
+        encoder.askBookCount(1).next().price(100L).size(101L);
+        return buffer;
+    }
+
+    /**
+     * The same tick as it was encoded at version 0: the block stops before the timestamp, and the groups follow it.
+     */
+    private UnsafeBuffer versionZeroTick(){
+        final UnsafeBuffer current = tick();
+        final int blockLength = BookUpdateEncoder.timestampEncodingOffset();
+        final int groupsLength = new MessageLength().of(current) - headerLength - BookUpdateEncoder.BLOCK_LENGTH;
+
+        final UnsafeBuffer buffer = buffer();
+        buffer.putBytes(0, current, 0, headerLength + blockLength);
+        buffer.putBytes(headerLength + blockLength, current, headerLength + BookUpdateEncoder.BLOCK_LENGTH, groupsLength);
+        new messages.marketdata.MessageHeaderEncoder().wrap(buffer, 0).blockLength(blockLength).version(0);
+        return buffer;
+    }
+
+    private static UnsafeBuffer cancel(final long orderId, final long instrumentId){
+        final UnsafeBuffer buffer = buffer();
+        new CancelOrderEncoder().wrapAndApplyHeader(buffer, 0, new messages.order.MessageHeaderEncoder())
+                .orderId(orderId).instrumentId(instrumentId);
+        return buffer;
+    }
+
+    private static UnsafeBuffer versionZeroFill(final long orderId, final long quantity, final long price){
+        final UnsafeBuffer buffer = buffer();
+        final messages.order.MessageHeaderEncoder header = new messages.order.MessageHeaderEncoder();
+        new FillOrderEncoder().wrapAndApplyHeader(buffer, 0, header).orderId(orderId).quantity(quantity).price(price);
+        header.blockLength(FillOrderEncoder.instrumentIdEncodingOffset()).version(0);
+        return buffer;
+    }
+
+    private static UnsafeBuffer versionZeroCancel(final long orderId){
+        final UnsafeBuffer buffer = buffer();
+        final messages.order.MessageHeaderEncoder header = new messages.order.MessageHeaderEncoder();
+        new CancelOrderEncoder().wrapAndApplyHeader(buffer, 0, header).orderId(orderId);
+        header.blockLength(CancelOrderEncoder.instrumentIdEncodingOffset()).version(0);
+        return buffer;
+    }
+
+    @Test
+    public void testVersionZeroMessagesDecodeWithoutTheNewFields() {
+        sequencer.onCommand(versionZeroTick());
+        sequencer.onCommand(versionZeroFill(7L, 50L, 99L));
+        sequencer.onCommand(versionZeroCancel(8L));
+
+        final long none = MessageTimestamp.NO_TIMESTAMP;
+        assertEquals(List.of(
+                "book 123 XLON 2 bids at 98 ask at 100 STREAM " + none,
+                "fill 7 50@99 " + FillOrderDecoder.instrumentIdNullValue() + " " + none,
+                "cancel 8 " + CancelOrderDecoder.instrumentIdNullValue() + " " + none), decoded);
+    }
+
+    @Test
+    public void testCurrentMessagesAreStampedAndCarryTheirInstrument() {
+        sequencer.onCommand(tick());
+        sequencer.onCommand(cancel(8L, 123L));
+
+        assertEquals(List.of(
+                "book 123 XLON 2 bids at 98 ask at 100 STREAM " + NOW,
+                "cancel 8 123 " + NOW), decoded);
+    }
+
+    @Test
+    public void testTimestampIsFoundWithoutKnowingTheMessage() {
+        final MessageTimestamp timestamp = new MessageTimestamp();
+        final UnsafeBuffer tick = tick();
+        final UnsafeBuffer cancel = cancel(8L, 123L);
+
+        assertTrue(timestamp.stamp(tick, 42L));
+        assertTrue(timestamp.stamp(cancel, 43L));
+        assertEquals(42L, timestamp.of(tick));
+        assertEquals(43L, timestamp.of(cancel));
+        assertEquals(8L, new CancelOrderDecoder().wrap(cancel, headerLength, CancelOrderDecoder.BLOCK_LENGTH, CancelOrderDecoder.SCHEMA_VERSION).orderId());
+
+        final UnsafeBuffer old = versionZeroTick();
+        final UnsafeBuffer before = buffer();
+        before.putBytes(0, old, 0, before.capacity());
+        assertFalse(timestamp.stamp(old, 42L));
+        assertEquals(MessageTimestamp.NO_TIMESTAMP, timestamp.of(old));
+        assertEquals(0, before.compareTo(old));
+    }
+}
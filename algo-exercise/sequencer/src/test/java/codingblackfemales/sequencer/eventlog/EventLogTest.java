@@ -0,0 +1,150 @@
+package codingblackfemales.sequencer.eventlog;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.consumer.EventLoggingConsumer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import messages.order.CreateOrderEncoder;
+import messages.order.Side;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class EventLogTest {
+
+    private static class Event {
+        final int typeCode;
+        final long sequence, id, ref, price, quantity;
+        final int detail;
+
+        Event(int typeCode, long sequence, long id, long ref, long price, long quantity, int detail) {
+            this.typeCode = typeCode;
+            this.sequence = sequence;
+            this.id = id;
+            this.ref = ref;
+            this.price = price;
+            this.quantity = quantity;
+            this.detail = detail;
+        }
+    }
+
+    private static List<Event> drain(final EventLog eventLog){
+        final List<Event> events = new ArrayList<>();
+        while(eventLog.read((typeCode, timestamp, sequence, id, ref, price, quantity, detail) ->
+                events.add(new Event(typeCode, sequence, id, ref, price, quantity, detail)), 100) > 0){
+            //keep reading
+        }
+        return events;
+    }
+
+    @Test
+    public void testEventsAreReadBackAsWritten() {
+        final AtomicLong now = new AtomicLong(1000);
+        final EventLog eventLog = new EventLog(1024, now::get);
+
+        eventLog.log(EventType.BOOK_ORDER_ADDED, 7L, 0, 100L, 250L, Side.BUY.value());
+        eventLog.log(EventType.ACTION_CANCEL, 7L);
+
+        final List<Event> events = drain(eventLog);
+        assertEquals(2, events.size());
+        assertEquals(EventType.BOOK_ORDER_ADDED.code(), events.get(0).typeCode);
+        assertEquals(0, events.get(0).sequence);
+        assertEquals(7L, events.get(0).id);
+        assertEquals(100L, events.get(0).price);
+        assertEquals(250L, events.get(0).quantity);
+        assertEquals('B', events.get(0).detail);
+        assertEquals(EventType.ACTION_CANCEL, EventType.of(events.get(1).typeCode));
+        assertEquals(1, events.get(1).sequence);
+        assertEquals(0, eventLog.getPendingBytes());
+
+        final StringBuilder line = EventLogRenderer.render(new StringBuilder(), events.get(0).typeCode, 1000, 0, 7L, 0, 100L, 250L, 'B');
+        assertEquals("[0] 1000 BOOK_ORDER_ADDED id=7 250@100 detail=66", line.toString());
+    }
+
+    @Test
+    public void testFullRingDropsEventsAndLeavesAGap() {
+        final EventLog eventLog = new EventLog(1024, System::nanoTime);
+        //each record takes 64 bytes of the ring with its header
+        for (int i = 0; i < 20; i++) {
+            eventLog.log(EventType.ACTION_CANCEL, i);
+        }
+        assertEquals(20, eventLog.getEventCount());
+        assertEquals(4, eventLog.getDroppedCount());
+        assertEquals(16, drain(eventLog).size());
+
+        eventLog.log(EventType.ACTION_CANCEL, 20);
+        final List<Event> events = drain(eventLog);
+        assertEquals(1, events.size());
+        assertEquals(20, events.get(0).sequence);
+    }
+
+    @Test
+    public void testConsumerLogsEverySequencedMessage() {
+        final EventLog eventLog = new EventLog();
+        final TestNetwork network = new TestNetwork();
+        network.addConsumer(new EventLoggingConsumer(eventLog));
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+
+        final UnsafeBuffer tick = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder book = new BookUpdateEncoder().wrapAndApplyHeader(tick, 0, new MessageHeaderEncoder());
+        book.venue(Venue.XLON).instrumentId(123L);
+        book.bidBookCount(1).next().price(98L).size(100L);
+        book.askBookCount(1).next().price(100L).size(101L);
+        book.instrumentStatus(InstrumentStatus.CONTINUOUS).source(Source.STREAM);
+        sequencer.onCommand(tick);
+
+        final UnsafeBuffer order = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        new CreateOrderEncoder().wrapAndApplyHeader(order, 0, new messages.order.MessageHeaderEncoder())
+                .instrumentId(123L).price(98L).quantity(50L).side(Side.BUY);
+        sequencer.onCommand(order);
+
+        final List<Event> events = drain(eventLog);
+        assertEquals(2, events.size());
+        assertEquals(EventType.MESSAGE.code(), events.get(0).typeCode);
+        assertEquals(123L, events.get(0).id);
+        assertEquals(1L, events.get(0).ref);
+        assertEquals(BookUpdateDecoder.SCHEMA_ID * 1000 + BookUpdateDecoder.TEMPLATE_ID, events.get(0).detail);
+
+        //the sequencer gave the order its id
+        assertEquals(2L, events.get(1).id);
+        assertEquals(2L, events.get(1).ref);
+        assertEquals(98L, events.get(1).price);
+        assertEquals(50L, events.get(1).quantity);
+        assertEquals(CreateOrderEncoder.SCHEMA_ID * 1000 + CreateOrderEncoder.TEMPLATE_ID, events.get(1).detail);
+    }
+
+    @Test
+    public void testRendererDrainsEventsFromManyThreads() throws InterruptedException {
+        final EventLog eventLog = new EventLog(64 * 1024, System::nanoTime);
+        final EventLogRenderer renderer = new EventLogRenderer(eventLog);
+        renderer.start();
+
+        final int threads = 4;
+        final int eventsPerThread = 2_500;
+        final List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final long id = t;
+            final Thread producer = new Thread(() -> {
+                for (int i = 0; i < eventsPerThread; i++) {
+                    eventLog.log(EventType.BOOK_FILL, id, i, 100L, 1L, 0);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        renderer.close();
+
+        assertEquals(threads * eventsPerThread, eventLog.getEventCount());
+        assertEquals(eventLog.getEventCount(), renderer.getRendered() + eventLog.getDroppedCount());
+        assertEquals(0, eventLog.getPendingBytes());
+    }
+}
@@ -0,0 +1,77 @@
+package codingblackfemales.sequencer.latency;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 100; i++) {
+            histogram.recordValue(i);
+        }
+
+        assertEquals(100, histogram.getTotalCount());
+        assertEquals(1, histogram.getMinValue());
+        assertEquals(100, histogram.getMaxValue());
+        assertEquals(50.5, histogram.getMean(), 0.0001);
+        assertEquals(50, histogram.getValueAtPercentile(50.0));
+        assertEquals(99, histogram.getValueAtPercentile(99.0));
+        assertEquals(100, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testLargeValuesAreWithinPrecision() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        //1us to 10ms
+        for (long value = 1_000; value <= 10_000_000; value += 1_000) {
+            histogram.recordValue(value);
+        }
+
+        //8 precision bits is 128 buckets per power of two, so within 1/128 of the exact percentile
+        assertEquals(5_000_000, histogram.getValueAtPercentile(50.0), 5_000_000 / 128.0);
+        assertEquals(9_900_000, histogram.getValueAtPercentile(99.0), 9_900_000 / 128.0);
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testBucketsAreContiguous() {
+        final LatencyHistogram histogram = new LatencyHistogram(1_000_000, 4);
+
+        long expectedLowest = 0;
+        for (int index = 0; index <= histogram.indexOf(1_000_000); index++) {
+            assertEquals(expectedLowest, histogram.lowestEquivalentValue(index));
+            assertEquals(index, histogram.indexOf(histogram.lowestEquivalentValue(index)));
+            assertEquals(index, histogram.indexOf(histogram.highestEquivalentValue(index)));
+            expectedLowest = histogram.highestEquivalentValue(index) + 1;
+        }
+    }
+
+    @Test
+    public void testValuesOutOfRangeAreClamped() {
+        final LatencyHistogram histogram = new LatencyHistogram(1_000, 4);
+
+        histogram.recordValue(-5);
+        histogram.recordValue(5_000);
+
+        assertEquals(0, histogram.getMinValue());
+        assertEquals(1_000, histogram.getMaxValue());
+        assertEquals(1_000, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testReset() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(1234);
+
+        histogram.reset();
+
+        assertEquals(0, histogram.getTotalCount());
+        assertEquals(0, histogram.getMaxValue());
+        assertEquals(0, histogram.getValueAtPercentile(99.0));
+    }
+}
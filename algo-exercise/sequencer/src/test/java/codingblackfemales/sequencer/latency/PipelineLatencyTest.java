@@ -0,0 +1,127 @@
+package codingblackfemales.sequencer.latency;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.net.Consumer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class PipelineLatencyTest {
+
+    private static class ManualClock implements NanoClock {
+        long nanos = 1_000;
+
+        @Override
+        public long nanoTime() {
+            return nanos;
+        }
+    }
+
+    private UnsafeBuffer createTick(){
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.bidBookCount(1).next().price(98L).size(100L);
+        encoder.askBookCount(1).next().price(100L).size(101L);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+
+        return directBuffer;
+    }
+
+    private static long allocatedBytes(){
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    @Test
+    public void testRecordsEachStageAndTickToOrder() {
+        final ManualClock clock = new ManualClock();
+        final PipelineLatency latency = new PipelineLatency(clock);
+        final TestNetwork network = new TestNetwork();
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        final UnsafeBuffer tick = createTick();
+        final UnsafeBuffer order = createTick();
+
+        final boolean[] ordered = new boolean[1];
+
+        //the first consumer takes 10us, the second sends an order 5us into the tick and takes 2us over the order
+        final Consumer first = buffer -> clock.nanos += 10_000;
+        final Consumer second = buffer -> {
+            if(!ordered[0]){
+                ordered[0] = true;
+                clock.nanos += 5_000;
+                latency.onOutbound(clock.nanoTime());
+                sequencer.onCommand(order);
+            }else{
+                clock.nanos += 2_000;
+            }
+        };
+        network.addConsumer(first);
+        network.addConsumer(second);
+
+        sequencer.setLatency(latency);
+        network.setLatency(latency);
+
+        sequencer.onCommand(tick);
+
+        final LatencyHistogram tickToOrder = latency.histogram(PipelineLatency.TICK_TO_ORDER);
+        assertEquals(1, tickToOrder.getTotalCount());
+        assertEquals(15_000, tickToOrder.getMaxValue());
+
+        assertEquals(2, latency.histogram(PipelineLatency.SEQUENCER).getTotalCount());
+
+        final LatencyHistogram firstLatency = latency.histogram(PipelineLatency.consumerStage(0, first));
+        assertEquals(2, firstLatency.getTotalCount());
+        assertEquals(10_000, firstLatency.getMaxValue());
+
+        //inclusive of the order it sent, which went through both consumers
+        final LatencyHistogram secondLatency = latency.histogram(PipelineLatency.consumerStage(1, second));
+        assertEquals(2, secondLatency.getTotalCount());
+        assertEquals(2_000, secondLatency.getMinValue());
+        assertEquals(17_000, secondLatency.getMaxValue());
+
+        final String percentiles = latency.percentiles();
+        assertTrue(percentiles, percentiles.contains(PipelineLatency.TICK_TO_ORDER + ": count=1"));
+        assertTrue(percentiles, percentiles.contains("consumer[0]"));
+        assertTrue(percentiles, percentiles.contains("consumer[1]"));
+    }
+
+    @Test
+    public void testRecordingDoesNotAllocate() {
+        final PipelineLatency latency = new PipelineLatency();
+        final TestNetwork network = new TestNetwork();
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+        final UnsafeBuffer tick = createTick();
+        final long[] seen = new long[1];
+
+        network.addConsumer(buffer -> seen[0]++);
+        network.addConsumer(buffer -> latency.onOutbound(latency.nanoTime()));
+        sequencer.setLatency(latency);
+        network.setLatency(latency);
+
+        for (int i = 0; i < 10_000; i++) {
+            sequencer.onCommand(tick);
+        }
+
+        final long before = allocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            sequencer.onCommand(tick);
+        }
+        final long allocated = allocatedBytes() - before;
+
+        assertEquals(110_000, seen[0]);
+        assertEquals(110_000, latency.histogram(PipelineLatency.TICK_TO_ORDER).getTotalCount());
+        assertTrue("allocated " + allocated + " bytes", allocated < 64 * 1024);
+    }
+}
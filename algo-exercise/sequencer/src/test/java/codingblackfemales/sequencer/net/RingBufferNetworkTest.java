@@ -0,0 +1,152 @@
+package codingblackfemales.sequencer.net;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import messages.marketdata.*;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RingBufferNetworkTest {
+
+    private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+    private final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+    private UnsafeBuffer createTick(){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, headerEncoder);
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(123L);
+        encoder.bidBookCount(1).next().price(98L).size(100L);
+        encoder.askBookCount(1).next().price(100L).size(101L);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+
+        return directBuffer;
+    }
+
+    private static class SequenceCheckingConsumer implements Consumer {
+        private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        private final BookUpdateDecoder book = new BookUpdateDecoder();
+        private final CountDownLatch latch;
+        private volatile long lastSequence = 0;
+        private volatile boolean outOfOrder = false;
+        private volatile boolean corrupt = false;
+
+        SequenceCheckingConsumer(int expected) {
+            this.latch = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onMessage(org.agrona.DirectBuffer buffer) {
+            header.wrap(buffer, 0);
+            final long sequence = header.sequencerNumber();
+            if(sequence != lastSequence + 1){
+                outOfOrder = true;
+            }
+            book.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+            if(book.instrumentId() != 123L || book.bidBook().next().price() != 98L || book.askBook().next().price() != 100L){
+                corrupt = true;
+            }
+            lastSequence = sequence;
+            latch.countDown();
+        }
+    }
+
+    private static void awaitDelivered(RingBufferNetwork.Subscription subscription, long expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 30_000;
+        while(subscription.getDelivered() < expected && System.currentTimeMillis() < deadline){
+            Thread.sleep(1);
+        }
+        assertEquals(expected, subscription.getDelivered());
+    }
+
+    @Test
+    public void testAsyncConsumersSeeEveryMessageInSequenceOrder() throws Exception {
+        final int messages = 100_000;
+
+        try(RingBufferNetwork network = new RingBufferNetwork(64 * 1024, YieldingIdleStrategy::new, new BusySpinIdleStrategy())){
+            final SequenceCheckingConsumer fast = new SequenceCheckingConsumer(messages);
+            final SequenceCheckingConsumer slow = new SequenceCheckingConsumer(messages){
+                @Override
+                public void onMessage(org.agrona.DirectBuffer buffer) {
+                    super.onMessage(buffer);
+                    Thread.onSpinWait();
+                }
+            };
+            final long[] syncCount = new long[1];
+
+            network.addAsyncConsumer(fast);
+            final RingBufferNetwork.Subscription slowSubscription = network.addAsyncConsumer(slow);
+            network.addConsumer(buffer -> syncCount[0]++);
+            network.start();
+
+            final DefaultSequencer sequencer = new DefaultSequencer(network);
+            final UnsafeBuffer tick = createTick();
+
+            for (int i = 0; i < messages; i++) {
+                sequencer.onCommand(tick);
+            }
+
+            assertEquals(messages, syncCount[0]);
+            assertTrue(fast.latch.await(30, TimeUnit.SECONDS));
+            assertTrue(slow.latch.await(30, TimeUnit.SECONDS));
+
+            assertFalse(fast.outOfOrder);
+            assertFalse(slow.outOfOrder);
+            assertFalse(fast.corrupt);
+            assertFalse(slow.corrupt);
+            assertEquals(messages, fast.lastSequence);
+            awaitDelivered(slowSubscription, messages);
+        }
+    }
+
+    @Test
+    public void testFullRingIsReportedAsBackPressure() throws Exception {
+        final int messages = 1_000;
+        final CountDownLatch release = new CountDownLatch(1);
+        final SequenceCheckingConsumer consumer = new SequenceCheckingConsumer(messages){
+            @Override
+            public void onMessage(org.agrona.DirectBuffer buffer) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onMessage(buffer);
+            }
+        };
+
+        try(RingBufferNetwork network = new RingBufferNetwork(4 * 1024, YieldingIdleStrategy::new, new YieldingIdleStrategy())){
+            final RingBufferNetwork.Subscription subscription = network.addAsyncConsumer(consumer);
+            network.start();
+
+            final DefaultSequencer sequencer = new DefaultSequencer(network);
+            final UnsafeBuffer tick = createTick();
+
+            final Thread releaser = new Thread(() -> {
+                while(subscription.getBackPressured() == 0){
+                    Thread.yield();
+                }
+                release.countDown();
+            });
+            releaser.start();
+
+            for (int i = 0; i < messages; i++) {
+                sequencer.onCommand(tick);
+            }
+
+            assertTrue(consumer.latch.await(30, TimeUnit.SECONDS));
+            assertTrue(subscription.getBackPressured() > 0);
+            assertFalse(consumer.outOfOrder);
+            awaitDelivered(subscription, messages);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package codingblackfemales.sequencer.replay;
+
+import codingblackfemales.sequencer.DefaultSequencer;
+import codingblackfemales.sequencer.RealSequencer;
+import codingblackfemales.sequencer.net.TestNetwork;
+import messages.marketdata.*;
+import messages.order.CreateOrderEncoder;
+import messages.order.Side;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class JournalReplayerTest {
+
+    private static final long TICK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * A clock that only moves when the replayer idles, so pacing can be checked without waiting on wall time.
+     */
+    private static class ManualClock implements NanoClock, IdleStrategy {
+        static final long START_NANOS = 1_000;
+        static final long IDLE_STEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+        long nanos = START_NANOS;
+        long idles = 0;
+
+        @Override
+        public long nanoTime() {
+            return nanos;
+        }
+
+        @Override
+        public void idle(int workCount) {
+            if(workCount <= 0){
+                idle();
+            }
+        }
+
+        @Override
+        public void idle() {
+            nanos += IDLE_STEP_NANOS;
+            idles++;
+        }
+
+        @Override
+        public void reset() {}
+    }
+
+    private File journalFile;
+    private ManualClock clock;
+
+    @Before
+    public void setUp() throws IOException {
+        journalFile = File.createTempFile("replay", ".journal");
+        assertTrue(journalFile.delete());
+        clock = new ManualClock();
+        record();
+    }
+
+    @After
+    public void tearDown() {
+        journalFile.delete();
+    }
+
+    private UnsafeBuffer createTick(long instrumentId){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final BookUpdateEncoder encoder = new BookUpdateEncoder();
+
+        encoder.wrapAndApplyHeader(directBuffer, 0, new MessageHeaderEncoder());
+        encoder.venue(Venue.XLON);
+        encoder.instrumentId(instrumentId);
+        encoder.bidBookCount(1).next().price(98L).size(100L);
+        encoder.askBookCount(1).next().price(100L).size(101L);
+        encoder.instrumentStatus(InstrumentStatus.CONTINUOUS);
+        encoder.source(Source.STREAM);
+
+        return directBuffer;
+    }
+
+    private UnsafeBuffer createOrder(){
+        final UnsafeBuffer directBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(1024));
+        final CreateOrderEncoder createOrder = new CreateOrderEncoder();
+
+        createOrder.wrapAndApplyHeader(directBuffer, 0, new messages.order.MessageHeaderEncoder());
+        createOrder.price(100L);
+        createOrder.quantity(50L);
+        createOrder.side(Side.BUY);
+
+        return directBuffer;
+    }
+
+    /**
+     * Records ticks for instruments 1, 2 and 3, each followed by an order, one tick interval apart.
+     */
+    private void record(){
+        final long[] now = {0};
+        try(RealSequencer sequencer = new RealSequencer(new TestNetwork(), journalFile, 64 * 1024, () -> now[0])){
+            for (int i = 1; i <= 3; i++) {
+                sequencer.onCommand(createTick(i));
+                sequencer.onCommand(createOrder());
+                now[0] += TICK_INTERVAL_NANOS;
+            }
+        }
+    }
+
+    private static List<Long> instrumentIds(TestNetwork network){
+        final List<Long> instrumentIds = new ArrayList<>();
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        final BookUpdateDecoder book = new BookUpdateDecoder();
+
+        network.addConsumer(buffer -> {
+            header.wrap(buffer, 0);
+            if(header.schemaId() == BookUpdateDecoder.SCHEMA_ID && header.templateId() == BookUpdateDecoder.TEMPLATE_ID){
+                book.wrap(buffer, header.encodedLength(), header.blockLength(), header.version());
+                instrumentIds.add(book.instrumentId());
+            }
+        });
+        return instrumentIds;
+    }
+
+    @Test
+    public void testReplaysEveryMessageAsFastAsPossible() {
+        final TestNetwork network = new TestNetwork();
+        final List<Long> instrumentIds = instrumentIds(network);
+        final List<Long> sequenceNumbers = new ArrayList<>();
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        network.addConsumer(buffer -> sequenceNumbers.add(header.wrap(buffer, 0).sequencerNumber()));
+
+        try(JournalReplayer replayer = new JournalReplayer(journalFile, clock, clock)){
+            final ReplayResult result = replayer.replay(Pacing.asFastAsPossible(), network::dispatch);
+
+            assertEquals(6, result.getMessages());
+            //nothing was held back for its recorded time
+            assertEquals(0, clock.idles);
+            assertEquals(0, result.getElapsedNanos());
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), instrumentIds);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), sequenceNumbers);
+    }
+
+    @Test
+    public void testReplaysMarketDataIntoANewSequencer() {
+        final TestNetwork network = new TestNetwork();
+        final List<Long> instrumentIds = instrumentIds(network);
+        final List<Long> sequenceNumbers = new ArrayList<>();
+        final MessageHeaderDecoder header = new MessageHeaderDecoder();
+        network.addConsumer(buffer -> sequenceNumbers.add(header.wrap(buffer, 0).sequencerNumber()));
+
+        final DefaultSequencer sequencer = new DefaultSequencer(network);
+
+        try(JournalReplayer replayer = new JournalReplayer(journalFile)){
+            final ReplayResult result = replayer.replay(Pacing.asFastAsPossible(), JournalReplayer.MessageFilter.marketData(), sequencer::onCommand);
+            assertEquals(3, result.getMessages());
+        }
+
+        assertEquals(List.of(1L, 2L, 3L), instrumentIds);
+        //re-sequenced by the new sequencer, not the numbers in the journal
+        assertEquals(List.of(1L, 2L, 3L), sequenceNumbers);
+    }
+
+    /**
+     * @return the clock time each market data message was handed on at
+     */
+    private List<Long> replayMarketData(final Pacing pacing){
+        final List<Long> dispatchedAt = new ArrayList<>();
+
+        try(JournalReplayer replayer = new JournalReplayer(journalFile, clock, clock)){
+            final ReplayResult result = replayer.replay(pacing, JournalReplayer.MessageFilter.marketData(),
+                    buffer -> dispatchedAt.add(clock.nanoTime()));
+
+            assertEquals(3, result.getMessages());
+            assertEquals(dispatchedAt.get(2) - ManualClock.START_NANOS, result.getElapsedNanos());
+        }
+        return dispatchedAt;
+    }
+
+    @Test
+    public void testRealTimeReplayKeepsRecordedGaps() {
+        final long start = ManualClock.START_NANOS;
+
+        assertEquals(List.of(start, start + TICK_INTERVAL_NANOS, start + 2 * TICK_INTERVAL_NANOS),
+                replayMarketData(Pacing.realTime()));
+    }
+
+    @Test
+    public void testTimesSpeedReplayShrinksRecordedGaps() {
+        final long start = ManualClock.START_NANOS;
+
+        //each message is due a tenth of its recorded delay after the replay starts
+        assertEquals(List.of(start, start + TICK_INTERVAL_NANOS / 10, start + 2 * TICK_INTERVAL_NANOS / 10),
+                replayMarketData(Pacing.timesSpeed(10)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonPositiveSpeed() {
+        Pacing.timesSpeed(0);
+    }
+}
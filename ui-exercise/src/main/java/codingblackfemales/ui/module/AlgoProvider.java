@@ -9,6 +9,7 @@ import codingblackfemales.sotw.marketdata.AskLevel;
 import codingblackfemales.sotw.marketdata.BidLevel;
 import messages.marketdata.AskBookUpdateDecoder;
 import messages.marketdata.BidBookUpdateDecoder;
+import messages.marketdata.BookDeltaDecoder;
 import messages.marketdata.BookUpdateDecoder;
 import org.agrona.DirectBuffer;
 import org.finos.toolbox.time.Clock;
@@ -267,6 +268,11 @@ public class AlgoProvider extends MarketDataEventListener implements Provider {
         debugBidOfferCross();
     }
 
+    @Override
+    public void onBookDelta(final BookDeltaDecoder bookDelta) {
+        //the ui is only sent full updates
+    }
+
     @Override
     public void doStart() {
         network.addConsumer(this);